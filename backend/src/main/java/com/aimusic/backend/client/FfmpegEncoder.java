@@ -0,0 +1,270 @@
+package com.aimusic.backend.client;
+
+import com.aimusic.backend.config.TranscodingConfig;
+import lombok.RequiredArgsConstructor;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.stereotype.Component;
+
+import java.io.FilterInputStream;
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.InterruptedIOException;
+import java.io.OutputStream;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.List;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * ffmpeg编码器
+ * 调用本地ffmpeg进程转码，编码结果从标准输出流式读取，不生成中间文件；
+ * 进程退出码非0时，读取到结尾会抛出异常，调用方写入存储的内容随之丢弃。
+ * 分片输出（HLS/DASH）由ffmpeg直接写入指定目录
+ */
+@Slf4j
+@Component
+@RequiredArgsConstructor
+public class FfmpegEncoder {
+
+    private static final int ERROR_TAIL_LENGTH = 1000;
+
+    private final TranscodingConfig transcodingConfig;
+
+    /**
+     * 处理编码输出
+     *
+     * @param <T> 处理结果类型
+     */
+    @FunctionalInterface
+    public interface OutputHandler<T> {
+
+        /**
+         * 读取编码输出
+         *
+         * @param encoded 编码后的音频流
+         * @return 处理结果
+         * @throws IOException 读取失败或编码失败
+         */
+        T handle(InputStream encoded) throws IOException;
+    }
+
+    /**
+     * 转码本地文件，ffmpeg直接读取文件
+     *
+     * @param source 源文件
+     * @param rendition 目标版本
+     * @param handler 编码输出处理
+     * @return 处理结果
+     * @throws IOException 编码失败
+     */
+    public <T> T encode(Path source, TranscodingConfig.Rendition rendition,
+                        OutputHandler<T> handler) throws IOException {
+        return run(command(source.toAbsolutePath().toString(), rendition), null, handler);
+    }
+
+    /**
+     * 转码输入流（如对象存储中的文件），通过标准输入写给ffmpeg
+     *
+     * @param source 源音频流
+     * @param rendition 目标版本
+     * @param handler 编码输出处理
+     * @return 处理结果
+     * @throws IOException 编码失败
+     */
+    public <T> T encode(InputStream source, TranscodingConfig.Rendition rendition,
+                        OutputHandler<T> handler) throws IOException {
+        return run(command("pipe:0", rendition), source, handler);
+    }
+
+    /**
+     * 将本地文件切分为固定时长的fMP4分片，同时生成DASH清单和HLS播放列表
+     *
+     * @param source 源文件
+     * @param manifest DASH清单路径，分片和HLS播放列表写入同一目录
+     * @param segmentDuration 分片时长（秒）
+     * @param bitrate AAC码率（kbps）
+     * @throws IOException 分片失败或超时
+     */
+    public void segment(Path source, Path manifest, int segmentDuration, int bitrate) throws IOException {
+        runToDirectory(segmentCommand(source.toAbsolutePath().toString(), manifest, segmentDuration, bitrate), null);
+    }
+
+    /**
+     * 将输入流切分为固定时长的fMP4分片，同时生成DASH清单和HLS播放列表
+     *
+     * @param source 源音频流
+     * @param manifest DASH清单路径，分片和HLS播放列表写入同一目录
+     * @param segmentDuration 分片时长（秒）
+     * @param bitrate AAC码率（kbps）
+     * @throws IOException 分片失败或超时
+     */
+    public void segment(InputStream source, Path manifest, int segmentDuration, int bitrate) throws IOException {
+        runToDirectory(segmentCommand("pipe:0", manifest, segmentDuration, bitrate), source);
+    }
+
+    private List<String> command(String input, TranscodingConfig.Rendition rendition) {
+        return List.of(transcodingConfig.getFfmpegPath(),
+                "-hide_banner", "-loglevel", "error",
+                "-i", input,
+                "-vn", "-map_metadata", "-1",
+                "-c:a", rendition.getCodec().getEncoder(),
+                "-b:a", rendition.getBitrate() + "k",
+                "-f", rendition.getCodec().getContainer(),
+                "pipe:1");
+    }
+
+    private List<String> segmentCommand(String input, Path manifest, int segmentDuration, int bitrate) {
+        return List.of(transcodingConfig.getFfmpegPath(),
+                "-hide_banner", "-loglevel", "error",
+                "-i", input,
+                "-vn", "-map", "0:a:0", "-map_metadata", "-1",
+                "-c:a", "aac",
+                "-b:a", bitrate + "k",
+                "-f", "dash",
+                "-seg_duration", String.valueOf(segmentDuration),
+                "-use_template", "1",
+                "-use_timeline", "0",
+                // 同时生成 master.m3u8 / media_0.m3u8，与DASH共用同一组分片
+                "-hls_playlist", "1",
+                "-init_seg_name", "init.m4s",
+                "-media_seg_name", "segment-$Number%05d$.m4s",
+                manifest.toAbsolutePath().toString());
+    }
+
+    private <T> T run(List<String> command, InputStream input, OutputHandler<T> handler) throws IOException {
+        Path errorLog = Files.createTempFile("ffmpeg-", ".log");
+        Process process = null;
+        try {
+            process = new ProcessBuilder(command)
+                    .redirectError(errorLog.toFile())
+                    .start();
+            Process started = process;
+            // 超时后终止进程，读取中的输出随之结束
+            process.onExit()
+                    .orTimeout(transcodingConfig.getTimeout(), TimeUnit.MILLISECONDS)
+                    .exceptionally(e -> {
+                        log.warn("ffmpeg转码超时, 终止进程: {}", started.pid());
+                        started.destroyForcibly();
+                        return null;
+                    });
+
+            if (input != null) {
+                pumpInput(process, input);
+            } else {
+                process.getOutputStream().close();
+            }
+
+            try (InputStream output = new ExitCheckingInputStream(process, errorLog)) {
+                return handler.handle(output);
+            }
+        } finally {
+            if (process != null && process.isAlive()) {
+                process.destroyForcibly();
+            }
+            Files.deleteIfExists(errorLog);
+        }
+    }
+
+    private void runToDirectory(List<String> command, InputStream input) throws IOException {
+        Path errorLog = Files.createTempFile("ffmpeg-", ".log");
+        Process process = null;
+        try {
+            process = new ProcessBuilder(command)
+                    .redirectOutput(ProcessBuilder.Redirect.DISCARD)
+                    .redirectError(errorLog.toFile())
+                    .start();
+            if (input != null) {
+                pumpInput(process, input);
+            } else {
+                process.getOutputStream().close();
+            }
+            if (!process.waitFor(transcodingConfig.getTimeout(), TimeUnit.MILLISECONDS)) {
+                throw new IOException("ffmpeg分片超时");
+            }
+            if (process.exitValue() != 0) {
+                throw new IOException("ffmpeg分片失败, exitCode: " + process.exitValue() + ", " + errorTail(errorLog));
+            }
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+            throw new InterruptedIOException("等待ffmpeg退出被中断");
+        } finally {
+            if (process != null && process.isAlive()) {
+                process.destroyForcibly();
+            }
+            Files.deleteIfExists(errorLog);
+        }
+    }
+
+    private static String errorTail(Path errorLog) throws IOException {
+        String error = Files.readString(errorLog, StandardCharsets.UTF_8).trim();
+        return error.length() > ERROR_TAIL_LENGTH ? error.substring(error.length() - ERROR_TAIL_LENGTH) : error;
+    }
+
+    /**
+     * 在独立线程中把源音频写入ffmpeg标准输入，避免与读取输出互相阻塞
+     */
+    private void pumpInput(Process process, InputStream input) {
+        Thread pump = new Thread(() -> {
+            try (OutputStream stdin = process.getOutputStream()) {
+                input.transferTo(stdin);
+            } catch (IOException e) {
+                // ffmpeg提前退出时标准输入会被关闭，失败原因由退出码反映
+                log.debug("写入ffmpeg标准输入中断: {}", e.getMessage());
+            }
+        }, "ffmpeg-input-" + process.pid());
+        pump.setDaemon(true);
+        pump.start();
+    }
+
+    /**
+     * 读到结尾时等待进程退出并检查退出码
+     */
+    private static class ExitCheckingInputStream extends FilterInputStream {
+
+        private final Process process;
+        private final Path errorLog;
+        private boolean checked;
+
+        ExitCheckingInputStream(Process process, Path errorLog) {
+            super(process.getInputStream());
+            this.process = process;
+            this.errorLog = errorLog;
+        }
+
+        @Override
+        public int read() throws IOException {
+            int b = super.read();
+            if (b < 0) {
+                checkExit();
+            }
+            return b;
+        }
+
+        @Override
+        public int read(byte[] buffer, int offset, int length) throws IOException {
+            int n = super.read(buffer, offset, length);
+            if (n < 0) {
+                checkExit();
+            }
+            return n;
+        }
+
+        private void checkExit() throws IOException {
+            if (checked) {
+                return;
+            }
+            checked = true;
+            int exitCode;
+            try {
+                exitCode = process.waitFor();
+            } catch (InterruptedException e) {
+                Thread.currentThread().interrupt();
+                throw new InterruptedIOException("等待ffmpeg退出被中断");
+            }
+            if (exitCode != 0) {
+                throw new IOException("ffmpeg转码失败, exitCode: " + exitCode + ", " + errorTail(errorLog));
+            }
+        }
+    }
+}
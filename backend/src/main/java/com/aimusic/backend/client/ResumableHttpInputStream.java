@@ -0,0 +1,296 @@
+package com.aimusic.backend.client;
+
+import lombok.Getter;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.http.HttpHeaders;
+
+import java.io.EOFException;
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.InterruptedIOException;
+import java.net.HttpURLConnection;
+import java.net.URI;
+import java.security.MessageDigest;
+import java.security.NoSuchAlgorithmException;
+import java.util.Base64;
+import java.util.HexFormat;
+import java.util.Locale;
+import java.util.regex.Matcher;
+import java.util.regex.Pattern;
+
+/**
+ * 支持断点续传的HTTP下载流
+ * 连接中断或提前结束时，使用 Range + If-Range 从已读取的位置重新请求，远程文件变化时不会拼接出错误的内容；
+ * 读到结尾时校验长度，并在响应提供 Content-MD5 时校验内容摘要，校验失败时抛出异常而不是返回结尾。
+ * 很多服务端的32位十六进制ETag并不是内容的MD5（如S3分段上传、其他内容的哈希），
+ * 只有调用方确认来源的ETag即内容MD5时才用ETag校验，且不一致时只记为未校验而不是内容损坏
+ */
+@Slf4j
+public class ResumableHttpInputStream extends InputStream {
+
+    /** MD5形式的ETag，仅对确认ETag即内容MD5的来源使用 */
+    private static final Pattern MD5_ETAG = Pattern.compile("^\"?([0-9a-fA-F]{32})\"?$");
+    private static final Pattern CONTENT_RANGE = Pattern.compile("^bytes (\\d+)-\\d+/(\\d+|\\*)$");
+
+    private final URI uri;
+    private final int connectTimeout;
+    private final int readTimeout;
+    private final int maxResumes;
+    private final long resumeBackoff;
+    private final boolean etagIsMd5;
+    private final MessageDigest md5;
+
+    private HttpURLConnection connection;
+    private InputStream body;
+    /** 已读取的字节数 */
+    @Getter
+    private long position;
+    /** 文件总长度，未知时为-1 */
+    @Getter
+    private long contentLength = -1;
+    /** 续传时用于 If-Range 的校验值（强ETag或Last-Modified） */
+    private String validator;
+    /** Content-MD5 提供的MD5（十六进制），未提供时为null */
+    private String contentMd5;
+    /** ETag 提供的MD5（十六进制），来源未确认或未提供时为null */
+    private String etagMd5;
+    /** 内容摘要是否与远程提供的MD5一致，没有可用的MD5时为false */
+    @Getter
+    private boolean verified;
+    /** 已续传的次数 */
+    @Getter
+    private int resumes;
+    private boolean finished;
+
+    /**
+     * 打开下载流，首次请求失败时直接抛出异常
+     *
+     * @param uri 远程地址
+     * @param connectTimeout 连接超时时间（毫秒）
+     * @param readTimeout 读取超时时间（毫秒）
+     * @param maxResumes 最多续传次数
+     * @param resumeBackoff 续传前的初始等待时间（毫秒），每次翻倍
+     * @param etagIsMd5 来源的ETag是否即内容的MD5
+     * @throws IOException 连接失败或响应状态不是200
+     */
+    public ResumableHttpInputStream(URI uri, long connectTimeout, long readTimeout,
+                                    int maxResumes, long resumeBackoff, boolean etagIsMd5) throws IOException {
+        this.uri = uri;
+        this.connectTimeout = (int) connectTimeout;
+        this.readTimeout = (int) readTimeout;
+        this.maxResumes = maxResumes;
+        this.resumeBackoff = resumeBackoff;
+        this.etagIsMd5 = etagIsMd5;
+        try {
+            this.md5 = MessageDigest.getInstance("MD5");
+        } catch (NoSuchAlgorithmException e) {
+            throw new IllegalStateException("MD5不可用", e);
+        }
+        open();
+    }
+
+    @Override
+    public int read() throws IOException {
+        byte[] single = new byte[1];
+        int n = read(single, 0, 1);
+        return n < 0 ? -1 : single[0] & 0xFF;
+    }
+
+    @Override
+    public int read(byte[] buffer, int offset, int length) throws IOException {
+        if (finished) {
+            return -1;
+        }
+        if (length == 0) {
+            return 0;
+        }
+        while (true) {
+            try {
+                int n = body.read(buffer, offset, length);
+                if (n > 0) {
+                    md5.update(buffer, offset, n);
+                    position += n;
+                    return n;
+                }
+                if (n == 0) {
+                    continue;
+                }
+                if (contentLength < 0 || position >= contentLength) {
+                    break;
+                }
+                throw new EOFException("连接提前关闭, 已读取: " + position + "/" + contentLength);
+            } catch (DownloadException e) {
+                throw e;
+            } catch (IOException e) {
+                resume(e);
+            }
+        }
+        finish();
+        return -1;
+    }
+
+    @Override
+    public void close() {
+        finished = true;
+        disconnect();
+    }
+
+    /**
+     * 发起请求，position大于0时从该位置续传
+     */
+    private void open() throws IOException {
+        HttpURLConnection conn = (HttpURLConnection) uri.toURL().openConnection();
+        conn.setConnectTimeout(connectTimeout);
+        conn.setReadTimeout(readTimeout);
+        conn.setInstanceFollowRedirects(true);
+        // 关闭压缩，保证字节位置与文件一致
+        conn.setRequestProperty(HttpHeaders.ACCEPT_ENCODING, "identity");
+        if (position > 0) {
+            conn.setRequestProperty(HttpHeaders.RANGE, "bytes=" + position + "-");
+            conn.setRequestProperty(HttpHeaders.IF_RANGE, validator);
+        }
+        connection = conn;
+
+        int status = conn.getResponseCode();
+        if (position > 0) {
+            if (status != HttpURLConnection.HTTP_PARTIAL) {
+                // 200表示 If-Range 未通过（文件已变化）或服务端不支持Range，只能重新下载
+                disconnect();
+                throw new DownloadException("远程文件已变化或不支持断点续传, status: " + status, status, true);
+            }
+            long start = rangeStart(conn.getHeaderField(HttpHeaders.CONTENT_RANGE));
+            if (start != position) {
+                disconnect();
+                throw new DownloadException("续传位置不一致, 期望: " + position + ", 实际: " + start, status, true);
+            }
+        } else {
+            if (status != HttpURLConnection.HTTP_OK) {
+                disconnect();
+                // 4xx（超时和限流除外）重试也不会成功
+                boolean retryable = status >= 500 || status == 408 || status == 429;
+                throw new DownloadException("下载失败, status: " + status, status, retryable);
+            }
+            contentLength = conn.getContentLengthLong();
+            String etag = conn.getHeaderField(HttpHeaders.ETAG);
+            validator = etag != null && !etag.startsWith("W/") ? etag : conn.getHeaderField(HttpHeaders.LAST_MODIFIED);
+            contentMd5 = contentMd5(conn.getHeaderField("Content-MD5"));
+            etagMd5 = etagIsMd5 ? etagMd5(etag) : null;
+        }
+        body = conn.getInputStream();
+    }
+
+    /**
+     * 连接中断后从当前位置续传，超过续传次数或无法续传时抛出原始异常
+     */
+    private void resume(IOException cause) throws IOException {
+        disconnect();
+        // 没有校验值时无法确认续传的内容属于同一文件
+        if (validator == null && position > 0) {
+            throw cause;
+        }
+        while (true) {
+            if (resumes >= maxResumes) {
+                throw cause;
+            }
+            resumes++;
+            log.info("下载中断, 从断点续传, url: {}, position: {}, resume: {}, error: {}",
+                    uri, position, resumes, cause.getMessage());
+            try {
+                Thread.sleep(resumeBackoff << (resumes - 1));
+            } catch (InterruptedException e) {
+                Thread.currentThread().interrupt();
+                throw new InterruptedIOException("下载被中断");
+            }
+            try {
+                open();
+                return;
+            } catch (DownloadException e) {
+                throw e;
+            } catch (IOException e) {
+                disconnect();
+                cause = e;
+            }
+        }
+    }
+
+    /**
+     * 读取结束，校验长度与摘要
+     */
+    private void finish() throws IOException {
+        finished = true;
+        disconnect();
+        if (contentLength >= 0 && position != contentLength) {
+            throw new DownloadException("下载长度不一致, 期望: " + contentLength + ", 实际: " + position, 0, true);
+        }
+        if (contentMd5 == null && etagMd5 == null) {
+            return;
+        }
+        String actual = HexFormat.of().formatHex(md5.digest());
+        if (contentMd5 != null) {
+            if (!actual.equalsIgnoreCase(contentMd5)) {
+                throw new DownloadException("下载内容校验失败, 期望MD5: " + contentMd5 + ", 实际: " + actual, 0, true);
+            }
+            verified = true;
+        } else if (actual.equalsIgnoreCase(etagMd5)) {
+            verified = true;
+        } else {
+            log.warn("ETag与内容MD5不一致, 内容未校验, url: {}, etag: {}, md5: {}", uri, etagMd5, actual);
+        }
+    }
+
+    private void disconnect() {
+        if (connection != null) {
+            // 直接断开而不是读完剩余内容
+            connection.disconnect();
+            connection = null;
+            body = null;
+        }
+    }
+
+    private long rangeStart(String contentRange) {
+        if (contentRange == null) {
+            return -1;
+        }
+        Matcher matcher = CONTENT_RANGE.matcher(contentRange.trim());
+        return matcher.matches() ? Long.parseLong(matcher.group(1)) : -1;
+    }
+
+    private String contentMd5(String header) {
+        if (header == null) {
+            return null;
+        }
+        try {
+            return HexFormat.of().formatHex(Base64.getDecoder().decode(header.trim()));
+        } catch (IllegalArgumentException e) {
+            log.warn("忽略无效的Content-MD5: {}", header);
+            return null;
+        }
+    }
+
+    private String etagMd5(String etag) {
+        if (etag == null) {
+            return null;
+        }
+        Matcher matcher = MD5_ETAG.matcher(etag.trim());
+        return matcher.matches() ? matcher.group(1).toLowerCase(Locale.ROOT) : null;
+    }
+
+    /**
+     * 下载失败（响应状态异常、文件已变化或校验失败），不会在同一个流内续传
+     */
+    @Getter
+    public static class DownloadException extends IOException {
+
+        /** HTTP状态码，与响应状态无关的失败为0 */
+        private final int status;
+
+        /** 是否可以重新下载 */
+        private final boolean retryable;
+
+        public DownloadException(String message, int status, boolean retryable) {
+            super(message);
+            this.status = status;
+            this.retryable = retryable;
+        }
+    }
+}
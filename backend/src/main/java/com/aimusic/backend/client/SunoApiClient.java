@@ -12,6 +12,8 @@ import org.springframework.stereotype.Component;
 import org.springframework.web.client.RestClientException;
 import org.springframework.web.client.RestTemplate;
 
+import java.util.Collection;
+import java.util.List;
 import java.util.Map;
 
 /**
@@ -22,6 +24,12 @@ import java.util.Map;
 @Component
 public class SunoApiClient {
 
+    /** 单次调用的最大尝试次数 */
+    public static final int MAX_ATTEMPTS = 3;
+
+    /** 重试间隔（毫秒） */
+    public static final long RETRY_DELAY = 1000;
+
     private final RestTemplate restTemplate;
     
     @Value("${suno.api.url}")
@@ -41,8 +49,8 @@ public class SunoApiClient {
      */
     @Retryable(
         value = {RestClientException.class},
-        maxAttempts = 3,
-        backoff = @Backoff(delay = 1000)
+        maxAttempts = MAX_ATTEMPTS,
+        backoff = @Backoff(delay = RETRY_DELAY)
     )
     public String generateMusic(String prompt) {
         log.info("开始生成音乐, prompt: {}", prompt);
@@ -78,7 +86,7 @@ public class SunoApiClient {
             return (String) responseBody.get("id");
         } catch (RestClientException e) {
             log.error("生成音乐失败", e);
-            throw new ExternalApiException("API调用失败: " + e.getMessage());
+            throw new ExternalApiException("API调用失败: " + e.getMessage(), e);
         }
     }
 
@@ -89,8 +97,8 @@ public class SunoApiClient {
      */
     @Retryable(
         value = {RestClientException.class},
-        maxAttempts = 3,
-        backoff = @Backoff(delay = 1000)
+        maxAttempts = MAX_ATTEMPTS,
+        backoff = @Backoff(delay = RETRY_DELAY)
     )
     public Map<String, Object> getMusicStatus(String musicId) {
         log.info("获取音乐状态, musicId: {}", musicId);
@@ -119,7 +127,50 @@ public class SunoApiClient {
             return responseBody;
         } catch (RestClientException e) {
             log.error("获取音乐状态失败", e);
-            throw new ExternalApiException("API调用失败: " + e.getMessage());
+            throw new ExternalApiException("API调用失败: " + e.getMessage(), e);
+        }
+    }
+
+    /**
+     * 批量获取音乐状态
+     * Suno的 /get 接口支持以逗号分隔的多个ID，一次请求即可查询整批任务
+     *
+     * @param musicIds 音乐ID集合
+     * @return 每个任务的状态列表
+     */
+    @Retryable(
+        value = {RestClientException.class},
+        maxAttempts = MAX_ATTEMPTS,
+        backoff = @Backoff(delay = RETRY_DELAY)
+    )
+    public List<Map<String, Object>> getMusicStatuses(Collection<String> musicIds) {
+        log.info("批量获取音乐状态, count: {}", musicIds == null ? 0 : musicIds.size());
+
+        if (musicIds == null || musicIds.isEmpty()) {
+            throw new IllegalArgumentException("音乐ID不能为空");
+        }
+
+        try {
+            HttpHeaders headers = new HttpHeaders();
+            headers.add("Cookie", cookie);
+            HttpEntity<?> request = new HttpEntity<>(headers);
+
+            ResponseEntity<List<Map<String, Object>>> response = restTemplate.exchange(
+                apiUrl + "/get?ids=" + String.join(",", musicIds),
+                HttpMethod.GET,
+                request,
+                new ParameterizedTypeReference<>() {}
+            );
+
+            List<Map<String, Object>> responseBody = response.getBody();
+            if (responseBody == null) {
+                throw new ExternalApiException("API响应为空");
+            }
+
+            return responseBody;
+        } catch (RestClientException e) {
+            log.error("批量获取音乐状态失败", e);
+            throw new ExternalApiException("API调用失败: " + e.getMessage(), e);
         }
     }
 
@@ -129,8 +180,8 @@ public class SunoApiClient {
      */
     @Retryable(
         value = {RestClientException.class},
-        maxAttempts = 3,
-        backoff = @Backoff(delay = 1000)
+        maxAttempts = MAX_ATTEMPTS,
+        backoff = @Backoff(delay = RETRY_DELAY)
     )
     public Map<String, Object> getQuota() {
         log.info("获取配额信息");
@@ -154,7 +205,7 @@ public class SunoApiClient {
             return responseBody;
         } catch (RestClientException e) {
             log.error("获取配额信息失败", e);
-            throw new ExternalApiException("API调用失败: " + e.getMessage());
+            throw new ExternalApiException("API调用失败: " + e.getMessage(), e);
         }
     }
 } 
\ No newline at end of file
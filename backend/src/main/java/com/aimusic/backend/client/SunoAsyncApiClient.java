@@ -0,0 +1,182 @@
+package com.aimusic.backend.client;
+
+import com.aimusic.backend.exception.ExternalApiException;
+import com.fasterxml.jackson.core.JsonProcessingException;
+import com.fasterxml.jackson.core.type.TypeReference;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import lombok.extern.slf4j.Slf4j;
+import org.apache.hc.client5.http.async.methods.SimpleHttpRequest;
+import org.apache.hc.client5.http.async.methods.SimpleHttpResponse;
+import org.apache.hc.client5.http.async.methods.SimpleRequestBuilder;
+import org.apache.hc.client5.http.impl.async.CloseableHttpAsyncClient;
+import org.apache.hc.core5.concurrent.FutureCallback;
+import org.apache.hc.core5.http.ContentType;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Component;
+
+import java.io.IOException;
+import java.util.Map;
+import java.util.concurrent.CompletableFuture;
+
+/**
+ * Suno API异步客户端
+ * 与 {@link SunoApiClient} 提供相同的接口，但基于连接池化的非阻塞HTTP客户端，
+ * 调用方在等待Suno响应期间不会占用线程
+ */
+@Slf4j
+@Component
+public class SunoAsyncApiClient {
+
+    private static final TypeReference<Map<String, Object>> MAP_TYPE = new TypeReference<>() {};
+
+    private final CloseableHttpAsyncClient httpClient;
+    private final ObjectMapper objectMapper;
+
+    @Value("${suno.api.url}")
+    private String apiUrl;
+
+    @Value("${suno.api.cookie}")
+    private String cookie;
+
+    public SunoAsyncApiClient(CloseableHttpAsyncClient httpClient, ObjectMapper objectMapper) {
+        this.httpClient = httpClient;
+        this.objectMapper = objectMapper;
+    }
+
+    /**
+     * 异步生成音乐
+     *
+     * @param prompt 提示词
+     * @return 生成任务ID的Future对象
+     */
+    public CompletableFuture<String> generateMusic(String prompt) {
+        log.info("开始异步生成音乐, prompt: {}", prompt);
+
+        if (prompt == null || prompt.trim().isEmpty()) {
+            throw new IllegalArgumentException("提示词不能为空");
+        }
+
+        Map<String, Object> requestBody = Map.of(
+            "prompt", prompt,
+            "wait_audio", false,
+            "make_instrumental", false
+        );
+
+        SimpleHttpRequest request = SimpleRequestBuilder.post(apiUrl + "/generate")
+                .addHeader("Cookie", cookie)
+                .setBody(toJson(requestBody), ContentType.APPLICATION_JSON)
+                .build();
+
+        return execute(request, "生成音乐失败")
+                .thenApply(responseBody -> (String) responseBody.get("id"));
+    }
+
+    /**
+     * 异步获取音乐状态
+     *
+     * @param musicId 音乐ID
+     * @return 音乐状态的Future对象
+     */
+    public CompletableFuture<Map<String, Object>> getMusicStatus(String musicId) {
+        log.info("异步获取音乐状态, musicId: {}", musicId);
+
+        if (musicId == null || musicId.trim().isEmpty()) {
+            throw new IllegalArgumentException("音乐ID不能为空");
+        }
+
+        SimpleHttpRequest request = SimpleRequestBuilder.get(apiUrl + "/get?ids=" + musicId)
+                .addHeader("Cookie", cookie)
+                .build();
+
+        return execute(request, "获取音乐状态失败");
+    }
+
+    /**
+     * 异步获取配额信息
+     *
+     * @return 配额信息的Future对象
+     */
+    public CompletableFuture<Map<String, Object>> getQuota() {
+        log.info("异步获取配额信息");
+
+        SimpleHttpRequest request = SimpleRequestBuilder.get(apiUrl + "/quota")
+                .addHeader("Cookie", cookie)
+                .build();
+
+        return execute(request, "获取配额信息失败");
+    }
+
+    /**
+     * 发送请求并将响应体解析为Map
+     *
+     * @param request HTTP请求
+     * @param errorLog 失败时的日志信息
+     * @return 响应体的Future对象
+     */
+    private CompletableFuture<Map<String, Object>> execute(SimpleHttpRequest request, String errorLog) {
+        CompletableFuture<SimpleHttpResponse> future = new CompletableFuture<>();
+        httpClient.execute(request, new FutureCallback<>() {
+            @Override
+            public void completed(SimpleHttpResponse response) {
+                future.complete(response);
+            }
+
+            @Override
+            public void failed(Exception ex) {
+                future.completeExceptionally(new ExternalApiException("API调用失败: " + ex.getMessage(), ex));
+            }
+
+            @Override
+            public void cancelled() {
+                future.cancel(false);
+            }
+        });
+
+        return future
+                .thenApply(this::readBody)
+                .whenComplete((body, ex) -> {
+                    if (ex != null) {
+                        log.error(errorLog, ex);
+                    }
+                });
+    }
+
+    /**
+     * 校验响应状态并解析响应体
+     *
+     * @param response HTTP响应
+     * @return 响应体
+     */
+    private Map<String, Object> readBody(SimpleHttpResponse response) {
+        int status = response.getCode();
+        String body = response.getBodyText();
+
+        if (status >= 400 && status < 500) {
+            throw new ExternalApiException("外部API客户端错误: " + body, status);
+        } else if (status >= 500) {
+            throw new ExternalApiException("外部API服务器错误: " + body, status);
+        }
+
+        if (body == null || body.isBlank()) {
+            throw new ExternalApiException("API响应为空");
+        }
+
+        try {
+            Map<String, Object> responseBody = objectMapper.readValue(body, MAP_TYPE);
+            if (responseBody == null) {
+                throw new ExternalApiException("API响应为空");
+            }
+            return responseBody;
+        } catch (IOException e) {
+            throw new ExternalApiException("API响应解析失败: " + e.getMessage(), e);
+        }
+    }
+
+    private String toJson(Map<String, Object> body) {
+        try {
+            return objectMapper.writeValueAsString(body);
+        } catch (JsonProcessingException e) {
+            throw new ExternalApiException("请求序列化失败: " + e.getMessage(), e);
+        }
+    }
+}
@@ -0,0 +1,247 @@
+package com.aimusic.backend.client;
+
+import com.aimusic.backend.config.SunoCircuitBreakerConfig;
+import com.aimusic.backend.exception.SunoUnavailableException;
+import io.micrometer.core.instrument.Gauge;
+import io.micrometer.core.instrument.MeterRegistry;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.stereotype.Component;
+import org.springframework.web.client.ResourceAccessException;
+
+import java.io.IOException;
+import java.util.concurrent.Semaphore;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.TimeoutException;
+import java.util.function.Supplier;
+
+/**
+ * Suno熔断器与并发隔离
+ * 按最近调用的失败率打开熔断器，打开期间直接快速失败；持续时间结束后进入半开状态，
+ * 放行少量探测调用，全部成功则关闭，任意失败则重新打开。
+ * 同时用信号量限制同时进行的Suno调用数，避免上游变慢时耗尽调用方线程
+ */
+@Slf4j
+@Component
+public class SunoCircuitBreaker {
+
+    /**
+     * 熔断器状态
+     */
+    public enum State {
+        CLOSED,
+        OPEN,
+        HALF_OPEN
+    }
+
+    private final SunoCircuitBreakerConfig config;
+    private final Semaphore bulkhead;
+
+    private State state = State.CLOSED;
+    /** 最近调用结果的环形缓冲区，true表示失败 */
+    private final boolean[] outcomes;
+    private int outcomeIndex;
+    private int recordedCalls;
+    private int failedCalls;
+    private long openedAtNanos;
+    private int halfOpenPermits;
+    private int halfOpenSuccesses;
+
+    public SunoCircuitBreaker(SunoCircuitBreakerConfig config, MeterRegistry meterRegistry) {
+        this.config = config;
+        this.bulkhead = new Semaphore(config.getMaxConcurrentCalls(), true);
+        this.outcomes = new boolean[Math.max(1, config.getSlidingWindowSize())];
+
+        Gauge.builder("suno.circuit.state", this, breaker -> breaker.getState().ordinal()).register(meterRegistry);
+        Gauge.builder("suno.bulkhead.available", bulkhead, Semaphore::availablePermits).register(meterRegistry);
+    }
+
+    /**
+     * 在熔断器和并发隔离保护下执行Suno调用
+     *
+     * @param call Suno调用
+     * @return 调用结果
+     * @throws SunoUnavailableException 熔断器打开或并发隔离已满
+     */
+    public <T> T execute(Supplier<T> call) {
+        if (!config.isEnabled()) {
+            return call.get();
+        }
+
+        acquirePermission();
+        if (!acquireBulkhead()) {
+            releasePermission();
+            throw new SunoUnavailableException("Suno并发调用已达上限");
+        }
+        try {
+            T result = call.get();
+            onSuccess();
+            return result;
+        } catch (RuntimeException e) {
+            if (isFailure(e)) {
+                onFailure();
+            } else {
+                releasePermission();
+            }
+            throw e;
+        } finally {
+            bulkhead.release();
+        }
+    }
+
+    /**
+     * 当前是否允许发起调用，不占用半开探测名额
+     *
+     * @return 熔断器关闭、或打开时间已到可以进入半开时返回true
+     */
+    public synchronized boolean isCallPermitted() {
+        if (!config.isEnabled()) {
+            return true;
+        }
+        switch (currentState()) {
+            case CLOSED:
+                return true;
+            case HALF_OPEN:
+                return halfOpenPermits > 0;
+            default:
+                return false;
+        }
+    }
+
+    /**
+     * 熔断器距离进入半开状态的剩余时间
+     *
+     * @return 剩余毫秒数，未打开时为0
+     */
+    public synchronized long getRemainingOpenMillis() {
+        if (currentState() != State.OPEN) {
+            return 0;
+        }
+        long elapsed = System.nanoTime() - openedAtNanos;
+        return Math.max(0, config.getOpenDuration() - TimeUnit.NANOSECONDS.toMillis(elapsed));
+    }
+
+    public synchronized State getState() {
+        return currentState();
+    }
+
+    private synchronized void acquirePermission() {
+        switch (currentState()) {
+            case OPEN:
+                throw new SunoUnavailableException("Suno服务熔断中, 请稍后重试");
+            case HALF_OPEN:
+                if (halfOpenPermits <= 0) {
+                    throw new SunoUnavailableException("Suno服务恢复探测中, 请稍后重试");
+                }
+                halfOpenPermits--;
+                break;
+            default:
+                break;
+        }
+    }
+
+    /**
+     * 调用因非上游原因失败（如参数错误）时归还半开探测名额，不计入统计
+     */
+    private synchronized void releasePermission() {
+        if (state == State.HALF_OPEN) {
+            halfOpenPermits++;
+        }
+    }
+
+    private synchronized void onSuccess() {
+        if (state == State.HALF_OPEN) {
+            halfOpenSuccesses++;
+            if (halfOpenSuccesses >= config.getHalfOpenProbes()) {
+                transitionTo(State.CLOSED);
+            }
+            return;
+        }
+        record(false);
+    }
+
+    private synchronized void onFailure() {
+        if (state == State.HALF_OPEN) {
+            transitionTo(State.OPEN);
+            return;
+        }
+        record(true);
+        if (recordedCalls >= config.getMinimumCalls()
+                && failedCalls * 100 >= config.getFailureRateThreshold() * recordedCalls) {
+            transitionTo(State.OPEN);
+        }
+    }
+
+    private void record(boolean failed) {
+        if (recordedCalls == outcomes.length) {
+            if (outcomes[outcomeIndex]) {
+                failedCalls--;
+            }
+        } else {
+            recordedCalls++;
+        }
+        outcomes[outcomeIndex] = failed;
+        if (failed) {
+            failedCalls++;
+        }
+        outcomeIndex = (outcomeIndex + 1) % outcomes.length;
+    }
+
+    /**
+     * 打开时间已到时自动进入半开状态
+     */
+    private State currentState() {
+        if (state == State.OPEN
+                && System.nanoTime() - openedAtNanos >= TimeUnit.MILLISECONDS.toNanos(config.getOpenDuration())) {
+            transitionTo(State.HALF_OPEN);
+        }
+        return state;
+    }
+
+    private void transitionTo(State target) {
+        log.warn("Suno熔断器状态变更: {} -> {}, 窗口内失败: {}/{}", state, target, failedCalls, recordedCalls);
+        state = target;
+        switch (target) {
+            case OPEN:
+                openedAtNanos = System.nanoTime();
+                break;
+            case HALF_OPEN:
+                halfOpenPermits = config.getHalfOpenProbes();
+                halfOpenSuccesses = 0;
+                break;
+            default:
+                recordedCalls = 0;
+                failedCalls = 0;
+                outcomeIndex = 0;
+                break;
+        }
+    }
+
+    private boolean acquireBulkhead() {
+        try {
+            return bulkhead.tryAcquire(config.getMaxWait(), TimeUnit.MILLISECONDS);
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+            return false;
+        }
+    }
+
+    /**
+     * 上游5xx、超时和连接错误计为失败；快速失败、限流等4xx和参数错误不计入，
+     * 避免个别用户的非法请求打开所有用户共用的熔断器
+     */
+    private boolean isFailure(RuntimeException e) {
+        if (e instanceof SunoUnavailableException) {
+            return false;
+        }
+        Integer statusCode = SunoRateGovernor.upstreamStatus(e);
+        if (statusCode != null) {
+            return statusCode >= 500;
+        }
+        for (Throwable t = e; t != null; t = t.getCause()) {
+            if (t instanceof IOException || t instanceof TimeoutException || t instanceof ResourceAccessException) {
+                return true;
+            }
+        }
+        return false;
+    }
+}
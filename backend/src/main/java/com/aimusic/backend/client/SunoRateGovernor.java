@@ -0,0 +1,329 @@
+package com.aimusic.backend.client;
+
+import com.aimusic.backend.config.SunoGovernorConfig;
+import com.aimusic.backend.exception.ExternalApiException;
+import io.micrometer.core.instrument.Gauge;
+import io.micrometer.core.instrument.MeterRegistry;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.http.HttpStatus;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Component;
+import org.springframework.web.client.HttpStatusCodeException;
+
+import java.util.ArrayDeque;
+import java.util.Deque;
+import java.util.HashMap;
+import java.util.Map;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.locks.Condition;
+import java.util.concurrent.locks.ReentrantLock;
+import java.util.function.Supplier;
+
+/**
+ * Suno调用限流器
+ * 根据响应时间和429按AIMD方式调整允许的并发请求数：成功且响应正常时缓慢增加，
+ * 遇到限流或响应过慢时成倍减少；同时跟踪剩余配额，配额耗尽时暂停提交。
+ * 超出并发上限的请求按用户分队列排队，各用户轮流获得许可，避免单个用户占满上游
+ */
+@Slf4j
+@Component
+public class SunoRateGovernor {
+
+    /**
+     * 请求结果
+     */
+    public enum Outcome {
+        SUCCESS,
+        RATE_LIMITED,
+        ERROR
+    }
+
+    private final SunoApiClient sunoApiClient;
+    private final SunoGovernorConfig config;
+
+    private final ReentrantLock lock = new ReentrantLock(true);
+    /** 每个用户的等待队列 */
+    private final Map<String, Deque<Waiter>> queues = new HashMap<>();
+    /** 有等待请求的用户，按轮转顺序排列 */
+    private final Deque<String> rotation = new ArrayDeque<>();
+
+    private volatile double limit;
+    private volatile int inFlight;
+    private volatile int queued;
+    private volatile long pausedUntilNanos;
+    /** 剩余可提交的生成次数，-1表示未知 */
+    private volatile long remainingRequests = -1;
+    /** 响应时间的指数移动平均（毫秒） */
+    private volatile double averageLatencyMillis;
+
+    public SunoRateGovernor(SunoApiClient sunoApiClient, SunoGovernorConfig config, MeterRegistry meterRegistry) {
+        this.sunoApiClient = sunoApiClient;
+        this.config = config;
+        this.limit = Math.max(config.getMinConcurrency(), config.getInitialConcurrency());
+
+        Gauge.builder("suno.governor.limit", this, SunoRateGovernor::getLimit).register(meterRegistry);
+        Gauge.builder("suno.governor.in.flight", this, SunoRateGovernor::getInFlight).register(meterRegistry);
+        Gauge.builder("suno.governor.queued", this, SunoRateGovernor::getQueued).register(meterRegistry);
+        Gauge.builder("suno.governor.quota.remaining", this, SunoRateGovernor::getRemainingRequests)
+                .register(meterRegistry);
+    }
+
+    /**
+     * 在限流许可内执行Suno调用
+     * 遇到429时降低并发上限并暂停提交，请求重新排队等待，直到成功或超过最长排队时间
+     *
+     * @param userKey 公平排队使用的用户标识
+     * @param call Suno调用
+     * @return 调用结果
+     */
+    public <T> T execute(String userKey, Supplier<T> call) {
+        if (!config.isEnabled()) {
+            return call.get();
+        }
+
+        long deadline = System.nanoTime() + TimeUnit.MILLISECONDS.toNanos(config.getMaxWait());
+        while (true) {
+            acquire(userKey, deadline);
+            long start = System.nanoTime();
+            try {
+                T result = call.get();
+                release(Outcome.SUCCESS, System.nanoTime() - start);
+                return result;
+            } catch (RuntimeException e) {
+                if (!isRateLimited(e)) {
+                    release(Outcome.ERROR, System.nanoTime() - start);
+                    throw e;
+                }
+                release(Outcome.RATE_LIMITED, System.nanoTime() - start);
+                log.warn("Suno请求被限流, 当前并发上限: {}, user: {}", getLimit(), userKey);
+                if (System.nanoTime() >= deadline) {
+                    throw e;
+                }
+            }
+        }
+    }
+
+    /**
+     * 获取一个许可，超过截止时间仍未获得时抛出异常
+     *
+     * @param userKey 用户标识
+     * @param deadlineNanos 截止时间（System.nanoTime）
+     */
+    public void acquire(String userKey, long deadlineNanos) {
+        lock.lock();
+        try {
+            if (rotation.isEmpty() && canGrant()) {
+                grant();
+                return;
+            }
+
+            Waiter waiter = new Waiter(lock.newCondition());
+            queues.computeIfAbsent(userKey, key -> {
+                rotation.addLast(key);
+                return new ArrayDeque<>();
+            }).addLast(waiter);
+            queued++;
+            dispatch();
+
+            while (!waiter.granted) {
+                long now = System.nanoTime();
+                long remaining = deadlineNanos - now;
+                if (remaining <= 0) {
+                    cancel(userKey, waiter);
+                    throw new ExternalApiException("Suno请求排队超时");
+                }
+                // 暂停期间需要在暂停结束时自行唤醒并重新分配许可
+                long wait = pausedUntilNanos > now ? Math.min(remaining, pausedUntilNanos - now) : remaining;
+                try {
+                    waiter.condition.awaitNanos(wait);
+                } catch (InterruptedException e) {
+                    if (!waiter.granted) {
+                        cancel(userKey, waiter);
+                    } else {
+                        inFlight--;
+                        dispatch();
+                    }
+                    Thread.currentThread().interrupt();
+                    throw new ExternalApiException("Suno请求排队被中断", e);
+                }
+                dispatch();
+            }
+        } finally {
+            lock.unlock();
+        }
+    }
+
+    /**
+     * 归还许可并根据结果调整并发上限
+     *
+     * @param outcome 请求结果
+     * @param latencyNanos 请求耗时（纳秒）
+     */
+    public void release(Outcome outcome, long latencyNanos) {
+        lock.lock();
+        try {
+            inFlight--;
+            double latencyMillis = latencyNanos / 1_000_000.0;
+            averageLatencyMillis = averageLatencyMillis == 0 ? latencyMillis
+                    : averageLatencyMillis * 0.8 + latencyMillis * 0.2;
+
+            switch (outcome) {
+                case SUCCESS:
+                    if (latencyMillis > config.getLatencyThreshold()) {
+                        decrease();
+                    } else {
+                        limit = Math.min(config.getMaxConcurrency(), limit + config.getAdditiveIncrease() / limit);
+                    }
+                    break;
+                case RATE_LIMITED:
+                    decrease();
+                    pausedUntilNanos = System.nanoTime() + TimeUnit.MILLISECONDS.toNanos(config.getRateLimitCooldown());
+                    break;
+                default:
+                    break;
+            }
+            dispatch();
+        } finally {
+            lock.unlock();
+        }
+    }
+
+    /**
+     * 定时刷新Suno剩余配额
+     */
+    @Scheduled(fixedDelayString = "${suno.governor.quota-refresh-interval:60000}")
+    public void refreshQuota() {
+        if (!config.isEnabled()) {
+            return;
+        }
+        try {
+            updateQuota(sunoApiClient.getQuota());
+        } catch (Exception e) {
+            log.warn("刷新Suno配额失败: {}", e.getMessage());
+        }
+    }
+
+    /**
+     * 根据 /quota 响应更新剩余可提交次数
+     *
+     * @param quota 配额信息，包含 credits_left
+     */
+    public void updateQuota(Map<String, Object> quota) {
+        Object creditsLeft = quota == null ? null : quota.get("credits_left");
+        if (!(creditsLeft instanceof Number)) {
+            return;
+        }
+        long credits = ((Number) creditsLeft).longValue() - config.getCreditsReserve();
+        lock.lock();
+        try {
+            remainingRequests = Math.max(0, credits / Math.max(1, config.getCreditsPerRequest()));
+            log.info("Suno配额已刷新, 剩余积分: {}, 可提交次数: {}", creditsLeft, remainingRequests);
+            dispatch();
+        } finally {
+            lock.unlock();
+        }
+    }
+
+    public double getLimit() {
+        return limit;
+    }
+
+    public int getInFlight() {
+        return inFlight;
+    }
+
+    public int getQueued() {
+        return queued;
+    }
+
+    public long getRemainingRequests() {
+        return remainingRequests;
+    }
+
+    public double getAverageLatencyMillis() {
+        return averageLatencyMillis;
+    }
+
+    /**
+     * 判断异常是否为上游限流（HTTP 429）
+     */
+    public static boolean isRateLimited(Throwable e) {
+        Integer statusCode = upstreamStatus(e);
+        return statusCode != null && statusCode == HttpStatus.TOO_MANY_REQUESTS.value();
+    }
+
+    /**
+     * 沿异常链查找上游响应的HTTP状态码
+     *
+     * @param e 异常
+     * @return 状态码，异常不是由上游错误响应引起时为null
+     */
+    public static Integer upstreamStatus(Throwable e) {
+        for (Throwable t = e; t != null; t = t.getCause()) {
+            if (t instanceof ExternalApiException && ((ExternalApiException) t).getStatusCode() != null) {
+                return ((ExternalApiException) t).getStatusCode();
+            }
+            if (t instanceof HttpStatusCodeException) {
+                return ((HttpStatusCodeException) t).getStatusCode().value();
+            }
+        }
+        return null;
+    }
+
+    private boolean canGrant() {
+        return inFlight < (int) limit
+                && remainingRequests != 0
+                && System.nanoTime() >= pausedUntilNanos;
+    }
+
+    private void grant() {
+        inFlight++;
+        if (remainingRequests > 0) {
+            remainingRequests--;
+        }
+    }
+
+    private void decrease() {
+        limit = Math.max(config.getMinConcurrency(), limit * config.getDecreaseFactor());
+    }
+
+    /**
+     * 按用户轮转分配空闲许可
+     */
+    private void dispatch() {
+        while (!rotation.isEmpty() && canGrant()) {
+            String key = rotation.pollFirst();
+            Deque<Waiter> queue = queues.get(key);
+            Waiter waiter = queue.pollFirst();
+            queued--;
+            if (queue.isEmpty()) {
+                queues.remove(key);
+            } else {
+                rotation.addLast(key);
+            }
+            grant();
+            waiter.granted = true;
+            waiter.condition.signal();
+        }
+    }
+
+    private void cancel(String userKey, Waiter waiter) {
+        Deque<Waiter> queue = queues.get(userKey);
+        if (queue != null && queue.remove(waiter)) {
+            queued--;
+            if (queue.isEmpty()) {
+                queues.remove(userKey);
+                rotation.remove(userKey);
+            }
+        }
+    }
+
+    private static final class Waiter {
+        private final Condition condition;
+        private boolean granted;
+
+        private Waiter(Condition condition) {
+            this.condition = condition;
+        }
+    }
+}
@@ -1,7 +1,11 @@
 package com.aimusic.backend.config;
 
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.boot.autoconfigure.thread.Threading;
 import org.springframework.context.annotation.Bean;
 import org.springframework.context.annotation.Configuration;
+import org.springframework.core.env.Environment;
+import org.springframework.core.task.SimpleAsyncTaskExecutor;
 import org.springframework.scheduling.annotation.EnableAsync;
 import org.springframework.scheduling.concurrent.ThreadPoolTaskExecutor;
 import java.util.concurrent.Executor;
@@ -9,8 +13,11 @@ import java.util.concurrent.ThreadPoolExecutor.CallerRunsPolicy;
 
 /**
  * 异步任务配置类
- * 配置异步任务执行器
+ * 配置异步任务执行器。默认使用固定大小的平台线程池；
+ * 启用虚拟线程（spring.threads.virtual.enabled=true）且运行在JDK 21+时，
+ * 改为每个任务一个虚拟线程，并发数由信号量限制，队列满时不再回退到调用方（Tomcat请求线程）执行
  */
+@Slf4j
 @Configuration
 @EnableAsync
 public class AsyncConfig {
@@ -19,7 +26,10 @@ public class AsyncConfig {
      * 配置音乐生成专用线程池
      */
     @Bean(name = "musicGenerationExecutor")
-    public Executor musicGenerationExecutor() {
+    public Executor musicGenerationExecutor(Environment environment, AsyncExecutorConfig executorConfig) {
+        if (isVirtualThreadsEnabled(environment)) {
+            return virtualThreadExecutor("music-generation-", executorConfig.getGenerationConcurrency());
+        }
         ThreadPoolTaskExecutor executor = new ThreadPoolTaskExecutor();
         executor.setCorePoolSize(2);
         executor.setMaxPoolSize(4);
@@ -34,7 +44,10 @@ public class AsyncConfig {
      * 配置默认异步任务线程池
      */
     @Bean(name = "taskExecutor")
-    public Executor taskExecutor() {
+    public Executor taskExecutor(Environment environment, AsyncExecutorConfig executorConfig) {
+        if (isVirtualThreadsEnabled(environment)) {
+            return virtualThreadExecutor("async-task-", executorConfig.getTaskConcurrency());
+        }
         ThreadPoolTaskExecutor executor = new ThreadPoolTaskExecutor();
         executor.setCorePoolSize(4);
         executor.setMaxPoolSize(8);
@@ -44,4 +57,27 @@ public class AsyncConfig {
         executor.initialize();
         return executor;
     }
+
+    /**
+     * 创建虚拟线程执行器，并发数由信号量限制
+     */
+    private Executor virtualThreadExecutor(String threadNamePrefix, int maxConcurrency) {
+        SimpleAsyncTaskExecutor executor = new SimpleAsyncTaskExecutor(threadNamePrefix);
+        executor.setVirtualThreads(true);
+        executor.setTaskDecorator(new ConcurrencyLimitingTaskDecorator(maxConcurrency));
+        log.info("使用虚拟线程执行器, prefix: {}, maxConcurrency: {}", threadNamePrefix, maxConcurrency);
+        return executor;
+    }
+
+    /**
+     * 是否启用虚拟线程模式，JDK 21以下即使开启配置也回退到平台线程池
+     */
+    private boolean isVirtualThreadsEnabled(Environment environment) {
+        boolean requested = environment.getProperty("spring.threads.virtual.enabled", Boolean.class, false);
+        boolean active = Threading.VIRTUAL.isActive(environment);
+        if (requested && !active) {
+            log.warn("当前JDK版本不支持虚拟线程, 回退到平台线程池");
+        }
+        return active;
+    }
 } 
\ No newline at end of file
@@ -0,0 +1,26 @@
+package com.aimusic.backend.config;
+
+import lombok.Data;
+import org.springframework.boot.context.properties.ConfigurationProperties;
+import org.springframework.context.annotation.Configuration;
+
+/**
+ * 异步执行器配置类
+ * 虚拟线程模式（spring.threads.virtual.enabled=true 且运行在JDK 21+）下，
+ * 每个任务使用独立的虚拟线程，并发数由信号量限制而不是线程池大小
+ */
+@Data
+@Configuration
+@ConfigurationProperties(prefix = "music.executor")
+public class AsyncExecutorConfig {
+
+    /**
+     * 虚拟线程模式下音乐生成任务的最大并发数
+     */
+    private int generationConcurrency = 4;
+
+    /**
+     * 虚拟线程模式下默认异步任务的最大并发数
+     */
+    private int taskConcurrency = 8;
+}
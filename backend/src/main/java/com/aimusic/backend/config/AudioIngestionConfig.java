@@ -0,0 +1,74 @@
+package com.aimusic.backend.config;
+
+import lombok.Data;
+import org.springframework.boot.context.properties.ConfigurationProperties;
+import org.springframework.context.annotation.Configuration;
+
+import java.util.ArrayList;
+import java.util.List;
+
+/**
+ * 音频导入配置类
+ * 配置生成完成后将Suno音频下载到本地存储的并发、断点续传与重试参数
+ */
+@Data
+@Configuration
+@ConfigurationProperties(prefix = "music.ingestion")
+public class AudioIngestionConfig {
+
+    /**
+     * 是否在生成完成后导入音频
+     */
+    private boolean enabled = true;
+
+    /**
+     * 同时进行的下载数
+     */
+    private int maxConcurrency = 4;
+
+    /**
+     * 等待下载的任务数上限，超出的任务由定时补偿扫描再次提交
+     */
+    private int queueCapacity = 1000;
+
+    /**
+     * 单个音频最多下载次数（每次从头开始）
+     */
+    private int maxAttempts = 3;
+
+    /**
+     * 单次下载中连接中断后从断点续传的最多次数
+     */
+    private int maxResumes = 5;
+
+    /**
+     * 重试的初始退避时间（毫秒），每次翻倍
+     */
+    private long retryBackoff = 1000;
+
+    /**
+     * 连接超时时间（毫秒）
+     */
+    private long connectTimeout = 10000;
+
+    /**
+     * 读取超时时间（毫秒），超过该时间没有收到数据视为连接中断
+     */
+    private long readTimeout = 60000;
+
+    /**
+     * ETag即内容MD5的来源主机（如只做单段上传的对象存储），来自这些主机的下载用ETag校验内容；
+     * 不一致时只记录为未校验。响应带 Content-MD5 时始终按其校验
+     */
+    private List<String> etagMd5Hosts = new ArrayList<>();
+
+    /**
+     * 补偿扫描周期（毫秒），重新提交仍指向远程地址的已完成音乐
+     */
+    private long sweepInterval = 300000;
+
+    /**
+     * 每次补偿扫描的最大数量
+     */
+    private int sweepBatchSize = 100;
+}
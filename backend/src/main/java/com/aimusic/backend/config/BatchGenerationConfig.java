@@ -0,0 +1,24 @@
+package com.aimusic.backend.config;
+
+import lombok.Data;
+import org.springframework.boot.context.properties.ConfigurationProperties;
+import org.springframework.context.annotation.Configuration;
+
+/**
+ * 批量音乐生成配置类
+ */
+@Data
+@Configuration
+@ConfigurationProperties(prefix = "music.batch-generation")
+public class BatchGenerationConfig {
+
+    /**
+     * 每个事务插入的请求数，每批处理完成后输出该批结果
+     */
+    private int chunkSize = 500;
+
+    /**
+     * 单次调用最多接受的请求数
+     */
+    private int maxItems = 10000;
+}
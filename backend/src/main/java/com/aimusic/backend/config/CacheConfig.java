@@ -1,11 +1,16 @@
 package com.aimusic.backend.config;
 
+import com.github.benmanes.caffeine.cache.Caffeine;
 import org.springframework.cache.CacheManager;
 import org.springframework.cache.annotation.EnableCaching;
-import org.springframework.cache.concurrent.ConcurrentMapCacheManager;
+import org.springframework.cache.caffeine.CaffeineCacheManager;
 import org.springframework.context.annotation.Bean;
 import org.springframework.context.annotation.Configuration;
 
+import java.util.LinkedHashSet;
+import java.util.List;
+import java.util.Set;
+
 /**
  * 缓存配置类
  * 配置缓存管理器和缓存策略
@@ -13,15 +18,38 @@ import org.springframework.context.annotation.Configuration;
 @Configuration
 @EnableCaching
 public class CacheConfig {
-    
+
+    /**
+     * 音乐详情缓存
+     */
+    public static final String MUSIC_CACHE = "music";
+
+    /**
+     * 音乐列表分页缓存
+     */
+    public static final String MUSIC_LIST_CACHE = "musicList";
+
+    private static final List<String> CACHE_NAMES = List.of(MUSIC_CACHE, MUSIC_LIST_CACHE);
+
     /**
      * 配置缓存管理器
-     * 使用ConcurrentMapCacheManager实现内存缓存
+     * 使用Caffeine实现有容量上限和过期时间的内存缓存（按Window TinyLFU策略淘汰），
+     * 缓存在启动时全部创建并记录统计信息，由Actuator导出命中、未命中和淘汰指标
      */
     @Bean
-    public CacheManager cacheManager() {
-        ConcurrentMapCacheManager cacheManager = new ConcurrentMapCacheManager();
+    public CacheManager cacheManager(CacheSpecConfig cacheSpecConfig) {
+        CaffeineCacheManager cacheManager = new CaffeineCacheManager();
         cacheManager.setAllowNullValues(false);
+        cacheManager.setCaffeine(Caffeine.from(cacheSpecConfig.getCaffeine().getSpec()).recordStats());
+
+        Set<String> names = new LinkedHashSet<>(CACHE_NAMES);
+        names.addAll(cacheSpecConfig.getSpecs().keySet());
+        // 只允许使用已声明的缓存，避免拼写错误产生未受控的缓存
+        cacheManager.setCacheNames(names);
+        for (String name : names) {
+            String spec = cacheSpecConfig.getSpecs().getOrDefault(name, cacheSpecConfig.getCaffeine().getSpec());
+            cacheManager.registerCustomCache(name, Caffeine.from(spec).recordStats().build());
+        }
         return cacheManager;
     }
-} 
\ No newline at end of file
+}
@@ -0,0 +1,37 @@
+package com.aimusic.backend.config;
+
+import lombok.Data;
+import org.springframework.boot.context.properties.ConfigurationProperties;
+import org.springframework.context.annotation.Configuration;
+
+import java.util.LinkedHashMap;
+import java.util.Map;
+
+/**
+ * 缓存规格配置类
+ * 使用Caffeine规格字符串配置各缓存的容量和过期时间，例如 maximumSize=500,expireAfterWrite=30m
+ */
+@Data
+@Configuration
+@ConfigurationProperties(prefix = "cache")
+public class CacheSpecConfig {
+
+    /**
+     * 默认缓存规格
+     */
+    private Spec caffeine = new Spec();
+
+    /**
+     * 按缓存名称配置的规格，未配置的缓存使用默认规格
+     */
+    private Map<String, String> specs = new LinkedHashMap<>();
+
+    @Data
+    public static class Spec {
+
+        /**
+         * Caffeine规格字符串
+         */
+        private String spec = "maximumSize=500,expireAfterWrite=30m";
+    }
+}
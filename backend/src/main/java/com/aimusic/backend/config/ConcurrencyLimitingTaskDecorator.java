@@ -0,0 +1,42 @@
+package com.aimusic.backend.config;
+
+import org.springframework.core.task.TaskDecorator;
+
+import java.util.concurrent.Semaphore;
+
+/**
+ * 基于信号量的并发限制装饰器
+ * 任务在自己的线程中等待许可，提交方不会被阻塞；配合虚拟线程使用时，等待中的任务几乎不占用资源
+ */
+public class ConcurrencyLimitingTaskDecorator implements TaskDecorator {
+
+    private final Semaphore permits;
+
+    public ConcurrencyLimitingTaskDecorator(int maxConcurrency) {
+        if (maxConcurrency <= 0) {
+            throw new IllegalArgumentException("maxConcurrency必须大于0");
+        }
+        this.permits = new Semaphore(maxConcurrency, true);
+    }
+
+    @Override
+    public Runnable decorate(Runnable runnable) {
+        return () -> {
+            permits.acquireUninterruptibly();
+            try {
+                runnable.run();
+            } finally {
+                permits.release();
+            }
+        };
+    }
+
+    /**
+     * 当前可用的许可数
+     *
+     * @return 可用许可数
+     */
+    public int availablePermits() {
+        return permits.availablePermits();
+    }
+}
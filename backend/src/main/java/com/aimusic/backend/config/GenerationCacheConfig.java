@@ -0,0 +1,25 @@
+package com.aimusic.backend.config;
+
+import lombok.Data;
+import org.springframework.boot.context.properties.ConfigurationProperties;
+import org.springframework.context.annotation.Configuration;
+
+/**
+ * 音乐生成结果缓存配置类
+ * 配置相同生成请求的合并与结果复用
+ */
+@Data
+@Configuration
+@ConfigurationProperties(prefix = "music.generation-cache")
+public class GenerationCacheConfig {
+
+    /**
+     * 是否启用相同请求去重
+     */
+    private boolean enabled = true;
+
+    /**
+     * 已完成结果的复用时长（毫秒），为0时只合并进行中的请求
+     */
+    private long resultTtl = 86400000;
+}
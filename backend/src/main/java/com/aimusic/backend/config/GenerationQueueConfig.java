@@ -0,0 +1,71 @@
+package com.aimusic.backend.config;
+
+import lombok.Data;
+import org.springframework.boot.context.properties.ConfigurationProperties;
+import org.springframework.context.annotation.Configuration;
+
+/**
+ * 音乐生成任务队列配置类
+ * 配置持久化任务队列的领取、租约、重试和公平调度参数
+ */
+@Data
+@Configuration
+@ConfigurationProperties(prefix = "music.generation-queue")
+public class GenerationQueueConfig {
+
+    /**
+     * 是否在本实例上运行任务领取
+     */
+    private boolean enabled = true;
+
+    /**
+     * 实例ID，为空时自动生成
+     */
+    private String instanceId;
+
+    /**
+     * 领取任务的轮询周期（毫秒）
+     */
+    private long pollInterval = 1000;
+
+    /**
+     * 本实例最多同时执行的任务数
+     */
+    private int maxConcurrency = 4;
+
+    /**
+     * 任务租约时长（毫秒），超过该时间未续约的任务可被其他实例接管
+     * 需大于单次提交的最长耗时（两次尝试各含限流排队和Suno客户端全部重试），默认配置下约为335秒
+     */
+    private long leaseDuration = 360000;
+
+    /**
+     * 租约续约周期（毫秒），应明显小于租约时长
+     */
+    private long heartbeatInterval = 20000;
+
+    /**
+     * 任务最大执行次数
+     */
+    private int maxAttempts = 3;
+
+    /**
+     * 失败重试的基础退避时间（毫秒），按执行次数指数增长
+     */
+    private long retryBackoff = 10000;
+
+    /**
+     * 交互优先级的调度权重，与批量优先级的权重之比即两类任务同时排队时的执行份额之比
+     */
+    private int interactiveWeight = 4;
+
+    /**
+     * 批量优先级的调度权重
+     */
+    private int batchWeight = 1;
+
+    /**
+     * 每次领取时读取的候选任务上限，每个用户每个优先级最多读取本次领取数量个
+     */
+    private int fairnessScanSize = 1000;
+}
@@ -0,0 +1,29 @@
+package com.aimusic.backend.config;
+
+import lombok.Data;
+import org.springframework.boot.context.properties.ConfigurationProperties;
+import org.springframework.context.annotation.Configuration;
+
+/**
+ * 音乐状态推送配置类
+ */
+@Data
+@Configuration
+@ConfigurationProperties(prefix = "music.event-stream")
+public class MusicEventStreamConfig {
+
+    /**
+     * 单个连接的超时时间（毫秒），超时后客户端自动重连
+     */
+    private long timeout = 1800000;
+
+    /**
+     * 心跳间隔（毫秒），用于保持连接并及时清理已断开的客户端
+     */
+    private long heartbeatInterval = 15000;
+
+    /**
+     * 本实例允许的最大连接数
+     */
+    private int maxSubscribers = 10000;
+}
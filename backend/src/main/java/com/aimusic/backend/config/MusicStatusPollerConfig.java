@@ -0,0 +1,50 @@
+package com.aimusic.backend.config;
+
+import lombok.Data;
+import org.springframework.boot.context.properties.ConfigurationProperties;
+import org.springframework.context.annotation.Configuration;
+
+/**
+ * 音乐状态轮询配置类
+ * 配置后台批量轮询Suno生成状态的相关参数
+ */
+@Data
+@Configuration
+@ConfigurationProperties(prefix = "music.status-poller")
+public class MusicStatusPollerConfig {
+
+    /**
+     * 是否启用后台轮询
+     */
+    private boolean enabled = true;
+
+    /**
+     * 轮询周期（毫秒），每个周期扫描一次待轮询的任务
+     */
+    private long tickInterval = 5000;
+
+    /**
+     * 单次HTTP请求携带的generationId数量
+     */
+    private int batchSize = 20;
+
+    /**
+     * 单个周期最多扫描的任务数，生成中的任务更多时下个周期从上次扫描的位置继续
+     */
+    private int maxScanSize = 5000;
+
+    /**
+     * 单个任务的最小轮询间隔（毫秒），用于新提交的任务
+     */
+    private long minInterval = 5000;
+
+    /**
+     * 单个任务的最大轮询间隔（毫秒），用于长时间未完成的任务
+     */
+    private long maxInterval = 300000;
+
+    /**
+     * 轮询间隔与任务年龄的比例，间隔 = 任务年龄 * 该系数，并限制在[minInterval, maxInterval]之间
+     */
+    private double ageFactor = 0.1;
+}
@@ -0,0 +1,60 @@
+package com.aimusic.backend.config;
+
+import lombok.Data;
+import org.springframework.boot.context.properties.ConfigurationProperties;
+import org.springframework.context.annotation.Configuration;
+
+/**
+ * 对象存储配置类
+ * storage.type=object 时生效，兼容S3协议的对象存储（AWS S3、MinIO等）
+ */
+@Data
+@Configuration
+@ConfigurationProperties(prefix = "storage.object")
+public class ObjectStorageConfig {
+
+    /**
+     * 服务地址，为空时使用AWS默认地址
+     */
+    private String endpoint;
+
+    /**
+     * 区域
+     */
+    private String region = "us-east-1";
+
+    /**
+     * 存储桶
+     */
+    private String bucket = "ai-music";
+
+    /**
+     * 访问密钥ID
+     */
+    private String accessKey;
+
+    /**
+     * 访问密钥
+     */
+    private String secretKey;
+
+    /**
+     * 是否使用路径风格访问（MinIO等自建服务通常需要开启）
+     */
+    private boolean pathStyleAccess = true;
+
+    /**
+     * 分片上传的分片大小（字节），S3要求除最后一片外不小于5MB
+     */
+    private int partSize = 8 * 1024 * 1024;
+
+    /**
+     * 单个文件同时上传的分片数
+     */
+    private int uploadConcurrency = 4;
+
+    /**
+     * 预签名下载地址有效期（毫秒）
+     */
+    private long presignTtl = 900000;
+}
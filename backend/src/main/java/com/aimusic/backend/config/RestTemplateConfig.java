@@ -1,8 +1,15 @@
 package com.aimusic.backend.config;
 
+import org.apache.hc.client5.http.config.ConnectionConfig;
+import org.apache.hc.client5.http.impl.classic.CloseableHttpClient;
+import org.apache.hc.client5.http.impl.classic.HttpClients;
+import org.apache.hc.client5.http.impl.io.PoolingHttpClientConnectionManager;
+import org.apache.hc.client5.http.impl.io.PoolingHttpClientConnectionManagerBuilder;
+import org.apache.hc.core5.util.TimeValue;
+import org.apache.hc.core5.util.Timeout;
 import org.springframework.context.annotation.Bean;
 import org.springframework.context.annotation.Configuration;
-import org.springframework.http.client.SimpleClientHttpRequestFactory;
+import org.springframework.http.client.HttpComponentsClientHttpRequestFactory;
 import org.springframework.web.client.RestTemplate;
 
 /**
@@ -13,15 +20,31 @@ public class RestTemplateConfig {
 
     /**
      * 创建 RestTemplate Bean
-     * 配置了连接超时和读取超时时间
+     * 配置了连接超时和读取超时时间，并复用连接池中的长连接
      *
+     * @param sunoApiConfig Suno API配置
      * @return RestTemplate 实例
      */
     @Bean
-    public RestTemplate restTemplate() {
-        SimpleClientHttpRequestFactory factory = new SimpleClientHttpRequestFactory();
-        factory.setConnectTimeout(5000);
-        factory.setReadTimeout(30000);
+    public RestTemplate restTemplate(SunoApiConfig sunoApiConfig) {
+        SunoApiConfig.Pool pool = sunoApiConfig.getPool();
+        PoolingHttpClientConnectionManager connectionManager = PoolingHttpClientConnectionManagerBuilder.create()
+                .setMaxConnTotal(pool.getMaxConnections())
+                .setMaxConnPerRoute(pool.getMaxConnectionsPerHost())
+                .setDefaultConnectionConfig(ConnectionConfig.custom()
+                        .setConnectTimeout(Timeout.ofMilliseconds(pool.getConnectTimeout()))
+                        .setSocketTimeout(Timeout.ofMilliseconds(sunoApiConfig.getTimeout()))
+                        .build())
+                .build();
+        CloseableHttpClient httpClient = HttpClients.custom()
+                .setConnectionManager(connectionManager)
+                .evictIdleConnections(TimeValue.ofMilliseconds(pool.getKeepAlive()))
+                // 429/503交给限流器和调用方处理，不由HTTP客户端自动重发
+                .disableAutomaticRetries()
+                .build();
+
+        HttpComponentsClientHttpRequestFactory factory = new HttpComponentsClientHttpRequestFactory(httpClient);
+        factory.setConnectTimeout(pool.getConnectTimeout());
         
         RestTemplate restTemplate = new RestTemplate(factory);
         restTemplate.setErrorHandler(new RestTemplateResponseErrorHandler());
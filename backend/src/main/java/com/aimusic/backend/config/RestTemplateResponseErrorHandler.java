@@ -30,10 +30,11 @@ public class RestTemplateResponseErrorHandler implements ResponseErrorHandler {
             .lines()
             .collect(Collectors.joining("\n"));
 
+        int statusCode = response.getStatusCode().value();
         if (response.getStatusCode().is4xxClientError()) {
-            throw new ExternalApiException("外部API客户端错误: " + responseBody);
+            throw new ExternalApiException("外部API客户端错误: " + responseBody, statusCode);
         } else if (response.getStatusCode().is5xxServerError()) {
-            throw new ExternalApiException("外部API服务器错误: " + responseBody);
+            throw new ExternalApiException("外部API服务器错误: " + responseBody, statusCode);
         }
     }
 } 
\ No newline at end of file
@@ -0,0 +1,43 @@
+package com.aimusic.backend.config;
+
+import org.springframework.boot.task.ThreadPoolTaskSchedulerBuilder;
+import org.springframework.context.annotation.Bean;
+import org.springframework.context.annotation.Configuration;
+import org.springframework.scheduling.annotation.EnableScheduling;
+import org.springframework.scheduling.concurrent.ThreadPoolTaskScheduler;
+
+/**
+ * 定时任务配置类
+ * 启用后台定时任务（如生成状态轮询）
+ * 生成任务的领取和续约使用独立的调度器，不会被共享调度器上阻塞的Suno轮询等任务拖延导致租约过期
+ */
+@Configuration
+@EnableScheduling
+public class SchedulingConfig {
+
+    /**
+     * 生成任务调度器的名称，供 {@code @Scheduled(scheduler = ...)} 引用
+     */
+    public static final String GENERATION_JOB_SCHEDULER = "generationJobScheduler";
+
+    /**
+     * 共享调度器，线程数等参数由 spring.task.scheduling 配置
+     * 声明了其他调度器后Spring Boot不再自动创建默认调度器，这里按同样的配置显式创建
+     */
+    @Bean(name = "taskScheduler")
+    public ThreadPoolTaskScheduler taskScheduler(ThreadPoolTaskSchedulerBuilder builder) {
+        return builder.build();
+    }
+
+    /**
+     * 生成任务调度器，领取和续约各占一个线程
+     */
+    @Bean(name = GENERATION_JOB_SCHEDULER)
+    public ThreadPoolTaskScheduler generationJobScheduler() {
+        ThreadPoolTaskScheduler scheduler = new ThreadPoolTaskScheduler();
+        scheduler.setPoolSize(2);
+        scheduler.setThreadNamePrefix("generation-job-");
+        scheduler.setWaitForTasksToCompleteOnShutdown(true);
+        return scheduler;
+    }
+}
@@ -14,6 +14,11 @@ import java.util.Set;
 @ConfigurationProperties(prefix = "storage")
 @Data
 public class StorageConfig {
+
+    /**
+     * 存储实现：filesystem（按文件名存储）或 content-addressed（按内容SHA-256去重存储）
+     */
+    private String type = "filesystem";
     
     /**
      * 存储根路径
@@ -49,4 +54,20 @@ public class StorageConfig {
      * 文件名最大长度
      */
     private int maxFilenameLength;
+
+    /**
+     * 使用sendfile零拷贝发送的最小字节数，较小的文件直接写入响应
+     */
+    private long sendfileMinSize = 49152;
+
+    /**
+     * 流式上传时每次读写的缓冲区大小（字节）
+     */
+    private int uploadBufferSize = 65536;
+
+    /**
+     * 启动时是否为磁盘上未建立索引的文件补建索引
+     * 需要遍历整个存储目录，只在从未建立索引的旧版本升级后开启一次
+     */
+    private boolean rebuildIndexOnStartup = false;
 } 
\ No newline at end of file
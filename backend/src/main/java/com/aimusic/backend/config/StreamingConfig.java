@@ -0,0 +1,40 @@
+package com.aimusic.backend.config;
+
+import lombok.Data;
+import org.springframework.boot.context.properties.ConfigurationProperties;
+import org.springframework.context.annotation.Configuration;
+
+/**
+ * 分片流媒体配置类
+ * 开启后音频导入本地存储时切分为固定时长的分片，生成HLS播放列表和DASH清单
+ */
+@Data
+@Configuration
+@ConfigurationProperties(prefix = "storage.streaming")
+public class StreamingConfig {
+
+    /**
+     * 是否在音频导入后生成分片
+     */
+    private boolean enabled = false;
+
+    /**
+     * 分片存储目录
+     */
+    private String location = "streams";
+
+    /**
+     * 分片时长（秒）
+     */
+    private int segmentDuration = 6;
+
+    /**
+     * 分片的AAC码率（kbps）
+     */
+    private int bitrate = 128;
+
+    /**
+     * 清单和分片的缓存时间（秒），分片生成后内容不再变化
+     */
+    private long cacheMaxAge = 31536000;
+}
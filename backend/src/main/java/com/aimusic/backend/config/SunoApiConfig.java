@@ -31,4 +31,46 @@ public class SunoApiConfig {
      * 最大重试次数
      */
     private int maxRetries = 3;
-} 
\ No newline at end of file
+    
+    /**
+     * HTTP连接池配置
+     */
+    private Pool pool = new Pool();
+    
+    /**
+     * HTTP连接池配置
+     */
+    @Data
+    public static class Pool {
+        
+        /**
+         * 连接池最大连接数
+         */
+        private int maxConnections = 200;
+        
+        /**
+         * 每个目标主机的最大连接数
+         */
+        private int maxConnectionsPerHost = 50;
+        
+        /**
+         * 建立连接超时时间（毫秒）
+         */
+        private int connectTimeout = 5000;
+        
+        /**
+         * 空闲连接保活时间（毫秒）
+         */
+        private long keepAlive = 30000;
+        
+        /**
+         * IO线程数，0表示使用CPU核数
+         */
+        private int ioThreads = 0;
+        
+        /**
+         * 是否启用HTTP/2（TLS下通过ALPN协商）
+         */
+        private boolean http2Enabled = true;
+    }
+}
@@ -0,0 +1,54 @@
+package com.aimusic.backend.config;
+
+import lombok.Data;
+import org.springframework.boot.context.properties.ConfigurationProperties;
+import org.springframework.context.annotation.Configuration;
+
+/**
+ * Suno熔断与并发隔离配置类
+ */
+@Data
+@Configuration
+@ConfigurationProperties(prefix = "suno.circuit-breaker")
+public class SunoCircuitBreakerConfig {
+
+    /**
+     * 是否启用熔断
+     */
+    private boolean enabled = true;
+
+    /**
+     * 统计失败率的滑动窗口大小（最近的调用次数）
+     */
+    private int slidingWindowSize = 20;
+
+    /**
+     * 窗口内至少有这么多次调用才计算失败率
+     */
+    private int minimumCalls = 10;
+
+    /**
+     * 失败率阈值（百分比），达到后熔断器打开
+     */
+    private int failureRateThreshold = 50;
+
+    /**
+     * 熔断器打开后的持续时间（毫秒），之后进入半开状态
+     */
+    private long openDuration = 30000;
+
+    /**
+     * 半开状态下允许的探测调用数，全部成功后关闭熔断器
+     */
+    private int halfOpenProbes = 2;
+
+    /**
+     * 同时进行的Suno调用上限（并发隔离）
+     */
+    private int maxConcurrentCalls = 20;
+
+    /**
+     * 并发隔离已满时的最长等待时间（毫秒），0表示立即失败
+     */
+    private long maxWait = 0;
+}
@@ -0,0 +1,75 @@
+package com.aimusic.backend.config;
+
+import lombok.Data;
+import org.springframework.boot.context.properties.ConfigurationProperties;
+import org.springframework.context.annotation.Configuration;
+
+/**
+ * Suno调用限流配置类
+ * 按AIMD方式调整允许的并发请求数，并根据剩余配额暂停提交
+ */
+@Data
+@Configuration
+@ConfigurationProperties(prefix = "suno.governor")
+public class SunoGovernorConfig {
+
+    /**
+     * 是否启用限流
+     */
+    private boolean enabled = true;
+
+    /**
+     * 初始允许的并发请求数
+     */
+    private int initialConcurrency = 4;
+
+    /**
+     * 并发请求数下限
+     */
+    private int minConcurrency = 1;
+
+    /**
+     * 并发请求数上限
+     */
+    private int maxConcurrency = 16;
+
+    /**
+     * 加性增长步长，每个成功请求使并发上限增加 additiveIncrease / 当前上限
+     */
+    private double additiveIncrease = 1.0;
+
+    /**
+     * 乘性减少系数，遇到限流或响应过慢时并发上限乘以该系数
+     */
+    private double decreaseFactor = 0.5;
+
+    /**
+     * 响应时间阈值（毫秒），超过时视为上游拥塞
+     */
+    private long latencyThreshold = 15000;
+
+    /**
+     * 遇到429后暂停提交的时间（毫秒）
+     */
+    private long rateLimitCooldown = 5000;
+
+    /**
+     * 请求最长排队时间（毫秒），超时后失败
+     */
+    private long maxWait = 60000;
+
+    /**
+     * 配额刷新周期（毫秒）
+     */
+    private long quotaRefreshInterval = 60000;
+
+    /**
+     * 每次生成消耗的积分
+     */
+    private int creditsPerRequest = 10;
+
+    /**
+     * 保留的积分，剩余积分低于该值时不再提交生成
+     */
+    private int creditsReserve = 0;
+}
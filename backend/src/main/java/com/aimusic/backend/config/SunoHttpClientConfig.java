@@ -0,0 +1,69 @@
+package com.aimusic.backend.config;
+
+import org.apache.hc.client5.http.config.ConnectionConfig;
+import org.apache.hc.client5.http.config.RequestConfig;
+import org.apache.hc.client5.http.config.TlsConfig;
+import org.apache.hc.client5.http.impl.async.CloseableHttpAsyncClient;
+import org.apache.hc.client5.http.impl.async.HttpAsyncClients;
+import org.apache.hc.client5.http.impl.nio.PoolingAsyncClientConnectionManager;
+import org.apache.hc.client5.http.impl.nio.PoolingAsyncClientConnectionManagerBuilder;
+import org.apache.hc.core5.http2.HttpVersionPolicy;
+import org.apache.hc.core5.reactor.IOReactorConfig;
+import org.apache.hc.core5.util.TimeValue;
+import org.apache.hc.core5.util.Timeout;
+import org.springframework.context.annotation.Bean;
+import org.springframework.context.annotation.Configuration;
+
+/**
+ * Suno API 异步HTTP客户端配置类
+ * 基于连接池、长连接和HTTP/2的非阻塞客户端
+ */
+@Configuration
+public class SunoHttpClientConfig {
+
+    /**
+     * 创建 Suno API 异步HTTP客户端
+     * 请求在IO线程上多路复用，不会在等待响应期间占用业务线程
+     *
+     * @param sunoApiConfig Suno API配置
+     * @return 已启动的异步HTTP客户端
+     */
+    @Bean(name = "sunoHttpAsyncClient", destroyMethod = "close")
+    public CloseableHttpAsyncClient sunoHttpAsyncClient(SunoApiConfig sunoApiConfig) {
+        SunoApiConfig.Pool pool = sunoApiConfig.getPool();
+
+        PoolingAsyncClientConnectionManager connectionManager = PoolingAsyncClientConnectionManagerBuilder.create()
+                .setMaxConnTotal(pool.getMaxConnections())
+                .setMaxConnPerRoute(pool.getMaxConnectionsPerHost())
+                .setDefaultConnectionConfig(ConnectionConfig.custom()
+                        .setConnectTimeout(Timeout.ofMilliseconds(pool.getConnectTimeout()))
+                        .setValidateAfterInactivity(TimeValue.ofSeconds(5))
+                        .build())
+                .setDefaultTlsConfig(TlsConfig.custom()
+                        .setVersionPolicy(pool.isHttp2Enabled()
+                                ? HttpVersionPolicy.NEGOTIATE
+                                : HttpVersionPolicy.FORCE_HTTP_1)
+                        .build())
+                .build();
+
+        IOReactorConfig.Builder ioReactorConfig = IOReactorConfig.custom()
+                .setSoTimeout(Timeout.ofMilliseconds(sunoApiConfig.getTimeout()));
+        if (pool.getIoThreads() > 0) {
+            ioReactorConfig.setIoThreadCount(pool.getIoThreads());
+        }
+
+        CloseableHttpAsyncClient client = HttpAsyncClients.custom()
+                .setConnectionManager(connectionManager)
+                .setIOReactorConfig(ioReactorConfig.build())
+                .setDefaultRequestConfig(RequestConfig.custom()
+                        .setResponseTimeout(Timeout.ofMilliseconds(sunoApiConfig.getTimeout()))
+                        .setConnectionKeepAlive(TimeValue.ofMilliseconds(pool.getKeepAlive()))
+                        .build())
+                .evictIdleConnections(TimeValue.ofMilliseconds(pool.getKeepAlive()))
+                // 默认重试策略会在1秒后自动重发429/503，绕过限流器的退避，重试统一交给限流器和调用方
+                .disableAutomaticRetries()
+                .build();
+        client.start();
+        return client;
+    }
+}
@@ -0,0 +1,96 @@
+package com.aimusic.backend.config;
+
+import com.aimusic.backend.domain.enums.AudioCodec;
+import com.aimusic.backend.domain.enums.RenditionQuality;
+import lombok.AllArgsConstructor;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+import org.springframework.boot.context.properties.ConfigurationProperties;
+import org.springframework.context.annotation.Configuration;
+
+import java.util.ArrayList;
+import java.util.List;
+
+/**
+ * 音频转码配置类
+ * 配置生成的码率/格式版本、本地编码器和转码线程池
+ */
+@Data
+@Configuration
+@ConfigurationProperties(prefix = "music.transcoding")
+public class TranscodingConfig {
+
+    /**
+     * 是否在音频导入本地存储后生成转码版本
+     */
+    private boolean enabled = true;
+
+    /**
+     * ffmpeg可执行文件路径
+     */
+    private String ffmpegPath = "ffmpeg";
+
+    /**
+     * 同时进行的转码任务数
+     */
+    private int workers = 2;
+
+    /**
+     * 等待转码的任务数上限，超出的任务由定时补偿扫描再次提交
+     */
+    private int queueCapacity = 500;
+
+    /**
+     * 单个版本的转码超时时间（毫秒），超时后终止编码进程
+     */
+    private long timeout = 600000;
+
+    /**
+     * 补偿扫描周期（毫秒），重新提交缺少转码版本的本地音乐（队列已满被跳过或实例重启时丢失的任务）
+     */
+    private long sweepInterval = 300000;
+
+    /**
+     * 每次补偿扫描的最大数量
+     */
+    private int sweepBatchSize = 100;
+
+    /**
+     * 生成的版本
+     */
+    private List<Rendition> renditions = new ArrayList<>(List.of(
+            new Rendition("low-opus", RenditionQuality.LOW, AudioCodec.OPUS, 48),
+            new Rendition("low-aac", RenditionQuality.LOW, AudioCodec.AAC, 64),
+            new Rendition("medium-opus", RenditionQuality.MEDIUM, AudioCodec.OPUS, 96),
+            new Rendition("medium-aac", RenditionQuality.MEDIUM, AudioCodec.AAC, 128),
+            new Rendition("high-aac", RenditionQuality.HIGH, AudioCodec.AAC, 192)));
+
+    /**
+     * 转码版本配置
+     */
+    @Data
+    @NoArgsConstructor
+    @AllArgsConstructor
+    public static class Rendition {
+
+        /**
+         * 版本名称，同一音乐内唯一
+         */
+        private String name;
+
+        /**
+         * 质量档位
+         */
+        private RenditionQuality quality;
+
+        /**
+         * 编码格式
+         */
+        private AudioCodec codec;
+
+        /**
+         * 码率（kbps）
+         */
+        private int bitrate;
+    }
+}
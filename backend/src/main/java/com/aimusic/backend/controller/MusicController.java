@@ -1,22 +1,30 @@
 package com.aimusic.backend.controller;
 
+import com.aimusic.backend.domain.dto.MusicCursor;
 import com.aimusic.backend.domain.dto.MusicDTO;
+import com.aimusic.backend.domain.dto.MusicSummaryDTO;
 import com.aimusic.backend.domain.dto.MusicGenerationRequest;
+import com.aimusic.backend.domain.service.BatchGenerationService;
 import com.aimusic.backend.domain.service.MusicService;
 import io.swagger.v3.oas.annotations.Operation;
 import io.swagger.v3.oas.annotations.tags.Tag;
+import jakarta.servlet.http.HttpServletRequest;
+import jakarta.servlet.http.HttpServletResponse;
 import lombok.RequiredArgsConstructor;
-import org.springframework.data.domain.Page;
 import org.springframework.data.domain.Pageable;
+import org.springframework.data.domain.Slice;
+import org.springframework.http.MediaType;
 import org.springframework.http.ResponseEntity;
 import org.springframework.web.bind.annotation.GetMapping;
 import org.springframework.web.bind.annotation.PathVariable;
 import org.springframework.web.bind.annotation.PostMapping;
 import org.springframework.web.bind.annotation.RequestBody;
 import org.springframework.web.bind.annotation.RequestMapping;
+import org.springframework.web.bind.annotation.RequestParam;
 import org.springframework.web.bind.annotation.RestController;
 
 import jakarta.validation.Valid;
+import java.io.IOException;
 import java.util.UUID;
 
 /**
@@ -29,7 +37,14 @@ import java.util.UUID;
 @RequiredArgsConstructor
 public class MusicController {
     
+    /**
+     * 下一页游标响应头
+     */
+    static final String NEXT_CURSOR_HEADER = "X-Next-Cursor";
+    private static final int MAX_PAGE_SIZE = 100;
+
     private final MusicService musicService;
+    private final BatchGenerationService batchGenerationService;
     
     /**
      * 生成音乐
@@ -42,6 +57,23 @@ public class MusicController {
     public ResponseEntity<MusicDTO> generateMusic(@Valid @RequestBody MusicGenerationRequest request) {
         return ResponseEntity.ok(musicService.generateMusic(request));
     }
+
+    /**
+     * 批量生成音乐
+     * 请求体为生成请求的JSON数组或NDJSON，响应以NDJSON逐行输出每个请求的音乐ID和生成任务ID，
+     * 按请求顺序每处理完一批输出一批；单个请求失败时该行只包含 index 和 error
+     *
+     * @param request HTTP请求
+     * @param response HTTP响应
+     */
+    @Operation(summary = "批量生成音乐（NDJSON）")
+    @PostMapping(value = "/generate/batch",
+            consumes = {MediaType.APPLICATION_JSON_VALUE, MediaType.APPLICATION_NDJSON_VALUE},
+            produces = MediaType.APPLICATION_NDJSON_VALUE)
+    void generateMusicBatch(HttpServletRequest request, HttpServletResponse response) throws IOException {
+        response.setContentType(MediaType.APPLICATION_NDJSON_VALUE);
+        batchGenerationService.generate(request.getInputStream(), response.getOutputStream());
+    }
     
     /**
      * 获取音乐详情
@@ -57,13 +89,39 @@ public class MusicController {
     
     /**
      * 分页查询音乐列表
+     * 深分页时OFFSET需要跳过前面所有行，数据量大时使用 {@code /cursor} 游标接口
      *
      * @param pageable 分页参数
+     * @param count 是否查询总数，为false时返回不含总数的分片，省去每页一次的 COUNT(*)
      * @return 音乐列表
      */
     @Operation(summary = "获取音乐列表")
     @GetMapping
-    public ResponseEntity<Page<MusicDTO>> listMusic(Pageable pageable) {
-        return ResponseEntity.ok(musicService.listMusic(pageable));
+    public ResponseEntity<Slice<MusicSummaryDTO>> listMusic(Pageable pageable,
+                                                            @RequestParam(defaultValue = "true") boolean count) {
+        return ResponseEntity.ok(count ? musicService.listMusic(pageable) : musicService.sliceMusic(pageable));
+    }
+
+    /**
+     * 按游标分页查询音乐列表，按创建时间和ID降序，不查询总数
+     * 还有下一页时通过 X-Next-Cursor 响应头返回游标，作为下次请求的 after 参数
+     *
+     * @param after 上一页返回的游标
+     * @param size 每页数量，最大100
+     * @return 音乐列表
+     */
+    @Operation(summary = "按游标获取音乐列表")
+    @GetMapping("/cursor")
+    public ResponseEntity<Slice<MusicSummaryDTO>> listMusicByCursor(@RequestParam(required = false) String after,
+                                                                    @RequestParam(defaultValue = "20") int size) {
+        int pageSize = Math.max(1, Math.min(size, MAX_PAGE_SIZE));
+        MusicCursor cursor = after != null ? MusicCursor.decode(after) : null;
+        Slice<MusicSummaryDTO> slice = musicService.listMusicAfter(cursor, pageSize);
+        ResponseEntity.BodyBuilder response = ResponseEntity.ok();
+        if (slice.hasNext()) {
+            MusicSummaryDTO last = slice.getContent().get(slice.getNumberOfElements() - 1);
+            response.header(NEXT_CURSOR_HEADER, MusicCursor.of(last).encode());
+        }
+        return response.body(slice);
     }
 } 
\ No newline at end of file
@@ -0,0 +1,52 @@
+package com.aimusic.backend.controller;
+
+import com.aimusic.backend.domain.service.MusicEventStreamService;
+import io.swagger.v3.oas.annotations.Operation;
+import io.swagger.v3.oas.annotations.tags.Tag;
+import lombok.RequiredArgsConstructor;
+import org.springframework.http.MediaType;
+import org.springframework.web.bind.annotation.GetMapping;
+import org.springframework.web.bind.annotation.PathVariable;
+import org.springframework.web.bind.annotation.RequestMapping;
+import org.springframework.web.bind.annotation.RequestParam;
+import org.springframework.web.bind.annotation.RestController;
+import org.springframework.web.servlet.mvc.method.annotation.SseEmitter;
+
+import java.util.UUID;
+
+/**
+ * 音乐状态推送控制器
+ * 通过Server-Sent Events推送音乐状态变更，客户端无需轮询
+ */
+@Tag(name = "音乐状态推送", description = "音乐生成状态的实时推送接口")
+@RestController
+@RequestMapping("/api/music")
+@RequiredArgsConstructor
+public class MusicEventController {
+
+    private final MusicEventStreamService musicEventStreamService;
+
+    /**
+     * 订阅单个音乐的状态变更
+     *
+     * @param id 音乐ID
+     * @return 状态事件流
+     */
+    @Operation(summary = "订阅音乐状态变更")
+    @GetMapping(value = "/{id}/events", produces = MediaType.TEXT_EVENT_STREAM_VALUE)
+    public SseEmitter streamMusicStatus(@PathVariable UUID id) {
+        return musicEventStreamService.subscribeMusic(id);
+    }
+
+    /**
+     * 订阅用户所有音乐的状态变更
+     *
+     * @param userId 用户ID
+     * @return 状态事件流
+     */
+    @Operation(summary = "订阅用户音乐状态变更")
+    @GetMapping(value = "/events", produces = MediaType.TEXT_EVENT_STREAM_VALUE)
+    public SseEmitter streamUserMusicStatus(@RequestParam UUID userId) {
+        return musicEventStreamService.subscribeUser(userId);
+    }
+}
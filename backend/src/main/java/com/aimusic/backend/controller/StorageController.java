@@ -1,24 +1,45 @@
 package com.aimusic.backend.controller;
 
+import com.aimusic.backend.config.StreamingConfig;
+import com.aimusic.backend.domain.dto.StoredFileDTO;
+import com.aimusic.backend.domain.entity.MusicRendition;
+import com.aimusic.backend.domain.enums.AudioCodec;
+import com.aimusic.backend.domain.enums.RenditionQuality;
+import com.aimusic.backend.domain.service.RenditionService;
+import com.aimusic.backend.service.FileDownloadService;
 import com.aimusic.backend.service.StorageService;
+import com.aimusic.backend.service.StreamingService;
+import com.fasterxml.jackson.databind.ObjectMapper;
 import io.swagger.v3.oas.annotations.Operation;
 import io.swagger.v3.oas.annotations.tags.Tag;
+import jakarta.servlet.http.HttpServletRequest;
+import jakarta.servlet.http.HttpServletResponse;
 import lombok.RequiredArgsConstructor;
 import org.springframework.core.io.Resource;
 import org.springframework.http.HttpHeaders;
+import org.springframework.http.CacheControl;
+import org.springframework.http.HttpStatus;
 import org.springframework.http.MediaType;
 import org.springframework.http.ResponseEntity;
 import org.springframework.web.bind.annotation.DeleteMapping;
 import org.springframework.web.bind.annotation.GetMapping;
 import org.springframework.web.bind.annotation.PathVariable;
 import org.springframework.web.bind.annotation.PostMapping;
+import org.springframework.web.bind.annotation.PutMapping;
 import org.springframework.web.bind.annotation.RequestMapping;
 import org.springframework.web.bind.annotation.RequestParam;
 import org.springframework.web.bind.annotation.RestController;
 import org.springframework.web.multipart.MultipartFile;
 import org.springframework.web.servlet.mvc.method.annotation.MvcUriComponentsBuilder;
 
+import java.io.IOException;
+import java.io.OutputStream;
+import java.net.URI;
+import java.nio.file.Path;
 import java.util.List;
+import java.util.Locale;
+import java.util.Optional;
+import java.util.concurrent.TimeUnit;
 import java.util.stream.Collectors;
 
 /**
@@ -31,7 +52,29 @@ import java.util.stream.Collectors;
 @RequiredArgsConstructor
 class StorageController {
 
+    /**
+     * 下一页游标响应头
+     */
+    static final String NEXT_CURSOR_HEADER = "X-Next-Cursor";
+    /**
+     * 实际返回的转码版本响应头
+     */
+    static final String RENDITION_HEADER = "X-Rendition";
+    /**
+     * 用于选择转码版本的客户端提示（Network Information / Save-Data）
+     */
+    static final String CLIENT_HINTS = "Save-Data, ECT, Downlink";
+    private static final int MAX_PAGE_SIZE = 1000;
+    private static final MediaType HLS_PLAYLIST_TYPE = MediaType.parseMediaType("application/vnd.apple.mpegurl");
+    private static final MediaType DASH_MANIFEST_TYPE = MediaType.parseMediaType("application/dash+xml");
+    private static final MediaType SEGMENT_TYPE = MediaType.parseMediaType("audio/mp4");
+
     private final StorageService storageService;
+    private final FileDownloadService fileDownloadService;
+    private final RenditionService renditionService;
+    private final StreamingService streamingService;
+    private final StreamingConfig streamingConfig;
+    private final ObjectMapper objectMapper;
 
     @Operation(summary = "上传文件")
     @PostMapping("/upload")
@@ -40,18 +83,103 @@ class StorageController {
         return ResponseEntity.ok(filename);
     }
 
+    /**
+     * 流式上传文件
+     * 请求体即文件内容，不经过multipart解析，直接写入临时目录后原子移动到存储目录
+     *
+     * @param filename 原始文件名，用于校验类型和生成存储文件名
+     * @return 已存储文件信息（含SHA-256校验和）
+     */
+    @Operation(summary = "流式上传文件")
+    @PutMapping("/upload/stream")
+    ResponseEntity<StoredFileDTO> uploadStream(@RequestParam("filename") String filename,
+                                               HttpServletRequest request) throws IOException {
+        return ResponseEntity.ok(storageService.store(request.getInputStream(), filename));
+    }
+
+    /**
+     * 下载文件
+     * 本地文件支持Range/If-Range断点续传、多段范围和ETag条件请求，并以零拷贝方式写入响应；
+     * 对象存储返回302重定向到预签名地址。
+     * 音频有转码版本时按 quality 参数或客户端提示（Save-Data、ECT、Downlink）选择码率，按 format 参数或 Accept 选择格式；
+     * 没有提示或没有对应版本时返回原文件
+     *
+     * @param filename 文件名
+     * @param quality 质量档位（low、medium、high、original），优先于客户端提示
+     * @param format 优先的格式（opus、aac）
+     */
     @Operation(summary = "下载文件")
     @GetMapping("/download/{filename}")
-    ResponseEntity<Resource> downloadFile(@PathVariable String filename) {
+    ResponseEntity<Resource> downloadFile(@PathVariable String filename,
+                                          @RequestParam(required = false) String quality,
+                                          @RequestParam(required = false) String format,
+                                          HttpServletRequest request,
+                                          HttpServletResponse response) throws IOException {
+        response.setHeader("Accept-CH", CLIENT_HINTS);
+        response.addHeader(HttpHeaders.VARY, CLIENT_HINTS + ", " + HttpHeaders.ACCEPT);
+        RenditionQuality requested = resolveQuality(quality, request);
+        if (requested != null) {
+            Optional<MusicRendition> rendition = renditionService.selectRendition(
+                    filename, requested, resolveCodec(format, request));
+            if (rendition.isPresent()) {
+                filename = rendition.get().getFilename();
+                response.setHeader(RENDITION_HEADER, rendition.get().getName());
+            }
+        }
+
+        Optional<URI> presigned = storageService.presignedDownloadUrl(filename);
+        if (presigned.isPresent()) {
+            // 对象存储直接重定向到预签名地址，文件内容不经过本服务
+            return ResponseEntity.status(HttpStatus.FOUND).location(presigned.get()).build();
+        }
         Resource file = storageService.loadAsResource(filename);
+        if (file.isFile()) {
+            // 响应已由下载服务直接写出
+            fileDownloadService.download(file.getFile().toPath(), request, response);
+            return null;
+        }
         return ResponseEntity.ok()
                 .header(HttpHeaders.CONTENT_DISPOSITION, "attachment; filename=\"" + file.getFilename() + "\"")
                 .contentType(MediaType.APPLICATION_OCTET_STREAM)
                 .body(file);
     }
 
+    /**
+     * 获取音频的流媒体清单或分片
+     * HLS播放地址为 {@code /streams/{filename}/master.m3u8}，DASH为 {@code /streams/{filename}/manifest.mpd}，
+     * 两者共用同一组fMP4分片。分片生成后内容不再变化，响应带长期缓存头，可由CDN和播放器直接缓存
+     *
+     * @param filename 已存储的音频文件名
+     * @param name 清单或分片文件名
+     */
+    @Operation(summary = "获取流媒体清单或分片")
+    @GetMapping("/streams/{filename}/{name:.+}")
+    void streamFile(@PathVariable String filename,
+                    @PathVariable String name,
+                    HttpServletRequest request,
+                    HttpServletResponse response) throws IOException {
+        Path file = streamingService.loadStreamFile(filename, name);
+        response.setHeader(HttpHeaders.CACHE_CONTROL, CacheControl
+                .maxAge(streamingConfig.getCacheMaxAge(), TimeUnit.SECONDS)
+                .cachePublic()
+                .immutable()
+                .getHeaderValue());
+        fileDownloadService.stream(file, streamContentType(name), request, response);
+    }
+
+    private MediaType streamContentType(String name) {
+        if (name.endsWith(".m3u8")) {
+            return HLS_PLAYLIST_TYPE;
+        }
+        if (name.endsWith(".mpd")) {
+            return DASH_MANIFEST_TYPE;
+        }
+        return SEGMENT_TYPE;
+    }
+
     /**
      * 获取文件列表
+     * 会遍历存储目录并一次性返回全部结果，文件较多时使用 {@code /files} 分页接口
      *
      * @return 文件URL列表
      */
@@ -59,12 +187,97 @@ class StorageController {
     public ResponseEntity<List<String>> listFiles() {
         List<String> files = storageService.loadAll()
                 .map(path -> MvcUriComponentsBuilder
-                        .fromMethodName(StorageController.class, "downloadFile", path.getFileName().toString())
+                        .fromMethodName(StorageController.class, "downloadFile",
+                                path.getFileName().toString(), null, null, null, null)
                         .build().toString())
                 .collect(Collectors.toList());
         return ResponseEntity.ok(files);
     }
 
+    /**
+     * 按文件名游标分页列出文件，以NDJSON逐行输出
+     * 还有下一页时通过 X-Next-Cursor 响应头返回游标，作为下次请求的 after 参数
+     *
+     * @param after 上一页最后一个文件名
+     * @param limit 每页数量，最大1000
+     */
+    @Operation(summary = "分页列出文件（NDJSON）")
+    @GetMapping(value = "/files", produces = MediaType.APPLICATION_NDJSON_VALUE)
+    void streamFiles(@RequestParam(required = false) String after,
+                     @RequestParam(defaultValue = "1000") int limit,
+                     HttpServletResponse response) throws IOException {
+        int pageSize = Math.max(1, Math.min(limit, MAX_PAGE_SIZE));
+        List<StoredFileDTO> files = storageService.listFiles(after, pageSize);
+        if (files.size() == pageSize) {
+            response.setHeader(NEXT_CURSOR_HEADER, files.get(files.size() - 1).getFilename());
+        }
+        response.setContentType(MediaType.APPLICATION_NDJSON_VALUE);
+        OutputStream out = response.getOutputStream();
+        for (StoredFileDTO file : files) {
+            out.write(objectMapper.writeValueAsBytes(file));
+            out.write('\n');
+        }
+        out.flush();
+    }
+
+    /**
+     * 解析质量档位：显式参数优先，其次是省流量模式和网络类型/带宽提示，都没有时返回null（原文件）
+     */
+    private RenditionQuality resolveQuality(String quality, HttpServletRequest request) {
+        if (quality != null) {
+            String value = quality.trim().toUpperCase(Locale.ROOT);
+            for (RenditionQuality candidate : RenditionQuality.values()) {
+                if (candidate.name().equals(value)) {
+                    return candidate;
+                }
+            }
+            return null;
+        }
+        if ("on".equalsIgnoreCase(request.getHeader("Save-Data"))) {
+            return RenditionQuality.LOW;
+        }
+        String ect = request.getHeader("ECT");
+        if (ect != null) {
+            switch (ect.trim().toLowerCase(Locale.ROOT)) {
+                case "slow-2g", "2g":
+                    return RenditionQuality.LOW;
+                case "3g":
+                    return RenditionQuality.MEDIUM;
+                default:
+                    return RenditionQuality.HIGH;
+            }
+        }
+        String downlink = request.getHeader("Downlink");
+        if (downlink != null) {
+            try {
+                double mbps = Double.parseDouble(downlink.trim());
+                return mbps < 1 ? RenditionQuality.LOW : mbps < 5 ? RenditionQuality.MEDIUM : RenditionQuality.HIGH;
+            } catch (NumberFormatException e) {
+                return null;
+            }
+        }
+        return null;
+    }
+
+    /**
+     * 解析优先的格式：显式参数优先，其次是 Accept 中声明的Ogg/Opus
+     */
+    private AudioCodec resolveCodec(String format, HttpServletRequest request) {
+        if (format != null) {
+            String value = format.trim().toUpperCase(Locale.ROOT);
+            for (AudioCodec codec : AudioCodec.values()) {
+                if (codec.name().equals(value)) {
+                    return codec;
+                }
+            }
+        }
+        String accept = request.getHeader(HttpHeaders.ACCEPT);
+        if (accept != null && (accept.contains("audio/ogg") || accept.contains("audio/opus"))) {
+            return AudioCodec.OPUS;
+        }
+        return null;
+    }
+
     @Operation(summary = "删除文件")
     @DeleteMapping("/{filename}")
     ResponseEntity<Void> deleteFile(@PathVariable String filename) {
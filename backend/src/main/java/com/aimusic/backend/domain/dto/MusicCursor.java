@@ -0,0 +1,60 @@
+package com.aimusic.backend.domain.dto;
+
+import com.aimusic.backend.exception.InvalidCursorException;
+import lombok.Value;
+
+import java.nio.charset.StandardCharsets;
+import java.time.LocalDateTime;
+import java.util.Base64;
+import java.util.UUID;
+
+/**
+ * 音乐列表游标
+ * 指向上一页最后一条音乐的 (创建时间, ID)，下一页从其之后开始；对客户端为不透明的Base64URL字符串
+ */
+@Value
+public class MusicCursor {
+
+    private static final char SEPARATOR = '|';
+
+    private final LocalDateTime createdAt;
+    private final UUID id;
+
+    /**
+     * 以音乐作为游标位置
+     *
+     * @param music 上一页最后一条音乐
+     * @return 游标
+     */
+    public static MusicCursor of(MusicSummaryDTO music) {
+        return new MusicCursor(music.getCreatedAt(), music.getId());
+    }
+
+    /**
+     * 解析客户端传回的游标
+     *
+     * @param value 游标字符串
+     * @return 游标
+     * @throws InvalidCursorException 游标格式错误
+     */
+    public static MusicCursor decode(String value) {
+        try {
+            String decoded = new String(Base64.getUrlDecoder().decode(value), StandardCharsets.UTF_8);
+            int separator = decoded.indexOf(SEPARATOR);
+            return new MusicCursor(LocalDateTime.parse(decoded.substring(0, separator)),
+                    UUID.fromString(decoded.substring(separator + 1)));
+        } catch (RuntimeException e) {
+            throw new InvalidCursorException("无效的分页游标: " + value, e);
+        }
+    }
+
+    /**
+     * 编码为客户端使用的游标字符串
+     *
+     * @return 游标字符串
+     */
+    public String encode() {
+        return Base64.getUrlEncoder().withoutPadding()
+                .encodeToString((createdAt.toString() + SEPARATOR + id).getBytes(StandardCharsets.UTF_8));
+    }
+}
@@ -69,6 +69,11 @@ public class MusicDTO {
      */
     private String errorMessage;
 
+    /**
+     * 复用结果的来源音乐ID
+     */
+    private UUID sourceMusicId;
+
     /**
      * 创建时间
      */
@@ -97,6 +102,7 @@ public class MusicDTO {
                 .duration(music.getDuration())
                 .errorMessage(music.getErrorMessage())
                 .generationId(music.getGenerationId())
+                .sourceMusicId(music.getSourceMusicId())
                 .createdAt(music.getCreatedAt())
                 .updatedAt(music.getUpdatedAt())
                 .build();
@@ -1,5 +1,6 @@
 package com.aimusic.backend.domain.dto;
 
+import com.aimusic.backend.domain.enums.GenerationPriority;
 import jakarta.validation.constraints.NotBlank;
 import jakarta.validation.constraints.NotNull;
 import jakarta.validation.constraints.Size;
@@ -68,6 +69,17 @@ public class MusicGenerationRequest {
     @Builder.Default
     private boolean useAiVoice = false;
     
+    /**
+     * 是否跳过生成结果缓存，为true时总是提交新的生成
+     */
+    @Builder.Default
+    private boolean skipCache = false;
+
+    /**
+     * 调度优先级，单条提交只能设为BATCH以降低优先级，为空时按交互优先级调度；批量提交总是按批量优先级调度
+     */
+    private GenerationPriority priority;
+    
     /**
      * 音乐标题
      */
@@ -0,0 +1,61 @@
+package com.aimusic.backend.domain.dto;
+
+import com.aimusic.backend.domain.enums.MusicStatus;
+import com.fasterxml.jackson.annotation.JsonInclude;
+import lombok.AllArgsConstructor;
+import lombok.Builder;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+
+import java.util.UUID;
+
+/**
+ * 批量生成中单个请求的处理结果
+ * 成功时返回音乐ID和生成任务ID，失败时只返回错误信息
+ */
+@Data
+@Builder
+@NoArgsConstructor
+@AllArgsConstructor
+@JsonInclude(JsonInclude.Include.NON_NULL)
+public class MusicGenerationResultDTO {
+
+    /**
+     * 请求在批次中的序号，从0开始
+     */
+    private Integer index;
+
+    /**
+     * 音乐ID
+     */
+    private UUID musicId;
+
+    /**
+     * 生成任务ID，复用相同请求的结果时为空
+     */
+    private UUID jobId;
+
+    /**
+     * 音乐状态
+     */
+    private MusicStatus status;
+
+    /**
+     * 错误信息
+     */
+    private String error;
+
+    /**
+     * 创建失败结果
+     *
+     * @param index 请求序号
+     * @param error 错误信息
+     * @return 处理结果
+     */
+    public static MusicGenerationResultDTO failed(int index, String error) {
+        return MusicGenerationResultDTO.builder()
+                .index(index)
+                .error(error)
+                .build();
+    }
+}
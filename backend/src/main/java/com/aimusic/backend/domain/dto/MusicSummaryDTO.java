@@ -0,0 +1,62 @@
+package com.aimusic.backend.domain.dto;
+
+import com.aimusic.backend.domain.enums.MusicStatus;
+import lombok.AllArgsConstructor;
+import lombok.Builder;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+
+import java.time.LocalDateTime;
+import java.util.UUID;
+
+/**
+ * 音乐摘要DTO
+ * 列表页使用，由仓库查询直接投影，不加载歌词、错误信息等大字段和用户关联；
+ * 字段顺序与 MusicRepository 中的构造表达式一致
+ */
+@Data
+@Builder
+@NoArgsConstructor
+@AllArgsConstructor
+public class MusicSummaryDTO {
+
+    /**
+     * 提示词摘要的最大长度
+     */
+    public static final int PROMPT_SNIPPET_LENGTH = 100;
+
+    /**
+     * ID
+     */
+    private UUID id;
+
+    /**
+     * 提示词摘要（前100个字符）
+     */
+    private String prompt;
+
+    /**
+     * 音乐风格
+     */
+    private String style;
+
+    /**
+     * 生成状态
+     */
+    private MusicStatus status;
+
+    /**
+     * 音乐时长（秒）
+     */
+    private Integer duration;
+
+    /**
+     * 创建时间
+     */
+    private LocalDateTime createdAt;
+
+    /**
+     * 更新时间
+     */
+    private LocalDateTime updatedAt;
+}
@@ -0,0 +1,26 @@
+package com.aimusic.backend.domain.dto;
+
+import lombok.AllArgsConstructor;
+import lombok.Builder;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+
+import java.time.LocalDateTime;
+
+/**
+ * 已存储文件数据传输对象
+ */
+@Data
+@Builder
+@NoArgsConstructor
+@AllArgsConstructor
+public class StoredFileDTO {
+    private String filename;
+    private long size;
+    /**
+     * 文件内容的SHA-256校验和（十六进制）
+     */
+    private String checksum;
+    private String url;
+    private LocalDateTime modifiedAt;
+}
@@ -0,0 +1,132 @@
+package com.aimusic.backend.domain.entity;
+
+import com.aimusic.backend.domain.enums.GenerationJobStatus;
+import com.aimusic.backend.domain.enums.GenerationPriority;
+import jakarta.persistence.Column;
+import jakarta.persistence.Entity;
+import jakarta.persistence.EnumType;
+import jakarta.persistence.Enumerated;
+import jakarta.persistence.GeneratedValue;
+import jakarta.persistence.GenerationType;
+import jakarta.persistence.Id;
+import jakarta.persistence.PrePersist;
+import jakarta.persistence.PreUpdate;
+import jakarta.persistence.Table;
+import lombok.AllArgsConstructor;
+import lombok.Builder;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+
+import java.time.LocalDateTime;
+import java.util.UUID;
+
+/**
+ * 音乐生成任务实体类
+ * 持久化的生成任务队列，实例通过租约领取任务，租约过期后任务可被其他实例接管
+ *
+ * @author AI Music Team
+ * @version 0.1.0
+ */
+@Data
+@Entity
+@Builder
+@NoArgsConstructor
+@AllArgsConstructor
+@Table(name = "generation_job")
+public class GenerationJob {
+
+    @Id
+    @GeneratedValue(strategy = GenerationType.UUID)
+    private UUID id;
+
+    /**
+     * 关联的音乐ID
+     */
+    @Column(name = "music_id", nullable = false)
+    private UUID musicId;
+
+    /**
+     * 提交生成的用户ID，用于按用户公平调度
+     */
+    @Column(name = "user_id")
+    private UUID userId;
+
+    /**
+     * 调度优先级
+     */
+    @Enumerated(EnumType.STRING)
+    @Column(nullable = false)
+    private GenerationPriority priority;
+
+    /**
+     * 任务状态
+     */
+    @Enumerated(EnumType.STRING)
+    @Column(nullable = false)
+    private GenerationJobStatus status;
+
+    /**
+     * 已执行次数
+     */
+    @Column(nullable = false)
+    private int attempts;
+
+    /**
+     * 最大执行次数
+     */
+    @Column(name = "max_attempts", nullable = false)
+    private int maxAttempts;
+
+    /**
+     * 最早可执行时间（用于失败后的退避重试）
+     */
+    @Column(name = "available_at", nullable = false)
+    private LocalDateTime availableAt;
+
+    /**
+     * 持有租约的实例ID
+     */
+    @Column(name = "lease_owner")
+    private String leaseOwner;
+
+    /**
+     * 租约过期时间
+     */
+    @Column(name = "lease_expires_at")
+    private LocalDateTime leaseExpiresAt;
+
+    /**
+     * 最近一次失败的错误信息
+     */
+    @Column(name = "last_error")
+    private String lastError;
+
+    /**
+     * 创建时间
+     */
+    @Column(name = "created_at", nullable = false, updatable = false)
+    private LocalDateTime createdAt;
+
+    /**
+     * 更新时间
+     */
+    @Column(name = "updated_at", nullable = false)
+    private LocalDateTime updatedAt;
+
+    @PrePersist
+    protected void onCreate() {
+        createdAt = LocalDateTime.now();
+        updatedAt = createdAt;
+        if (availableAt == null) {
+            availableAt = createdAt;
+        }
+        if (priority == null) {
+            priority = GenerationPriority.INTERACTIVE;
+        }
+    }
+
+    @PreUpdate
+    protected void onUpdate() {
+        updatedAt = LocalDateTime.now();
+    }
+}
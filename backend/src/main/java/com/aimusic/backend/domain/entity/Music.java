@@ -12,6 +12,7 @@ import org.springframework.data.annotation.LastModifiedDate;
 import org.springframework.data.jpa.domain.support.AuditingEntityListener;
 
 import java.time.LocalDateTime;
+import java.time.temporal.ChronoUnit;
 import java.util.UUID;
 
 /**
@@ -86,6 +87,18 @@ public class Music {
     @Column(name = "error_message")
     private String errorMessage;
 
+    /**
+     * 规范化生成请求的摘要，用于相同请求去重
+     */
+    @Column(name = "request_hash", length = 64)
+    private String requestHash;
+
+    /**
+     * 复用结果的来源音乐ID，为空表示由本记录自行提交生成
+     */
+    @Column(name = "source_music_id")
+    private UUID sourceMusicId;
+
     /**
      * 创建时间
      */
@@ -105,8 +118,9 @@ public class Music {
         if (this.user != null) {
             this.userId = this.user.getId();
         }
-        createdAt = LocalDateTime.now();
-        updatedAt = LocalDateTime.now();
+        // 与数据库TIMESTAMP精度（微秒）一致，持久化上下文中的值可直接作为列表游标
+        createdAt = LocalDateTime.now().truncatedTo(ChronoUnit.MICROS);
+        updatedAt = createdAt;
     }
 
     @PreUpdate
@@ -114,7 +128,7 @@ public class Music {
         if (this.user != null) {
             this.userId = this.user.getId();
         }
-        updatedAt = LocalDateTime.now();
+        updatedAt = LocalDateTime.now().truncatedTo(ChronoUnit.MICROS);
     }
 
     /**
@@ -134,6 +148,7 @@ public class Music {
                 .duration(this.duration)
                 .errorMessage(this.errorMessage)
                 .generationId(this.generationId)
+                .sourceMusicId(this.sourceMusicId)
                 .createdAt(this.createdAt)
                 .updatedAt(this.updatedAt)
                 .build();
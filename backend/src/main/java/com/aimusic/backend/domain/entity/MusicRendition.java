@@ -0,0 +1,102 @@
+package com.aimusic.backend.domain.entity;
+
+import com.aimusic.backend.domain.enums.AudioCodec;
+import com.aimusic.backend.domain.enums.RenditionQuality;
+import jakarta.persistence.Column;
+import jakarta.persistence.Entity;
+import jakarta.persistence.EnumType;
+import jakarta.persistence.Enumerated;
+import jakarta.persistence.GeneratedValue;
+import jakarta.persistence.GenerationType;
+import jakarta.persistence.Id;
+import jakarta.persistence.PrePersist;
+import jakarta.persistence.Table;
+import jakarta.persistence.UniqueConstraint;
+import lombok.AllArgsConstructor;
+import lombok.Builder;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+
+import java.time.LocalDateTime;
+import java.util.UUID;
+
+/**
+ * 音乐转码版本实体类
+ * 记录音乐音频转码后的各个码率/格式版本，版本文件保存在存储服务中
+ *
+ * @author AI Music Team
+ * @version 0.1.0
+ */
+@Data
+@Entity
+@Builder
+@NoArgsConstructor
+@AllArgsConstructor
+@Table(name = "music_rendition", uniqueConstraints = @UniqueConstraint(columnNames = {"music_id", "name"}))
+public class MusicRendition {
+
+    @Id
+    @GeneratedValue(strategy = GenerationType.UUID)
+    private UUID id;
+
+    /**
+     * 关联的音乐ID
+     */
+    @Column(name = "music_id", nullable = false)
+    private UUID musicId;
+
+    /**
+     * 转码来源的音频文件名
+     */
+    @Column(name = "source_filename", nullable = false)
+    private String sourceFilename;
+
+    /**
+     * 版本名称（与配置中的名称一致）
+     */
+    @Column(nullable = false, length = 50)
+    private String name;
+
+    /**
+     * 质量档位
+     */
+    @Enumerated(EnumType.STRING)
+    @Column(nullable = false, length = 20)
+    private RenditionQuality quality;
+
+    /**
+     * 编码格式
+     */
+    @Enumerated(EnumType.STRING)
+    @Column(nullable = false, length = 20)
+    private AudioCodec codec;
+
+    /**
+     * 码率（kbps）
+     */
+    @Column(nullable = false)
+    private int bitrate;
+
+    /**
+     * 版本文件名
+     */
+    @Column(nullable = false)
+    private String filename;
+
+    /**
+     * 文件大小（字节）
+     */
+    @Column(nullable = false)
+    private long size;
+
+    /**
+     * 创建时间
+     */
+    @Column(name = "created_at", nullable = false, updatable = false)
+    private LocalDateTime createdAt;
+
+    @PrePersist
+    protected void onCreate() {
+        createdAt = LocalDateTime.now();
+    }
+}
@@ -0,0 +1,72 @@
+package com.aimusic.backend.domain.entity;
+
+import jakarta.persistence.Column;
+import jakarta.persistence.Entity;
+import jakarta.persistence.Id;
+import jakarta.persistence.PrePersist;
+import jakarta.persistence.PreUpdate;
+import jakarta.persistence.Table;
+import lombok.AllArgsConstructor;
+import lombok.Builder;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+
+import java.time.LocalDateTime;
+
+/**
+ * 存储内容实体类
+ * 内容寻址存储中每份文件内容对应一条记录，引用计数归零后才删除文件
+ *
+ * @author AI Music Team
+ * @version 0.1.0
+ */
+@Data
+@Entity
+@Builder
+@NoArgsConstructor
+@AllArgsConstructor
+@Table(name = "stored_blob")
+public class StoredBlob {
+
+    /**
+     * 文件内容的SHA-256（十六进制）
+     */
+    @Id
+    @Column(length = 64)
+    private String hash;
+
+    /**
+     * 文件大小（字节）
+     */
+    @Column(nullable = false)
+    private long size;
+
+    /**
+     * 引用计数
+     */
+    @Column(name = "ref_count", nullable = false)
+    private int refCount;
+
+    /**
+     * 创建时间
+     */
+    @Column(name = "created_at", nullable = false, updatable = false)
+    private LocalDateTime createdAt;
+
+    /**
+     * 更新时间
+     */
+    @Column(name = "updated_at", nullable = false)
+    private LocalDateTime updatedAt;
+
+    @PrePersist
+    protected void onCreate() {
+        createdAt = LocalDateTime.now();
+        updatedAt = createdAt;
+    }
+
+    @PreUpdate
+    protected void onUpdate() {
+        updatedAt = LocalDateTime.now();
+    }
+}
@@ -0,0 +1,64 @@
+package com.aimusic.backend.domain.entity;
+
+import jakarta.persistence.Column;
+import jakarta.persistence.Entity;
+import jakarta.persistence.Id;
+import jakarta.persistence.PrePersist;
+import jakarta.persistence.Table;
+import lombok.AllArgsConstructor;
+import lombok.Builder;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+
+import java.time.LocalDateTime;
+
+/**
+ * 存储文件索引实体类
+ * 记录存储目录中的文件，按文件名有序，用于游标分页列表
+ *
+ * @author AI Music Team
+ * @version 0.1.0
+ */
+@Data
+@Entity
+@Builder
+@NoArgsConstructor
+@AllArgsConstructor
+@Table(name = "stored_file")
+public class StoredFile {
+
+    /**
+     * 文件名
+     */
+    @Id
+    private String filename;
+
+    /**
+     * 文件大小（字节）
+     */
+    @Column(nullable = false)
+    private long size;
+
+    /**
+     * 文件内容的SHA-256（十六进制）
+     */
+    @Column(length = 64)
+    private String checksum;
+
+    /**
+     * 文件最后修改时间
+     */
+    @Column(name = "modified_at", nullable = false)
+    private LocalDateTime modifiedAt;
+
+    /**
+     * 创建时间
+     */
+    @Column(name = "created_at", nullable = false, updatable = false)
+    private LocalDateTime createdAt;
+
+    @PrePersist
+    protected void onCreate() {
+        createdAt = LocalDateTime.now();
+    }
+}
@@ -0,0 +1,27 @@
+package com.aimusic.backend.domain.enums;
+
+import lombok.Getter;
+import lombok.RequiredArgsConstructor;
+
+/**
+ * 转码格式
+ * 输出均为可流式写出的封装（不需要回写文件头），编码器输出可直接写入存储
+ */
+@Getter
+@RequiredArgsConstructor
+public enum AudioCodec {
+    OPUS("libopus", "ogg", ".opus", "audio/ogg"),  // 压缩率高，适合低码率
+    AAC("aac", "adts", ".aac", "audio/aac");       // 兼容性最好
+
+    /** ffmpeg编码器名称 */
+    private final String encoder;
+
+    /** ffmpeg输出封装格式 */
+    private final String container;
+
+    /** 文件扩展名 */
+    private final String extension;
+
+    /** 响应内容类型 */
+    private final String contentType;
+}
@@ -0,0 +1,8 @@
+package com.aimusic.backend.domain.enums;
+
+public enum GenerationJobStatus {
+    QUEUED,     // 等待执行
+    RUNNING,    // 已被某个实例领取并持有租约
+    SUCCEEDED,  // 执行成功
+    FAILED      // 超过最大重试次数后失败
+}
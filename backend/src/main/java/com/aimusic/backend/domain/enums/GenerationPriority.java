@@ -0,0 +1,6 @@
+package com.aimusic.backend.domain.enums;
+
+public enum GenerationPriority {
+    INTERACTIVE,  // 用户单条提交，等待结果
+    BATCH         // 批量提交，可延后执行
+}
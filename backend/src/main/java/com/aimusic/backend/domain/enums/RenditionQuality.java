@@ -0,0 +1,7 @@
+package com.aimusic.backend.domain.enums;
+
+public enum RenditionQuality {
+    LOW,     // 慢速网络或省流量模式
+    MEDIUM,  // 一般移动网络
+    HIGH     // 宽带网络
+}
@@ -0,0 +1,30 @@
+package com.aimusic.backend.domain.event;
+
+import com.aimusic.backend.domain.dto.MusicDTO;
+import com.aimusic.backend.domain.entity.Music;
+import lombok.Getter;
+import lombok.RequiredArgsConstructor;
+
+/**
+ * 音乐状态变更事件
+ * 在状态变更所在事务提交后推送给订阅的客户端
+ */
+@Getter
+@RequiredArgsConstructor
+public class MusicStatusChangedEvent {
+
+    /**
+     * 变更后的音乐快照
+     */
+    private final MusicDTO music;
+
+    /**
+     * 从实体创建事件
+     *
+     * @param music 音乐实体
+     * @return 状态变更事件
+     */
+    public static MusicStatusChangedEvent of(Music music) {
+        return new MusicStatusChangedEvent(MusicDTO.fromEntity(music));
+    }
+}
@@ -0,0 +1,121 @@
+package com.aimusic.backend.domain.repository;
+
+import com.aimusic.backend.domain.entity.GenerationJob;
+import com.aimusic.backend.domain.enums.GenerationJobStatus;
+import com.aimusic.backend.domain.enums.GenerationPriority;
+import org.springframework.data.domain.Pageable;
+import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.Modifying;
+import org.springframework.data.jpa.repository.Query;
+import org.springframework.data.repository.query.Param;
+import org.springframework.stereotype.Repository;
+
+import java.time.LocalDateTime;
+import java.util.Collection;
+import java.util.List;
+import java.util.Optional;
+import java.util.UUID;
+
+/**
+ * 音乐生成任务仓库接口
+ *
+ * @author AI Music Team
+ * @version 0.1.0
+ */
+@Repository
+public interface GenerationJobRepository extends JpaRepository<GenerationJob, UUID> {
+
+    /**
+     * 查询到期的排队任务作为候选：每个用户每个优先级只取最早的若干个，避免单个用户的大量任务占满候选集；不加锁
+     * 先按 (user_id, priority) 分组得到各个队列，再对每个队列沿 idx_generation_job_fair_claim 索引
+     * 取第 perQueue 个任务的可执行时间作为截止点，最后只回表读取截止点之前的任务，不对全部排队任务排序或编号；
+     * 截止点上可执行时间相同的任务会一并返回。user_id 为空的任务不会被返回，入队时总会写入 user_id
+     *
+     * @param now 当前时间
+     * @param perQueue 每个用户每个优先级最多返回的数量，至少为1
+     * @param limit 最多返回数量
+     * @return 按可执行时间排序的候选任务
+     */
+    @Query(value = "SELECT j.* FROM generation_job j "
+            + "JOIN (SELECT g.user_id, g.priority, "
+            + "(SELECT h.available_at FROM generation_job h "
+            + "WHERE h.status = 'QUEUED' AND h.user_id = g.user_id AND h.priority = g.priority "
+            + "AND h.available_at <= :now "
+            + "ORDER BY h.available_at LIMIT 1 OFFSET :perQueue - 1) AS last_head "
+            + "FROM generation_job g "
+            + "WHERE g.status = 'QUEUED' AND g.available_at <= :now "
+            + "GROUP BY g.user_id, g.priority) heads "
+            + "ON j.user_id = heads.user_id AND j.priority = heads.priority "
+            + "WHERE j.status = 'QUEUED' AND j.available_at <= :now "
+            + "AND (heads.last_head IS NULL OR j.available_at <= heads.last_head) "
+            + "ORDER BY j.available_at "
+            + "LIMIT :limit", nativeQuery = true)
+    List<GenerationJob> findClaimCandidates(@Param("now") LocalDateTime now,
+                                            @Param("perQueue") int perQueue,
+                                            @Param("limit") int limit);
+
+    /**
+     * 查询租约已过期的运行中任务，使用 idx_generation_job_status_lease 索引；不加锁
+     *
+     * @param status 任务状态
+     * @param now 当前时间
+     * @param pageable 分页参数，限制返回数量
+     * @return 按租约过期时间排序的任务列表
+     */
+    List<GenerationJob> findByStatusAndLeaseExpiresAtBeforeOrderByLeaseExpiresAt(GenerationJobStatus status,
+                                                                                  LocalDateTime now,
+                                                                                  Pageable pageable);
+
+    /**
+     * 锁定选中的任务，并重新校验仍可领取
+     * 使用 FOR UPDATE SKIP LOCKED，多个实例并发领取时互不阻塞且不会领取到同一任务
+     *
+     * @param ids 选中的任务ID
+     * @param now 当前时间
+     * @return 已加锁的任务列表
+     */
+    @Query(value = "SELECT * FROM generation_job "
+            + "WHERE id IN (:ids) "
+            + "AND ((status = 'QUEUED' AND available_at <= :now) "
+            + "OR (status = 'RUNNING' AND lease_expires_at < :now)) "
+            + "ORDER BY available_at "
+            + "FOR UPDATE SKIP LOCKED", nativeQuery = true)
+    List<GenerationJob> lockClaimableJobs(@Param("ids") Collection<UUID> ids, @Param("now") LocalDateTime now);
+
+    /**
+     * 查询租约未过期的运行中任务，用于计算各用户和优先级当前占用的执行槽位
+     *
+     * @param status 任务状态
+     * @param now 当前时间
+     * @return 任务列表
+     */
+    List<GenerationJob> findByStatusAndLeaseExpiresAtGreaterThanEqual(GenerationJobStatus status, LocalDateTime now);
+
+    /**
+     * 按状态和优先级统计任务数
+     *
+     * @param status 任务状态
+     * @param priority 优先级
+     * @return 任务数
+     */
+    long countByStatusAndPriority(GenerationJobStatus status, GenerationPriority priority);
+
+    /**
+     * 延长指定实例持有的任务租约
+     *
+     * @param ids 任务ID集合
+     * @param owner 租约持有者
+     * @param status 任务状态
+     * @param expiresAt 新的租约过期时间
+     * @return 更新的任务数量
+     */
+    @Modifying
+    @Query("UPDATE GenerationJob j SET j.leaseExpiresAt = :expiresAt "
+            + "WHERE j.id IN :ids AND j.leaseOwner = :owner AND j.status = :status")
+    int extendLeases(@Param("ids") Collection<UUID> ids,
+                     @Param("owner") String owner,
+                     @Param("status") GenerationJobStatus status,
+                     @Param("expiresAt") LocalDateTime expiresAt);
+
+    Optional<GenerationJob> findByMusicId(UUID musicId);
+}
@@ -0,0 +1,55 @@
+package com.aimusic.backend.domain.repository;
+
+import com.aimusic.backend.domain.entity.MusicRendition;
+import com.aimusic.backend.domain.enums.RenditionQuality;
+import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.stereotype.Repository;
+
+import java.util.List;
+import java.util.Optional;
+import java.util.UUID;
+
+/**
+ * 音乐转码版本仓库接口
+ *
+ * @author AI Music Team
+ * @version 0.1.0
+ */
+@Repository
+public interface MusicRenditionRepository extends JpaRepository<MusicRendition, UUID> {
+
+    /**
+     * 查询音乐的全部版本
+     *
+     * @param musicId 音乐ID
+     * @return 版本列表
+     */
+    List<MusicRendition> findByMusicId(UUID musicId);
+
+    /**
+     * 查询源文件指定质量档位的版本
+     *
+     * @param sourceFilename 源音频文件名
+     * @param quality 质量档位
+     * @return 版本列表
+     */
+    List<MusicRendition> findBySourceFilenameAndQuality(String sourceFilename, RenditionQuality quality);
+
+    /**
+     * 查询源文件已有的指定版本（其他音乐转码生成），用于复用
+     *
+     * @param sourceFilename 源音频文件名
+     * @param name 版本名称
+     * @return 版本
+     */
+    Optional<MusicRendition> findFirstBySourceFilenameAndName(String sourceFilename, String name);
+
+    /**
+     * 是否有其他音乐的版本引用指定文件
+     *
+     * @param filename 版本文件名
+     * @param musicId 排除的音乐ID
+     * @return 是否存在
+     */
+    boolean existsByFilenameAndMusicIdNot(String filename, UUID musicId);
+}
@@ -1,11 +1,18 @@
 package com.aimusic.backend.domain.repository;
 
+import com.aimusic.backend.domain.dto.MusicSummaryDTO;
 import com.aimusic.backend.domain.entity.Music;
+import com.aimusic.backend.domain.enums.MusicStatus;
 import org.springframework.data.domain.Page;
 import org.springframework.data.domain.Pageable;
+import org.springframework.data.domain.Slice;
 import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.Query;
+import org.springframework.data.repository.query.Param;
 import org.springframework.stereotype.Repository;
 
+import java.time.LocalDateTime;
+import java.util.Collection;
 import java.util.List;
 import java.util.Optional;
 import java.util.UUID;
@@ -17,7 +24,21 @@ import java.util.UUID;
  * @version 0.1.0
  */
 @Repository
-public interface MusicRepository extends JpaRepository<Music, UUID> {
+public interface MusicRepository extends JpaRepository<Music, UUID>, MusicRepositoryCustom {
+
+    /**
+     * 列表页摘要投影：只查询摘要字段，提示词在数据库中截断，不加载歌词等大字段和用户关联
+     */
+    String SUMMARY_SELECT = "SELECT new com.aimusic.backend.domain.dto.MusicSummaryDTO("
+            + "m.id, SUBSTRING(m.prompt, 1, " + MusicSummaryDTO.PROMPT_SNIPPET_LENGTH + "),"
+            + " m.style, m.status, m.duration, m.createdAt, m.updatedAt) FROM Music m";
+
+    /**
+     * 音频在本地存储中、但配置的转码版本不全的音乐
+     */
+    String MISSING_RENDITIONS_SELECT = "SELECT m FROM Music m WHERE m.status = :status"
+            + " AND m.audioUrl LIKE CONCAT(:prefix, '%')"
+            + " AND (SELECT COUNT(r) FROM MusicRendition r WHERE r.musicId = m.id AND r.name IN :names) < :count";
     
     /**
      * 按创建时间降序查询所有音乐
@@ -27,9 +48,195 @@ public interface MusicRepository extends JpaRepository<Music, UUID> {
      */
     Page<Music> findAllByOrderByCreatedAtDesc(Pageable pageable);
 
+    /**
+     * 按创建时间降序查询音乐摘要
+     *
+     * @param pageable 分页参数
+     * @return 音乐摘要分页结果
+     */
+    @Query(value = SUMMARY_SELECT + " ORDER BY m.createdAt DESC", countQuery = "SELECT COUNT(m) FROM Music m")
+    Page<MusicSummaryDTO> findSummaries(Pageable pageable);
+
+    /**
+     * 按创建时间降序查询音乐摘要，不查询总数（多取一条判断是否有下一页）
+     *
+     * @param pageable 分页参数
+     * @return 音乐摘要分片结果
+     */
+    @Query(SUMMARY_SELECT + " ORDER BY m.createdAt DESC")
+    Slice<MusicSummaryDTO> findSummarySlice(Pageable pageable);
+
+    /**
+     * 按 (创建时间, ID) 降序查询第一页摘要，与 {@link #findSummariesAfter} 组成游标分页
+     *
+     * @param pageable 分页参数（仅使用页大小）
+     * @return 音乐摘要分片结果
+     */
+    @Query(SUMMARY_SELECT + " ORDER BY m.createdAt DESC, m.id DESC")
+    Slice<MusicSummaryDTO> findFirstSummaries(Pageable pageable);
+
+    /**
+     * 查询游标位置之后的音乐摘要，按 (创建时间, ID) 降序
+     * createdAt &lt;= 游标 作为索引范围条件，直接从 idx_music_created_at_id 的游标位置开始扫描，与页码深度无关；
+     * 其余条件排除创建时间相同且ID不在游标之后的行
+     *
+     * @param createdAt 游标音乐的创建时间
+     * @param id 游标音乐的ID
+     * @param pageable 分页参数（仅使用页大小）
+     * @return 音乐摘要分片结果
+     */
+    @Query(SUMMARY_SELECT + " WHERE m.createdAt <= :createdAt AND (m.createdAt < :createdAt OR m.id < :id)"
+            + " ORDER BY m.createdAt DESC, m.id DESC")
+    Slice<MusicSummaryDTO> findSummariesAfter(@Param("createdAt") LocalDateTime createdAt, @Param("id") UUID id,
+                                              Pageable pageable);
+
     Optional<Music> findByGenerationId(String generationId);
 
     List<Music> findByUserId(UUID userId);
 
     Page<Music> findByUserId(UUID userId, Pageable pageable);
-} 
\ No newline at end of file
+
+    /**
+     * 查询指定状态且已提交到Suno的音乐，按 (创建时间, ID) 升序，与 {@link #findInFlightAfter} 组成游标分页
+     *
+     * @param status 音乐状态
+     * @param pageable 分页参数（用于限制单次扫描数量）
+     * @return 音乐列表
+     */
+    List<Music> findByStatusAndGenerationIdIsNotNullOrderByCreatedAtAscIdAsc(MusicStatus status, Pageable pageable);
+
+    /**
+     * 查询游标位置之后指定状态且已提交到Suno的音乐，按 (创建时间, ID) 升序
+     * createdAt &gt;= 游标 作为索引范围条件，从 idx_music_in_flight 的游标位置开始扫描
+     *
+     * @param status 音乐状态
+     * @param createdAt 游标音乐的创建时间
+     * @param id 游标音乐的ID
+     * @param pageable 分页参数（用于限制单次扫描数量）
+     * @return 音乐列表
+     */
+    @Query("SELECT m FROM Music m WHERE m.status = :status AND m.generationId IS NOT NULL"
+            + " AND m.createdAt >= :createdAt AND (m.createdAt > :createdAt OR m.id > :id)"
+            + " ORDER BY m.createdAt ASC, m.id ASC")
+    List<Music> findInFlightAfter(@Param("status") MusicStatus status,
+                                  @Param("createdAt") LocalDateTime createdAt,
+                                  @Param("id") UUID id,
+                                  Pageable pageable);
+
+    /**
+     * 查询指定时间之后完成的相同请求的最新结果
+     *
+     * @param requestHash 请求摘要
+     * @param status 音乐状态
+     * @param updatedAfter 最早更新时间
+     * @return 可复用的音乐
+     */
+    Optional<Music> findFirstByRequestHashAndStatusAndUpdatedAtAfterOrderByUpdatedAtDesc(
+            String requestHash, MusicStatus status, LocalDateTime updatedAfter);
+
+    /**
+     * 查询进行中的相同请求中最早提交的一个（自行提交生成的记录）
+     *
+     * @param requestHash 请求摘要
+     * @param statuses 进行中的状态
+     * @param excludeId 排除的音乐ID
+     * @return 进行中的源请求
+     */
+    Optional<Music> findFirstByRequestHashAndSourceMusicIdIsNullAndStatusInAndIdNotOrderByCreatedAtAsc(
+            String requestHash, Collection<MusicStatus> statuses, UUID excludeId);
+
+    /**
+     * 查询跟随指定源请求的音乐，按创建时间升序
+     *
+     * @param sourceMusicId 源音乐ID
+     * @param statuses 状态列表
+     * @return 跟随的音乐列表
+     */
+    List<Music> findBySourceMusicIdAndStatusInOrderByCreatedAtAsc(UUID sourceMusicId, Collection<MusicStatus> statuses);
+
+    /**
+     * 查询引用指定音频地址的音乐
+     *
+     * @param audioUrl 音频地址
+     * @return 音乐列表
+     */
+    List<Music> findByAudioUrl(String audioUrl);
+
+    /**
+     * 是否有其他音乐引用指定音频地址
+     *
+     * @param audioUrl 音频地址
+     * @param id 排除的音乐ID
+     * @return 是否存在
+     */
+    boolean existsByAudioUrlAndIdNot(String audioUrl, UUID id);
+
+    /**
+     * 查询音频地址以指定前缀开头的音乐，按 (更新时间, ID) 升序，与 {@link #findByAudioUrlPrefixAfter} 组成游标分页
+     *
+     * @param status 音乐状态
+     * @param prefix 音频地址前缀
+     * @param pageable 分页参数（用于限制单次扫描数量）
+     * @return 音乐列表
+     */
+    List<Music> findByStatusAndAudioUrlStartingWithOrderByUpdatedAtAscIdAsc(MusicStatus status, String prefix,
+                                                                            Pageable pageable);
+
+    /**
+     * 查询游标位置之后音频地址以指定前缀开头的音乐，按 (更新时间, ID) 升序
+     *
+     * @param status 音乐状态
+     * @param prefix 音频地址前缀
+     * @param updatedAt 游标音乐的更新时间
+     * @param id 游标音乐的ID
+     * @param pageable 分页参数（用于限制单次扫描数量）
+     * @return 音乐列表
+     */
+    @Query("SELECT m FROM Music m WHERE m.status = :status AND m.audioUrl LIKE CONCAT(:prefix, '%')"
+            + " AND m.updatedAt >= :updatedAt AND (m.updatedAt > :updatedAt OR m.id > :id)"
+            + " ORDER BY m.updatedAt ASC, m.id ASC")
+    List<Music> findByAudioUrlPrefixAfter(@Param("status") MusicStatus status,
+                                          @Param("prefix") String prefix,
+                                          @Param("updatedAt") LocalDateTime updatedAt,
+                                          @Param("id") UUID id,
+                                          Pageable pageable);
+
+    /**
+     * 查询音频在本地存储中但缺少转码版本的音乐，按 (创建时间, ID) 升序，与 {@link #findMissingRenditionsAfter} 组成游标分页
+     *
+     * @param status 音乐状态
+     * @param prefix 本地音频地址前缀
+     * @param names 配置的版本名称
+     * @param count 配置的版本数量
+     * @param pageable 分页参数（用于限制单次扫描数量）
+     * @return 音乐列表
+     */
+    @Query(MISSING_RENDITIONS_SELECT + " ORDER BY m.createdAt ASC, m.id ASC")
+    List<Music> findMissingRenditions(@Param("status") MusicStatus status,
+                                      @Param("prefix") String prefix,
+                                      @Param("names") Collection<String> names,
+                                      @Param("count") long count,
+                                      Pageable pageable);
+
+    /**
+     * 查询游标位置之后音频在本地存储中但缺少转码版本的音乐，按 (创建时间, ID) 升序
+     *
+     * @param status 音乐状态
+     * @param prefix 本地音频地址前缀
+     * @param names 配置的版本名称
+     * @param count 配置的版本数量
+     * @param createdAt 游标音乐的创建时间
+     * @param id 游标音乐的ID
+     * @param pageable 分页参数（用于限制单次扫描数量）
+     * @return 音乐列表
+     */
+    @Query(MISSING_RENDITIONS_SELECT + " AND m.createdAt >= :createdAt AND (m.createdAt > :createdAt OR m.id > :id)"
+            + " ORDER BY m.createdAt ASC, m.id ASC")
+    List<Music> findMissingRenditionsAfter(@Param("status") MusicStatus status,
+                                           @Param("prefix") String prefix,
+                                           @Param("names") Collection<String> names,
+                                           @Param("count") long count,
+                                           @Param("createdAt") LocalDateTime createdAt,
+                                           @Param("id") UUID id,
+                                           Pageable pageable);
+}
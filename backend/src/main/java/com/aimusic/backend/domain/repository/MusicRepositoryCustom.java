@@ -0,0 +1,25 @@
+package com.aimusic.backend.domain.repository;
+
+import com.aimusic.backend.domain.entity.Music;
+import com.aimusic.backend.domain.enums.MusicStatus;
+
+import java.time.LocalDateTime;
+import java.util.Collection;
+
+/**
+ * 音乐仓库自定义操作
+ */
+public interface MusicRepositoryCustom {
+
+    /**
+     * 用同一条UPDATE语句按JDBC批次写入状态变更，每行取对应音乐的状态、音频地址、歌词和错误信息；
+     * 为null的字段保持数据库中的原值。只更新当前状态为 expected 的行，期间被取消或已由其他流程结束的音乐不受影响。
+     * 语句绕过持久化上下文，调用方不应再依赖已加载实体的状态
+     *
+     * @param changes 携带目标状态的音乐（按ID匹配）
+     * @param expected 仅更新处于该状态的音乐
+     * @param now 更新时间
+     * @return 更新的行数
+     */
+    int updateStatuses(Collection<Music> changes, MusicStatus expected, LocalDateTime now);
+}
@@ -0,0 +1,56 @@
+package com.aimusic.backend.domain.repository;
+
+import com.aimusic.backend.domain.entity.Music;
+import com.aimusic.backend.domain.enums.MusicStatus;
+import jakarta.persistence.EntityManager;
+import jakarta.persistence.PersistenceContext;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.transaction.annotation.Transactional;
+
+import java.time.LocalDateTime;
+import java.util.Arrays;
+import java.util.Collection;
+
+/**
+ * 音乐仓库自定义操作实现
+ * 批量状态更新使用固定形式的语句按JDBC批次执行，语句文本与批次大小和更新的列无关，
+ * 查询计划缓存和驱动的语句缓存中只有一条：
+ * {@code UPDATE music SET status = ?, audio_url = COALESCE(?, audio_url), ... WHERE id = ? AND status = ?}
+ */
+public class MusicRepositoryCustomImpl implements MusicRepositoryCustom {
+
+    private static final String UPDATE_STATUS_SQL = "UPDATE music SET status = COALESCE(?, status),"
+            + " audio_url = COALESCE(?, audio_url), lyrics = COALESCE(?, lyrics),"
+            + " error_message = COALESCE(?, error_message), updated_at = ?"
+            + " WHERE id = ? AND status = ?";
+
+    @PersistenceContext
+    private EntityManager entityManager;
+
+    private final JdbcTemplate jdbcTemplate;
+
+    public MusicRepositoryCustomImpl(JdbcTemplate jdbcTemplate) {
+        this.jdbcTemplate = jdbcTemplate;
+    }
+
+    @Override
+    @Transactional
+    public int updateStatuses(Collection<Music> changes, MusicStatus expected, LocalDateTime now) {
+        if (changes.isEmpty()) {
+            return 0;
+        }
+        // 语句不经过持久化上下文，先写出同一事务中尚未提交到数据库的变更
+        entityManager.flush();
+        int[][] counts = jdbcTemplate.batchUpdate(UPDATE_STATUS_SQL, changes, changes.size(), (ps, music) -> {
+            ps.setString(1, music.getStatus() == null ? null : music.getStatus().name());
+            ps.setString(2, music.getAudioUrl());
+            ps.setString(3, music.getLyrics());
+            ps.setString(4, music.getErrorMessage());
+            ps.setObject(5, now);
+            ps.setObject(6, music.getId());
+            ps.setString(7, expected.name());
+        });
+        // 驱动无法返回单行结果（SUCCESS_NO_INFO）时不计入
+        return Arrays.stream(counts).flatMapToInt(Arrays::stream).filter(count -> count > 0).sum();
+    }
+}
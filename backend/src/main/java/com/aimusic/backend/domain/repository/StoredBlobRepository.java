@@ -0,0 +1,54 @@
+package com.aimusic.backend.domain.repository;
+
+import com.aimusic.backend.domain.entity.StoredBlob;
+import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.Modifying;
+import org.springframework.data.jpa.repository.Query;
+import org.springframework.data.repository.query.Param;
+import org.springframework.stereotype.Repository;
+
+import java.time.LocalDateTime;
+
+/**
+ * 存储内容仓库接口
+ * 引用计数通过单条UPDATE语句增减，避免读-改-写竞争
+ *
+ * @author AI Music Team
+ * @version 0.1.0
+ */
+@Repository
+public interface StoredBlobRepository extends JpaRepository<StoredBlob, String> {
+
+    /**
+     * 引用计数加一
+     *
+     * @param hash 内容SHA-256
+     * @param now 当前时间
+     * @return 更新的记录数，0表示记录不存在
+     */
+    @Modifying
+    @Query("UPDATE StoredBlob b SET b.refCount = b.refCount + 1, b.updatedAt = :now WHERE b.hash = :hash")
+    int incrementRefCount(@Param("hash") String hash, @Param("now") LocalDateTime now);
+
+    /**
+     * 引用计数减一，不会减到负数
+     *
+     * @param hash 内容SHA-256
+     * @param now 当前时间
+     * @return 更新的记录数
+     */
+    @Modifying
+    @Query("UPDATE StoredBlob b SET b.refCount = b.refCount - 1, b.updatedAt = :now "
+            + "WHERE b.hash = :hash AND b.refCount > 0")
+    int decrementRefCount(@Param("hash") String hash, @Param("now") LocalDateTime now);
+
+    /**
+     * 删除已无引用的记录
+     *
+     * @param hash 内容SHA-256
+     * @return 删除的记录数，1表示可以删除文件
+     */
+    @Modifying
+    @Query("DELETE FROM StoredBlob b WHERE b.hash = :hash AND b.refCount <= 0")
+    int deleteUnreferenced(@Param("hash") String hash);
+}
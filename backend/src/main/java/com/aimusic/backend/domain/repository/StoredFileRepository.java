@@ -0,0 +1,70 @@
+package com.aimusic.backend.domain.repository;
+
+import com.aimusic.backend.domain.entity.StoredFile;
+import org.springframework.data.domain.Limit;
+import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.Modifying;
+import org.springframework.data.jpa.repository.Query;
+import org.springframework.data.repository.query.Param;
+import org.springframework.stereotype.Repository;
+import org.springframework.transaction.annotation.Transactional;
+
+import java.util.Collection;
+import java.util.List;
+import java.util.Set;
+
+/**
+ * 存储文件索引仓库接口
+ *
+ * @author AI Music Team
+ * @version 0.1.0
+ */
+@Repository
+public interface StoredFileRepository extends JpaRepository<StoredFile, String> {
+
+    /**
+     * 按文件名顺序查询第一页
+     *
+     * @param limit 最多返回数量
+     * @return 文件索引列表
+     */
+    List<StoredFile> findAllByOrderByFilenameAsc(Limit limit);
+
+    /**
+     * 查询游标之后的一页，基于主键范围扫描，翻页成本与页码无关
+     *
+     * @param after 上一页最后一个文件名
+     * @param limit 最多返回数量
+     * @return 文件索引列表
+     */
+    List<StoredFile> findByFilenameGreaterThanOrderByFilenameAsc(String after, Limit limit);
+
+    /**
+     * 查询已建立索引的文件名，用于批量补建索引时一次检查一批文件
+     *
+     * @param filenames 文件名
+     * @return 其中已建立索引的文件名
+     */
+    @Query("SELECT f.filename FROM StoredFile f WHERE f.filename IN :filenames")
+    Set<String> findExistingFilenames(@Param("filenames") Collection<String> filenames);
+
+    /**
+     * 查询已建立索引的内容哈希
+     *
+     * @param checksums 内容SHA-256
+     * @return 其中已建立索引的内容哈希
+     */
+    @Query("SELECT DISTINCT f.checksum FROM StoredFile f WHERE f.checksum IN :checksums")
+    Set<String> findExistingChecksums(@Param("checksums") Collection<String> checksums);
+
+    /**
+     * 删除指定内容的所有索引
+     *
+     * @param checksum 内容SHA-256
+     * @return 删除的记录数
+     */
+    @Modifying
+    @Transactional
+    @Query("DELETE FROM StoredFile f WHERE f.checksum = :checksum")
+    int deleteByChecksum(@Param("checksum") String checksum);
+}
@@ -2,8 +2,12 @@ package com.aimusic.backend.domain.repository;
 
 import com.aimusic.backend.domain.entity.User;
 import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.Query;
+import org.springframework.data.repository.query.Param;
 import org.springframework.stereotype.Repository;
 
+import java.util.Collection;
+import java.util.Set;
 import java.util.UUID;
 
 /**
@@ -11,5 +15,13 @@ import java.util.UUID;
  */
 @Repository
 public interface UserRepository extends JpaRepository<User, UUID> {
-    
-} 
\ No newline at end of file
+
+    /**
+     * 查询给定ID中存在的用户ID，只读取主键不加载用户实体
+     *
+     * @param ids 用户ID集合
+     * @return 存在的用户ID
+     */
+    @Query("SELECT u.id FROM User u WHERE u.id IN :ids")
+    Set<UUID> findExistingIds(@Param("ids") Collection<UUID> ids);
+}
@@ -0,0 +1,38 @@
+package com.aimusic.backend.domain.service;
+
+/**
+ * 音频导入服务接口
+ * 将生成完成的Suno音频下载到本地存储，并把音乐的音频地址改为本地地址
+ */
+public interface AudioIngestionService {
+
+    /**
+     * 提交导入任务，在后台异步下载
+     *
+     * @param remoteUrl 远程音频地址
+     * @return 是否已提交（同一地址正在导入、已确认无法下载或队列已满时返回false）
+     */
+    boolean submit(String remoteUrl);
+
+    /**
+     * 同步导入，下载失败时按配置重试
+     *
+     * @param remoteUrl 远程音频地址
+     * @return 改为本地地址的音乐数量
+     */
+    int ingest(String remoteUrl);
+
+    /**
+     * 重新提交仍指向远程地址的已完成音乐
+     *
+     * @return 本次提交的任务数量
+     */
+    int sweep();
+
+    /**
+     * 正在导入或等待导入的地址数量
+     *
+     * @return 任务数量
+     */
+    int getPendingCount();
+}
@@ -0,0 +1,24 @@
+package com.aimusic.backend.domain.service;
+
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.OutputStream;
+
+/**
+ * 批量音乐生成服务接口
+ * 逐条读取请求并分批插入和入队，每批处理完成后立即输出该批的结果
+ */
+public interface BatchGenerationService {
+
+    /**
+     * 批量生成音乐
+     * 输入为生成请求的JSON数组或NDJSON，输出为NDJSON，每个请求一行处理结果，按请求顺序输出。
+     * 单个请求校验失败或用户不存在时只输出该请求的错误；输入格式错误或超过数量上限时输出错误行并停止读取
+     *
+     * @param input 请求体
+     * @param output 响应体
+     * @return 成功创建的音乐数量
+     * @throws IOException 读写失败
+     */
+    int generate(InputStream input, OutputStream output) throws IOException;
+}
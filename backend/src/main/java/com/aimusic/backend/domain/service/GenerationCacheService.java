@@ -0,0 +1,36 @@
+package com.aimusic.backend.domain.service;
+
+import com.aimusic.backend.domain.dto.MusicGenerationRequest;
+import com.aimusic.backend.domain.entity.Music;
+
+/**
+ * 音乐生成结果缓存服务接口
+ * 按规范化请求摘要合并进行中的相同请求，并在有效期内复用已完成的结果
+ */
+public interface GenerationCacheService {
+
+    /**
+     * 计算生成请求的摘要
+     *
+     * @param request 音乐生成请求
+     * @return 请求摘要，未启用缓存或请求跳过缓存时返回null
+     */
+    String requestHash(MusicGenerationRequest request);
+
+    /**
+     * 为已保存的音乐查找可复用的结果或进行中的相同请求
+     * 命中已完成的结果时直接填充结果；命中进行中的请求时跟随该请求的状态，不再单独提交生成
+     *
+     * @param music 已保存且设置了请求摘要的音乐
+     * @return true表示已命中，无需提交生成任务
+     */
+    boolean attach(Music music);
+
+    /**
+     * 音乐删除前释放其作为源请求的登记
+     * 仍在等待的跟随者由最早的一个接替提交生成，避免跟随者一直停留在待处理状态
+     *
+     * @param music 即将删除的音乐
+     */
+    void release(Music music);
+}
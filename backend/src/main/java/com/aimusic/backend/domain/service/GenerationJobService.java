@@ -0,0 +1,85 @@
+package com.aimusic.backend.domain.service;
+
+import com.aimusic.backend.domain.entity.GenerationJob;
+import com.aimusic.backend.domain.entity.Music;
+import com.aimusic.backend.domain.enums.GenerationPriority;
+
+import java.util.Collection;
+import java.util.List;
+import java.util.UUID;
+
+/**
+ * 音乐生成任务队列服务接口
+ * 管理持久化任务的入队、领取、续约与完成
+ */
+public interface GenerationJobService {
+
+    /**
+     * 获取本实例的ID（租约持有者标识）
+     *
+     * @return 实例ID
+     */
+    String getInstanceId();
+
+    /**
+     * 为音乐创建生成任务
+     * 加入调用方事务，与音乐记录一同提交
+     *
+     * @param music 已保存的音乐
+     * @param priority 调度优先级
+     * @return 生成任务
+     */
+    GenerationJob enqueue(Music music, GenerationPriority priority);
+
+    /**
+     * 为一批音乐创建生成任务，插入语句合并为JDBC批次
+     * 加入调用方事务，与音乐记录一同提交
+     *
+     * @param musicList 已保存的音乐
+     * @param priority 调度优先级
+     * @return 生成任务
+     */
+    List<GenerationJob> enqueueAll(Collection<Music> musicList, GenerationPriority priority);
+
+    /**
+     * 领取可执行的任务并设置租约
+     * 按优先级权重和各用户已占用的执行槽位选择任务：两类优先级同时排队时按权重比例分配，
+     * 同一优先级内优先选择运行中任务最少的用户，单个用户的大量任务不会阻塞其他用户
+     *
+     * @param limit 最多领取数量
+     * @return 领取到的任务
+     */
+    List<GenerationJob> claimJobs(int limit);
+
+    /**
+     * 为本实例持有的任务续约
+     *
+     * @param jobIds 任务ID集合
+     * @return 续约成功的任务数量
+     */
+    int renewLeases(Collection<UUID> jobIds);
+
+    /**
+     * 标记任务执行成功
+     *
+     * @param jobId 任务ID
+     */
+    void completeJob(UUID jobId);
+
+    /**
+     * 标记任务执行失败，未超过最大次数时按退避时间重新排队
+     *
+     * @param jobId 任务ID
+     * @param errorMessage 错误信息
+     */
+    void failJob(UUID jobId, String errorMessage);
+
+    /**
+     * 推迟任务执行，不计入执行次数
+     * 用于上游暂不可用（熔断）时将任务放回队列等待
+     *
+     * @param jobId 任务ID
+     * @param delayMillis 推迟时间（毫秒）
+     */
+    void deferJob(UUID jobId, long delayMillis);
+}
@@ -0,0 +1,36 @@
+package com.aimusic.backend.domain.service;
+
+import org.springframework.web.servlet.mvc.method.annotation.SseEmitter;
+
+import java.util.UUID;
+
+/**
+ * 音乐状态推送服务接口
+ * 通过Server-Sent Events将音乐状态变更推送给订阅的客户端，替代客户端轮询
+ */
+public interface MusicEventStreamService {
+
+    /**
+     * 订阅单个音乐的状态变更
+     * 订阅后立即推送当前状态，音乐进入终态后连接自动关闭
+     *
+     * @param musicId 音乐ID
+     * @return SSE连接
+     */
+    SseEmitter subscribeMusic(UUID musicId);
+
+    /**
+     * 订阅某个用户所有音乐的状态变更
+     *
+     * @param userId 用户ID
+     * @return SSE连接
+     */
+    SseEmitter subscribeUser(UUID userId);
+
+    /**
+     * 当前连接数
+     *
+     * @return 本实例上的订阅连接数
+     */
+    int getSubscriberCount();
+}
@@ -3,6 +3,7 @@ package com.aimusic.backend.domain.service;
 import com.aimusic.backend.domain.dto.MusicDTO;
 import com.aimusic.backend.domain.dto.MusicGenerationRequest;
 
+import java.util.UUID;
 import java.util.concurrent.CompletableFuture;
 
 /**
@@ -13,12 +14,23 @@ public interface MusicGenerationService {
 
     /**
      * 生成音乐
+     * 创建音乐记录并写入持久化任务队列，由后台任务执行器提交到Suno
      *
      * @param request 音乐生成请求
      * @return 音乐DTO的Future对象
      */
     CompletableFuture<MusicDTO> generateMusic(MusicGenerationRequest request);
 
+    /**
+     * 将已入队的音乐提交到Suno生成
+     * 由任务执行器调用；已提交或已取消的音乐不会重复提交。
+     * 数据库更新拆分为调用Suno前后的两个短事务，调用期间不占用数据库连接
+     *
+     * @param musicId 音乐ID
+     * @return 音乐DTO
+     */
+    MusicDTO submitGeneration(UUID musicId);
+
     /**
      * 获取音乐生成状态
      *
@@ -1,10 +1,15 @@
 package com.aimusic.backend.domain.service;
 
+import com.aimusic.backend.domain.dto.MusicCursor;
 import com.aimusic.backend.domain.dto.MusicDTO;
+import com.aimusic.backend.domain.dto.MusicSummaryDTO;
 import com.aimusic.backend.domain.dto.MusicGenerationRequest;
+import com.aimusic.backend.domain.dto.MusicGenerationResultDTO;
 import org.springframework.data.domain.Page;
 import org.springframework.data.domain.Pageable;
+import org.springframework.data.domain.Slice;
 
+import java.util.List;
 import java.util.UUID;
 
 /**
@@ -22,6 +27,16 @@ public interface MusicService {
      * @return 音乐DTO
      */
     MusicDTO generateMusic(MusicGenerationRequest request);
+
+    /**
+     * 批量生成音乐，音乐和生成任务的插入合并为JDBC批次
+     * 任一请求的用户不存在时整批回滚
+     * 未指定优先级的请求按批量优先级调度
+     *
+     * @param requests 音乐生成请求列表
+     * @return 处理结果列表，与请求顺序一致，不含序号
+     */
+    List<MusicGenerationResultDTO> generateMusicBatch(List<MusicGenerationRequest> requests);
     
     /**
      * 根据ID获取音乐
@@ -32,12 +47,30 @@ public interface MusicService {
     MusicDTO getMusicById(UUID id);
     
     /**
-     * 分页获取音乐列表
+     * 分页获取音乐列表，只查询列表页需要的摘要字段
      *
      * @param pageable 分页参数
-     * @return 音乐DTO分页对象
+     * @return 音乐摘要分页对象
+     */
+    Page<MusicSummaryDTO> listMusic(Pageable pageable);
+
+    /**
+     * 分页获取音乐列表，不查询总数
+     *
+     * @param pageable 分页参数
+     * @return 音乐摘要分片对象
+     */
+    Slice<MusicSummaryDTO> sliceMusic(Pageable pageable);
+
+    /**
+     * 按游标获取音乐列表，按创建时间和ID降序
+     * 每页只扫描游标之后的数据，翻页耗时与页码深度无关
+     *
+     * @param cursor 上一页最后一条音乐的游标，为null时返回第一页
+     * @param size 每页数量
+     * @return 音乐摘要分片对象
      */
-    Page<MusicDTO> listMusic(Pageable pageable);
+    Slice<MusicSummaryDTO> listMusicAfter(MusicCursor cursor, int size);
     
     /**
      * 更新音乐状态
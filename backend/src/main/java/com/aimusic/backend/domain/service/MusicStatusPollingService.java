@@ -0,0 +1,16 @@
+package com.aimusic.backend.domain.service;
+
+/**
+ * 音乐状态轮询服务接口
+ * 批量向Suno查询生成中任务的状态并回写数据库
+ */
+public interface MusicStatusPollingService {
+
+    /**
+     * 执行一轮轮询
+     * 扫描到期的生成中任务，按批次查询Suno并批量更新状态
+     *
+     * @return 本轮状态发生变化的音乐数量
+     */
+    int pollInFlightMusic();
+}
@@ -0,0 +1,72 @@
+package com.aimusic.backend.domain.service;
+
+import com.aimusic.backend.domain.entity.MusicRendition;
+import com.aimusic.backend.domain.enums.AudioCodec;
+import com.aimusic.backend.domain.enums.RenditionQuality;
+
+import java.util.List;
+import java.util.Optional;
+import java.util.UUID;
+
+/**
+ * 音乐转码版本服务接口
+ * 为已导入本地存储的音频生成多个码率/格式版本，并按客户端提示选择下载的版本
+ */
+public interface RenditionService {
+
+    /**
+     * 提交转码任务，在后台线程池中执行
+     *
+     * @param musicId 音乐ID
+     * @return 是否已提交（同一音乐正在转码或队列已满时返回false）
+     */
+    boolean submit(UUID musicId);
+
+    /**
+     * 同步生成音乐缺少的版本，开启分片流媒体时同时生成源文件的分片
+     *
+     * @param musicId 音乐ID
+     * @return 新增的版本数量
+     */
+    int transcode(UUID musicId);
+
+    /**
+     * 重新提交音频在本地存储中但缺少转码版本的已完成音乐
+     *
+     * @return 本次提交的任务数量
+     */
+    int sweep();
+
+    /**
+     * 查询音乐的全部版本
+     *
+     * @param musicId 音乐ID
+     * @return 版本列表
+     */
+    List<MusicRendition> listRenditions(UUID musicId);
+
+    /**
+     * 选择源文件指定质量档位的版本
+     *
+     * @param sourceFilename 源音频文件名
+     * @param quality 质量档位
+     * @param preferredCodec 优先的编码格式，为null时优先兼容性最好的格式
+     * @return 版本，没有该档位的版本时返回空
+     */
+    Optional<MusicRendition> selectRendition(String sourceFilename, RenditionQuality quality,
+                                             AudioCodec preferredCodec);
+
+    /**
+     * 删除音乐的版本记录，以及不再被其他音乐引用的版本文件
+     *
+     * @param musicId 音乐ID
+     */
+    void deleteRenditions(UUID musicId);
+
+    /**
+     * 等待转码的任务数量
+     *
+     * @return 队列长度
+     */
+    int getQueueDepth();
+}
@@ -0,0 +1,256 @@
+package com.aimusic.backend.domain.service.impl;
+
+import com.aimusic.backend.client.ResumableHttpInputStream;
+import com.aimusic.backend.config.AudioIngestionConfig;
+import com.aimusic.backend.domain.dto.MusicDTO;
+import com.aimusic.backend.domain.dto.StoredFileDTO;
+import com.aimusic.backend.domain.entity.Music;
+import com.aimusic.backend.domain.enums.MusicStatus;
+import com.aimusic.backend.domain.event.MusicStatusChangedEvent;
+import com.aimusic.backend.domain.repository.MusicRepository;
+import com.aimusic.backend.domain.service.AudioIngestionService;
+import com.aimusic.backend.exception.StorageException;
+import com.aimusic.backend.service.StorageService;
+import jakarta.annotation.PreDestroy;
+import lombok.extern.slf4j.Slf4j;
+import org.apache.commons.io.FilenameUtils;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnProperty;
+import org.springframework.context.ApplicationEventPublisher;
+import org.springframework.data.domain.PageRequest;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.PlatformTransactionManager;
+import org.springframework.transaction.event.TransactionalEventListener;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import java.io.IOException;
+import java.net.URI;
+import java.util.List;
+import java.util.Set;
+import java.util.concurrent.ArrayBlockingQueue;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.RejectedExecutionException;
+import java.util.concurrent.ThreadPoolExecutor;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+
+/**
+ * 音频导入服务实现类
+ * 音乐生成完成的事务提交后，将远程音频流式写入存储服务（不落地完整的中间文件），写入成功后把引用该地址的音乐改为本地地址。
+ * 下载在固定大小的线程池中进行，同一地址同时只有一个下载；连接中断时断点续传，读到结尾时校验长度和 Content-MD5，校验失败的内容不会写入存储。
+ * 队列已满或实例重启而遗漏的导入由定时补偿扫描重新提交
+ */
+@Slf4j
+@Service
+@ConditionalOnProperty(prefix = "music.ingestion", name = "enabled", havingValue = "true", matchIfMissing = true)
+public class AudioIngestionServiceImpl implements AudioIngestionService {
+
+    private static final String DEFAULT_FILENAME = "audio.mp3";
+
+    private final MusicRepository musicRepository;
+    private final StorageService storageService;
+    private final AudioIngestionConfig ingestionConfig;
+    private final ApplicationEventPublisher eventPublisher;
+    private final TransactionTemplate transactionTemplate;
+    private final ThreadPoolExecutor executor;
+
+    /** 正在导入或等待导入的远程地址 */
+    private final Set<String> pendingUrls = ConcurrentHashMap.newKeySet();
+    /** 已确认无法下载的远程地址（如链接已失效），重启前不再尝试 */
+    private final Set<String> rejectedUrls = ConcurrentHashMap.newKeySet();
+    /** 补偿扫描的游标，为空时从头扫描 */
+    private volatile Music sweepCursor;
+
+    public AudioIngestionServiceImpl(MusicRepository musicRepository,
+                                     StorageService storageService,
+                                     AudioIngestionConfig ingestionConfig,
+                                     ApplicationEventPublisher eventPublisher,
+                                     PlatformTransactionManager transactionManager) {
+        this.musicRepository = musicRepository;
+        this.storageService = storageService;
+        this.ingestionConfig = ingestionConfig;
+        this.eventPublisher = eventPublisher;
+        this.transactionTemplate = new TransactionTemplate(transactionManager);
+
+        AtomicInteger threadCount = new AtomicInteger();
+        this.executor = new ThreadPoolExecutor(
+                ingestionConfig.getMaxConcurrency(), ingestionConfig.getMaxConcurrency(),
+                60, TimeUnit.SECONDS,
+                new ArrayBlockingQueue<>(ingestionConfig.getQueueCapacity()),
+                runnable -> {
+                    Thread thread = new Thread(runnable, "audio-ingestion-" + threadCount.incrementAndGet());
+                    thread.setDaemon(true);
+                    return thread;
+                });
+        this.executor.allowCoreThreadTimeOut(true);
+    }
+
+    /**
+     * 音乐生成完成的事务提交后提交导入
+     *
+     * @param event 状态变更事件
+     */
+    @TransactionalEventListener(fallbackExecution = true)
+    public void onStatusChanged(MusicStatusChangedEvent event) {
+        MusicDTO music = event.getMusic();
+        if (music.getStatus() == MusicStatus.COMPLETED && isRemote(music.getAudioUrl())) {
+            submit(music.getAudioUrl());
+        }
+    }
+
+    @Override
+    public boolean submit(String remoteUrl) {
+        if (rejectedUrls.contains(remoteUrl) || !pendingUrls.add(remoteUrl)) {
+            return false;
+        }
+        try {
+            executor.execute(() -> {
+                try {
+                    ingest(remoteUrl);
+                } catch (Exception e) {
+                    log.warn("音频导入失败, url: {}, error: {}", remoteUrl, e.getMessage());
+                } finally {
+                    pendingUrls.remove(remoteUrl);
+                }
+            });
+            return true;
+        } catch (RejectedExecutionException e) {
+            pendingUrls.remove(remoteUrl);
+            log.warn("音频导入队列已满, 等待补偿扫描, url: {}", remoteUrl);
+            return false;
+        }
+    }
+
+    @Override
+    public int ingest(String remoteUrl) {
+        URI uri = URI.create(remoteUrl);
+        String filename = filenameOf(uri);
+        boolean etagIsMd5 = uri.getHost() != null && ingestionConfig.getEtagMd5Hosts().stream()
+                .anyMatch(host -> host.equalsIgnoreCase(uri.getHost()));
+        for (int attempt = 1; ; attempt++) {
+            try (ResumableHttpInputStream content = new ResumableHttpInputStream(uri,
+                    ingestionConfig.getConnectTimeout(), ingestionConfig.getReadTimeout(),
+                    ingestionConfig.getMaxResumes(), ingestionConfig.getRetryBackoff(), etagIsMd5)) {
+                StoredFileDTO stored = storageService.store(content, filename);
+                log.info("音频导入成功, url: {}, file: {}, size: {}, sha256: {}, resumes: {}, md5Verified: {}",
+                        remoteUrl, stored.getFilename(), stored.getSize(), stored.getChecksum(), content.getResumes(),
+                        content.isVerified());
+                return relink(remoteUrl, stored);
+            } catch (Exception e) {
+                if (!isRetryable(e)) {
+                    rejectedUrls.add(remoteUrl);
+                    throw new StorageException("音频导入失败: " + remoteUrl, e);
+                }
+                if (attempt >= ingestionConfig.getMaxAttempts()) {
+                    throw new StorageException("音频导入失败, 已重试" + attempt + "次: " + remoteUrl, e);
+                }
+                log.info("音频下载失败, 稍后重试, url: {}, attempt: {}, error: {}", remoteUrl, attempt, e.getMessage());
+                backoff(attempt);
+            }
+        }
+    }
+
+    @Override
+    @Scheduled(fixedDelayString = "${music.ingestion.sweep-interval:300000}")
+    public int sweep() {
+        int batchSize = Math.max(1, ingestionConfig.getSweepBatchSize());
+        Music cursor = sweepCursor;
+        List<Music> remote;
+        try {
+            remote = cursor == null
+                    ? musicRepository.findByStatusAndAudioUrlStartingWithOrderByUpdatedAtAscIdAsc(
+                            MusicStatus.COMPLETED, "http", PageRequest.of(0, batchSize))
+                    : musicRepository.findByAudioUrlPrefixAfter(MusicStatus.COMPLETED, "http",
+                            cursor.getUpdatedAt(), cursor.getId(), PageRequest.of(0, batchSize));
+        } catch (Exception e) {
+            log.error("查询待导入音频失败", e);
+            return 0;
+        }
+        // 扫描到末尾后下次从头开始，已拒绝或持续下载失败的地址不会占满每次扫描的名额
+        sweepCursor = remote.size() < batchSize ? null : remote.get(remote.size() - 1);
+
+        int submitted = 0;
+        for (Music music : remote) {
+            if (isRemote(music.getAudioUrl()) && submit(music.getAudioUrl())) {
+                submitted++;
+            }
+        }
+        if (submitted > 0) {
+            log.info("补偿提交音频导入: {}", submitted);
+        }
+        return submitted;
+    }
+
+    @Override
+    public int getPendingCount() {
+        return pendingUrls.size();
+    }
+
+    @PreDestroy
+    public void shutdown() {
+        executor.shutdownNow();
+    }
+
+    /**
+     * 将引用远程地址的音乐改为本地地址；没有音乐再引用该地址时（已删除或已改为其他地址）删除刚写入的文件
+     */
+    private int relink(String remoteUrl, StoredFileDTO stored) {
+        Integer relinked = transactionTemplate.execute(status -> {
+            List<Music> musics = musicRepository.findByAudioUrl(remoteUrl);
+            for (Music music : musics) {
+                music.setAudioUrl(stored.getUrl());
+            }
+            // 写入时已持有一个引用，按引用计数管理时为其余音乐各增加一个
+            for (int i = 1; i < musics.size(); i++) {
+                storageService.retain(stored.getFilename());
+            }
+            musicRepository.saveAll(musics);
+            musics.forEach(music -> eventPublisher.publishEvent(MusicStatusChangedEvent.of(music)));
+            return musics.size();
+        });
+        if (relinked == null || relinked == 0) {
+            log.info("音频已无音乐引用, 删除导入的文件: {}", stored.getFilename());
+            storageService.delete(stored.getFilename());
+            return 0;
+        }
+        return relinked;
+    }
+
+    /**
+     * 链接失效（4xx）和存储校验失败（类型、大小超限）不重试，网络和服务端错误重试
+     */
+    private boolean isRetryable(Throwable e) {
+        for (Throwable cause = e; cause != null; cause = cause.getCause()) {
+            if (cause instanceof ResumableHttpInputStream.DownloadException downloadException) {
+                return downloadException.isRetryable();
+            }
+            if (cause instanceof IOException) {
+                return true;
+            }
+        }
+        return false;
+    }
+
+    private void backoff(int attempt) {
+        try {
+            Thread.sleep(ingestionConfig.getRetryBackoff() << (attempt - 1));
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+            throw new StorageException("音频导入被中断");
+        }
+    }
+
+    private String filenameOf(URI uri) {
+        String name = uri.getPath() == null ? "" : FilenameUtils.getName(uri.getPath());
+        if (name.isEmpty()) {
+            return DEFAULT_FILENAME;
+        }
+        return FilenameUtils.getExtension(name).isEmpty()
+                ? name + "." + FilenameUtils.getExtension(DEFAULT_FILENAME)
+                : name;
+    }
+
+    private boolean isRemote(String url) {
+        return url != null && (url.startsWith("http://") || url.startsWith("https://"));
+    }
+}
@@ -0,0 +1,178 @@
+package com.aimusic.backend.domain.service.impl;
+
+import com.aimusic.backend.config.BatchGenerationConfig;
+import com.aimusic.backend.domain.dto.MusicGenerationRequest;
+import com.aimusic.backend.domain.dto.MusicGenerationResultDTO;
+import com.aimusic.backend.domain.repository.UserRepository;
+import com.aimusic.backend.domain.service.BatchGenerationService;
+import com.aimusic.backend.domain.service.MusicService;
+import com.aimusic.backend.exception.EntityNotFoundException;
+import com.fasterxml.jackson.core.JsonParseException;
+import com.fasterxml.jackson.core.JsonProcessingException;
+import com.fasterxml.jackson.databind.MappingIterator;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import jakarta.validation.ConstraintViolation;
+import jakarta.validation.Validator;
+import lombok.RequiredArgsConstructor;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.stereotype.Service;
+
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.OutputStream;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Set;
+import java.util.UUID;
+import java.util.stream.Collectors;
+
+/**
+ * 批量音乐生成服务实现类
+ * 请求流式解析，不整体载入内存；每攒满一批先一次查询校验用户，再在一个事务中批量插入音乐和生成任务，
+ * 各批独立提交，前面批次的结果在后续批次处理期间即可返回给客户端
+ */
+@Slf4j
+@Service
+@RequiredArgsConstructor
+public class BatchGenerationServiceImpl implements BatchGenerationService {
+
+    private final MusicService musicService;
+    private final UserRepository userRepository;
+    private final Validator validator;
+    private final ObjectMapper objectMapper;
+    private final BatchGenerationConfig config;
+
+    /**
+     * 待处理的请求，校验失败的请求只保留错误结果，与其他请求一起按顺序输出
+     */
+    private record Item(int index, MusicGenerationRequest request, MusicGenerationResultDTO result) {
+    }
+
+    @Override
+    public int generate(InputStream input, OutputStream output) throws IOException {
+        List<Item> pending = new ArrayList<>();
+        int index = 0;
+        int created = 0;
+        try (MappingIterator<MusicGenerationRequest> requests =
+                     objectMapper.readerFor(MusicGenerationRequest.class).readValues(input)) {
+            while (true) {
+                MusicGenerationRequest request;
+                try {
+                    if (!requests.hasNextValue()) {
+                        break;
+                    }
+                    if (index >= config.getMaxItems()) {
+                        pending.add(failed(index, "单次最多提交" + config.getMaxItems() + "个请求"));
+                        break;
+                    }
+                    request = requests.nextValue();
+                } catch (JsonParseException e) {
+                    // 语法错误后无法定位下一个请求，停止读取
+                    pending.add(failed(index, "请求格式错误: " + e.getOriginalMessage()));
+                    break;
+                } catch (JsonProcessingException e) {
+                    pending.add(failed(index++, "请求格式错误: " + e.getOriginalMessage()));
+                    continue;
+                }
+
+                String error = validate(request);
+                pending.add(error != null ? failed(index, error) : new Item(index, request, null));
+                index++;
+                if (pending.size() >= config.getChunkSize()) {
+                    created += process(pending, output);
+                    pending.clear();
+                }
+            }
+        }
+        created += process(pending, output);
+        log.info("批量生成完成, 请求数: {}, 创建音乐数: {}", index, created);
+        return created;
+    }
+
+    /**
+     * 处理一批请求并按顺序输出结果
+     *
+     * @return 成功创建的音乐数量
+     */
+    private int process(List<Item> items, OutputStream output) throws IOException {
+        List<Item> accepted = items.stream().filter(item -> item.result() == null).toList();
+        List<MusicGenerationResultDTO> results = generate(accepted);
+
+        int created = 0;
+        int next = 0;
+        for (Item item : items) {
+            MusicGenerationResultDTO result = item.result() != null ? item.result() : results.get(next++);
+            result.setIndex(item.index());
+            if (result.getMusicId() != null) {
+                created++;
+            }
+            output.write(objectMapper.writeValueAsBytes(result));
+            output.write('\n');
+        }
+        output.flush();
+        return created;
+    }
+
+    /**
+     * 过滤掉用户不存在的请求后批量插入
+     *
+     * @return 与请求一一对应的结果
+     */
+    private List<MusicGenerationResultDTO> generate(List<Item> items) {
+        if (items.isEmpty()) {
+            return List.of();
+        }
+        Set<UUID> existingUsers = userRepository.findExistingIds(
+                items.stream().map(item -> item.request().getUserId()).collect(Collectors.toSet()));
+        List<MusicGenerationRequest> requests = items.stream()
+                .map(Item::request)
+                .filter(request -> existingUsers.contains(request.getUserId()))
+                .toList();
+
+        List<MusicGenerationResultDTO> generated;
+        try {
+            generated = requests.isEmpty() ? List.of() : musicService.generateMusicBatch(requests);
+        } catch (RuntimeException e) {
+            // 整批已回滚，批内每个请求都返回错误；响应已开始输出，不能再交给全局异常处理
+            String error;
+            if (e instanceof EntityNotFoundException) {
+                // 校验用户之后用户被删除
+                log.warn("批量生成插入失败, 请求数: {}, error: {}", requests.size(), e.getMessage());
+                error = e.getMessage();
+            } else {
+                log.error("批量生成插入失败, 请求数: {}", requests.size(), e);
+                error = "服务器内部错误";
+            }
+            generated = requests.stream()
+                    .map(request -> MusicGenerationResultDTO.builder().error(error).build())
+                    .toList();
+        }
+
+        List<MusicGenerationResultDTO> results = new ArrayList<>(items.size());
+        int next = 0;
+        for (Item item : items) {
+            results.add(existingUsers.contains(item.request().getUserId())
+                    ? generated.get(next++)
+                    : MusicGenerationResultDTO.builder().error("用户不存在").build());
+        }
+        return results;
+    }
+
+    private String validate(MusicGenerationRequest request) {
+        if (request == null) {
+            return "请求不能为空";
+        }
+        Set<ConstraintViolation<MusicGenerationRequest>> violations = validator.validate(request);
+        if (violations.isEmpty()) {
+            return null;
+        }
+        return violations.stream()
+                .map(ConstraintViolation::getMessage)
+                .sorted()
+                .collect(Collectors.joining("; "));
+    }
+
+    private static Item failed(int index, String error) {
+        return new Item(index, null, MusicGenerationResultDTO.failed(index, error));
+    }
+}
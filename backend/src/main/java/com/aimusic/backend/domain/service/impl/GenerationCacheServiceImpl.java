@@ -0,0 +1,254 @@
+package com.aimusic.backend.domain.service.impl;
+
+import com.aimusic.backend.config.GenerationCacheConfig;
+import com.aimusic.backend.domain.dto.MusicDTO;
+import com.aimusic.backend.domain.dto.MusicGenerationRequest;
+import com.aimusic.backend.domain.entity.Music;
+import com.aimusic.backend.domain.enums.GenerationPriority;
+import com.aimusic.backend.domain.enums.MusicStatus;
+import com.aimusic.backend.domain.event.MusicStatusChangedEvent;
+import com.aimusic.backend.domain.repository.MusicRepository;
+import com.aimusic.backend.domain.service.GenerationCacheService;
+import com.aimusic.backend.domain.service.GenerationJobService;
+import com.aimusic.backend.service.StorageService;
+import lombok.RequiredArgsConstructor;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.context.ApplicationEventPublisher;
+import org.springframework.context.event.EventListener;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.support.TransactionSynchronization;
+import org.springframework.transaction.support.TransactionSynchronizationManager;
+
+import java.nio.charset.StandardCharsets;
+import java.security.MessageDigest;
+import java.security.NoSuchAlgorithmException;
+import java.time.LocalDateTime;
+import java.util.HexFormat;
+import java.util.List;
+import java.util.Locale;
+import java.util.Map;
+import java.util.Optional;
+import java.util.Set;
+import java.util.UUID;
+import java.util.concurrent.ConcurrentHashMap;
+
+/**
+ * 音乐生成结果缓存服务实现类
+ * 第一个请求作为源请求提交生成，之后的相同请求记录来源并跟随其状态，源请求的状态变更在同一事务内同步给跟随者。
+ * 本实例上进行中的源请求在内存中登记，使并发的相同请求在源请求提交事务前也能合并
+ */
+@Slf4j
+@Service
+@RequiredArgsConstructor
+public class GenerationCacheServiceImpl implements GenerationCacheService {
+
+    private static final Set<MusicStatus> IN_FLIGHT = Set.of(MusicStatus.PENDING, MusicStatus.PROCESSING);
+
+    private final MusicRepository musicRepository;
+    private final GenerationJobService generationJobService;
+    private final GenerationCacheConfig cacheConfig;
+    private final ApplicationEventPublisher eventPublisher;
+    private final StorageService storageService;
+
+    /** 本实例上进行中的源请求：请求摘要 -> 源音乐ID */
+    private final Map<String, UUID> inFlightSources = new ConcurrentHashMap<>();
+
+    @Override
+    public String requestHash(MusicGenerationRequest request) {
+        if (!cacheConfig.isEnabled() || request.isSkipCache()) {
+            return null;
+        }
+        MusicGenerationRequest.GenerationParams params = request.getParams();
+        String canonical = String.join("\n",
+                normalize(request.getPrompt()),
+                normalize(request.getStyle()),
+                String.valueOf(request.getDuration()),
+                String.valueOf(request.isGenerateLyrics()),
+                String.valueOf(request.isUseAiVoice()),
+                params == null ? "" : String.valueOf(params.getTemperature()),
+                params == null ? "" : normalize(params.getRhythm()),
+                params == null ? "" : normalize(params.getEmotion()),
+                params == null ? "" : normalize(params.getInstrument()));
+        try {
+            byte[] digest = MessageDigest.getInstance("SHA-256").digest(canonical.getBytes(StandardCharsets.UTF_8));
+            return HexFormat.of().formatHex(digest);
+        } catch (NoSuchAlgorithmException e) {
+            throw new IllegalStateException("SHA-256不可用", e);
+        }
+    }
+
+    @Override
+    public boolean attach(Music music) {
+        String hash = music.getRequestHash();
+        if (hash == null) {
+            return false;
+        }
+
+        if (cacheConfig.getResultTtl() > 0) {
+            LocalDateTime after = LocalDateTime.now().minusNanos(cacheConfig.getResultTtl() * 1_000_000);
+            Optional<Music> cached = musicRepository
+                    .findFirstByRequestHashAndStatusAndUpdatedAtAfterOrderByUpdatedAtDesc(
+                            hash, MusicStatus.COMPLETED, after);
+            if (cached.isPresent()) {
+                music.setSourceMusicId(cached.get().getId());
+                copyResult(cached.get(), music);
+                musicRepository.save(music);
+                log.info("复用已完成的生成结果, musicId: {}, sourceMusicId: {}", music.getId(), cached.get().getId());
+                return true;
+            }
+        }
+
+        Music source = findInFlightSource(music);
+        if (source == null) {
+            return false;
+        }
+        music.setSourceMusicId(source.getId());
+        if (source.getStatus() != null) {
+            music.setStatus(source.getStatus());
+        }
+        musicRepository.save(music);
+        log.info("合并进行中的相同请求, musicId: {}, sourceMusicId: {}", music.getId(), source.getId());
+        return true;
+    }
+
+    @Override
+    public void release(Music music) {
+        String hash = music.getRequestHash();
+        if (hash == null || music.getSourceMusicId() != null) {
+            return;
+        }
+        inFlightSources.remove(hash, music.getId());
+        List<Music> followers = musicRepository.findBySourceMusicIdAndStatusInOrderByCreatedAtAsc(
+                music.getId(), IN_FLIGHT);
+        if (!followers.isEmpty()) {
+            promote(music, followers);
+        }
+    }
+
+    /**
+     * 源请求状态变更时同步给跟随者，与源请求的变更在同一事务内提交
+     *
+     * @param event 状态变更事件
+     */
+    @EventListener
+    public void onStatusChanged(MusicStatusChangedEvent event) {
+        MusicDTO changed = event.getMusic();
+        if (changed.getSourceMusicId() != null) {
+            return;
+        }
+        Music source = musicRepository.findById(changed.getId()).orElse(null);
+        if (source == null || source.getRequestHash() == null) {
+            return;
+        }
+        if (!IN_FLIGHT.contains(source.getStatus())) {
+            inFlightSources.remove(source.getRequestHash(), source.getId());
+        }
+
+        List<Music> followers = musicRepository.findBySourceMusicIdAndStatusInOrderByCreatedAtAsc(
+                source.getId(), IN_FLIGHT);
+        if (followers.isEmpty()) {
+            return;
+        }
+        if (source.getStatus() == MusicStatus.CANCELLED) {
+            promote(source, followers);
+            return;
+        }
+        for (Music follower : followers) {
+            if (source.getStatus() == MusicStatus.COMPLETED || source.getStatus() == MusicStatus.FAILED) {
+                copyResult(source, follower);
+            } else {
+                follower.setStatus(source.getStatus());
+            }
+        }
+        musicRepository.saveAll(followers);
+        followers.forEach(follower -> eventPublisher.publishEvent(MusicStatusChangedEvent.of(follower)));
+    }
+
+    /**
+     * 查找进行中的源请求，找不到时将当前音乐登记为源请求
+     */
+    private Music findInFlightSource(Music music) {
+        String hash = music.getRequestHash();
+        while (true) {
+            UUID sourceId = inFlightSources.putIfAbsent(hash, music.getId());
+            if (sourceId == null) {
+                // 本实例上没有进行中的相同请求，再检查其他实例或重启前提交的请求
+                Music source = musicRepository
+                        .findFirstByRequestHashAndSourceMusicIdIsNullAndStatusInAndIdNotOrderByCreatedAtAsc(
+                                hash, IN_FLIGHT, music.getId())
+                        .orElse(null);
+                if (source != null) {
+                    inFlightSources.replace(hash, music.getId(), source.getId());
+                } else {
+                    removeOnRollback(hash, music.getId());
+                }
+                return source;
+            }
+
+            Optional<Music> source = musicRepository.findById(sourceId);
+            if (source.isEmpty()) {
+                // 源请求的事务尚未提交，或已回滚、已删除，无法确认它会提交生成，由当前音乐接替登记
+                if (inFlightSources.replace(hash, sourceId, music.getId())) {
+                    removeOnRollback(hash, music.getId());
+                    return null;
+                }
+                continue;
+            }
+            if (IN_FLIGHT.contains(source.get().getStatus())) {
+                return source.get();
+            }
+            // 源请求已在其他实例上结束，清理后重新查找
+            inFlightSources.remove(hash, sourceId);
+        }
+    }
+
+    /**
+     * 源请求被取消或删除时由最早的跟随者接替提交生成
+     */
+    private void promote(Music source, List<Music> followers) {
+        Music successor = followers.get(0);
+        successor.setSourceMusicId(null);
+        successor.setStatus(MusicStatus.PENDING);
+        for (Music follower : followers.subList(1, followers.size())) {
+            follower.setSourceMusicId(successor.getId());
+            follower.setStatus(MusicStatus.PENDING);
+        }
+        musicRepository.saveAll(followers);
+        inFlightSources.put(source.getRequestHash(), successor.getId());
+        // 跟随者都在等待结果，按交互优先级调度
+        generationJobService.enqueue(successor, GenerationPriority.INTERACTIVE);
+        log.info("源请求已结束, 由跟随者接替生成, sourceMusicId: {}, successor: {}",
+                source.getId(), successor.getId());
+    }
+
+    private void removeOnRollback(String hash, UUID musicId) {
+        if (!TransactionSynchronizationManager.isSynchronizationActive()) {
+            return;
+        }
+        TransactionSynchronizationManager.registerSynchronization(new TransactionSynchronization() {
+            @Override
+            public void afterCompletion(int status) {
+                if (status != STATUS_COMMITTED) {
+                    inFlightSources.remove(hash, musicId);
+                }
+            }
+        });
+    }
+
+    private void copyResult(Music source, Music target) {
+        target.setStatus(source.getStatus());
+        target.setGenerationId(source.getGenerationId());
+        target.setAudioUrl(source.getAudioUrl());
+        target.setLyrics(source.getLyrics());
+        target.setErrorMessage(source.getErrorMessage());
+        // 复用已导入的本地文件时，按引用计数管理的存储为当前音乐增加一个引用
+        String audioUrl = target.getAudioUrl();
+        if (audioUrl != null && audioUrl.startsWith(storageService.getFileUrl(""))) {
+            storageService.retain(audioUrl.substring(audioUrl.lastIndexOf('/') + 1));
+        }
+    }
+
+    private String normalize(String value) {
+        return value == null ? "" : value.trim().replaceAll("\\s+", " ").toLowerCase(Locale.ROOT);
+    }
+}
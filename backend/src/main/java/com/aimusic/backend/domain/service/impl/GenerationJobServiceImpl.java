@@ -0,0 +1,335 @@
+package com.aimusic.backend.domain.service.impl;
+
+import com.aimusic.backend.config.GenerationQueueConfig;
+import com.aimusic.backend.domain.entity.GenerationJob;
+import com.aimusic.backend.domain.entity.Music;
+import com.aimusic.backend.domain.event.MusicStatusChangedEvent;
+import com.aimusic.backend.domain.enums.GenerationJobStatus;
+import com.aimusic.backend.domain.enums.GenerationPriority;
+import com.aimusic.backend.domain.enums.MusicStatus;
+import com.aimusic.backend.domain.repository.GenerationJobRepository;
+import com.aimusic.backend.domain.repository.MusicRepository;
+import com.aimusic.backend.domain.service.GenerationJobService;
+import io.micrometer.core.instrument.Gauge;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.Timer;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.context.ApplicationEventPublisher;
+import org.springframework.data.domain.PageRequest;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.annotation.Transactional;
+import org.springframework.util.StringUtils;
+
+import java.lang.management.ManagementFactory;
+import java.time.Duration;
+import java.time.LocalDateTime;
+import java.time.temporal.ChronoUnit;
+import java.util.ArrayDeque;
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.Deque;
+import java.util.EnumMap;
+import java.util.HashMap;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Locale;
+import java.util.Map;
+import java.util.UUID;
+
+/**
+ * 音乐生成任务队列服务实现类
+ * 任务保存在数据库中，实例通过 SELECT ... FOR UPDATE SKIP LOCKED 领取并持有带过期时间的租约；
+ * 实例崩溃后租约不再续期，过期任务会被任意实例重新领取。
+ * 领取时先读取租约过期的任务和按用户、优先级各自最早的排队任务，再按加权公平份额选择后加锁；
+ * 各优先级的排队数和等待时间通过 music.generation.queue.depth / music.generation.queue.wait 指标导出
+ */
+@Slf4j
+@Service
+public class GenerationJobServiceImpl implements GenerationJobService {
+
+    private final GenerationJobRepository generationJobRepository;
+    private final MusicRepository musicRepository;
+    private final GenerationQueueConfig queueConfig;
+    private final ApplicationEventPublisher eventPublisher;
+    private final String instanceId;
+    /** 各优先级任务从可执行到被领取的等待时间 */
+    private final Map<GenerationPriority, Timer> waitTimers = new EnumMap<>(GenerationPriority.class);
+
+    public GenerationJobServiceImpl(GenerationJobRepository generationJobRepository,
+                                    MusicRepository musicRepository,
+                                    GenerationQueueConfig queueConfig,
+                                    ApplicationEventPublisher eventPublisher,
+                                    MeterRegistry meterRegistry) {
+        this.generationJobRepository = generationJobRepository;
+        this.musicRepository = musicRepository;
+        this.queueConfig = queueConfig;
+        this.eventPublisher = eventPublisher;
+        this.instanceId = StringUtils.hasText(queueConfig.getInstanceId())
+                ? queueConfig.getInstanceId()
+                : ManagementFactory.getRuntimeMXBean().getName() + "-" + UUID.randomUUID().toString().substring(0, 8);
+        log.info("生成任务队列实例ID: {}", instanceId);
+
+        for (GenerationPriority priority : GenerationPriority.values()) {
+            String tag = priority.name().toLowerCase(Locale.ROOT);
+            Gauge.builder("music.generation.queue.depth", generationJobRepository,
+                            repository -> repository.countByStatusAndPriority(GenerationJobStatus.QUEUED, priority))
+                    .tag("priority", tag)
+                    .register(meterRegistry);
+            Gauge.builder("music.generation.queue.running", generationJobRepository,
+                            repository -> repository.countByStatusAndPriority(GenerationJobStatus.RUNNING, priority))
+                    .tag("priority", tag)
+                    .register(meterRegistry);
+            waitTimers.put(priority, Timer.builder("music.generation.queue.wait")
+                    .tag("priority", tag)
+                    .publishPercentiles(0.5, 0.95, 0.99)
+                    .register(meterRegistry));
+        }
+    }
+
+    @Override
+    public String getInstanceId() {
+        return instanceId;
+    }
+
+    @Override
+    @Transactional
+    public GenerationJob enqueue(Music music, GenerationPriority priority) {
+        GenerationJob job = generationJobRepository.save(newJob(music, priority));
+        log.info("生成任务已入队, jobId: {}, musicId: {}, priority: {}", job.getId(), music.getId(), priority);
+        return job;
+    }
+
+    @Override
+    @Transactional
+    public List<GenerationJob> enqueueAll(Collection<Music> musicList, GenerationPriority priority) {
+        if (musicList.isEmpty()) {
+            return List.of();
+        }
+        List<GenerationJob> jobs = generationJobRepository.saveAll(
+                musicList.stream().map(music -> newJob(music, priority)).toList());
+        log.info("生成任务已批量入队, count: {}, priority: {}", jobs.size(), priority);
+        return jobs;
+    }
+
+    @Override
+    @Transactional
+    public List<GenerationJob> claimJobs(int limit) {
+        if (limit <= 0) {
+            return List.of();
+        }
+
+        LocalDateTime now = LocalDateTime.now();
+        // 租约过期的任务单独查询并排在前面，与排队任务一起参与公平选择
+        List<GenerationJob> candidates = new ArrayList<>(
+                generationJobRepository.findByStatusAndLeaseExpiresAtBeforeOrderByLeaseExpiresAt(
+                        GenerationJobStatus.RUNNING, now, PageRequest.of(0, limit)));
+        candidates.addAll(generationJobRepository.findClaimCandidates(now, limit, queueConfig.getFairnessScanSize()));
+        if (candidates.isEmpty()) {
+            return List.of();
+        }
+        List<GenerationJob> running = generationJobRepository.findByStatusAndLeaseExpiresAtGreaterThanEqual(
+                GenerationJobStatus.RUNNING, now);
+        List<UUID> selected = selectFairly(candidates, running, limit);
+
+        // 加锁时重新校验状态，已被其他实例领取的任务被跳过，本次少领取的槽位留到下个周期
+        List<GenerationJob> claimed = new ArrayList<>();
+        for (GenerationJob job : generationJobRepository.lockClaimableJobs(selected, now)) {
+            if (job.getStatus() == GenerationJobStatus.RUNNING) {
+                log.warn("回收租约过期的任务, jobId: {}, 原持有者: {}", job.getId(), job.getLeaseOwner());
+                if (job.getAttempts() >= job.getMaxAttempts()) {
+                    markFailed(job, "任务租约过期且已达到最大执行次数");
+                    continue;
+                }
+            } else {
+                waitTimers.get(job.getPriority()).record(Duration.between(job.getAvailableAt(), now));
+            }
+            job.setStatus(GenerationJobStatus.RUNNING);
+            job.setLeaseOwner(instanceId);
+            job.setLeaseExpiresAt(now.plus(queueConfig.getLeaseDuration(), ChronoUnit.MILLIS));
+            job.setAttempts(job.getAttempts() + 1);
+            claimed.add(job);
+        }
+        return generationJobRepository.saveAll(claimed);
+    }
+
+    @Override
+    @Transactional
+    public int renewLeases(Collection<UUID> jobIds) {
+        if (jobIds.isEmpty()) {
+            return 0;
+        }
+        LocalDateTime expiresAt = LocalDateTime.now().plus(queueConfig.getLeaseDuration(), ChronoUnit.MILLIS);
+        int renewed = generationJobRepository.extendLeases(
+                jobIds, instanceId, GenerationJobStatus.RUNNING, expiresAt);
+        if (renewed < jobIds.size()) {
+            log.warn("部分任务续约失败, 持有: {}, 续约成功: {}", jobIds.size(), renewed);
+        }
+        return renewed;
+    }
+
+    @Override
+    @Transactional
+    public void completeJob(UUID jobId) {
+        generationJobRepository.findById(jobId)
+                .filter(this::isOwnedRunningJob)
+                .ifPresent(job -> {
+                    job.setStatus(GenerationJobStatus.SUCCEEDED);
+                    job.setLeaseOwner(null);
+                    job.setLeaseExpiresAt(null);
+                    job.setLastError(null);
+                    generationJobRepository.save(job);
+                    log.info("生成任务执行成功, jobId: {}", jobId);
+                });
+    }
+
+    @Override
+    @Transactional
+    public void failJob(UUID jobId, String errorMessage) {
+        generationJobRepository.findById(jobId)
+                .filter(this::isOwnedRunningJob)
+                .ifPresent(job -> {
+                    job.setLastError(errorMessage);
+                    if (job.getAttempts() >= job.getMaxAttempts()) {
+                        markFailed(job, errorMessage);
+                        return;
+                    }
+                    long backoff = queueConfig.getRetryBackoff() << Math.min(job.getAttempts() - 1, 10);
+                    job.setStatus(GenerationJobStatus.QUEUED);
+                    job.setLeaseOwner(null);
+                    job.setLeaseExpiresAt(null);
+                    job.setAvailableAt(LocalDateTime.now().plus(backoff, ChronoUnit.MILLIS));
+                    generationJobRepository.save(job);
+                    log.warn("生成任务执行失败, 将在{}ms后重试, jobId: {}, attempts: {}, error: {}",
+                            backoff, jobId, job.getAttempts(), errorMessage);
+                });
+    }
+
+    @Override
+    @Transactional
+    public void deferJob(UUID jobId, long delayMillis) {
+        generationJobRepository.findById(jobId)
+                .filter(this::isOwnedRunningJob)
+                .ifPresent(job -> {
+                    job.setStatus(GenerationJobStatus.QUEUED);
+                    job.setAttempts(Math.max(0, job.getAttempts() - 1));
+                    job.setLeaseOwner(null);
+                    job.setLeaseExpiresAt(null);
+                    job.setAvailableAt(LocalDateTime.now().plus(delayMillis, ChronoUnit.MILLIS));
+                    generationJobRepository.save(job);
+                    log.info("生成任务已推迟{}ms, jobId: {}", delayMillis, jobId);
+                });
+    }
+
+    /**
+     * 按加权公平份额选择任务
+     * 每个槽位先选 (运行中数量 + 1) / 权重 最小的优先级，相同时选交互优先级；
+     * 再在该优先级中选运行中任务最少的用户，相同时选最早排队的用户
+     *
+     * @param candidates 候选任务，租约过期的任务在前，其余按可执行时间排序
+     * @param running 所有实例上运行中的任务
+     * @param limit 最多选择数量
+     * @return 选中的任务ID
+     */
+    private List<UUID> selectFairly(List<GenerationJob> candidates, List<GenerationJob> running, int limit) {
+        // 用户ID可能为空（调度字段加入前创建的任务），HashMap允许空键
+        Map<GenerationPriority, Map<UUID, Deque<GenerationJob>>> queues = new EnumMap<>(GenerationPriority.class);
+        for (GenerationJob job : candidates) {
+            queues.computeIfAbsent(job.getPriority(), priority -> new LinkedHashMap<>())
+                    .computeIfAbsent(job.getUserId(), userId -> new ArrayDeque<>())
+                    .add(job);
+        }
+        Map<GenerationPriority, Integer> priorityLoad = new EnumMap<>(GenerationPriority.class);
+        Map<UUID, Integer> userLoad = new HashMap<>();
+        for (GenerationJob job : running) {
+            priorityLoad.merge(job.getPriority(), 1, Integer::sum);
+            userLoad.merge(job.getUserId(), 1, Integer::sum);
+        }
+
+        List<UUID> selected = new ArrayList<>(limit);
+        while (selected.size() < limit && !queues.isEmpty()) {
+            GenerationPriority priority = null;
+            double minShare = Double.MAX_VALUE;
+            for (GenerationPriority candidate : queues.keySet()) {
+                double share = (priorityLoad.getOrDefault(candidate, 0) + 1.0) / weightOf(candidate);
+                if (share < minShare) {
+                    priority = candidate;
+                    minShare = share;
+                }
+            }
+            Map<UUID, Deque<GenerationJob>> users = queues.get(priority);
+            UUID userId = null;
+            int minLoad = Integer.MAX_VALUE;
+            for (UUID candidate : users.keySet()) {
+                int load = userLoad.getOrDefault(candidate, 0);
+                if (load < minLoad) {
+                    userId = candidate;
+                    minLoad = load;
+                }
+            }
+
+            Deque<GenerationJob> queue = users.get(userId);
+            selected.add(queue.poll().getId());
+            priorityLoad.merge(priority, 1, Integer::sum);
+            userLoad.merge(userId, 1, Integer::sum);
+            if (queue.isEmpty()) {
+                users.remove(userId);
+                if (users.isEmpty()) {
+                    queues.remove(priority);
+                }
+            }
+        }
+        return selected;
+    }
+
+    private int weightOf(GenerationPriority priority) {
+        int weight = priority == GenerationPriority.INTERACTIVE
+                ? queueConfig.getInteractiveWeight()
+                : queueConfig.getBatchWeight();
+        return Math.max(1, weight);
+    }
+
+    private GenerationJob newJob(Music music, GenerationPriority priority) {
+        return GenerationJob.builder()
+                .musicId(music.getId())
+                .userId(music.getUserId())
+                .priority(priority)
+                .status(GenerationJobStatus.QUEUED)
+                .attempts(0)
+                .maxAttempts(queueConfig.getMaxAttempts())
+                .availableAt(LocalDateTime.now())
+                .build();
+    }
+
+    /**
+     * 判断任务是否仍由本实例持有
+     * 租约过期后被其他实例接管的任务不能再由本实例更新
+     */
+    private boolean isOwnedRunningJob(GenerationJob job) {
+        boolean owned = job.getStatus() == GenerationJobStatus.RUNNING && instanceId.equals(job.getLeaseOwner());
+        if (!owned) {
+            log.warn("任务已不由本实例持有, 忽略结果, jobId: {}, 当前持有者: {}", job.getId(), job.getLeaseOwner());
+        }
+        return owned;
+    }
+
+    /**
+     * 将任务及关联音乐标记为失败
+     */
+    private void markFailed(GenerationJob job, String errorMessage) {
+        job.setStatus(GenerationJobStatus.FAILED);
+        job.setLeaseOwner(null);
+        job.setLeaseExpiresAt(null);
+        job.setLastError(errorMessage);
+        generationJobRepository.save(job);
+
+        musicRepository.findById(job.getMusicId()).ifPresent(music -> {
+            if (music.getStatus() == MusicStatus.PENDING || music.getStatus() == MusicStatus.PROCESSING) {
+                music.setStatus(MusicStatus.FAILED);
+                music.setErrorMessage(errorMessage);
+                musicRepository.save(music);
+                eventPublisher.publishEvent(MusicStatusChangedEvent.of(music));
+            }
+        });
+        log.error("生成任务最终失败, jobId: {}, musicId: {}, error: {}", job.getId(), job.getMusicId(), errorMessage);
+    }
+}
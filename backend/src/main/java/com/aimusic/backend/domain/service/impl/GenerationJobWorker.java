@@ -0,0 +1,170 @@
+package com.aimusic.backend.domain.service.impl;
+
+import com.aimusic.backend.client.SunoApiClient;
+import com.aimusic.backend.client.SunoCircuitBreaker;
+import com.aimusic.backend.config.GenerationQueueConfig;
+import com.aimusic.backend.config.SchedulingConfig;
+import com.aimusic.backend.config.SunoApiConfig;
+import com.aimusic.backend.config.SunoCircuitBreakerConfig;
+import com.aimusic.backend.config.SunoGovernorConfig;
+import com.aimusic.backend.domain.entity.GenerationJob;
+import com.aimusic.backend.domain.service.GenerationJobService;
+import com.aimusic.backend.domain.service.MusicGenerationService;
+import com.aimusic.backend.exception.SunoUnavailableException;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Qualifier;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnProperty;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Component;
+
+import java.util.List;
+import java.util.Set;
+import java.util.UUID;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.Executor;
+
+/**
+ * 音乐生成任务执行器
+ * 定时从持久化队列领取任务并交给音乐生成线程池执行，同时为执行中的任务续约
+ * 领取和续约运行在独立的调度器上，共享调度器被阻塞时租约也能按时续约；
+ * 续约持续失败时，租约时长需覆盖单次提交的最长耗时，否则任务会在执行期间被其他实例重复领取
+ */
+@Slf4j
+@Component
+@ConditionalOnProperty(prefix = "music.generation-queue", name = "enabled", havingValue = "true", matchIfMissing = true)
+public class GenerationJobWorker {
+
+    private final GenerationJobService generationJobService;
+    private final MusicGenerationService musicGenerationService;
+    private final GenerationQueueConfig queueConfig;
+    private final SunoCircuitBreaker sunoCircuitBreaker;
+    private final Executor executor;
+
+    /** 本实例正在执行的任务 */
+    private final Set<UUID> runningJobs = ConcurrentHashMap.newKeySet();
+
+    public GenerationJobWorker(GenerationJobService generationJobService,
+                               MusicGenerationService musicGenerationService,
+                               GenerationQueueConfig queueConfig,
+                               SunoCircuitBreaker sunoCircuitBreaker,
+                               @Qualifier("musicGenerationExecutor") Executor executor,
+                               SunoApiConfig sunoApiConfig,
+                               SunoGovernorConfig governorConfig,
+                               SunoCircuitBreakerConfig circuitBreakerConfig) {
+        long maxSubmitTime = maxSubmitTime(sunoApiConfig, governorConfig, circuitBreakerConfig);
+        if (queueConfig.getLeaseDuration() <= maxSubmitTime) {
+            throw new IllegalStateException(String.format(
+                    "music.generation-queue.lease-duration(%dms)需大于单次提交的最长耗时(%dms)",
+                    queueConfig.getLeaseDuration(), maxSubmitTime));
+        }
+        this.generationJobService = generationJobService;
+        this.musicGenerationService = musicGenerationService;
+        this.queueConfig = queueConfig;
+        this.sunoCircuitBreaker = sunoCircuitBreaker;
+        this.executor = executor;
+    }
+
+    /**
+     * 领取并分发任务
+     *
+     * @return 本次领取的任务数量
+     */
+    @Scheduled(fixedDelayString = "${music.generation-queue.poll-interval:1000}",
+               scheduler = SchedulingConfig.GENERATION_JOB_SCHEDULER)
+    public int dispatch() {
+        // Suno熔断期间任务留在队列中，熔断器关闭后再领取
+        if (!sunoCircuitBreaker.isCallPermitted()) {
+            return 0;
+        }
+        int freeSlots = queueConfig.getMaxConcurrency() - runningJobs.size();
+        if (freeSlots <= 0) {
+            return 0;
+        }
+
+        List<GenerationJob> jobs;
+        try {
+            jobs = generationJobService.claimJobs(freeSlots);
+        } catch (Exception e) {
+            log.error("领取生成任务失败", e);
+            return 0;
+        }
+
+        for (GenerationJob job : jobs) {
+            runningJobs.add(job.getId());
+            executor.execute(() -> execute(job));
+        }
+        return jobs.size();
+    }
+
+    /**
+     * 为执行中的任务续约
+     */
+    @Scheduled(fixedDelayString = "${music.generation-queue.heartbeat-interval:20000}",
+               scheduler = SchedulingConfig.GENERATION_JOB_SCHEDULER)
+    public void heartbeat() {
+        if (runningJobs.isEmpty()) {
+            return;
+        }
+        try {
+            generationJobService.renewLeases(Set.copyOf(runningJobs));
+        } catch (Exception e) {
+            log.error("生成任务续约失败", e);
+        }
+    }
+
+    /**
+     * 本实例正在执行的任务数量
+     *
+     * @return 任务数量
+     */
+    public int getRunningJobCount() {
+        return runningJobs.size();
+    }
+
+    /**
+     * 单次提交的最长耗时（毫秒）
+     * 每次尝试最多在限流器和熔断器中排队各自的等待时间，再加上Suno客户端全部重试的连接和读取超时
+     *
+     * @param sunoApiConfig Suno API配置
+     * @param governorConfig 限流配置
+     * @param circuitBreakerConfig 熔断配置
+     * @return 最长耗时
+     */
+    static long maxSubmitTime(SunoApiConfig sunoApiConfig, SunoGovernorConfig governorConfig,
+                              SunoCircuitBreakerConfig circuitBreakerConfig) {
+        long call = SunoApiClient.MAX_ATTEMPTS
+                * ((long) sunoApiConfig.getPool().getConnectTimeout() + sunoApiConfig.getTimeout())
+                + (SunoApiClient.MAX_ATTEMPTS - 1) * SunoApiClient.RETRY_DELAY;
+        long attempt = (governorConfig.isEnabled() ? governorConfig.getMaxWait() : 0)
+                + (circuitBreakerConfig.isEnabled() ? circuitBreakerConfig.getMaxWait() : 0)
+                + call;
+        return MusicGenerationServiceImpl.SUBMIT_ATTEMPTS * attempt
+                + (MusicGenerationServiceImpl.SUBMIT_ATTEMPTS - 1) * MusicGenerationServiceImpl.SUBMIT_RETRY_DELAY;
+    }
+
+    private void execute(GenerationJob job) {
+        log.info("开始执行生成任务, jobId: {}, musicId: {}, attempt: {}",
+                job.getId(), job.getMusicId(), job.getAttempts());
+        try {
+            musicGenerationService.submitGeneration(job.getMusicId());
+            generationJobService.completeJob(job.getId());
+        } catch (SunoUnavailableException e) {
+            long delay = Math.max(queueConfig.getPollInterval(), sunoCircuitBreaker.getRemainingOpenMillis());
+            log.info("Suno暂不可用, 推迟生成任务, jobId: {}, delay: {}ms", job.getId(), delay);
+            try {
+                generationJobService.deferJob(job.getId(), delay);
+            } catch (Exception ex) {
+                log.error("推迟生成任务失败, jobId: {}", job.getId(), ex);
+            }
+        } catch (Exception e) {
+            log.warn("生成任务执行失败, jobId: {}, error: {}", job.getId(), e.getMessage());
+            try {
+                generationJobService.failJob(job.getId(), e.getMessage());
+            } catch (Exception ex) {
+                log.error("记录生成任务失败状态时出错, jobId: {}", job.getId(), ex);
+            }
+        } finally {
+            runningJobs.remove(job.getId());
+        }
+    }
+}
@@ -0,0 +1,32 @@
+package com.aimusic.backend.domain.service.impl;
+
+import com.aimusic.backend.config.CacheConfig;
+import com.aimusic.backend.domain.event.MusicStatusChangedEvent;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.cache.annotation.CacheEvict;
+import org.springframework.cache.annotation.Caching;
+import org.springframework.stereotype.Component;
+import org.springframework.transaction.event.TransactionalEventListener;
+
+/**
+ * 音乐缓存失效监听器
+ * 状态轮询、生成任务等流程更新音乐后，在事务提交时清除对应的详情缓存和列表缓存
+ */
+@Slf4j
+@Component
+public class MusicCacheEvictionListener {
+
+    /**
+     * 音乐状态变更后清除缓存
+     *
+     * @param event 状态变更事件
+     */
+    @TransactionalEventListener(fallbackExecution = true)
+    @Caching(evict = {
+            @CacheEvict(cacheNames = CacheConfig.MUSIC_CACHE, key = "#event.music.id"),
+            @CacheEvict(cacheNames = CacheConfig.MUSIC_LIST_CACHE, allEntries = true)
+    })
+    public void onStatusChanged(MusicStatusChangedEvent event) {
+        log.debug("清除音乐缓存, musicId: {}, status: {}", event.getMusic().getId(), event.getMusic().getStatus());
+    }
+}
@@ -0,0 +1,195 @@
+package com.aimusic.backend.domain.service.impl;
+
+import com.aimusic.backend.config.MusicEventStreamConfig;
+import com.aimusic.backend.domain.dto.MusicDTO;
+import com.aimusic.backend.domain.entity.Music;
+import com.aimusic.backend.domain.enums.MusicStatus;
+import com.aimusic.backend.domain.event.MusicStatusChangedEvent;
+import com.aimusic.backend.domain.repository.MusicRepository;
+import com.aimusic.backend.domain.service.MusicEventStreamService;
+import com.aimusic.backend.exception.EntityNotFoundException;
+import io.micrometer.core.instrument.Gauge;
+import io.micrometer.core.instrument.MeterRegistry;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.http.MediaType;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.event.TransactionalEventListener;
+import org.springframework.web.servlet.mvc.method.annotation.SseEmitter;
+
+import java.io.IOException;
+import java.util.Map;
+import java.util.Set;
+import java.util.UUID;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.atomic.AtomicInteger;
+
+/**
+ * 音乐状态推送服务实现类
+ * 按音乐ID和用户ID索引订阅连接，状态变更只推送给相关连接，连接数增加不会放大单次推送的开销。
+ * SSE连接使用Servlet异步请求，等待期间不占用请求线程
+ */
+@Slf4j
+@Service
+public class MusicEventStreamServiceImpl implements MusicEventStreamService {
+
+    private static final String STATUS_EVENT = "status";
+
+    private final MusicRepository musicRepository;
+    private final MusicEventStreamConfig streamConfig;
+
+    /** 按音乐ID订阅的连接 */
+    private final Map<UUID, Set<SseEmitter>> musicSubscribers = new ConcurrentHashMap<>();
+    /** 按用户ID订阅的连接 */
+    private final Map<UUID, Set<SseEmitter>> userSubscribers = new ConcurrentHashMap<>();
+    private final AtomicInteger subscriberCount = new AtomicInteger();
+
+    public MusicEventStreamServiceImpl(MusicRepository musicRepository,
+                                       MusicEventStreamConfig streamConfig,
+                                       MeterRegistry meterRegistry) {
+        this.musicRepository = musicRepository;
+        this.streamConfig = streamConfig;
+
+        Gauge.builder("music.events.subscribers", subscriberCount, AtomicInteger::get).register(meterRegistry);
+    }
+
+    @Override
+    public SseEmitter subscribeMusic(UUID musicId) {
+        SseEmitter emitter = new SseEmitter(streamConfig.getTimeout());
+        if (!register(musicSubscribers, musicId, emitter)) {
+            return rejected(emitter);
+        }
+
+        // 先注册再读取当前状态，避免读取和注册之间发生的状态变更丢失
+        Music music = musicRepository.findById(musicId).orElse(null);
+        if (music == null) {
+            unregister(musicSubscribers, musicId, emitter);
+            throw new EntityNotFoundException("音乐不存在");
+        }
+        MusicDTO current = MusicDTO.fromEntity(music);
+        if (send(emitter, current) && isTerminal(current.getStatus())) {
+            emitter.complete();
+        }
+        return emitter;
+    }
+
+    @Override
+    public SseEmitter subscribeUser(UUID userId) {
+        SseEmitter emitter = new SseEmitter(streamConfig.getTimeout());
+        if (!register(userSubscribers, userId, emitter)) {
+            return rejected(emitter);
+        }
+        return emitter;
+    }
+
+    @Override
+    public int getSubscriberCount() {
+        return subscriberCount.get();
+    }
+
+    /**
+     * 在状态变更所在事务提交后推送，未在事务中发布的事件立即推送
+     *
+     * @param event 状态变更事件
+     */
+    @TransactionalEventListener(fallbackExecution = true)
+    public void onStatusChanged(MusicStatusChangedEvent event) {
+        MusicDTO music = event.getMusic();
+        boolean terminal = isTerminal(music.getStatus());
+
+        Set<SseEmitter> musicEmitters = musicSubscribers.get(music.getId());
+        if (musicEmitters != null) {
+            for (SseEmitter emitter : musicEmitters) {
+                // 单个音乐的订阅在终态后没有后续事件，推送后关闭连接
+                if (send(emitter, music) && terminal) {
+                    emitter.complete();
+                }
+            }
+        }
+
+        Set<SseEmitter> userEmitters = music.getUserId() == null ? null : userSubscribers.get(music.getUserId());
+        if (userEmitters != null) {
+            for (SseEmitter emitter : userEmitters) {
+                send(emitter, music);
+            }
+        }
+    }
+
+    /**
+     * 定时发送心跳，保持连接不被代理关闭，并清理已断开的客户端
+     */
+    @Scheduled(fixedDelayString = "${music.event-stream.heartbeat-interval:15000}")
+    public void heartbeat() {
+        sendHeartbeat(musicSubscribers);
+        sendHeartbeat(userSubscribers);
+    }
+
+    private void sendHeartbeat(Map<UUID, Set<SseEmitter>> subscribers) {
+        for (Set<SseEmitter> emitters : subscribers.values()) {
+            for (SseEmitter emitter : emitters) {
+                try {
+                    emitter.send(SseEmitter.event().comment("ping"));
+                } catch (IOException | IllegalStateException e) {
+                    emitter.completeWithError(e);
+                }
+            }
+        }
+    }
+
+    private boolean register(Map<UUID, Set<SseEmitter>> subscribers, UUID key, SseEmitter emitter) {
+        if (subscriberCount.incrementAndGet() > streamConfig.getMaxSubscribers()) {
+            subscriberCount.decrementAndGet();
+            log.warn("状态推送连接数已达上限: {}", streamConfig.getMaxSubscribers());
+            return false;
+        }
+        subscribers.compute(key, (k, emitters) -> {
+            Set<SseEmitter> target = emitters == null ? ConcurrentHashMap.newKeySet() : emitters;
+            target.add(emitter);
+            return target;
+        });
+        emitter.onCompletion(() -> unregister(subscribers, key, emitter));
+        emitter.onTimeout(() -> unregister(subscribers, key, emitter));
+        emitter.onError(e -> unregister(subscribers, key, emitter));
+        return true;
+    }
+
+    private void unregister(Map<UUID, Set<SseEmitter>> subscribers, UUID key, SseEmitter emitter) {
+        subscribers.computeIfPresent(key, (k, emitters) -> {
+            if (emitters.remove(emitter)) {
+                subscriberCount.decrementAndGet();
+            }
+            return emitters.isEmpty() ? null : emitters;
+        });
+    }
+
+    /**
+     * 连接数已满时通知客户端稍后重连并关闭连接
+     */
+    private SseEmitter rejected(SseEmitter emitter) {
+        try {
+            emitter.send(SseEmitter.event().reconnectTime(streamConfig.getHeartbeatInterval()).comment("busy"));
+        } catch (IOException e) {
+            log.debug("通知客户端重连失败: {}", e.getMessage());
+        }
+        emitter.complete();
+        return emitter;
+    }
+
+    private boolean send(SseEmitter emitter, MusicDTO music) {
+        try {
+            emitter.send(SseEmitter.event()
+                    .name(STATUS_EVENT)
+                    .id(music.getId().toString())
+                    .data(music, MediaType.APPLICATION_JSON));
+            return true;
+        } catch (IOException | IllegalStateException e) {
+            log.debug("推送音乐状态失败, 关闭连接, musicId: {}, error: {}", music.getId(), e.getMessage());
+            emitter.completeWithError(e);
+            return false;
+        }
+    }
+
+    private boolean isTerminal(MusicStatus status) {
+        return status == MusicStatus.COMPLETED || status == MusicStatus.FAILED || status == MusicStatus.CANCELLED;
+    }
+}
@@ -1,19 +1,25 @@
 package com.aimusic.backend.domain.service.impl;
 
 import com.aimusic.backend.client.SunoApiClient;
+import com.aimusic.backend.client.SunoCircuitBreaker;
+import com.aimusic.backend.client.SunoRateGovernor;
 import com.aimusic.backend.domain.dto.MusicDTO;
 import com.aimusic.backend.domain.dto.MusicGenerationRequest;
 import com.aimusic.backend.domain.entity.Music;
+import com.aimusic.backend.domain.event.MusicStatusChangedEvent;
 import com.aimusic.backend.domain.enums.MusicStatus;
 import com.aimusic.backend.domain.repository.MusicRepository;
 import com.aimusic.backend.domain.service.MusicGenerationService;
+import com.aimusic.backend.domain.service.MusicService;
 import com.aimusic.backend.exception.EntityNotFoundException;
 import com.aimusic.backend.exception.MusicGenerationException;
+import com.aimusic.backend.exception.SunoUnavailableException;
 import lombok.RequiredArgsConstructor;
 import lombok.extern.slf4j.Slf4j;
-import org.springframework.scheduling.annotation.Async;
+import org.springframework.context.ApplicationEventPublisher;
 import org.springframework.stereotype.Service;
 import org.springframework.transaction.annotation.Transactional;
+import org.springframework.transaction.support.TransactionTemplate;
 
 import java.util.Map;
 import java.util.UUID;
@@ -27,50 +33,121 @@ import java.util.concurrent.CompletableFuture;
 @RequiredArgsConstructor
 public class MusicGenerationServiceImpl implements MusicGenerationService {
 
+    /** 提交生成时经过限流器调用Suno的最大次数 */
+    static final int SUBMIT_ATTEMPTS = 2;
+
+    /** 提交生成的重试间隔（毫秒） */
+    static final long SUBMIT_RETRY_DELAY = 1000;
+
     private final MusicRepository musicRepository;
     private final SunoApiClient sunoApiClient;
+    private final SunoRateGovernor sunoRateGovernor;
+    private final SunoCircuitBreaker sunoCircuitBreaker;
+    private final MusicService musicService;
+    private final TransactionTemplate transactionTemplate;
+    private final ApplicationEventPublisher eventPublisher;
 
+    /**
+     * 委托给 {@link MusicService#generateMusic}，入队逻辑只在一处维护
+     */
     @Override
-    @Async
-    @Transactional
     public CompletableFuture<MusicDTO> generateMusic(MusicGenerationRequest request) {
-        log.info("开始生成音乐, request: {}", request);
-        
-        // 创建Music实体并设置UUID
-        Music music = Music.builder()
-                .id(UUID.randomUUID())
-                .prompt(request.getPrompt())
-                .style(request.getStyle())
-                .duration(request.getDuration())
-                .status(MusicStatus.PROCESSING) // 直接设置为PROCESSING状态
-                .userId(request.getUserId())
-                .build();
-        
-        // 保存实体获取ID
-        music = musicRepository.save(music);
-        if (music == null) {
-            throw new MusicGenerationException("保存音乐记录失败");
+        return CompletableFuture.completedFuture(musicService.generateMusic(request));
+    }
+
+    @Override
+    public MusicDTO submitGeneration(UUID id) {
+        String musicId = id.toString();
+
+        // 步骤1：短事务内标记为PROCESSING
+        Music music = transactionTemplate.execute(tx -> {
+            Music current = musicRepository.findById(id)
+                    .orElseThrow(() -> new EntityNotFoundException("音乐不存在"));
+            if (isSubmitted(current)) {
+                return current;
+            }
+            current.setStatus(MusicStatus.PROCESSING);
+            current.setErrorMessage(null);
+            current = musicRepository.save(current);
+            eventPublisher.publishEvent(MusicStatusChangedEvent.of(current));
+            return current;
+        });
+
+        // 任务可能在租约过期后被重新执行，已提交或已取消的音乐直接返回
+        if (isSubmitted(music)) {
+            log.info("音乐无需重复提交, musicId: {}, status: {}", musicId, music.getStatus());
+            return MusicDTO.fromEntity(music);
+        }
+
+        // 步骤2：在事务之外调用Suno，HTTP调用和重试等待期间不占用数据库连接
+        log.info("开始生成音乐, musicId: {}", musicId);
+        String generationId;
+        try {
+            generationId = callSuno(musicId, String.valueOf(music.getUserId()), music.getPrompt());
+        } catch (SunoUnavailableException e) {
+            // Suno熔断期间不计为失败，恢复为PENDING等待熔断器关闭后重新提交
+            log.warn("Suno暂不可用, 音乐保持待处理, musicId: {}, reason: {}", musicId, e.getMessage());
+            transactionTemplate.executeWithoutResult(tx -> revertToPending(id));
+            throw e;
+        } catch (MusicGenerationException e) {
+            // 任务还会按退避重试，恢复为PENDING；重试次数用尽时由任务队列标记为FAILED
+            log.error("生成音乐失败, musicId: {}, error: {}", musicId, e.getMessage());
+            transactionTemplate.executeWithoutResult(tx -> revertToPending(id));
+            throw e;
+        }
+
+        // 步骤3：短事务内记录generationId，Suno调用期间已被取消的音乐保持原状态
+        music = transactionTemplate.execute(tx -> {
+            Music current = musicRepository.findById(id)
+                    .orElseThrow(() -> new EntityNotFoundException("音乐不存在"));
+            if (current.getStatus() != MusicStatus.PROCESSING) {
+                log.info("音乐在提交期间状态已变更, 不再记录generationId, musicId: {}, status: {}",
+                        musicId, current.getStatus());
+                return current;
+            }
+            current.setGenerationId(generationId);
+            current = musicRepository.save(current);
+            eventPublisher.publishEvent(MusicStatusChangedEvent.of(current));
+            return current;
+        });
+        log.info("音乐生成任务创建成功, musicId: {}, generationId: {}", musicId, generationId);
+
+        return MusicDTO.fromEntity(music);
+    }
+
+    /**
+     * 通过限流器和熔断器调用Suno API提交生成，最多重试1次
+     * 限流（429）已由限流器排队重试，熔断时直接抛出，这里都不再立即重试
+     *
+     * @param musicId 音乐ID
+     * @param userKey 用户标识，用于公平排队
+     * @param prompt 提示词
+     * @return Suno返回的generationId
+     */
+    private String callSuno(String musicId, String userKey, String prompt) {
+        if (!sunoCircuitBreaker.isCallPermitted()) {
+            throw new SunoUnavailableException("Suno服务熔断中, 请稍后重试");
         }
-        String musicId = music.getId().toString();
-        log.info("创建音乐记录成功, musicId: {}", musicId);
-        
         try {
-            // 调用API生成音乐,最多重试1次
             String generationId = null;
             Exception lastException = null;
-            int maxAttempts = 2;
-            
-            for (int attempt = 0; attempt < maxAttempts; attempt++) {
+            for (int attempt = 0; attempt < SUBMIT_ATTEMPTS; attempt++) {
                 try {
-                    generationId = sunoApiClient.generateMusic(request.getPrompt());
+                    generationId = sunoRateGovernor.execute(userKey,
+                            () -> sunoCircuitBreaker.execute(() -> sunoApiClient.generateMusic(prompt)));
                     if (generationId != null) {
                         break;
                     }
+                } catch (SunoUnavailableException e) {
+                    throw e;
                 } catch (Exception e) {
                     lastException = e;
                     log.warn("第{}次生成音乐失败, musicId: {}, error: {}", attempt + 1, musicId, e.getMessage());
-                    if (attempt < maxAttempts - 1) { // 如果不是最后一次尝试,等待一段时间后重试
-                        Thread.sleep(1000); // 等待1秒后重试
+                    if (SunoRateGovernor.isRateLimited(e)) {
+                        break;
+                    }
+                    if (attempt < SUBMIT_ATTEMPTS - 1) { // 如果不是最后一次尝试,等待一段时间后重试
+                        Thread.sleep(SUBMIT_RETRY_DELAY);
                     }
                 }
             }
@@ -80,44 +157,38 @@ public class MusicGenerationServiceImpl implements MusicGenerationService {
                 String errorMsg = lastException != null ? 
                         String.format("生成音乐失败: %s", lastException.getMessage()) :
                         "生成音乐失败: API响应为空";
-                log.error("生成音乐失败: {}", errorMsg);
-                music.setStatus(MusicStatus.FAILED);
-                music.setErrorMessage(errorMsg);
-                music = musicRepository.save(music);
                 throw new MusicGenerationException(errorMsg, lastException);
             }
-            
-            // 更新generation_id
-            music.setGenerationId(generationId);
-            music = musicRepository.save(music);
-            log.info("音乐生成任务创建成功, musicId: {}, generationId: {}", musicId, generationId);
-            
-            return CompletableFuture.completedFuture(MusicDTO.fromEntity(music));
+            return generationId;
             
         } catch (InterruptedException e) {
             Thread.currentThread().interrupt();
-            String errorMsg = "生成音乐被中断";
-            log.error("生成音乐失败, musicId: {}, error: {}", musicId, errorMsg);
-            music.setStatus(MusicStatus.FAILED);
-            music.setErrorMessage(errorMsg);
-            music = musicRepository.save(music);
-            throw new MusicGenerationException(errorMsg, e);
-        } catch (MusicGenerationException e) {
-            log.error("生成音乐失败, musicId: {}, error: {}", musicId, e.getMessage());
-            music.setStatus(MusicStatus.FAILED);
-            music.setErrorMessage(e.getMessage());
-            music = musicRepository.save(music);
+            throw new MusicGenerationException("生成音乐被中断", e);
+        } catch (MusicGenerationException | SunoUnavailableException e) {
             throw e;
         } catch (Exception e) {
-            String errorMsg = String.format("生成音乐时发生未知错误: %s", e.getMessage());
-            log.error("生成音乐失败, musicId: {}, error: {}", musicId, errorMsg, e);
-            music.setStatus(MusicStatus.FAILED);
-            music.setErrorMessage(errorMsg);
-            music = musicRepository.save(music);
-            throw new MusicGenerationException(errorMsg, e);
+            throw new MusicGenerationException(String.format("生成音乐时发生未知错误: %s", e.getMessage()), e);
         }
     }
 
+    /**
+     * 将未提交成功的音乐恢复为待处理状态，期间已被取消的音乐保持原状态
+     */
+    private void revertToPending(UUID id) {
+        musicRepository.findById(id).ifPresent(music -> {
+            if (music.getStatus() == MusicStatus.PROCESSING && music.getGenerationId() == null) {
+                music.setStatus(MusicStatus.PENDING);
+                musicRepository.save(music);
+                eventPublisher.publishEvent(MusicStatusChangedEvent.of(music));
+            }
+        });
+    }
+
+    private boolean isSubmitted(Music music) {
+        return music.getGenerationId() != null || music.getStatus() == MusicStatus.CANCELLED
+                || music.getStatus() == MusicStatus.COMPLETED;
+    }
+
     @Override
     @Transactional(readOnly = true)
     public MusicDTO getMusicStatus(String musicId) {
@@ -158,6 +229,7 @@ public class MusicGenerationServiceImpl implements MusicGenerationService {
 
             music.setStatus(MusicStatus.CANCELLED);
             music = musicRepository.save(music);
+            eventPublisher.publishEvent(MusicStatusChangedEvent.of(music));
 
             return MusicDTO.fromEntity(music);
         } catch (IllegalArgumentException e) {
@@ -1,23 +1,46 @@
 package com.aimusic.backend.domain.service.impl;
 
+import com.aimusic.backend.config.CacheConfig;
+import com.aimusic.backend.domain.dto.MusicCursor;
 import com.aimusic.backend.domain.dto.MusicDTO;
+import com.aimusic.backend.domain.dto.MusicSummaryDTO;
 import com.aimusic.backend.domain.dto.MusicGenerationRequest;
+import com.aimusic.backend.domain.dto.MusicGenerationResultDTO;
 import com.aimusic.backend.domain.entity.Music;
+import com.aimusic.backend.domain.event.MusicStatusChangedEvent;
+import com.aimusic.backend.domain.enums.GenerationPriority;
 import com.aimusic.backend.domain.enums.MusicStatus;
 import com.aimusic.backend.domain.entity.User;
 import com.aimusic.backend.domain.repository.MusicRepository;
 import com.aimusic.backend.domain.repository.UserRepository;
+import com.aimusic.backend.domain.service.GenerationCacheService;
+import com.aimusic.backend.domain.service.GenerationJobService;
 import com.aimusic.backend.domain.service.MusicService;
+import com.aimusic.backend.domain.service.RenditionService;
 import com.aimusic.backend.exception.EntityNotFoundException;
 import com.aimusic.backend.service.StorageService;
+import com.aimusic.backend.service.StreamingService;
 import lombok.RequiredArgsConstructor;
 import lombok.extern.slf4j.Slf4j;
+import org.springframework.cache.annotation.CacheEvict;
+import org.springframework.cache.annotation.Cacheable;
+import org.springframework.cache.annotation.Caching;
+import org.springframework.context.ApplicationEventPublisher;
+import org.springframework.dao.DataIntegrityViolationException;
 import org.springframework.data.domain.Page;
+import org.springframework.data.domain.PageRequest;
 import org.springframework.data.domain.Pageable;
+import org.springframework.data.domain.Slice;
 import org.springframework.stereotype.Service;
 import org.springframework.transaction.annotation.Transactional;
 
+import java.sql.SQLException;
 import java.time.LocalDateTime;
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
 import java.util.UUID;
 
 /**
@@ -29,30 +52,58 @@ import java.util.UUID;
 @Transactional
 public class MusicServiceImpl implements MusicService {
 
+    /**
+     * 外键引用的父行不存在：PostgreSQL 为 23503，H2 为 23506
+     */
+    private static final Set<String> FOREIGN_KEY_VIOLATION_STATES = Set.of("23503", "23506");
+
     private final MusicRepository musicRepository;
     private final UserRepository userRepository;
     private final StorageService storageService;
+    private final GenerationJobService generationJobService;
+    private final GenerationCacheService generationCacheService;
+    private final RenditionService renditionService;
+    private final StreamingService streamingService;
+    private final ApplicationEventPublisher eventPublisher;
 
     @Override
+    @CacheEvict(cacheNames = CacheConfig.MUSIC_LIST_CACHE, allEntries = true)
     public MusicDTO generateMusic(MusicGenerationRequest request) {
-        User user = userRepository.findById(request.getUserId())
-                .orElseThrow(() -> new EntityNotFoundException("用户不存在"));
-
-        Music music = Music.builder()
-                .prompt(request.getPrompt())
-                .style(request.getStyle())
-                .duration(request.getDuration())
-                .status(MusicStatus.PENDING)
-                .lyrics(request.isGenerateLyrics() ? "" : null)
-                .user(user)
-                .build();
-
-        music = musicRepository.save(music);
+        Music music = insert(List.of(newMusic(request))).get(0);
+        // 命中相同请求的结果或进行中的生成时不再单独提交
+        if (!generationCacheService.attach(music)) {
+            generationJobService.enqueue(music, priorityOf(request));
+        }
         return convertToDTO(music);
     }
 
+    @Override
+    @CacheEvict(cacheNames = CacheConfig.MUSIC_LIST_CACHE, allEntries = true)
+    public List<MusicGenerationResultDTO> generateMusicBatch(List<MusicGenerationRequest> requests) {
+        List<Music> musicList = insert(requests.stream().map(this::newMusic).toList());
+        // 先完成全部去重判断，再一次性入队，使任务插入不被查询打断而合并为一个批次
+        List<Music> toEnqueue = new ArrayList<>();
+        for (Music music : musicList) {
+            if (!generationCacheService.attach(music)) {
+                toEnqueue.add(music);
+            }
+        }
+        // 批量提交总是按批量优先级调度，忽略请求中的优先级，避免批量提交占用交互份额
+        Map<UUID, UUID> jobIds = new HashMap<>();
+        generationJobService.enqueueAll(toEnqueue, GenerationPriority.BATCH)
+                .forEach(job -> jobIds.put(job.getMusicId(), job.getId()));
+        return musicList.stream()
+                .map(music -> MusicGenerationResultDTO.builder()
+                        .musicId(music.getId())
+                        .jobId(jobIds.get(music.getId()))
+                        .status(music.getStatus())
+                        .build())
+                .toList();
+    }
+
     @Override
     @Transactional(readOnly = true)
+    @Cacheable(cacheNames = CacheConfig.MUSIC_CACHE, key = "#id")
     public MusicDTO getMusicById(UUID id) {
         return musicRepository.findById(id)
                 .map(this::convertToDTO)
@@ -61,12 +112,31 @@ public class MusicServiceImpl implements MusicService {
 
     @Override
     @Transactional(readOnly = true)
-    public Page<MusicDTO> listMusic(Pageable pageable) {
-        return musicRepository.findAllByOrderByCreatedAtDesc(pageable)
-                .map(this::convertToDTO);
+    @Cacheable(cacheNames = CacheConfig.MUSIC_LIST_CACHE, condition = "#pageable.paged")
+    public Page<MusicSummaryDTO> listMusic(Pageable pageable) {
+        return musicRepository.findSummaries(pageable);
+    }
+
+    @Override
+    @Transactional(readOnly = true)
+    public Slice<MusicSummaryDTO> sliceMusic(Pageable pageable) {
+        return musicRepository.findSummarySlice(pageable);
+    }
+
+    @Override
+    @Transactional(readOnly = true)
+    public Slice<MusicSummaryDTO> listMusicAfter(MusicCursor cursor, int size) {
+        Pageable pageable = PageRequest.ofSize(size);
+        return cursor == null
+                ? musicRepository.findFirstSummaries(pageable)
+                : musicRepository.findSummariesAfter(cursor.getCreatedAt(), cursor.getId(), pageable);
     }
 
     @Override
+    @Caching(evict = {
+            @CacheEvict(cacheNames = CacheConfig.MUSIC_CACHE, key = "#id"),
+            @CacheEvict(cacheNames = CacheConfig.MUSIC_LIST_CACHE, allEntries = true)
+    })
     public MusicDTO updateMusicStatus(UUID id, String url) {
         Music music = musicRepository.findById(id)
                 .orElseThrow(() -> new EntityNotFoundException("音乐不存在"));
@@ -74,27 +144,87 @@ public class MusicServiceImpl implements MusicService {
         music.setStatus(MusicStatus.COMPLETED);
         music.setAudioUrl(url);
         music = musicRepository.save(music);
+        eventPublisher.publishEvent(MusicStatusChangedEvent.of(music));
         return convertToDTO(music);
     }
 
     @Override
     @Transactional
+    @Caching(evict = {
+            @CacheEvict(cacheNames = CacheConfig.MUSIC_CACHE, key = "#id"),
+            @CacheEvict(cacheNames = CacheConfig.MUSIC_LIST_CACHE, allEntries = true)
+    })
     public void deleteMusic(UUID id) {
         Music music = musicRepository.findById(id)
                 .orElseThrow(() -> new EntityNotFoundException("Music not found with id: " + id));
 
-        // 如果存在音频文件，删除它
-        if (music.getAudioUrl() != null) {
+        // 删除转码版本，版本文件仍被其他音乐引用时保留
+        renditionService.deleteRenditions(id);
+
+        // 尚未导入的远程地址（如Suno CDN）不对应本地文件和分片，只处理本地存储的音频
+        if (music.getAudioUrl() != null && music.getAudioUrl().startsWith(storageService.getFileUrl(""))) {
             String filename = music.getAudioUrl().substring(music.getAudioUrl().lastIndexOf('/') + 1);
-            if (storageService.exists(filename)) {
+            boolean shared = musicRepository.existsByAudioUrlAndIdNot(music.getAudioUrl(), id);
+            // 按引用计数管理时每个音乐各持有一个引用，删除时释放自己的引用；
+            // 否则复用结果的音乐共享同一文件，没有其他音乐引用时才删除
+            if ((storageService.isReferenceCounted() || !shared) && storageService.exists(filename)) {
                 storageService.delete(filename);
             }
+            if (!shared) {
+                streamingService.deleteStream(filename);
+            }
         }
 
+        // 仍有相同请求跟随时由跟随者接替生成
+        generationCacheService.release(music);
         musicRepository.delete(music);
         log.info("Music deleted successfully: {}", id);
     }
 
+    /**
+     * 单条提交的调度优先级，客户端只能降为批量优先级，不能提升
+     */
+    private static GenerationPriority priorityOf(MusicGenerationRequest request) {
+        return request.getPriority() == GenerationPriority.BATCH
+                ? GenerationPriority.BATCH : GenerationPriority.INTERACTIVE;
+    }
+
+    private Music newMusic(MusicGenerationRequest request) {
+        // 不预先查询用户，只挂接代理引用；用户是否存在由插入时的外键约束校验
+        User user = userRepository.getReferenceById(request.getUserId());
+        return Music.builder()
+                .prompt(request.getPrompt())
+                .style(request.getStyle())
+                .duration(request.getDuration())
+                .status(MusicStatus.PENDING)
+                .lyrics(request.isGenerateLyrics() ? "" : null)
+                .user(user)
+                .requestHash(generationCacheService.requestHash(request))
+                .build();
+    }
+
+    /**
+     * 立即插入，使外键冲突在本方法内抛出
+     */
+    private List<Music> insert(List<Music> musicList) {
+        try {
+            return musicRepository.saveAllAndFlush(musicList);
+        } catch (DataIntegrityViolationException e) {
+            if (isForeignKeyViolation(e)) {
+                throw new EntityNotFoundException("用户不存在", e);
+            }
+            throw e;
+        }
+    }
+
+    /**
+     * music 表只有 user_id 一个外键，插入时的外键冲突即用户不存在
+     */
+    private boolean isForeignKeyViolation(DataIntegrityViolationException e) {
+        return e.getMostSpecificCause() instanceof SQLException sqlException
+                && FOREIGN_KEY_VIOLATION_STATES.contains(sqlException.getSQLState());
+    }
+
     private MusicDTO convertToDTO(Music music) {
         return MusicDTO.builder()
                 .id(music.getId())
@@ -107,6 +237,7 @@ public class MusicServiceImpl implements MusicService {
                 .duration(music.getDuration())
                 .errorMessage(music.getErrorMessage())
                 .generationId(music.getGenerationId())
+                .sourceMusicId(music.getSourceMusicId())
                 .createdAt(music.getCreatedAt())
                 .updatedAt(music.getUpdatedAt())
                 .build();
@@ -0,0 +1,249 @@
+package com.aimusic.backend.domain.service.impl;
+
+import com.aimusic.backend.client.SunoApiClient;
+import com.aimusic.backend.client.SunoCircuitBreaker;
+import com.aimusic.backend.config.MusicStatusPollerConfig;
+import com.aimusic.backend.domain.entity.Music;
+import com.aimusic.backend.domain.event.MusicStatusChangedEvent;
+import com.aimusic.backend.domain.enums.MusicStatus;
+import com.aimusic.backend.domain.repository.MusicRepository;
+import com.aimusic.backend.domain.service.MusicStatusPollingService;
+import lombok.RequiredArgsConstructor;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnProperty;
+import org.springframework.context.ApplicationEventPublisher;
+import org.springframework.data.domain.PageRequest;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import java.time.Duration;
+import java.time.LocalDateTime;
+import java.time.temporal.ChronoUnit;
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+import java.util.UUID;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.stream.Collectors;
+
+/**
+ * 音乐状态轮询服务实现类
+ * 定时扫描生成中的音乐，将多个generationId合并为一次 /get?ids= 请求，
+ * 并按任务年龄自适应调整轮询间隔：新任务频繁轮询，长时间未完成的任务降低频率
+ */
+@Slf4j
+@Service
+@RequiredArgsConstructor
+@ConditionalOnProperty(prefix = "music.status-poller", name = "enabled", havingValue = "true", matchIfMissing = true)
+public class MusicStatusPollingServiceImpl implements MusicStatusPollingService {
+
+    private final MusicRepository musicRepository;
+    private final SunoApiClient sunoApiClient;
+    private final MusicStatusPollerConfig pollerConfig;
+    private final TransactionTemplate transactionTemplate;
+    private final SunoCircuitBreaker sunoCircuitBreaker;
+    private final ApplicationEventPublisher eventPublisher;
+
+    /** 每个任务下一次允许轮询的时间 */
+    private final Map<UUID, LocalDateTime> nextPollTimes = new ConcurrentHashMap<>();
+
+    /** 本轮扫描周期内已扫描到的任务，扫描到末尾时用于清理轮询记录 */
+    private final Set<UUID> scannedInCycle = ConcurrentHashMap.newKeySet();
+
+    /** 上个周期扫描到的最后一个任务，为空时从头扫描 */
+    private volatile Music scanCursor;
+
+    /**
+     * 定时触发轮询
+     */
+    @Scheduled(fixedDelayString = "${music.status-poller.tick-interval:5000}")
+    public void scheduledPoll() {
+        try {
+            pollInFlightMusic();
+        } catch (Exception e) {
+            log.error("音乐状态轮询失败", e);
+        }
+    }
+
+    @Override
+    public int pollInFlightMusic() {
+        // Suno熔断期间跳过本轮，避免无意义的请求
+        if (!sunoCircuitBreaker.isCallPermitted()) {
+            log.debug("Suno服务熔断中, 跳过本轮状态轮询");
+            return 0;
+        }
+        LocalDateTime now = LocalDateTime.now();
+        List<Music> inFlight = scanInFlight();
+
+        List<Music> due = inFlight.stream()
+                .filter(music -> {
+                    LocalDateTime next = nextPollTimes.get(music.getId());
+                    return next == null || !next.isAfter(now);
+                })
+                .collect(Collectors.toList());
+        if (due.isEmpty()) {
+            return 0;
+        }
+
+        int updated = 0;
+        int batchSize = Math.max(1, pollerConfig.getBatchSize());
+        for (int from = 0; from < due.size(); from += batchSize) {
+            List<Music> batch = due.subList(from, Math.min(from + batchSize, due.size()));
+            for (Music music : batch) {
+                nextPollTimes.put(music.getId(), now.plus(pollInterval(music, now)));
+            }
+
+            List<String> generationIds = batch.stream()
+                    .map(Music::getGenerationId)
+                    .collect(Collectors.toList());
+            List<Map<String, Object>> statuses;
+            try {
+                statuses = sunoCircuitBreaker.execute(() -> sunoApiClient.getMusicStatuses(generationIds));
+            } catch (Exception e) {
+                log.warn("批量查询音乐状态失败, count: {}, error: {}", generationIds.size(), e.getMessage());
+                continue;
+            }
+            updated += applyStatuses(batch, statuses);
+        }
+
+        log.info("音乐状态轮询完成, 本轮扫描: {}, 本轮查询: {}, 状态变更: {}", inFlight.size(), due.size(), updated);
+        return updated;
+    }
+
+    /**
+     * 按 (创建时间, ID) 游标扫描下一页生成中的音乐
+     * 生成中的任务超过单个周期的扫描上限时，后续周期从上次的位置继续，保证最新的任务也能被轮询到；
+     * 扫描到末尾时一个完整的扫描周期结束，周期内未出现的任务已不在生成中，清理其轮询记录后从头开始
+     *
+     * @return 本周期扫描到的音乐
+     */
+    private List<Music> scanInFlight() {
+        int pageSize = Math.max(1, pollerConfig.getMaxScanSize());
+        Music cursor = scanCursor;
+        List<Music> inFlight = cursor == null
+                ? musicRepository.findByStatusAndGenerationIdIsNotNullOrderByCreatedAtAscIdAsc(
+                        MusicStatus.PROCESSING, PageRequest.of(0, pageSize))
+                : musicRepository.findInFlightAfter(
+                        MusicStatus.PROCESSING, cursor.getCreatedAt(), cursor.getId(), PageRequest.of(0, pageSize));
+        inFlight.forEach(music -> scannedInCycle.add(music.getId()));
+
+        if (inFlight.size() < pageSize) {
+            nextPollTimes.keySet().retainAll(scannedInCycle);
+            scannedInCycle.clear();
+            scanCursor = null;
+        } else {
+            scanCursor = inFlight.get(inFlight.size() - 1);
+        }
+        return inFlight;
+    }
+
+    /**
+     * 根据任务年龄计算下一次轮询间隔
+     *
+     * @param music 音乐实体
+     * @param now 当前时间
+     * @return 轮询间隔
+     */
+    public Duration pollInterval(Music music, LocalDateTime now) {
+        long ageMillis = music.getCreatedAt() == null ? 0
+                : Math.max(0, Duration.between(music.getCreatedAt(), now).toMillis());
+        long interval = (long) (ageMillis * pollerConfig.getAgeFactor());
+        interval = Math.max(pollerConfig.getMinInterval(), Math.min(pollerConfig.getMaxInterval(), interval));
+        return Duration.ofMillis(interval);
+    }
+
+    /**
+     * 将一批Suno状态用一条批量UPDATE写回数据库
+     *
+     * @param batch 本批次的音乐
+     * @param statuses Suno返回的状态列表
+     * @return 状态发生变化的数量
+     */
+    private int applyStatuses(List<Music> batch, List<Map<String, Object>> statuses) {
+        Map<String, Map<String, Object>> statusByGenerationId = new HashMap<>();
+        for (Map<String, Object> status : statuses) {
+            Object id = status.get("id");
+            if (id != null) {
+                statusByGenerationId.putIfAbsent(id.toString(), status);
+            }
+        }
+
+        Map<UUID, Map<String, Object>> finished = new HashMap<>();
+        for (Music music : batch) {
+            Map<String, Object> status = statusByGenerationId.get(music.getGenerationId());
+            if (status != null && toMusicStatus(status.get("status")) != MusicStatus.PROCESSING) {
+                finished.put(music.getId(), status);
+            }
+        }
+        if (finished.isEmpty()) {
+            return 0;
+        }
+
+        // 扫描得到的实体已脱离持久化上下文，直接写入目标状态作为批量更新的参数和事件快照
+        LocalDateTime now = LocalDateTime.now().truncatedTo(ChronoUnit.MICROS);
+        List<Music> changed = new ArrayList<>();
+        for (Music music : batch) {
+            Map<String, Object> status = finished.get(music.getId());
+            if (status == null) {
+                continue;
+            }
+            MusicStatus target = toMusicStatus(status.get("status"));
+            music.setStatus(target);
+            music.setUpdatedAt(now);
+            if (target == MusicStatus.COMPLETED) {
+                music.setAudioUrl(asString(status.get("audio_url")));
+                if (status.get("lyric") != null) {
+                    music.setLyrics(asString(status.get("lyric")));
+                }
+            } else {
+                music.setErrorMessage(asString(status.getOrDefault("error_message", "Suno生成失败")));
+            }
+            changed.add(music);
+        }
+
+        Integer count = transactionTemplate.execute(tx -> {
+            int updated = musicRepository.updateStatuses(changed, MusicStatus.PROCESSING, now);
+            List<Music> applied = changed;
+            if (updated < changed.size()) {
+                // 期间有音乐被取消或由其他流程更新，只对本次写入的行发布事件
+                applied = musicRepository.findAllById(finished.keySet()).stream()
+                        .filter(music -> now.equals(music.getUpdatedAt()))
+                        .collect(Collectors.toList());
+            }
+            applied.forEach(music -> eventPublisher.publishEvent(MusicStatusChangedEvent.of(music)));
+            return applied.size();
+        });
+        finished.keySet().forEach(nextPollTimes::remove);
+        return count == null ? 0 : count;
+    }
+
+    /**
+     * 将Suno状态映射为本地音乐状态
+     *
+     * @param sunoStatus Suno状态
+     * @return 音乐状态，未结束时返回PROCESSING
+     */
+    private MusicStatus toMusicStatus(Object sunoStatus) {
+        if (sunoStatus == null) {
+            return MusicStatus.PROCESSING;
+        }
+        switch (sunoStatus.toString().toLowerCase()) {
+            case "complete":
+            case "completed":
+            case "succeeded":
+                return MusicStatus.COMPLETED;
+            case "error":
+            case "failed":
+                return MusicStatus.FAILED;
+            default:
+                return MusicStatus.PROCESSING;
+        }
+    }
+
+    private String asString(Object value) {
+        return value == null ? null : value.toString();
+    }
+}
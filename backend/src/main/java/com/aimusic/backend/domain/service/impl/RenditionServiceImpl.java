@@ -0,0 +1,334 @@
+package com.aimusic.backend.domain.service.impl;
+
+import com.aimusic.backend.client.FfmpegEncoder;
+import com.aimusic.backend.config.StreamingConfig;
+import com.aimusic.backend.config.TranscodingConfig;
+import com.aimusic.backend.domain.dto.MusicDTO;
+import com.aimusic.backend.domain.dto.StoredFileDTO;
+import com.aimusic.backend.domain.entity.Music;
+import com.aimusic.backend.domain.entity.MusicRendition;
+import com.aimusic.backend.domain.enums.AudioCodec;
+import com.aimusic.backend.domain.enums.MusicStatus;
+import com.aimusic.backend.domain.enums.RenditionQuality;
+import com.aimusic.backend.domain.event.MusicStatusChangedEvent;
+import com.aimusic.backend.domain.repository.MusicRenditionRepository;
+import com.aimusic.backend.domain.repository.MusicRepository;
+import com.aimusic.backend.domain.service.RenditionService;
+import com.aimusic.backend.service.StorageService;
+import com.aimusic.backend.service.StreamingService;
+import io.micrometer.core.instrument.Gauge;
+import io.micrometer.core.instrument.MeterRegistry;
+import jakarta.annotation.PreDestroy;
+import lombok.extern.slf4j.Slf4j;
+import org.apache.commons.io.FilenameUtils;
+import org.springframework.data.domain.PageRequest;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.event.TransactionalEventListener;
+
+import java.io.IOException;
+import java.io.InputStream;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.Comparator;
+import java.util.List;
+import java.util.Optional;
+import java.util.Set;
+import java.util.UUID;
+import java.util.concurrent.ArrayBlockingQueue;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.RejectedExecutionException;
+import java.util.concurrent.ThreadPoolExecutor;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.concurrent.locks.Lock;
+import java.util.concurrent.locks.ReentrantLock;
+import java.util.stream.Collectors;
+
+/**
+ * 音乐转码版本服务实现类
+ * 音频导入本地存储后，在固定大小的线程池中按配置生成各码率/格式版本，编码输出直接写入存储服务。
+ * 复用结果的音乐共享同一源文件，同一源文件的转码串行执行，后执行的音乐复用已有的版本文件而不重复编码。
+ * 开启分片流媒体时，同一任务中为源文件生成HLS/DASH分片。
+ * 队列已满被跳过或实例重启时丢失的任务由定时补偿扫描按 (创建时间, ID) 游标分批重新提交。
+ * 队列长度和执行中的任务数通过 music.transcoding.queue.depth / music.transcoding.active 指标导出
+ */
+@Slf4j
+@Service
+public class RenditionServiceImpl implements RenditionService {
+
+    private static final int LOCK_STRIPES = 64;
+
+    private final MusicRepository musicRepository;
+    private final MusicRenditionRepository renditionRepository;
+    private final StorageService storageService;
+    private final FfmpegEncoder ffmpegEncoder;
+    private final TranscodingConfig transcodingConfig;
+    private final StreamingService streamingService;
+    private final StreamingConfig streamingConfig;
+    private final ThreadPoolExecutor executor;
+
+    /** 正在转码或等待转码的音乐 */
+    private final Set<UUID> pendingMusic = ConcurrentHashMap.newKeySet();
+    /** 同一源文件的转码互斥 */
+    private final Lock[] locks = new Lock[LOCK_STRIPES];
+    /** 上次补偿扫描到的最后一个音乐，为空时从头扫描 */
+    private volatile Music sweepCursor;
+
+    public RenditionServiceImpl(MusicRepository musicRepository,
+                                MusicRenditionRepository renditionRepository,
+                                StorageService storageService,
+                                FfmpegEncoder ffmpegEncoder,
+                                TranscodingConfig transcodingConfig,
+                                StreamingService streamingService,
+                                StreamingConfig streamingConfig,
+                                MeterRegistry meterRegistry) {
+        this.musicRepository = musicRepository;
+        this.renditionRepository = renditionRepository;
+        this.storageService = storageService;
+        this.ffmpegEncoder = ffmpegEncoder;
+        this.transcodingConfig = transcodingConfig;
+        this.streamingService = streamingService;
+        this.streamingConfig = streamingConfig;
+        for (int i = 0; i < LOCK_STRIPES; i++) {
+            locks[i] = new ReentrantLock();
+        }
+
+        AtomicInteger threadCount = new AtomicInteger();
+        this.executor = new ThreadPoolExecutor(
+                transcodingConfig.getWorkers(), transcodingConfig.getWorkers(),
+                60, TimeUnit.SECONDS,
+                new ArrayBlockingQueue<>(transcodingConfig.getQueueCapacity()),
+                runnable -> {
+                    Thread thread = new Thread(runnable, "transcoding-" + threadCount.incrementAndGet());
+                    thread.setDaemon(true);
+                    return thread;
+                });
+        this.executor.allowCoreThreadTimeOut(true);
+
+        Gauge.builder("music.transcoding.queue.depth", this, RenditionServiceImpl::getQueueDepth)
+                .register(meterRegistry);
+        Gauge.builder("music.transcoding.active", executor, ThreadPoolExecutor::getActiveCount).register(meterRegistry);
+    }
+
+    /**
+     * 音频改为本地地址的事务提交后提交转码和分片
+     *
+     * @param event 状态变更事件
+     */
+    @TransactionalEventListener(fallbackExecution = true)
+    public void onStatusChanged(MusicStatusChangedEvent event) {
+        MusicDTO music = event.getMusic();
+        if ((transcodingConfig.isEnabled() || streamingConfig.isEnabled())
+                && music.getStatus() == MusicStatus.COMPLETED && isLocal(music.getAudioUrl())) {
+            submit(music.getId());
+        }
+    }
+
+    @Override
+    public boolean submit(UUID musicId) {
+        if (!pendingMusic.add(musicId)) {
+            return false;
+        }
+        try {
+            executor.execute(() -> {
+                try {
+                    transcode(musicId);
+                } catch (Exception e) {
+                    log.warn("音乐转码失败, musicId: {}, error: {}", musicId, e.getMessage());
+                } finally {
+                    pendingMusic.remove(musicId);
+                }
+            });
+            return true;
+        } catch (RejectedExecutionException e) {
+            pendingMusic.remove(musicId);
+            log.warn("转码队列已满, 跳过音乐, 由补偿扫描重新提交: {}", musicId);
+            return false;
+        }
+    }
+
+    @Override
+    public int transcode(UUID musicId) {
+        Music music = musicRepository.findById(musicId).orElse(null);
+        if (music == null || !isLocal(music.getAudioUrl())) {
+            return 0;
+        }
+        String source = music.getAudioUrl().substring(music.getAudioUrl().lastIndexOf('/') + 1);
+
+        Lock lock = lockFor(source);
+        lock.lock();
+        try {
+            Set<String> existing = renditionRepository.findByMusicId(musicId).stream()
+                    .map(MusicRendition::getName)
+                    .collect(Collectors.toSet());
+            int created = 0;
+            List<TranscodingConfig.Rendition> renditions = transcodingConfig.isEnabled()
+                    ? transcodingConfig.getRenditions() : List.of();
+            for (TranscodingConfig.Rendition rendition : renditions) {
+                if (existing.contains(rendition.getName())) {
+                    continue;
+                }
+                try {
+                    Optional<MusicRendition> shared = renditionRepository.findFirstBySourceFilenameAndName(
+                            source, rendition.getName());
+                    renditionRepository.save(shared.isPresent()
+                            ? copyFor(musicId, shared.get())
+                            : encode(musicId, source, rendition));
+                    created++;
+                } catch (Exception e) {
+                    log.warn("生成转码版本失败, musicId: {}, rendition: {}, error: {}",
+                            musicId, rendition.getName(), e.getMessage());
+                }
+            }
+            if (created > 0) {
+                log.info("音乐转码完成, musicId: {}, 新增版本: {}", musicId, created);
+            }
+            if (streamingConfig.isEnabled() && !streamingService.isSegmented(source)) {
+                try {
+                    streamingService.segment(source);
+                } catch (Exception e) {
+                    log.warn("音频分片失败, musicId: {}, source: {}, error: {}", musicId, source, e.getMessage());
+                }
+            }
+            return created;
+        } finally {
+            lock.unlock();
+        }
+    }
+
+    @Override
+    @Scheduled(fixedDelayString = "${music.transcoding.sweep-interval:300000}")
+    public int sweep() {
+        if (!transcodingConfig.isEnabled() || transcodingConfig.getRenditions().isEmpty()) {
+            return 0;
+        }
+        List<String> names = transcodingConfig.getRenditions().stream()
+                .map(TranscodingConfig.Rendition::getName)
+                .distinct()
+                .toList();
+        int batchSize = Math.max(1, transcodingConfig.getSweepBatchSize());
+        String prefix = storageService.getFileUrl("");
+        Music cursor = sweepCursor;
+        List<Music> missing;
+        try {
+            missing = cursor == null
+                    ? musicRepository.findMissingRenditions(MusicStatus.COMPLETED, prefix, names, names.size(),
+                            PageRequest.of(0, batchSize))
+                    : musicRepository.findMissingRenditionsAfter(MusicStatus.COMPLETED, prefix, names, names.size(),
+                            cursor.getCreatedAt(), cursor.getId(), PageRequest.of(0, batchSize));
+        } catch (Exception e) {
+            log.error("查询缺少转码版本的音乐失败", e);
+            return 0;
+        }
+        // 扫描到末尾后下次从头开始，持续转码失败的音乐不会占满每次扫描的名额
+        sweepCursor = missing.size() < batchSize ? null : missing.get(missing.size() - 1);
+
+        int submitted = 0;
+        for (Music music : missing) {
+            if (submit(music.getId())) {
+                submitted++;
+            }
+        }
+        if (submitted > 0) {
+            log.info("补偿提交音乐转码: {}", submitted);
+        }
+        return submitted;
+    }
+
+    @Override
+    public List<MusicRendition> listRenditions(UUID musicId) {
+        return renditionRepository.findByMusicId(musicId);
+    }
+
+    @Override
+    public Optional<MusicRendition> selectRendition(String sourceFilename, RenditionQuality quality,
+                                                    AudioCodec preferredCodec) {
+        AudioCodec preferred = preferredCodec != null ? preferredCodec : AudioCodec.AAC;
+        return renditionRepository.findBySourceFilenameAndQuality(sourceFilename, quality).stream()
+                .min(Comparator.comparing((MusicRendition rendition) -> rendition.getCodec() != preferred)
+                        .thenComparing(rendition -> rendition.getCodec() != AudioCodec.AAC)
+                        .thenComparing(MusicRendition::getBitrate));
+    }
+
+    @Override
+    public void deleteRenditions(UUID musicId) {
+        List<MusicRendition> renditions = renditionRepository.findByMusicId(musicId);
+        if (renditions.isEmpty()) {
+            return;
+        }
+        renditionRepository.deleteAll(renditions);
+        for (MusicRendition rendition : renditions) {
+            // 按引用计数管理时每个版本记录各持有一个引用，否则只在没有其他音乐共享该文件时删除
+            boolean release = storageService.isReferenceCounted()
+                    || !renditionRepository.existsByFilenameAndMusicIdNot(rendition.getFilename(), musicId);
+            if (release && storageService.exists(rendition.getFilename())) {
+                storageService.delete(rendition.getFilename());
+            }
+        }
+    }
+
+    @Override
+    public int getQueueDepth() {
+        return executor.getQueue().size();
+    }
+
+    @PreDestroy
+    public void shutdown() {
+        executor.shutdownNow();
+    }
+
+    /**
+     * 编码并写入存储；本地文件由ffmpeg直接读取，其他存储通过标准输入传入
+     */
+    private MusicRendition encode(UUID musicId, String source,
+                                  TranscodingConfig.Rendition rendition) throws IOException {
+        String outputName = FilenameUtils.getBaseName(source) + "-" + rendition.getName()
+                + rendition.getCodec().getExtension();
+        FfmpegEncoder.OutputHandler<StoredFileDTO> store = encoded -> storageService.store(encoded, outputName);
+
+        StoredFileDTO stored;
+        Path sourcePath = storageService.load(source);
+        if (Files.isRegularFile(sourcePath)) {
+            stored = ffmpegEncoder.encode(sourcePath, rendition, store);
+        } else {
+            try (InputStream input = storageService.loadAsResource(source).getInputStream()) {
+                stored = ffmpegEncoder.encode(input, rendition, store);
+            }
+        }
+        log.debug("生成转码版本, source: {}, rendition: {}, file: {}, size: {}",
+                source, rendition.getName(), stored.getFilename(), stored.getSize());
+        return MusicRendition.builder()
+                .musicId(musicId)
+                .sourceFilename(source)
+                .name(rendition.getName())
+                .quality(rendition.getQuality())
+                .codec(rendition.getCodec())
+                .bitrate(rendition.getBitrate())
+                .filename(stored.getFilename())
+                .size(stored.getSize())
+                .build();
+    }
+
+    private MusicRendition copyFor(UUID musicId, MusicRendition shared) {
+        storageService.retain(shared.getFilename());
+        return MusicRendition.builder()
+                .musicId(musicId)
+                .sourceFilename(shared.getSourceFilename())
+                .name(shared.getName())
+                .quality(shared.getQuality())
+                .codec(shared.getCodec())
+                .bitrate(shared.getBitrate())
+                .filename(shared.getFilename())
+                .size(shared.getSize())
+                .build();
+    }
+
+    private boolean isLocal(String url) {
+        return url != null && url.startsWith(storageService.getFileUrl(""));
+    }
+
+    private Lock lockFor(String source) {
+        return locks[Math.floorMod(source.hashCode(), LOCK_STRIPES)];
+    }
+}
@@ -2,14 +2,32 @@ package com.aimusic.backend.exception;
 
 /**
  * 外部API调用异常
+ * 由上游错误响应引起时携带HTTP状态码，网络错误等没有响应的情况下状态码为null
  */
 public class ExternalApiException extends RuntimeException {
-    
+
+    private final Integer statusCode;
+
     public ExternalApiException(String message) {
-        super(message);
+        this(message, (Integer) null);
     }
-    
+
     public ExternalApiException(String message, Throwable cause) {
         super(message, cause);
+        this.statusCode = null;
+    }
+
+    public ExternalApiException(String message, Integer statusCode) {
+        super(message);
+        this.statusCode = statusCode;
+    }
+
+    /**
+     * 上游响应的HTTP状态码
+     *
+     * @return 状态码，没有收到响应时为null
+     */
+    public Integer getStatusCode() {
+        return statusCode;
     }
-} 
\ No newline at end of file
+}
@@ -0,0 +1,18 @@
+package com.aimusic.backend.exception;
+
+/**
+ * 无效游标异常
+ * 客户端传入的分页游标无法解析
+ */
+public class InvalidCursorException extends RuntimeException {
+
+    /**
+     * 构造函数
+     *
+     * @param message 异常信息
+     * @param cause 异常原因
+     */
+    public InvalidCursorException(String message, Throwable cause) {
+        super(message, cause);
+    }
+}
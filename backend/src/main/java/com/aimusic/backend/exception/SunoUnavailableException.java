@@ -0,0 +1,12 @@
+package com.aimusic.backend.exception;
+
+/**
+ * Suno暂不可用异常
+ * 熔断器打开或并发隔离已满时快速失败抛出，调用方应稍后重试而不是计为一次失败
+ */
+public class SunoUnavailableException extends ExternalApiException {
+
+    public SunoUnavailableException(String message) {
+        super(message);
+    }
+}
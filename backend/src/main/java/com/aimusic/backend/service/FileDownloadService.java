@@ -0,0 +1,39 @@
+package com.aimusic.backend.service;
+
+import jakarta.servlet.http.HttpServletRequest;
+import jakarta.servlet.http.HttpServletResponse;
+import org.springframework.http.MediaType;
+
+import java.io.IOException;
+import java.nio.file.Path;
+
+/**
+ * 文件下载服务接口
+ * 支持断点续传（Range）、条件请求和零拷贝传输
+ */
+public interface FileDownloadService {
+
+    /**
+     * 将文件写入响应
+     * 根据请求头返回完整内容（200）、部分内容（206）、未修改（304）或范围无效（416）
+     *
+     * @param file 文件路径
+     * @param request HTTP请求
+     * @param response HTTP响应
+     * @throws IOException 读取文件或写入响应失败
+     */
+    void download(Path file, HttpServletRequest request, HttpServletResponse response) throws IOException;
+
+    /**
+     * 以内联方式将文件写入响应，用于播放器直接读取的流媒体清单和分片
+     * 条件请求和Range的处理与 {@link #download} 相同
+     *
+     * @param file 文件路径
+     * @param contentType 内容类型
+     * @param request HTTP请求
+     * @param response HTTP响应
+     * @throws IOException 读取文件或写入响应失败
+     */
+    void stream(Path file, MediaType contentType,
+                HttpServletRequest request, HttpServletResponse response) throws IOException;
+}
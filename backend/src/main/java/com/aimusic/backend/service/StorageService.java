@@ -1,9 +1,14 @@
 package com.aimusic.backend.service;
 
+import com.aimusic.backend.domain.dto.StoredFileDTO;
 import org.springframework.core.io.Resource;
 import org.springframework.web.multipart.MultipartFile;
 
+import java.io.InputStream;
+import java.net.URI;
 import java.nio.file.Path;
+import java.util.List;
+import java.util.Optional;
 import java.util.stream.Stream;
 
 /**
@@ -24,6 +29,16 @@ public interface StorageService {
      * @return 文件的相对路径
      */
     String store(MultipartFile file);
+
+    /**
+     * 以流的方式存储文件
+     * 内容先写入临时目录并同时计算校验和，写完后原子移动到存储目录
+     *
+     * @param content 文件内容
+     * @param originalFilename 原始文件名
+     * @return 已存储文件信息
+     */
+    StoredFileDTO store(InputStream content, String originalFilename);
     
     /**
      * 加载所有文件
@@ -39,6 +54,15 @@ public interface StorageService {
      * @return 文件路径
      */
     Path load(String filename);
+
+    /**
+     * 按文件名顺序分页列出已存储的文件
+     *
+     * @param after 游标，上一页最后一个文件名；为空时从头开始
+     * @param limit 最多返回数量
+     * @return 文件信息列表
+     */
+    List<StoredFileDTO> listFiles(String after, int limit);
     
     /**
      * 加载文件作为资源
@@ -47,6 +71,15 @@ public interface StorageService {
      * @return 文件资源
      */
     Resource loadAsResource(String filename);
+
+    /**
+     * 生成文件的预签名下载地址
+     * 支持的存储实现（如对象存储）返回可直接下载的临时地址，客户端无需经过本服务传输文件内容
+     *
+     * @param filename 文件名
+     * @return 预签名地址，不支持时为空
+     */
+    Optional<URI> presignedDownloadUrl(String filename);
     
     /**
      * 删除文件
@@ -55,6 +88,23 @@ public interface StorageService {
      */
     void delete(String filename);
     
+    /**
+     * 是否按引用计数管理文件
+     * 为true时每个引用方各持有一个引用，删除引用方时各调用一次 {@link #delete(String)}；
+     * 为false时多个引用方共享同一文件，只有最后一个引用方删除时才调用 {@link #delete(String)}
+     *
+     * @return 是否按引用计数管理
+     */
+    boolean isReferenceCounted();
+
+    /**
+     * 为已存储的文件增加一个引用
+     * 新的引用方复用已存储的文件时调用，不按引用计数管理的实现无需处理
+     *
+     * @param filename 文件名
+     */
+    void retain(String filename);
+
     /**
      * 删除所有文件
      */
@@ -0,0 +1,52 @@
+package com.aimusic.backend.service;
+
+import java.nio.file.Path;
+
+/**
+ * 分片流媒体服务接口
+ * 将已存储的音频切分为固定时长的分片，生成HLS播放列表（master.m3u8）和DASH清单（manifest.mpd）
+ */
+public interface StreamingService {
+
+    /**
+     * HLS主播放列表文件名
+     */
+    String HLS_PLAYLIST = "master.m3u8";
+
+    /**
+     * DASH清单文件名
+     */
+    String DASH_MANIFEST = "manifest.mpd";
+
+    /**
+     * 音频是否已生成分片
+     *
+     * @param filename 已存储的音频文件名
+     * @return 是否已生成
+     */
+    boolean isSegmented(String filename);
+
+    /**
+     * 切分音频并生成清单，分片全部生成后才对外可见
+     *
+     * @param filename 已存储的音频文件名
+     * @return 是否新生成（已存在时返回false）
+     */
+    boolean segment(String filename);
+
+    /**
+     * 加载音频的清单或分片文件
+     *
+     * @param filename 已存储的音频文件名
+     * @param name 清单或分片文件名
+     * @return 文件路径
+     */
+    Path loadStreamFile(String filename, String name);
+
+    /**
+     * 删除音频的全部分片和清单
+     *
+     * @param filename 已存储的音频文件名
+     */
+    void deleteStream(String filename);
+}
@@ -0,0 +1,157 @@
+package com.aimusic.backend.service.impl;
+
+import com.aimusic.backend.config.StorageConfig;
+import com.aimusic.backend.domain.dto.StoredFileDTO;
+import com.aimusic.backend.domain.entity.StoredFile;
+import com.aimusic.backend.domain.repository.StoredFileRepository;
+import com.aimusic.backend.exception.StorageException;
+import com.aimusic.backend.service.StorageService;
+import org.apache.commons.io.FilenameUtils;
+import org.springframework.data.domain.Limit;
+import org.springframework.util.StringUtils;
+import org.springframework.web.multipart.MultipartFile;
+
+import java.io.IOException;
+import java.io.InputStream;
+import java.net.URI;
+import java.security.MessageDigest;
+import java.security.NoSuchAlgorithmException;
+import java.time.LocalDateTime;
+import java.util.List;
+import java.util.Optional;
+import java.util.UUID;
+import java.util.stream.Collectors;
+
+/**
+ * 存储服务基类
+ * 提供各存储实现共用的文件校验、文件名生成和 stored_file 索引维护
+ */
+public abstract class AbstractStorageService implements StorageService {
+
+    private final StorageConfig storageConfig;
+    private final StoredFileRepository storedFileRepository;
+
+    protected AbstractStorageService(StorageConfig storageConfig, StoredFileRepository storedFileRepository) {
+        this.storageConfig = storageConfig;
+        this.storedFileRepository = storedFileRepository;
+    }
+
+    protected StorageConfig getStorageConfig() {
+        return storageConfig;
+    }
+
+    protected StoredFileRepository getStoredFileRepository() {
+        return storedFileRepository;
+    }
+
+    @Override
+    public String store(MultipartFile file) {
+        try {
+            if (file.isEmpty()) {
+                throw new StorageException("无法存储空文件");
+            }
+
+            // 验证文件大小
+            if (file.getSize() > storageConfig.getMaxFileSize()) {
+                throw new StorageException("文件大小超过限制");
+            }
+
+            try (InputStream inputStream = file.getInputStream()) {
+                return store(inputStream, file.getOriginalFilename()).getFilename();
+            }
+        } catch (IOException e) {
+            throw new StorageException("文件存储失败", e);
+        }
+    }
+
+    @Override
+    public List<StoredFileDTO> listFiles(String after, int limit) {
+        List<StoredFile> files = StringUtils.hasText(after)
+                ? storedFileRepository.findByFilenameGreaterThanOrderByFilenameAsc(after, Limit.of(limit))
+                : storedFileRepository.findAllByOrderByFilenameAsc(Limit.of(limit));
+        return files.stream().map(this::toDTO).collect(Collectors.toList());
+    }
+
+    @Override
+    public String getFileUrl(String filename) {
+        return storageConfig.getUrlPrefix() + "/" + filename;
+    }
+
+    @Override
+    public Optional<URI> presignedDownloadUrl(String filename) {
+        return Optional.empty();
+    }
+
+    @Override
+    public boolean isReferenceCounted() {
+        return false;
+    }
+
+    @Override
+    public void retain(String filename) {
+        // 默认不按引用计数管理文件
+    }
+
+    /**
+     * 写入或更新文件索引
+     */
+    protected StoredFile indexFile(String filename, long size, String checksum, LocalDateTime modifiedAt) {
+        return storedFileRepository.save(StoredFile.builder()
+                .filename(filename)
+                .size(size)
+                .checksum(checksum)
+                .modifiedAt(modifiedAt)
+                .build());
+    }
+
+    protected StoredFileDTO toDTO(StoredFile file) {
+        return StoredFileDTO.builder()
+                .filename(file.getFilename())
+                .size(file.getSize())
+                .checksum(file.getChecksum())
+                .url(getFileUrl(file.getFilename()))
+                .modifiedAt(file.getModifiedAt())
+                .build();
+    }
+
+    protected MessageDigest newDigest() {
+        try {
+            return MessageDigest.getInstance("SHA-256");
+        } catch (NoSuchAlgorithmException e) {
+            throw new IllegalStateException("SHA-256 不可用", e);
+        }
+    }
+
+    /**
+     * 生成唯一的文件名
+     *
+     * @param originalFilename 原始文件名
+     * @return 生成的文件名
+     */
+    protected String generateFilename(String originalFilename) {
+        String extension = FilenameUtils.getExtension(originalFilename);
+        String filename = storageConfig.isUseOriginalFilename() ?
+                StringUtils.cleanPath(originalFilename) :
+                UUID.randomUUID().toString() + "." + extension;
+
+        if (filename.length() > storageConfig.getMaxFilenameLength()) {
+            throw new StorageException("文件名长度超过限制");
+        }
+
+        return filename;
+    }
+
+    /**
+     * 检查文件类型是否允许
+     *
+     * @param filename 文件名
+     */
+    protected void validateFileType(String filename) {
+        String extension = FilenameUtils.getExtension(filename);
+        if (extension == null || !storageConfig.getAllowedFileTypes().stream()
+                .map(type -> type.toLowerCase().replace(".", ""))
+                .anyMatch(type -> type.equals(extension.toLowerCase()))) {
+            throw new StorageException("不支持的文件类型: " + extension);
+        }
+    }
+}
@@ -0,0 +1,279 @@
+package com.aimusic.backend.service.impl;
+
+import com.aimusic.backend.config.StorageConfig;
+import com.aimusic.backend.domain.dto.StoredFileDTO;
+import com.aimusic.backend.domain.entity.StoredBlob;
+import com.aimusic.backend.domain.entity.StoredFile;
+import com.aimusic.backend.domain.repository.StoredBlobRepository;
+import com.aimusic.backend.domain.repository.StoredFileRepository;
+import com.aimusic.backend.exception.StorageException;
+import lombok.extern.slf4j.Slf4j;
+import org.apache.commons.io.FilenameUtils;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnProperty;
+import org.springframework.dao.DataIntegrityViolationException;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.PlatformTransactionManager;
+import org.springframework.transaction.TransactionDefinition;
+import org.springframework.transaction.support.TransactionSynchronization;
+import org.springframework.transaction.support.TransactionSynchronizationManager;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import java.io.IOException;
+import java.io.InputStream;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.security.MessageDigest;
+import java.time.LocalDateTime;
+import java.util.HexFormat;
+import java.util.List;
+import java.util.Set;
+import java.util.concurrent.locks.Lock;
+import java.util.concurrent.locks.ReentrantLock;
+import java.util.regex.Matcher;
+import java.util.regex.Pattern;
+import java.util.stream.Stream;
+
+/**
+ * 内容寻址存储服务实现类
+ * 文件以内容的SHA-256命名，相同内容只保存一份，并在数据库中记录引用计数；
+ * 删除时只减少引用，最后一个引用删除后才删除文件。
+ * 引用计数的减少加入调用方事务，文件在事务提交后才删除，调用方回滚时文件和引用计数都保持不变。
+ * 文件按哈希前两级（各两位十六进制）分片存放，例如 ab/cd/abcd...，单个目录不会无限增长
+ */
+@Slf4j
+@Service
+@ConditionalOnProperty(prefix = "storage", name = "type", havingValue = "content-addressed")
+public class ContentAddressedStorageService extends FileSystemStorageService {
+
+    private static final Pattern BLOB_NAME = Pattern.compile("^([0-9a-f]{64})(\\.[A-Za-z0-9]+)?$");
+    private static final int LOCK_STRIPES = 64;
+
+    private final StoredBlobRepository storedBlobRepository;
+    private final TransactionTemplate transactionTemplate;
+    private final TransactionTemplate requiresNewTemplate;
+    /**
+     * 同一哈希的写入与删除互斥，防止删除文件的同时有新的引用写入
+     */
+    private final Lock[] locks = new Lock[LOCK_STRIPES];
+
+    public ContentAddressedStorageService(StorageConfig storageConfig,
+                                          StoredFileRepository storedFileRepository,
+                                          StoredBlobRepository storedBlobRepository,
+                                          PlatformTransactionManager transactionManager) {
+        super(storageConfig, storedFileRepository);
+        this.storedBlobRepository = storedBlobRepository;
+        // 减少引用加入调用方事务，与删除业务记录一起提交或回滚
+        this.transactionTemplate = new TransactionTemplate(transactionManager);
+        // 写入文件后增加引用独立提交，与调用方事务无关
+        this.requiresNewTemplate = new TransactionTemplate(transactionManager);
+        this.requiresNewTemplate.setPropagationBehavior(TransactionDefinition.PROPAGATION_REQUIRES_NEW);
+        for (int i = 0; i < LOCK_STRIPES; i++) {
+            locks[i] = new ReentrantLock();
+        }
+    }
+
+    @Override
+    public StoredFileDTO store(InputStream content, String originalFilename) {
+        validateFileType(originalFilename);
+
+        Path tempFile = null;
+        try {
+            tempFile = createTempFile();
+            MessageDigest digest = newDigest();
+            long size = writeToTempFile(content, tempFile, digest);
+            if (size == 0) {
+                throw new StorageException("无法存储空文件");
+            }
+            String hash = HexFormat.of().formatHex(digest.digest());
+            Path target = blobPath(hash);
+
+            Lock lock = lockFor(hash);
+            lock.lock();
+            try {
+                if (Files.exists(target)) {
+                    log.info("文件内容已存在, 复用: {}", hash);
+                } else {
+                    Files.createDirectories(target.getParent());
+                    moveIntoPlace(tempFile, target);
+                }
+                retain(hash, size);
+            } finally {
+                lock.unlock();
+            }
+
+            String filename = hash + "." + FilenameUtils.getExtension(originalFilename).toLowerCase();
+            StoredFile stored = indexFile(filename, size, hash, lastModified(target));
+            log.info("文件存储成功: {}, 大小: {}", filename, size);
+            return toDTO(stored);
+        } catch (IOException e) {
+            throw new StorageException("文件存储失败", e);
+        } finally {
+            deleteQuietly(tempFile);
+        }
+    }
+
+    @Override
+    public Stream<Path> loadAll() {
+        try {
+            return Files.walk(getRootLocation(), 3)
+                    .filter(Files::isRegularFile)
+                    .filter(path -> BLOB_NAME.matcher(path.getFileName().toString()).matches())
+                    .map(getRootLocation()::relativize);
+        } catch (IOException e) {
+            throw new StorageException("无法读取存储的文件", e);
+        }
+    }
+
+    @Override
+    public Path load(String filename) {
+        String hash = hashOf(filename);
+        return hash != null ? blobPath(hash) : super.load(filename);
+    }
+
+    @Override
+    public void delete(String filename) {
+        String hash = hashOf(filename);
+        if (hash == null) {
+            super.delete(filename);
+            return;
+        }
+
+        Lock lock = lockFor(hash);
+        lock.lock();
+        try {
+            transactionTemplate.executeWithoutResult(status -> {
+                storedBlobRepository.decrementRefCount(hash, LocalDateTime.now());
+                if (storedBlobRepository.deleteUnreferenced(hash) == 0) {
+                    log.info("文件引用已减少, 保留内容: {}", hash);
+                    return;
+                }
+                getStoredFileRepository().deleteByChecksum(hash);
+                if (TransactionSynchronizationManager.isSynchronizationActive()) {
+                    TransactionSynchronizationManager.registerSynchronization(new TransactionSynchronization() {
+                        @Override
+                        public void afterCommit() {
+                            deleteBlob(hash);
+                        }
+                    });
+                } else {
+                    deleteBlob(hash);
+                }
+            });
+        } finally {
+            lock.unlock();
+        }
+    }
+
+    @Override
+    public boolean isReferenceCounted() {
+        return true;
+    }
+
+    @Override
+    public void retain(String filename) {
+        String hash = hashOf(filename);
+        if (hash == null) {
+            return;
+        }
+        Lock lock = lockFor(hash);
+        lock.lock();
+        try {
+            Path blob = blobPath(hash);
+            if (!Files.exists(blob)) {
+                throw new StorageException("文件不存在: " + filename);
+            }
+            retain(hash, Files.size(blob));
+        } catch (IOException e) {
+            throw new StorageException("无法增加文件引用: " + filename, e);
+        } finally {
+            lock.unlock();
+        }
+    }
+
+    @Override
+    protected int indexMissing(List<Path> batch) {
+        List<String> hashes = batch.stream().map(path -> path.getFileName().toString()).toList();
+        Set<String> existing = getStoredFileRepository().findExistingChecksums(hashes);
+        int indexed = 0;
+        for (String hash : hashes) {
+            if (existing.contains(hash)) {
+                continue;
+            }
+            try {
+                Path blob = blobPath(hash);
+                indexFile(hash, Files.size(blob), hash, lastModified(blob));
+                indexed++;
+            } catch (IOException e) {
+                log.warn("文件索引补建失败: {}", hash, e);
+            }
+        }
+        return indexed;
+    }
+
+    @Override
+    public void deleteAll() {
+        super.deleteAll();
+        requiresNewTemplate.executeWithoutResult(status -> storedBlobRepository.deleteAllInBatch());
+    }
+
+    /**
+     * 增加引用计数，记录不存在时创建
+     * 多个实例同时创建同一记录时，插入失败的一方改为增加计数
+     */
+    private void retain(String hash, long size) {
+        try {
+            requiresNewTemplate.executeWithoutResult(status -> {
+                if (storedBlobRepository.incrementRefCount(hash, LocalDateTime.now()) == 0) {
+                    storedBlobRepository.saveAndFlush(StoredBlob.builder()
+                            .hash(hash)
+                            .size(size)
+                            .refCount(1)
+                            .build());
+                }
+            });
+        } catch (DataIntegrityViolationException e) {
+            requiresNewTemplate.executeWithoutResult(status ->
+                    storedBlobRepository.incrementRefCount(hash, LocalDateTime.now()));
+        }
+    }
+
+    /**
+     * 删除已无引用的内容文件
+     * 在删除引用的事务提交后执行，期间有新的写入重新创建了引用时保留文件
+     */
+    private void deleteBlob(String hash) {
+        Lock lock = lockFor(hash);
+        lock.lock();
+        try {
+            if (Boolean.TRUE.equals(requiresNewTemplate.execute(status -> storedBlobRepository.existsById(hash)))) {
+                log.info("文件内容已被重新引用, 保留内容: {}", hash);
+                return;
+            }
+            Files.deleteIfExists(blobPath(hash));
+            log.info("文件最后一个引用已删除, 删除内容: {}", hash);
+        } catch (IOException e) {
+            log.warn("删除文件内容失败: {}", hash, e);
+        } finally {
+            lock.unlock();
+        }
+    }
+
+    /**
+     * 内容文件路径：根目录/哈希[0,2)/哈希[2,4)/哈希
+     */
+    private Path blobPath(String hash) {
+        return shardPath(hash, hash);
+    }
+
+    /**
+     * 从文件名中解析内容哈希，不是内容寻址文件名时返回null
+     */
+    private String hashOf(String filename) {
+        Matcher matcher = BLOB_NAME.matcher(filename);
+        return matcher.matches() ? matcher.group(1) : null;
+    }
+
+    private Lock lockFor(String hash) {
+        return locks[Math.floorMod(hash.hashCode(), LOCK_STRIPES)];
+    }
+}
@@ -1,42 +1,75 @@
 package com.aimusic.backend.service.impl;
 
 import com.aimusic.backend.config.StorageConfig;
+import com.aimusic.backend.domain.dto.StoredFileDTO;
+import com.aimusic.backend.domain.entity.StoredFile;
+import com.aimusic.backend.domain.repository.StoredFileRepository;
 import com.aimusic.backend.exception.StorageException;
-import com.aimusic.backend.service.StorageService;
 import lombok.extern.slf4j.Slf4j;
-import org.apache.commons.io.FilenameUtils;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnProperty;
+import org.springframework.boot.context.event.ApplicationReadyEvent;
+import org.springframework.context.event.EventListener;
 import org.springframework.core.io.Resource;
 import org.springframework.core.io.UrlResource;
 import org.springframework.stereotype.Service;
 import org.springframework.util.FileSystemUtils;
-import org.springframework.util.StringUtils;
-import org.springframework.web.multipart.MultipartFile;
 
 import java.io.IOException;
 import java.io.InputStream;
 import java.net.MalformedURLException;
+import java.nio.ByteBuffer;
+import java.nio.channels.Channels;
+import java.nio.channels.FileChannel;
+import java.nio.channels.ReadableByteChannel;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.AtomicMoveNotSupportedException;
 import java.nio.file.Files;
 import java.nio.file.Path;
 import java.nio.file.Paths;
 import java.nio.file.StandardCopyOption;
-import java.util.Arrays;
-import java.util.UUID;
+import java.nio.file.StandardOpenOption;
+import java.security.MessageDigest;
+import java.time.LocalDateTime;
+import java.time.ZoneId;
+import java.util.ArrayList;
+import java.util.HexFormat;
+import java.util.Iterator;
+import java.util.List;
+import java.util.Set;
 import java.util.stream.Stream;
 
 /**
  * 文件系统存储服务实现类
  * 实现基于文件系统的文件存储
+ * 文件按文件名SHA-256的前两级（各两位十六进制）分片存放，例如 ab/cd/song.mp3；
+ * 早期平铺在根目录下的文件仍可按原路径访问。存储的文件同时记录在 stored_file 索引表中，
+ * 列表查询基于索引游标分页，不再遍历目录
  */
 @Slf4j
 @Service
-public class FileSystemStorageService implements StorageService {
+@ConditionalOnProperty(prefix = "storage", name = "type", havingValue = "filesystem", matchIfMissing = true)
+public class FileSystemStorageService extends AbstractStorageService {
+
+    /**
+     * 补建索引时每批检查的文件数
+     */
+    protected static final int INDEX_BATCH_SIZE = 500;
 
     private final Path rootLocation;
-    private final StorageConfig storageConfig;
+    private final Path tempLocation;
 
-    public FileSystemStorageService(StorageConfig storageConfig) {
-        this.storageConfig = storageConfig;
+    public FileSystemStorageService(StorageConfig storageConfig, StoredFileRepository storedFileRepository) {
+        super(storageConfig, storedFileRepository);
         this.rootLocation = Paths.get(storageConfig.getLocation());
+        this.tempLocation = Paths.get(storageConfig.getTempDir());
+    }
+
+    protected Path getRootLocation() {
+        return rootLocation;
+    }
+
+    protected Path getTempLocation() {
+        return tempLocation;
     }
 
     @Override
@@ -48,18 +81,17 @@ public class FileSystemStorageService implements StorageService {
                 log.info("创建存储根目录: {}", rootLocation);
             }
 
-            Path tempDir = Paths.get(storageConfig.getTempDir());
-            if (!Files.exists(tempDir)) {
-                Files.createDirectories(tempDir);
-                log.info("创建临时目录: {}", tempDir);
+            if (!Files.exists(tempLocation)) {
+                Files.createDirectories(tempLocation);
+                log.info("创建临时目录: {}", tempLocation);
             }
 
             // 确保目录可写
             if (!Files.isWritable(rootLocation)) {
                 throw new StorageException("存储目录不可写: " + rootLocation);
             }
-            if (!Files.isWritable(tempDir)) {
-                throw new StorageException("临时目录不可写: " + tempDir);
+            if (!Files.isWritable(tempLocation)) {
+                throw new StorageException("临时目录不可写: " + tempLocation);
             }
 
             log.info("存储服务初始化成功");
@@ -68,46 +100,105 @@ public class FileSystemStorageService implements StorageService {
         }
     }
 
-    @Override
-    public String store(MultipartFile file) {
-        try {
-            if (file.isEmpty()) {
-                throw new StorageException("无法存储空文件");
-            }
+    /**
+     * 应用启动后初始化存储目录；开启 storage.rebuild-index-on-startup 时把尚未建立索引的文件补入索引
+     */
+    @EventListener(ApplicationReadyEvent.class)
+    public void onApplicationReady() {
+        init();
+        if (!getStorageConfig().isRebuildIndexOnStartup()) {
+            return;
+        }
+        int indexed = rebuildIndex();
+        log.info("补建文件索引: {}个", indexed);
+    }
 
-            // 验证文件大小
-            if (file.getSize() > storageConfig.getMaxFileSize()) {
-                throw new StorageException("文件大小超过限制");
+    /**
+     * 为磁盘上存在但未建立索引的文件补建索引
+     * 文件按批检查是否已建立索引，每批只查询一次数据库
+     *
+     * @return 新建的索引数量
+     */
+    public int rebuildIndex() {
+        int indexed = 0;
+        try (Stream<Path> files = loadAll()) {
+            List<Path> batch = new ArrayList<>(INDEX_BATCH_SIZE);
+            for (Iterator<Path> it = files.iterator(); it.hasNext(); ) {
+                batch.add(it.next());
+                if (batch.size() == INDEX_BATCH_SIZE || !it.hasNext()) {
+                    indexed += indexMissing(batch);
+                    batch.clear();
+                }
             }
+        }
+        return indexed;
+    }
 
-            String originalFilename = file.getOriginalFilename();
-            if (originalFilename != null && originalFilename.length() > storageConfig.getMaxFilenameLength()) {
-                throw new StorageException("文件名长度超过限制");
+    /**
+     * 为一批文件中尚未建立索引的文件补建索引
+     *
+     * @param batch 相对于存储根目录的文件路径
+     * @return 新建的索引数量
+     */
+    protected int indexMissing(List<Path> batch) {
+        List<String> filenames = batch.stream().map(path -> path.getFileName().toString()).toList();
+        Set<String> existing = getStoredFileRepository().findExistingFilenames(filenames);
+        int indexed = 0;
+        for (String filename : filenames) {
+            if (existing.contains(filename)) {
+                continue;
             }
+            try {
+                Path file = load(filename);
+                indexFile(filename, Files.size(file), checksumOf(file), lastModified(file));
+                indexed++;
+            } catch (IOException e) {
+                log.warn("文件索引补建失败: {}", filename, e);
+            }
+        }
+        return indexed;
+    }
+
+    @Override
+    public StoredFileDTO store(InputStream content, String originalFilename) {
+        if (originalFilename != null && originalFilename.length() > getStorageConfig().getMaxFilenameLength()) {
+            throw new StorageException("文件名长度超过限制");
+        }
 
-            // 验证文件类型
-            validateFileType(originalFilename);
+        // 验证文件类型
+        validateFileType(originalFilename);
 
-            // 生成文件名
-            String filename = generateFilename(originalFilename);
+        // 生成文件名
+        String filename = generateFilename(originalFilename);
 
-            // 存储文件
-            try (InputStream inputStream = file.getInputStream()) {
-                Files.copy(inputStream, this.rootLocation.resolve(filename),
-                        StandardCopyOption.REPLACE_EXISTING);
-                log.info("文件存储成功: {}", filename);
-                return filename;
+        Path tempFile = null;
+        try {
+            tempFile = createTempFile();
+            MessageDigest digest = newDigest();
+            long size = writeToTempFile(content, tempFile, digest);
+            if (size == 0) {
+                throw new StorageException("无法存储空文件");
             }
+
+            Path target = shardPath(sha256Hex(filename), filename);
+            Files.createDirectories(target.getParent());
+            moveIntoPlace(tempFile, target);
+            String checksum = HexFormat.of().formatHex(digest.digest());
+            StoredFile stored = indexFile(filename, size, checksum, lastModified(target));
+            log.info("文件存储成功: {}, 大小: {}, sha256: {}", filename, size, checksum);
+            return toDTO(stored);
         } catch (IOException e) {
             throw new StorageException("文件存储失败", e);
+        } finally {
+            deleteQuietly(tempFile);
         }
     }
 
     @Override
     public Stream<Path> loadAll() {
         try {
-            return Files.walk(this.rootLocation, 1)
-                    .filter(path -> !path.equals(this.rootLocation))
+            return Files.walk(this.rootLocation, 3)
+                    .filter(Files::isRegularFile)
                     .map(this.rootLocation::relativize);
         } catch (IOException e) {
             throw new StorageException("无法读取存储的文件", e);
@@ -116,7 +207,15 @@ public class FileSystemStorageService implements StorageService {
 
     @Override
     public Path load(String filename) {
-        return rootLocation.resolve(filename);
+        Path sharded = shardPath(sha256Hex(filename), filename);
+        if (!Files.exists(sharded)) {
+            // 兼容分片之前平铺在根目录下的文件
+            Path flat = rootLocation.resolve(filename);
+            if (Files.exists(flat)) {
+                return flat;
+            }
+        }
+        return sharded;
     }
 
     @Override
@@ -139,6 +238,7 @@ public class FileSystemStorageService implements StorageService {
         try {
             Path file = load(filename);
             Files.deleteIfExists(file);
+            getStoredFileRepository().deleteById(filename);
             log.info("文件删除成功: {}", filename);
         } catch (IOException e) {
             throw new StorageException("无法删除文件: " + filename, e);
@@ -148,14 +248,10 @@ public class FileSystemStorageService implements StorageService {
     @Override
     public void deleteAll() {
         FileSystemUtils.deleteRecursively(rootLocation.toFile());
+        getStoredFileRepository().deleteAllInBatch();
         log.info("所有文件删除成功");
     }
 
-    @Override
-    public String getFileUrl(String filename) {
-        return storageConfig.getUrlPrefix() + "/" + filename;
-    }
-
     @Override
     public boolean exists(String filename) {
         return Files.exists(load(filename));
@@ -171,35 +267,95 @@ public class FileSystemStorageService implements StorageService {
     }
 
     /**
-     * 生成唯一的文件名
+     * 分片后的文件路径：根目录/key[0,2)/key[2,4)/文件名
      *
-     * @param originalFilename 原始文件名
-     * @return 生成的文件名
+     * @param key 用于分片的十六进制哈希
+     * @param filename 文件名
      */
-    private String generateFilename(String originalFilename) {
-        String extension = FilenameUtils.getExtension(originalFilename);
-        String filename = storageConfig.isUseOriginalFilename() ?
-                StringUtils.cleanPath(originalFilename) :
-                UUID.randomUUID().toString() + "." + extension;
+    protected Path shardPath(String key, String filename) {
+        return rootLocation.resolve(key.substring(0, 2)).resolve(key.substring(2, 4)).resolve(filename);
+    }
 
-        if (filename.length() > storageConfig.getMaxFilenameLength()) {
-            throw new StorageException("文件名长度超过限制");
+    protected LocalDateTime lastModified(Path file) throws IOException {
+        return LocalDateTime.ofInstant(Files.getLastModifiedTime(file).toInstant(), ZoneId.systemDefault());
+    }
+
+    /**
+     * 读取文件计算SHA-256，仅用于补建索引
+     */
+    protected String checksumOf(Path file) throws IOException {
+        try (InputStream in = Files.newInputStream(file)) {
+            MessageDigest digest = newDigest();
+            byte[] buffer = new byte[getStorageConfig().getUploadBufferSize()];
+            int read;
+            while ((read = in.read(buffer)) != -1) {
+                digest.update(buffer, 0, read);
+            }
+            return HexFormat.of().formatHex(digest.digest());
         }
+    }
+
+    private String sha256Hex(String value) {
+        return HexFormat.of().formatHex(newDigest().digest(value.getBytes(StandardCharsets.UTF_8)));
+    }
 
-        return filename;
+    /**
+     * 在临时目录下创建上传用的临时文件
+     */
+    protected Path createTempFile() throws IOException {
+        Files.createDirectories(tempLocation);
+        return Files.createTempFile(tempLocation, "upload-", ".part");
     }
 
     /**
-     * 检查文件类型是否允许
+     * 通过固定大小的缓冲区将输入流写入临时文件，同时更新校验和
+     * 超过最大文件大小时立即中止，内存占用与文件大小无关
      *
-     * @param filename 文件名
+     * @return 写入的字节数
+     */
+    protected long writeToTempFile(InputStream content, Path tempFile, MessageDigest digest) throws IOException {
+        ByteBuffer buffer = ByteBuffer.allocate(getStorageConfig().getUploadBufferSize());
+        long size = 0;
+        try (ReadableByteChannel source = Channels.newChannel(content);
+             FileChannel target = FileChannel.open(tempFile, StandardOpenOption.WRITE)) {
+            while (source.read(buffer) != -1) {
+                buffer.flip();
+                size += buffer.remaining();
+                if (size > getStorageConfig().getMaxFileSize()) {
+                    throw new StorageException("文件大小超过限制");
+                }
+                digest.update(buffer.array(), buffer.position(), buffer.remaining());
+                while (buffer.hasRemaining()) {
+                    target.write(buffer);
+                }
+                buffer.clear();
+            }
+            // 移动前落盘，保证目标文件出现时内容已完整
+            target.force(false);
+        }
+        return size;
+    }
+
+    /**
+     * 将临时文件原子移动到目标位置，临时目录与存储目录不在同一文件系统时退化为普通移动
      */
-    private void validateFileType(String filename) {
-        String extension = FilenameUtils.getExtension(filename);
-        if (extension == null || !storageConfig.getAllowedFileTypes().stream()
-                .map(type -> type.toLowerCase().replace(".", ""))
-                .anyMatch(type -> type.equals(extension.toLowerCase()))) {
-            throw new StorageException("不支持的文件类型: " + extension);
+    protected void moveIntoPlace(Path tempFile, Path destination) throws IOException {
+        try {
+            Files.move(tempFile, destination, StandardCopyOption.ATOMIC_MOVE);
+        } catch (AtomicMoveNotSupportedException e) {
+            log.warn("临时目录不支持原子移动, 使用普通移动: {} -> {}", tempFile, destination);
+            Files.move(tempFile, destination, StandardCopyOption.REPLACE_EXISTING);
+        }
+    }
+
+    protected void deleteQuietly(Path tempFile) {
+        if (tempFile == null) {
+            return;
+        }
+        try {
+            Files.deleteIfExists(tempFile);
+        } catch (IOException e) {
+            log.warn("临时文件删除失败: {}", tempFile, e);
         }
     }
-} 
\ No newline at end of file
+}
\ No newline at end of file
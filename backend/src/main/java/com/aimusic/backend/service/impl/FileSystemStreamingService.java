@@ -0,0 +1,151 @@
+package com.aimusic.backend.service.impl;
+
+import com.aimusic.backend.client.FfmpegEncoder;
+import com.aimusic.backend.config.StreamingConfig;
+import com.aimusic.backend.exception.StorageException;
+import com.aimusic.backend.exception.StorageFileNotFoundException;
+import com.aimusic.backend.service.StorageService;
+import com.aimusic.backend.service.StreamingService;
+import lombok.extern.slf4j.Slf4j;
+import org.apache.commons.io.FilenameUtils;
+import org.springframework.stereotype.Service;
+import org.springframework.util.FileSystemUtils;
+
+import java.io.IOException;
+import java.io.InputStream;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.Paths;
+import java.nio.file.StandardCopyOption;
+import java.security.MessageDigest;
+import java.security.NoSuchAlgorithmException;
+import java.util.HexFormat;
+import java.util.regex.Pattern;
+
+/**
+ * 文件系统分片流媒体服务实现类
+ * 分片由ffmpeg写入分片目录下的临时目录，完成后整体原子移动到 分片目录/ab/cd/音频基础名/，
+ * 客户端不会读到生成了一半的清单。清单引用的分片名固定，因此分片直接存放在本地目录而不经过存储服务；
+ * 生成后内容不再变化，可长期缓存
+ */
+@Slf4j
+@Service
+public class FileSystemStreamingService implements StreamingService {
+
+    private static final Pattern SOURCE_PATTERN = Pattern.compile("^[A-Za-z0-9][A-Za-z0-9._-]*$");
+    private static final Pattern STREAM_FILE_PATTERN = Pattern.compile("^[A-Za-z0-9][A-Za-z0-9._-]*\\.(m3u8|mpd|m4s)$");
+
+    private final StorageService storageService;
+    private final FfmpegEncoder ffmpegEncoder;
+    private final StreamingConfig streamingConfig;
+    private final Path rootLocation;
+
+    public FileSystemStreamingService(StorageService storageService,
+                                      FfmpegEncoder ffmpegEncoder,
+                                      StreamingConfig streamingConfig) {
+        this.storageService = storageService;
+        this.ffmpegEncoder = ffmpegEncoder;
+        this.streamingConfig = streamingConfig;
+        this.rootLocation = Paths.get(streamingConfig.getLocation());
+    }
+
+    @Override
+    public boolean isSegmented(String filename) {
+        return Files.isRegularFile(streamDirectory(filename).resolve(HLS_PLAYLIST));
+    }
+
+    @Override
+    public boolean segment(String filename) {
+        Path target = streamDirectory(filename);
+        if (Files.exists(target)) {
+            return false;
+        }
+
+        Path workDir = null;
+        try {
+            Files.createDirectories(rootLocation);
+            // 与目标目录在同一文件系统内，保证可以原子移动
+            workDir = Files.createTempDirectory(rootLocation, ".segment-");
+            Path manifest = workDir.resolve(DASH_MANIFEST);
+            Path source = storageService.load(filename);
+            int segmentDuration = streamingConfig.getSegmentDuration();
+            int bitrate = streamingConfig.getBitrate();
+            if (Files.isRegularFile(source)) {
+                ffmpegEncoder.segment(source, manifest, segmentDuration, bitrate);
+            } else {
+                try (InputStream input = storageService.loadAsResource(filename).getInputStream()) {
+                    ffmpegEncoder.segment(input, manifest, segmentDuration, bitrate);
+                }
+            }
+            if (!Files.isRegularFile(manifest) || !Files.isRegularFile(workDir.resolve(HLS_PLAYLIST))) {
+                throw new StorageException("分片清单未生成: " + filename);
+            }
+
+            Files.createDirectories(target.getParent());
+            Files.move(workDir, target, StandardCopyOption.ATOMIC_MOVE);
+            workDir = null;
+            log.info("音频分片完成: {}", filename);
+            return true;
+        } catch (IOException e) {
+            throw new StorageException("音频分片失败: " + filename, e);
+        } finally {
+            if (workDir != null) {
+                deleteQuietly(workDir);
+            }
+        }
+    }
+
+    @Override
+    public Path loadStreamFile(String filename, String name) {
+        if (name == null || !STREAM_FILE_PATTERN.matcher(name).matches()) {
+            throw new StorageFileNotFoundException("分片文件不存在: " + name);
+        }
+        Path file = streamDirectory(filename).resolve(name);
+        if (!Files.isRegularFile(file)) {
+            throw new StorageFileNotFoundException("分片文件不存在: " + filename + "/" + name);
+        }
+        return file;
+    }
+
+    @Override
+    public void deleteStream(String filename) {
+        Path directory = streamDirectory(filename);
+        try {
+            if (FileSystemUtils.deleteRecursively(directory)) {
+                log.info("分片删除成功: {}", filename);
+            }
+        } catch (IOException e) {
+            throw new StorageException("无法删除分片: " + filename, e);
+        }
+    }
+
+    /**
+     * 分片目录：分片根目录/key[0,2)/key[2,4)/音频基础名，key为音频文件名的SHA-256
+     */
+    private Path streamDirectory(String filename) {
+        if (filename == null || !SOURCE_PATTERN.matcher(filename).matches()) {
+            throw new StorageFileNotFoundException("音频文件不存在: " + filename);
+        }
+        String key = sha256Hex(filename);
+        return rootLocation.resolve(key.substring(0, 2)).resolve(key.substring(2, 4))
+                .resolve(FilenameUtils.getBaseName(filename));
+    }
+
+    private void deleteQuietly(Path directory) {
+        try {
+            FileSystemUtils.deleteRecursively(directory);
+        } catch (IOException e) {
+            log.warn("清理分片临时目录失败: {}", directory, e);
+        }
+    }
+
+    private static String sha256Hex(String value) {
+        try {
+            return HexFormat.of().formatHex(MessageDigest.getInstance("SHA-256")
+                    .digest(value.getBytes(StandardCharsets.UTF_8)));
+        } catch (NoSuchAlgorithmException e) {
+            throw new IllegalStateException("SHA-256 不可用", e);
+        }
+    }
+}
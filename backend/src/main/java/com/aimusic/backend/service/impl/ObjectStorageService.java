@@ -0,0 +1,371 @@
+package com.aimusic.backend.service.impl;
+
+import com.aimusic.backend.config.ObjectStorageConfig;
+import com.aimusic.backend.config.StorageConfig;
+import com.aimusic.backend.domain.dto.StoredFileDTO;
+import com.aimusic.backend.domain.repository.StoredFileRepository;
+import com.aimusic.backend.exception.StorageException;
+import com.aimusic.backend.exception.StorageFileNotFoundException;
+import jakarta.annotation.PreDestroy;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnProperty;
+import org.springframework.boot.context.event.ApplicationReadyEvent;
+import org.springframework.context.event.EventListener;
+import org.springframework.core.io.InputStreamResource;
+import org.springframework.core.io.Resource;
+import org.springframework.http.ContentDisposition;
+import org.springframework.http.MediaType;
+import org.springframework.http.MediaTypeFactory;
+import org.springframework.scheduling.concurrent.CustomizableThreadFactory;
+import org.springframework.stereotype.Service;
+import org.springframework.util.StringUtils;
+import software.amazon.awssdk.auth.credentials.AwsBasicCredentials;
+import software.amazon.awssdk.auth.credentials.AwsCredentialsProvider;
+import software.amazon.awssdk.auth.credentials.DefaultCredentialsProvider;
+import software.amazon.awssdk.auth.credentials.StaticCredentialsProvider;
+import software.amazon.awssdk.core.ResponseInputStream;
+import software.amazon.awssdk.core.exception.SdkException;
+import software.amazon.awssdk.core.sync.RequestBody;
+import software.amazon.awssdk.regions.Region;
+import software.amazon.awssdk.services.s3.S3Client;
+import software.amazon.awssdk.services.s3.S3ClientBuilder;
+import software.amazon.awssdk.services.s3.S3Configuration;
+import software.amazon.awssdk.services.s3.model.CompletedPart;
+import software.amazon.awssdk.services.s3.model.GetObjectResponse;
+import software.amazon.awssdk.services.s3.model.NoSuchBucketException;
+import software.amazon.awssdk.services.s3.model.NoSuchKeyException;
+import software.amazon.awssdk.services.s3.model.ObjectIdentifier;
+import software.amazon.awssdk.services.s3.model.S3Object;
+import software.amazon.awssdk.services.s3.presigner.S3Presigner;
+
+import java.io.IOException;
+import java.io.InputStream;
+import java.net.URI;
+import java.net.URISyntaxException;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Path;
+import java.nio.file.Paths;
+import java.security.MessageDigest;
+import java.time.Duration;
+import java.time.LocalDateTime;
+import java.util.ArrayList;
+import java.util.HexFormat;
+import java.util.List;
+import java.util.Optional;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.CompletionException;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Semaphore;
+import java.util.stream.Collectors;
+import java.util.stream.Stream;
+
+/**
+ * 对象存储服务实现类
+ * 文件保存在兼容S3协议的对象存储中，多个后端实例共享同一存储桶。
+ * 大文件按分片并行上传，内存占用为 分片大小 × 并发分片数；
+ * 下载通过预签名地址直接从对象存储获取，音频内容不经过JVM
+ */
+@Slf4j
+@Service
+@ConditionalOnProperty(prefix = "storage", name = "type", havingValue = "object")
+public class ObjectStorageService extends AbstractStorageService {
+
+    private final ObjectStorageConfig objectStorageConfig;
+    private final String bucket;
+    private final S3Client s3Client;
+    private final S3Presigner s3Presigner;
+    private final ExecutorService uploadExecutor;
+
+    public ObjectStorageService(StorageConfig storageConfig,
+                                ObjectStorageConfig objectStorageConfig,
+                                StoredFileRepository storedFileRepository) {
+        super(storageConfig, storedFileRepository);
+        this.objectStorageConfig = objectStorageConfig;
+        this.bucket = objectStorageConfig.getBucket();
+
+        AwsCredentialsProvider credentials = StringUtils.hasText(objectStorageConfig.getAccessKey())
+                ? StaticCredentialsProvider.create(AwsBasicCredentials.create(
+                        objectStorageConfig.getAccessKey(), objectStorageConfig.getSecretKey()))
+                : DefaultCredentialsProvider.create();
+        S3Configuration s3Configuration = S3Configuration.builder()
+                .pathStyleAccessEnabled(objectStorageConfig.isPathStyleAccess())
+                .build();
+        Region region = Region.of(objectStorageConfig.getRegion());
+
+        S3ClientBuilder clientBuilder = S3Client.builder()
+                .region(region)
+                .credentialsProvider(credentials)
+                .serviceConfiguration(s3Configuration);
+        S3Presigner.Builder presignerBuilder = S3Presigner.builder()
+                .region(region)
+                .credentialsProvider(credentials)
+                .serviceConfiguration(s3Configuration);
+        if (StringUtils.hasText(objectStorageConfig.getEndpoint())) {
+            URI endpoint = URI.create(objectStorageConfig.getEndpoint());
+            clientBuilder.endpointOverride(endpoint);
+            presignerBuilder.endpointOverride(endpoint);
+        }
+        this.s3Client = clientBuilder.build();
+        this.s3Presigner = presignerBuilder.build();
+        this.uploadExecutor = Executors.newCachedThreadPool(new CustomizableThreadFactory("object-storage-upload-"));
+    }
+
+    @Override
+    public void init() {
+        try {
+            s3Client.headBucket(b -> b.bucket(bucket));
+        } catch (NoSuchBucketException e) {
+            s3Client.createBucket(b -> b.bucket(bucket));
+            log.info("创建存储桶: {}", bucket);
+        } catch (SdkException e) {
+            throw new StorageException("无法初始化对象存储", e);
+        }
+        log.info("对象存储服务初始化成功, bucket: {}", bucket);
+    }
+
+    /**
+     * 应用启动后确保存储桶存在
+     */
+    @EventListener(ApplicationReadyEvent.class)
+    public void onApplicationReady() {
+        init();
+    }
+
+    @PreDestroy
+    public void close() {
+        uploadExecutor.shutdown();
+        s3Presigner.close();
+        s3Client.close();
+    }
+
+    @Override
+    public StoredFileDTO store(InputStream content, String originalFilename) {
+        if (originalFilename != null && originalFilename.length() > getStorageConfig().getMaxFilenameLength()) {
+            throw new StorageException("文件名长度超过限制");
+        }
+
+        // 验证文件类型
+        validateFileType(originalFilename);
+
+        // 生成文件名
+        String filename = generateFilename(originalFilename);
+        String contentType = MediaTypeFactory.getMediaType(filename)
+                .orElse(MediaType.APPLICATION_OCTET_STREAM).toString();
+
+        try {
+            MessageDigest digest = newDigest();
+            byte[] firstPart = readPart(content, digest);
+            if (firstPart.length == 0) {
+                throw new StorageException("无法存储空文件");
+            }
+
+            long size;
+            if (firstPart.length < objectStorageConfig.getPartSize()) {
+                checkSize(firstPart.length);
+                s3Client.putObject(b -> b.bucket(bucket).key(filename).contentType(contentType),
+                        RequestBody.fromBytes(firstPart));
+                size = firstPart.length;
+            } else {
+                size = multipartUpload(filename, contentType, firstPart, content, digest);
+            }
+
+            String checksum = HexFormat.of().formatHex(digest.digest());
+            log.info("文件存储成功: {}, 大小: {}, sha256: {}", filename, size, checksum);
+            return toDTO(indexFile(filename, size, checksum, LocalDateTime.now()));
+        } catch (IOException | SdkException e) {
+            throw new StorageException("文件存储失败", e);
+        }
+    }
+
+    /**
+     * 分片上传：读取下一片的同时，已读取的分片在线程池中并行上传
+     * 同时在途的分片数受 uploadConcurrency 限制；任一分片失败时中止整个上传
+     *
+     * @return 文件大小
+     */
+    private long multipartUpload(String key, String contentType, byte[] firstPart,
+                                 InputStream content, MessageDigest digest) throws IOException {
+        String uploadId = s3Client.createMultipartUpload(b -> b.bucket(bucket).key(key).contentType(contentType))
+                .uploadId();
+        Semaphore inFlight = new Semaphore(objectStorageConfig.getUploadConcurrency());
+        List<CompletableFuture<CompletedPart>> parts = new ArrayList<>();
+        long size = 0;
+        try {
+            byte[] part = firstPart;
+            int partNumber = 1;
+            while (part.length > 0) {
+                size += part.length;
+                checkSize(size);
+                inFlight.acquire();
+                if (parts.stream().anyMatch(CompletableFuture::isCompletedExceptionally)) {
+                    inFlight.release();
+                    break;
+                }
+                parts.add(uploadPartAsync(key, uploadId, partNumber++, part)
+                        .whenComplete((completed, error) -> inFlight.release()));
+                if (part.length < objectStorageConfig.getPartSize()) {
+                    break;
+                }
+                part = readPart(content, digest);
+            }
+
+            List<CompletedPart> completedParts = parts.stream()
+                    .map(CompletableFuture::join)
+                    .collect(Collectors.toList());
+            s3Client.completeMultipartUpload(b -> b.bucket(bucket).key(key).uploadId(uploadId)
+                    .multipartUpload(m -> m.parts(completedParts)));
+            log.debug("分片上传完成: {}, 分片数: {}", key, completedParts.size());
+            return size;
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+            abortUpload(key, uploadId, parts);
+            throw new StorageException("文件上传被中断", e);
+        } catch (CompletionException e) {
+            abortUpload(key, uploadId, parts);
+            throw new StorageException("分片上传失败", e.getCause());
+        } catch (IOException | RuntimeException e) {
+            abortUpload(key, uploadId, parts);
+            throw e;
+        }
+    }
+
+    private CompletableFuture<CompletedPart> uploadPartAsync(String key, String uploadId, int partNumber, byte[] data) {
+        return CompletableFuture.supplyAsync(() -> {
+            String eTag = s3Client.uploadPart(b -> b.bucket(bucket).key(key).uploadId(uploadId).partNumber(partNumber),
+                    RequestBody.fromBytes(data)).eTag();
+            return CompletedPart.builder().partNumber(partNumber).eTag(eTag).build();
+        }, uploadExecutor);
+    }
+
+    private void abortUpload(String key, String uploadId, List<CompletableFuture<CompletedPart>> parts) {
+        parts.forEach(part -> part.cancel(false));
+        try {
+            s3Client.abortMultipartUpload(b -> b.bucket(bucket).key(key).uploadId(uploadId));
+        } catch (SdkException e) {
+            log.warn("中止分片上传失败, key: {}, uploadId: {}", key, uploadId, e);
+        }
+    }
+
+    /**
+     * 读取一个分片（最后一片可能不足分片大小），同时更新校验和
+     */
+    private byte[] readPart(InputStream content, MessageDigest digest) throws IOException {
+        byte[] part = content.readNBytes(objectStorageConfig.getPartSize());
+        digest.update(part);
+        return part;
+    }
+
+    private void checkSize(long size) {
+        if (size > getStorageConfig().getMaxFileSize()) {
+            throw new StorageException("文件大小超过限制");
+        }
+    }
+
+    @Override
+    public Stream<Path> loadAll() {
+        try {
+            return s3Client.listObjectsV2Paginator(b -> b.bucket(bucket)).contents().stream()
+                    .map(S3Object::key)
+                    .map(Paths::get);
+        } catch (SdkException e) {
+            throw new StorageException("无法读取存储的文件", e);
+        }
+    }
+
+    /**
+     * 对象存储没有本地路径，返回以对象键表示的相对路径
+     */
+    @Override
+    public Path load(String filename) {
+        return Paths.get(filename);
+    }
+
+    @Override
+    public Resource loadAsResource(String filename) {
+        try {
+            ResponseInputStream<GetObjectResponse> object = s3Client.getObject(b -> b.bucket(bucket).key(filename));
+            long contentLength = object.response().contentLength();
+            return new InputStreamResource(object, filename) {
+                @Override
+                public String getFilename() {
+                    return filename;
+                }
+
+                @Override
+                public long contentLength() {
+                    return contentLength;
+                }
+            };
+        } catch (NoSuchKeyException e) {
+            throw new StorageFileNotFoundException("无法读取文件: " + filename, e);
+        } catch (SdkException e) {
+            throw new StorageException("无法读取文件: " + filename, e);
+        }
+    }
+
+    @Override
+    public Optional<URI> presignedDownloadUrl(String filename) {
+        String disposition = ContentDisposition.attachment()
+                .filename(filename, StandardCharsets.UTF_8)
+                .build()
+                .toString();
+        try {
+            return Optional.of(s3Presigner.presignGetObject(p -> p
+                    .signatureDuration(Duration.ofMillis(objectStorageConfig.getPresignTtl()))
+                    .getObjectRequest(g -> g.bucket(bucket).key(filename).responseContentDisposition(disposition)))
+                    .url().toURI());
+        } catch (URISyntaxException e) {
+            throw new StorageException("无法生成下载地址: " + filename, e);
+        }
+    }
+
+    @Override
+    public void delete(String filename) {
+        try {
+            s3Client.deleteObject(b -> b.bucket(bucket).key(filename));
+            getStoredFileRepository().deleteById(filename);
+            log.info("文件删除成功: {}", filename);
+        } catch (SdkException e) {
+            throw new StorageException("无法删除文件: " + filename, e);
+        }
+    }
+
+    @Override
+    public void deleteAll() {
+        try {
+            s3Client.listObjectsV2Paginator(b -> b.bucket(bucket)).forEach(page -> {
+                if (page.contents().isEmpty()) {
+                    return;
+                }
+                List<ObjectIdentifier> keys = page.contents().stream()
+                        .map(object -> ObjectIdentifier.builder().key(object.key()).build())
+                        .collect(Collectors.toList());
+                s3Client.deleteObjects(b -> b.bucket(bucket).delete(d -> d.objects(keys).quiet(true)));
+            });
+            getStoredFileRepository().deleteAllInBatch();
+            log.info("所有文件删除成功");
+        } catch (SdkException e) {
+            throw new StorageException("无法删除文件", e);
+        }
+    }
+
+    @Override
+    public boolean exists(String filename) {
+        try {
+            s3Client.headObject(b -> b.bucket(bucket).key(filename));
+            return true;
+        } catch (NoSuchKeyException e) {
+            return false;
+        }
+    }
+
+    @Override
+    public long getFileSize(String filename) {
+        try {
+            return s3Client.headObject(b -> b.bucket(bucket).key(filename)).contentLength();
+        } catch (SdkException e) {
+            throw new StorageException("无法获取文件大小: " + filename, e);
+        }
+    }
+}
@@ -0,0 +1,233 @@
+package com.aimusic.backend.service.impl;
+
+import com.aimusic.backend.config.StorageConfig;
+import com.aimusic.backend.service.FileDownloadService;
+import jakarta.servlet.http.HttpServletRequest;
+import jakarta.servlet.http.HttpServletResponse;
+import lombok.RequiredArgsConstructor;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.http.ContentDisposition;
+import org.springframework.http.HttpHeaders;
+import org.springframework.http.HttpMethod;
+import org.springframework.http.HttpRange;
+import org.springframework.http.MediaType;
+import org.springframework.http.MediaTypeFactory;
+import org.springframework.stereotype.Service;
+import org.springframework.util.MimeTypeUtils;
+import org.springframework.web.context.request.ServletWebRequest;
+
+import java.io.IOException;
+import java.io.OutputStream;
+import java.nio.channels.Channels;
+import java.nio.channels.FileChannel;
+import java.nio.channels.WritableByteChannel;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.StandardOpenOption;
+import java.nio.file.attribute.BasicFileAttributes;
+import java.util.ArrayList;
+import java.util.List;
+
+/**
+ * 支持Range的文件下载服务实现类
+ * 运行在Tomcat上时通过sendfile由内核直接把文件写入socket，不经过JVM堆；
+ * 其他容器或多段范围时使用 FileChannel.transferTo 传输
+ */
+@Slf4j
+@Service
+@RequiredArgsConstructor
+public class RangeFileDownloadService implements FileDownloadService {
+
+    static final String SENDFILE_SUPPORT_ATTR = "org.apache.tomcat.sendfile.support";
+    static final String SENDFILE_FILENAME_ATTR = "org.apache.tomcat.sendfile.filename";
+    static final String SENDFILE_START_ATTR = "org.apache.tomcat.sendfile.start";
+    static final String SENDFILE_END_ATTR = "org.apache.tomcat.sendfile.end";
+
+    private final StorageConfig storageConfig;
+
+    @Override
+    public void download(Path file, HttpServletRequest request, HttpServletResponse response) throws IOException {
+        String filename = file.getFileName().toString();
+        write(file, MediaTypeFactory.getMediaType(filename).orElse(MediaType.APPLICATION_OCTET_STREAM),
+                ContentDisposition.attachment().filename(filename, StandardCharsets.UTF_8).build(), request, response);
+    }
+
+    @Override
+    public void stream(Path file, MediaType contentType,
+                       HttpServletRequest request, HttpServletResponse response) throws IOException {
+        write(file, contentType, ContentDisposition.inline().build(), request, response);
+    }
+
+    private void write(Path file, MediaType contentType, ContentDisposition disposition,
+                       HttpServletRequest request, HttpServletResponse response) throws IOException {
+        BasicFileAttributes attributes = Files.readAttributes(file, BasicFileAttributes.class);
+        long length = attributes.size();
+        // HTTP日期精确到秒
+        long lastModified = attributes.lastModifiedTime().toMillis() / 1000 * 1000;
+        String etag = "\"" + Long.toHexString(length) + "-" + Long.toHexString(lastModified) + "\"";
+
+        // 处理 If-None-Match / If-Modified-Since / If-Match / If-Unmodified-Since，同时写入ETag和Last-Modified
+        if (new ServletWebRequest(request, response).checkNotModified(etag, lastModified)) {
+            return;
+        }
+
+        response.setHeader(HttpHeaders.ACCEPT_RANGES, "bytes");
+        response.setHeader(HttpHeaders.CONTENT_DISPOSITION, disposition.toString());
+        boolean head = HttpMethod.HEAD.matches(request.getMethod());
+
+        List<HttpRange> ranges = requestedRanges(request, etag, lastModified);
+        if (ranges.isEmpty()) {
+            response.setStatus(HttpServletResponse.SC_OK);
+            response.setContentType(contentType.toString());
+            transfer(file, 0, length, head, request, response);
+            return;
+        }
+
+        List<long[]> regions = new ArrayList<>();
+        long total = 0;
+        for (HttpRange range : ranges) {
+            long start = range.getRangeStart(length);
+            if (start >= length) {
+                continue;
+            }
+            long end = range.getRangeEnd(length);
+            regions.add(new long[] {start, end});
+            total += end - start + 1;
+        }
+        if (regions.isEmpty()) {
+            response.setStatus(HttpServletResponse.SC_REQUESTED_RANGE_NOT_SATISFIABLE);
+            response.setHeader(HttpHeaders.CONTENT_RANGE, "bytes */" + length);
+            return;
+        }
+        if (total > length) {
+            // 重叠的多段范围总长超过文件本身，直接返回完整内容
+            response.setStatus(HttpServletResponse.SC_OK);
+            response.setContentType(contentType.toString());
+            transfer(file, 0, length, head, request, response);
+            return;
+        }
+
+        response.setStatus(HttpServletResponse.SC_PARTIAL_CONTENT);
+        if (regions.size() == 1) {
+            long[] region = regions.get(0);
+            response.setContentType(contentType.toString());
+            response.setHeader(HttpHeaders.CONTENT_RANGE, contentRange(region, length));
+            transfer(file, region[0], region[1] - region[0] + 1, head, request, response);
+        } else {
+            writeMultipart(file, regions, length, contentType, head, response);
+        }
+    }
+
+    /**
+     * 解析Range请求头，If-Range校验不通过或格式错误时返回空列表（返回完整内容）
+     */
+    private List<HttpRange> requestedRanges(HttpServletRequest request, String etag, long lastModified) {
+        String range = request.getHeader(HttpHeaders.RANGE);
+        if (range == null) {
+            return List.of();
+        }
+        String ifRange = request.getHeader(HttpHeaders.IF_RANGE);
+        if (ifRange != null && !ifRange.equals(etag)) {
+            long ifRangeDate = parseDate(request, ifRange);
+            if (ifRangeDate == -1 || ifRangeDate != lastModified) {
+                return List.of();
+            }
+        }
+        try {
+            return HttpRange.parseRanges(range);
+        } catch (IllegalArgumentException e) {
+            log.debug("忽略无效的Range请求头: {}", range);
+            return List.of();
+        }
+    }
+
+    private long parseDate(HttpServletRequest request, String value) {
+        if (value.startsWith("\"") || value.startsWith("W/")) {
+            return -1;
+        }
+        try {
+            return request.getDateHeader(HttpHeaders.IF_RANGE);
+        } catch (IllegalArgumentException e) {
+            return -1;
+        }
+    }
+
+    /**
+     * 多段范围以 multipart/byteranges 返回
+     */
+    private void writeMultipart(Path file, List<long[]> regions, long length, MediaType contentType,
+                                boolean head, HttpServletResponse response) throws IOException {
+        String boundary = new String(MimeTypeUtils.generateMultipartBoundary(), StandardCharsets.US_ASCII);
+        response.setContentType("multipart/byteranges; boundary=" + boundary);
+
+        List<byte[]> partHeaders = new ArrayList<>();
+        long contentLength = 0;
+        for (long[] region : regions) {
+            byte[] partHeader = ("\r\n--" + boundary + "\r\n"
+                    + HttpHeaders.CONTENT_TYPE + ": " + contentType + "\r\n"
+                    + HttpHeaders.CONTENT_RANGE + ": " + contentRange(region, length) + "\r\n\r\n")
+                    .getBytes(StandardCharsets.US_ASCII);
+            partHeaders.add(partHeader);
+            contentLength += partHeader.length + region[1] - region[0] + 1;
+        }
+        byte[] end = ("\r\n--" + boundary + "--\r\n").getBytes(StandardCharsets.US_ASCII);
+        contentLength += end.length;
+        response.setContentLengthLong(contentLength);
+        if (head) {
+            return;
+        }
+
+        OutputStream out = response.getOutputStream();
+        WritableByteChannel target = Channels.newChannel(out);
+        try (FileChannel channel = FileChannel.open(file, StandardOpenOption.READ)) {
+            for (int i = 0; i < regions.size(); i++) {
+                long[] region = regions.get(i);
+                out.write(partHeaders.get(i));
+                transferTo(channel, region[0], region[1] - region[0] + 1, target);
+            }
+        }
+        out.write(end);
+        out.flush();
+    }
+
+    /**
+     * 传输文件的一段，Tomcat支持sendfile且数据量足够大时交由容器零拷贝发送
+     */
+    private void transfer(Path file, long start, long count, boolean head,
+                          HttpServletRequest request, HttpServletResponse response) throws IOException {
+        response.setContentLengthLong(count);
+        if (head || count == 0) {
+            return;
+        }
+        if (count >= storageConfig.getSendfileMinSize()
+                && Boolean.TRUE.equals(request.getAttribute(SENDFILE_SUPPORT_ATTR))) {
+            request.setAttribute(SENDFILE_FILENAME_ATTR, file.toRealPath().toString());
+            request.setAttribute(SENDFILE_START_ATTR, start);
+            request.setAttribute(SENDFILE_END_ATTR, start + count);
+            return;
+        }
+        try (FileChannel channel = FileChannel.open(file, StandardOpenOption.READ)) {
+            OutputStream out = response.getOutputStream();
+            transferTo(channel, start, count, Channels.newChannel(out));
+            out.flush();
+        }
+    }
+
+    private void transferTo(FileChannel channel, long position, long count,
+                            WritableByteChannel target) throws IOException {
+        long remaining = count;
+        while (remaining > 0) {
+            long transferred = channel.transferTo(position, remaining, target);
+            if (transferred <= 0) {
+                break;
+            }
+            position += transferred;
+            remaining -= transferred;
+        }
+    }
+
+    private String contentRange(long[] region, long length) {
+        return "bytes " + region[0] + "-" + region[1] + "/" + length;
+    }
+}
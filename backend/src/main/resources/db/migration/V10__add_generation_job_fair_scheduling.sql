@@ -0,0 +1,9 @@
+-- 生成任务按用户和优先级公平调度
+ALTER TABLE generation_job ADD COLUMN IF NOT EXISTS user_id UUID;
+ALTER TABLE generation_job ADD COLUMN IF NOT EXISTS priority VARCHAR(20) NOT NULL DEFAULT 'INTERACTIVE';
+
+UPDATE generation_job SET user_id = (SELECT m.user_id FROM music m WHERE m.id = generation_job.music_id)
+WHERE user_id IS NULL;
+
+-- 领取时按用户和优先级分组取各自最早的任务
+CREATE INDEX IF NOT EXISTS idx_generation_job_fair_claim ON generation_job (status, user_id, priority, available_at);
@@ -0,0 +1,20 @@
+-- 创建音乐生成任务队列表
+CREATE TABLE IF NOT EXISTS generation_job (
+    id UUID PRIMARY KEY,
+    music_id UUID NOT NULL REFERENCES music(id) ON DELETE CASCADE,
+    status VARCHAR(20) NOT NULL,
+    attempts INTEGER NOT NULL DEFAULT 0,
+    max_attempts INTEGER NOT NULL DEFAULT 3,
+    available_at TIMESTAMP NOT NULL DEFAULT CURRENT_TIMESTAMP,
+    lease_owner VARCHAR(255),
+    lease_expires_at TIMESTAMP,
+    last_error TEXT,
+    created_at TIMESTAMP NOT NULL DEFAULT CURRENT_TIMESTAMP,
+    updated_at TIMESTAMP NOT NULL DEFAULT CURRENT_TIMESTAMP
+);
+
+-- 领取待执行任务
+CREATE INDEX IF NOT EXISTS idx_generation_job_status_available ON generation_job (status, available_at);
+
+-- 回收租约过期的任务
+CREATE INDEX IF NOT EXISTS idx_generation_job_status_lease ON generation_job (status, lease_expires_at);
@@ -0,0 +1,9 @@
+-- 相同生成请求去重：请求摘要与复用来源
+ALTER TABLE music ADD COLUMN IF NOT EXISTS request_hash VARCHAR(64);
+ALTER TABLE music ADD COLUMN IF NOT EXISTS source_music_id UUID;
+
+-- 按请求摘要查找可复用的结果和进行中的相同请求
+CREATE INDEX IF NOT EXISTS idx_music_request_hash ON music (request_hash, status);
+
+-- 源请求状态变化时查找跟随的音乐
+CREATE INDEX IF NOT EXISTS idx_music_source_music_id ON music (source_music_id);
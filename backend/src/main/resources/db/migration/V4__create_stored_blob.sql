@@ -0,0 +1,8 @@
+-- 内容寻址存储：按SHA-256记录文件内容及其引用计数
+CREATE TABLE IF NOT EXISTS stored_blob (
+    hash VARCHAR(64) PRIMARY KEY,
+    size BIGINT NOT NULL,
+    ref_count INTEGER NOT NULL DEFAULT 0,
+    created_at TIMESTAMP NOT NULL DEFAULT CURRENT_TIMESTAMP,
+    updated_at TIMESTAMP NOT NULL DEFAULT CURRENT_TIMESTAMP
+);
@@ -0,0 +1,11 @@
+-- 存储文件索引：列表查询不再遍历磁盘目录
+CREATE TABLE IF NOT EXISTS stored_file (
+    filename VARCHAR(255) PRIMARY KEY,
+    size BIGINT NOT NULL,
+    checksum VARCHAR(64),
+    modified_at TIMESTAMP NOT NULL,
+    created_at TIMESTAMP NOT NULL DEFAULT CURRENT_TIMESTAMP
+);
+
+-- 内容寻址存储删除最后一个引用时按校验和清理索引
+CREATE INDEX IF NOT EXISTS idx_stored_file_checksum ON stored_file (checksum);
@@ -0,0 +1,20 @@
+-- 音乐转码版本表：同一音频的不同码率/格式版本
+CREATE TABLE IF NOT EXISTS music_rendition (
+    id UUID PRIMARY KEY,
+    music_id UUID NOT NULL REFERENCES music(id) ON DELETE CASCADE,
+    source_filename VARCHAR(255) NOT NULL,
+    name VARCHAR(50) NOT NULL,
+    quality VARCHAR(20) NOT NULL,
+    codec VARCHAR(20) NOT NULL,
+    bitrate INTEGER NOT NULL,
+    filename VARCHAR(255) NOT NULL,
+    size BIGINT NOT NULL,
+    created_at TIMESTAMP NOT NULL DEFAULT CURRENT_TIMESTAMP,
+    CONSTRAINT uk_music_rendition_music_name UNIQUE (music_id, name)
+);
+
+-- 下载时按源文件选择版本，复用结果的音乐共享同一源文件的版本
+CREATE INDEX IF NOT EXISTS idx_music_rendition_source ON music_rendition (source_filename);
+
+-- 删除时检查版本文件是否仍被引用
+CREATE INDEX IF NOT EXISTS idx_music_rendition_filename ON music_rendition (filename);
@@ -0,0 +1,5 @@
+-- 音乐列表按 (created_at, id) 游标分页，索引顺序与查询排序一致，翻页直接从游标位置开始扫描
+CREATE INDEX IF NOT EXISTS idx_music_created_at_id ON music (created_at DESC, id DESC);
+
+-- 按用户查询音乐列表
+CREATE INDEX IF NOT EXISTS idx_music_user_created_at ON music (user_id, created_at DESC);
@@ -0,0 +1,2 @@
+-- 状态回调和轮询按Suno生成ID查找音乐
+CREATE INDEX IF NOT EXISTS idx_music_generation_id ON music (generation_id);
@@ -15,6 +15,7 @@ import org.springframework.web.client.RestTemplate;
 import org.mockito.ArgumentMatchers;
 
 import java.util.HashMap;
+import java.util.List;
 import java.util.Map;
 
 import static org.junit.jupiter.api.Assertions.*;
@@ -222,6 +223,41 @@ class SunoApiClientTest {
         assertEquals("API调用失败: Not Found", exception.getMessage());
     }
 
+    @Test
+    void getMusicStatuses_Success() {
+        // Given
+        HttpHeaders headers = new HttpHeaders();
+        headers.add("Cookie", COOKIE);
+
+        List<Map<String, Object>> responseBody = List.of(
+            Map.of("id", "id-1", "status", "complete"),
+            Map.of("id", "id-2", "status", "streaming")
+        );
+        ResponseEntity<List<Map<String, Object>>> response = ResponseEntity.ok(responseBody);
+
+        when(restTemplate.exchange(
+            eq(API_URL + "/get?ids=id-1,id-2"),
+            eq(HttpMethod.GET),
+            argThat(req -> req.getHeaders().equals(headers)),
+            any(ParameterizedTypeReference.class)
+        )).thenReturn(response);
+
+        // When
+        List<Map<String, Object>> result = sunoApiClient.getMusicStatuses(List.of("id-1", "id-2"));
+
+        // Then
+        assertEquals(responseBody, result);
+    }
+
+    @Test
+    void getMusicStatuses_EmptyIds() {
+        // When & Then
+        IllegalArgumentException exception = assertThrows(IllegalArgumentException.class,
+            () -> sunoApiClient.getMusicStatuses(List.of()));
+        assertEquals("音乐ID不能为空", exception.getMessage());
+        verifyNoInteractions(restTemplate);
+    }
+
     @Test
     void getQuota_Success() {
         // Given
@@ -0,0 +1,178 @@
+package com.aimusic.backend.client;
+
+import com.aimusic.backend.config.SunoApiConfig;
+import com.aimusic.backend.config.SunoGovernorConfig;
+import com.aimusic.backend.config.SunoHttpClientConfig;
+import com.aimusic.backend.exception.ExternalApiException;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.sun.net.httpserver.HttpExchange;
+import com.sun.net.httpserver.HttpServer;
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import org.apache.hc.client5.http.impl.async.CloseableHttpAsyncClient;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.test.util.ReflectionTestUtils;
+
+import java.io.IOException;
+import java.io.OutputStream;
+import java.net.InetSocketAddress;
+import java.nio.charset.StandardCharsets;
+import java.util.Map;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.concurrent.atomic.AtomicReference;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertInstanceOf;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+/**
+ * SunoAsyncApiClient测试类
+ * 使用本地桩服务器模拟Suno API
+ */
+class SunoAsyncApiClientTest {
+
+    private static final String COOKIE = "test-cookie";
+
+    private HttpServer server;
+    private CloseableHttpAsyncClient httpClient;
+    private SunoAsyncApiClient sunoAsyncApiClient;
+    private final AtomicReference<String> lastCookie = new AtomicReference<>();
+    private final AtomicReference<String> lastBody = new AtomicReference<>();
+    private final AtomicInteger rateLimitedResponses = new AtomicInteger();
+
+    @BeforeEach
+    void setUp() throws IOException {
+        server = HttpServer.create(new InetSocketAddress("127.0.0.1", 0), 0);
+        server.createContext("/generate", exchange -> {
+            lastCookie.set(exchange.getRequestHeaders().getFirst("Cookie"));
+            lastBody.set(new String(exchange.getRequestBody().readAllBytes(), StandardCharsets.UTF_8));
+            if (rateLimitedResponses.getAndUpdate(n -> Math.max(0, n - 1)) > 0) {
+                respond(exchange, 429, "rate limited");
+                return;
+            }
+            respond(exchange, 200, "{\"id\":\"test-id\"}");
+        });
+        server.createContext("/get", exchange ->
+                respond(exchange, 200, "{\"status\":\"completed\",\"ids\":\""
+                        + exchange.getRequestURI().getQuery() + "\"}"));
+        server.createContext("/quota", exchange ->
+                respond(exchange, 503, "upstream unavailable"));
+        server.start();
+
+        httpClient = new SunoHttpClientConfig().sunoHttpAsyncClient(new SunoApiConfig());
+        sunoAsyncApiClient = new SunoAsyncApiClient(httpClient, new ObjectMapper());
+        ReflectionTestUtils.setField(sunoAsyncApiClient, "apiUrl",
+                "http://127.0.0.1:" + server.getAddress().getPort());
+        ReflectionTestUtils.setField(sunoAsyncApiClient, "cookie", COOKIE);
+    }
+
+    @AfterEach
+    void tearDown() throws IOException {
+        httpClient.close();
+        server.stop(0);
+    }
+
+    @Test
+    void generateMusic_Success() throws Exception {
+        // When
+        String result = sunoAsyncApiClient.generateMusic("test prompt").get(5, TimeUnit.SECONDS);
+
+        // Then
+        assertEquals("test-id", result);
+        assertEquals(COOKIE, lastCookie.get());
+        assertTrue(lastBody.get().contains("\"prompt\":\"test prompt\""));
+    }
+
+    @Test
+    void generateMusic_EmptyPrompt() {
+        // When & Then
+        IllegalArgumentException exception = assertThrows(IllegalArgumentException.class,
+            () -> sunoAsyncApiClient.generateMusic(" "));
+        assertEquals("提示词不能为空", exception.getMessage());
+    }
+
+    @Test
+    void getMusicStatus_Success() throws Exception {
+        // When
+        Map<String, Object> result = sunoAsyncApiClient.getMusicStatus("test-id").get(5, TimeUnit.SECONDS);
+
+        // Then
+        assertEquals("completed", result.get("status"));
+        assertEquals("ids=test-id", result.get("ids"));
+    }
+
+    @Test
+    void getQuota_ServerError() {
+        // When
+        CompletableFuture<Map<String, Object>> future = sunoAsyncApiClient.getQuota();
+
+        // Then
+        ExecutionException exception = assertThrows(ExecutionException.class,
+            () -> future.get(5, TimeUnit.SECONDS));
+        assertInstanceOf(ExternalApiException.class, exception.getCause());
+        assertEquals("外部API服务器错误: upstream unavailable", exception.getCause().getMessage());
+    }
+
+    @Test
+    void generateMusic_RateLimited() {
+        // Given
+        rateLimitedResponses.set(1);
+
+        // When
+        CompletableFuture<String> future = sunoAsyncApiClient.generateMusic("test prompt");
+
+        // Then
+        ExecutionException exception = assertThrows(ExecutionException.class,
+            () -> future.get(5, TimeUnit.SECONDS));
+        ExternalApiException cause = assertInstanceOf(ExternalApiException.class, exception.getCause());
+        assertEquals(429, cause.getStatusCode());
+        assertTrue(SunoRateGovernor.isRateLimited(exception));
+    }
+
+    @Test
+    void generateMusic_RetriedByGovernor_whenRateLimited() {
+        // Given
+        rateLimitedResponses.set(1);
+        SunoGovernorConfig governorConfig = new SunoGovernorConfig();
+        governorConfig.setRateLimitCooldown(20);
+        SunoRateGovernor governor = new SunoRateGovernor(null, governorConfig, new SimpleMeterRegistry());
+        double initialLimit = governor.getLimit();
+
+        // When
+        String result = governor.execute("user", () -> sunoAsyncApiClient.generateMusic("test prompt").join());
+
+        // Then
+        assertEquals("test-id", result);
+        assertEquals(0, rateLimitedResponses.get());
+        assertTrue(governor.getLimit() < initialLimit);
+    }
+
+    @Test
+    void apiError_ConnectionRefused() {
+        // Given
+        server.stop(0);
+
+        // When
+        CompletableFuture<String> future = sunoAsyncApiClient.generateMusic("test prompt");
+
+        // Then
+        ExecutionException exception = assertThrows(ExecutionException.class,
+            () -> future.get(10, TimeUnit.SECONDS));
+        assertInstanceOf(ExternalApiException.class, exception.getCause());
+        assertTrue(exception.getCause().getMessage().startsWith("API调用失败"));
+    }
+
+    private static void respond(HttpExchange exchange, int status, String body) throws IOException {
+        byte[] bytes = body.getBytes(StandardCharsets.UTF_8);
+        exchange.getResponseHeaders().add("Content-Type", "application/json");
+        exchange.sendResponseHeaders(status, bytes.length);
+        try (OutputStream os = exchange.getResponseBody()) {
+            os.write(bytes);
+        }
+    }
+}
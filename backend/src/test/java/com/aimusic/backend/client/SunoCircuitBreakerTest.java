@@ -0,0 +1,187 @@
+package com.aimusic.backend.client;
+
+import com.aimusic.backend.config.RestTemplateResponseErrorHandler;
+import com.aimusic.backend.config.SunoCircuitBreakerConfig;
+import com.aimusic.backend.exception.ExternalApiException;
+import com.aimusic.backend.exception.SunoUnavailableException;
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.http.HttpStatus;
+import org.springframework.test.util.ReflectionTestUtils;
+import org.springframework.test.web.client.ExpectedCount;
+import org.springframework.test.web.client.MockRestServiceServer;
+import org.springframework.web.client.RestTemplate;
+
+import java.net.SocketTimeoutException;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertFalse;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+import static org.springframework.test.web.client.match.MockRestRequestMatchers.requestTo;
+import static org.springframework.test.web.client.response.MockRestResponseCreators.withStatus;
+
+/**
+ * Suno熔断器测试类
+ */
+class SunoCircuitBreakerTest {
+
+    private SunoCircuitBreakerConfig config;
+    private SunoCircuitBreaker circuitBreaker;
+
+    @BeforeEach
+    void setUp() {
+        config = new SunoCircuitBreakerConfig();
+        config.setSlidingWindowSize(10);
+        config.setMinimumCalls(4);
+        config.setFailureRateThreshold(50);
+        config.setOpenDuration(50);
+        config.setHalfOpenProbes(2);
+        circuitBreaker = new SunoCircuitBreaker(config, new SimpleMeterRegistry());
+    }
+
+    @Test
+    void shouldOpenAndFailFast_whenFailureRateReachesThreshold() {
+        // Given
+        succeed();
+        succeed();
+        fail();
+        fail();
+
+        // When
+        AtomicInteger calls = new AtomicInteger();
+        assertThrows(SunoUnavailableException.class, () -> circuitBreaker.execute(calls::incrementAndGet));
+
+        // Then
+        assertEquals(SunoCircuitBreaker.State.OPEN, circuitBreaker.getState());
+        assertFalse(circuitBreaker.isCallPermitted());
+        assertEquals(0, calls.get());
+    }
+
+    @Test
+    void shouldCloseAfterSuccessfulProbes_whenHalfOpen() throws Exception {
+        // Given
+        openBreaker();
+        Thread.sleep(config.getOpenDuration() + 10);
+
+        // When
+        assertEquals(SunoCircuitBreaker.State.HALF_OPEN, circuitBreaker.getState());
+        succeed();
+        succeed();
+
+        // Then
+        assertEquals(SunoCircuitBreaker.State.CLOSED, circuitBreaker.getState());
+        assertTrue(circuitBreaker.isCallPermitted());
+    }
+
+    @Test
+    void shouldReopen_whenProbeFails() throws Exception {
+        // Given
+        openBreaker();
+        Thread.sleep(config.getOpenDuration() + 10);
+
+        // When
+        fail();
+
+        // Then
+        assertEquals(SunoCircuitBreaker.State.OPEN, circuitBreaker.getState());
+        assertTrue(circuitBreaker.getRemainingOpenMillis() > 0);
+    }
+
+    @Test
+    void shouldIgnoreRateLimitAndCallerErrors_whenComputingFailureRate() {
+        // When
+        for (int i = 0; i < 5; i++) {
+            assertThrows(IllegalArgumentException.class, () -> circuitBreaker.execute(() -> {
+                throw new IllegalArgumentException("提示词不能为空");
+            }));
+            assertThrows(ExternalApiException.class, () -> circuitBreaker.execute(() -> {
+                throw new ExternalApiException("外部API客户端错误: Too Many Requests",
+                        HttpStatus.TOO_MANY_REQUESTS.value());
+            }));
+            assertThrows(ExternalApiException.class, () -> circuitBreaker.execute(() -> {
+                throw new ExternalApiException("外部API客户端错误: invalid prompt", HttpStatus.BAD_REQUEST.value());
+            }));
+        }
+
+        // Then
+        assertEquals(SunoCircuitBreaker.State.CLOSED, circuitBreaker.getState());
+    }
+
+    @Test
+    void shouldCountOnlyServerErrors_whenResponsesGoThroughErrorHandler() {
+        // Given: 使用生产环境的错误处理器转换上游错误响应
+        RestTemplate restTemplate = new RestTemplate();
+        restTemplate.setErrorHandler(new RestTemplateResponseErrorHandler());
+        MockRestServiceServer server = MockRestServiceServer.bindTo(restTemplate).build();
+        server.expect(ExpectedCount.times(5), requestTo("http://suno.test/generate"))
+                .andRespond(withStatus(HttpStatus.BAD_REQUEST).body("invalid prompt"));
+        server.expect(ExpectedCount.times(5), requestTo("http://suno.test/generate"))
+                .andRespond(withStatus(HttpStatus.TOO_MANY_REQUESTS).body("rate limited"));
+        server.expect(ExpectedCount.times(config.getMinimumCalls()), requestTo("http://suno.test/generate"))
+                .andRespond(withStatus(HttpStatus.SERVICE_UNAVAILABLE).body("upstream unavailable"));
+        SunoApiClient client = new SunoApiClient(restTemplate);
+        ReflectionTestUtils.setField(client, "apiUrl", "http://suno.test");
+        ReflectionTestUtils.setField(client, "cookie", "test-cookie");
+
+        // When & Then: 4xx不计入失败率
+        for (int i = 0; i < 10; i++) {
+            assertThrows(ExternalApiException.class, () -> circuitBreaker.execute(() -> client.generateMusic("p")));
+        }
+        assertEquals(SunoCircuitBreaker.State.CLOSED, circuitBreaker.getState());
+
+        // When & Then: 5xx计入失败率并打开熔断器
+        for (int i = 0; i < config.getMinimumCalls(); i++) {
+            assertThrows(ExternalApiException.class, () -> circuitBreaker.execute(() -> client.generateMusic("p")));
+        }
+        assertEquals(SunoCircuitBreaker.State.OPEN, circuitBreaker.getState());
+        server.verify();
+    }
+
+    @Test
+    void shouldRejectCalls_whenBulkheadFull() throws Exception {
+        // Given
+        config.setMaxConcurrentCalls(1);
+        circuitBreaker = new SunoCircuitBreaker(config, new SimpleMeterRegistry());
+        CountDownLatch started = new CountDownLatch(1);
+        CountDownLatch release = new CountDownLatch(1);
+        CompletableFuture<String> running = CompletableFuture.supplyAsync(() -> circuitBreaker.execute(() -> {
+            started.countDown();
+            try {
+                release.await(5, TimeUnit.SECONDS);
+            } catch (InterruptedException e) {
+                Thread.currentThread().interrupt();
+            }
+            return "gen-1";
+        }));
+        assertTrue(started.await(5, TimeUnit.SECONDS));
+
+        // When & Then
+        assertThrows(SunoUnavailableException.class, () -> circuitBreaker.execute(() -> "gen-2"));
+        release.countDown();
+        assertEquals("gen-1", running.get(5, TimeUnit.SECONDS));
+        assertEquals("gen-3", circuitBreaker.execute(() -> "gen-3"));
+    }
+
+    private void openBreaker() {
+        for (int i = 0; i < config.getMinimumCalls(); i++) {
+            fail();
+        }
+        assertEquals(SunoCircuitBreaker.State.OPEN, circuitBreaker.getState());
+    }
+
+    private void succeed() {
+        circuitBreaker.execute(() -> "ok");
+    }
+
+    private void fail() {
+        assertThrows(ExternalApiException.class, () -> circuitBreaker.execute(() -> {
+            throw new ExternalApiException("API调用失败: Read timed out", new SocketTimeoutException("Read timed out"));
+        }));
+    }
+}
@@ -0,0 +1,205 @@
+package com.aimusic.backend.client;
+
+import com.aimusic.backend.config.RestTemplateResponseErrorHandler;
+import com.aimusic.backend.config.SunoGovernorConfig;
+import com.aimusic.backend.exception.ExternalApiException;
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.extension.ExtendWith;
+import org.mockito.Mock;
+import org.mockito.junit.jupiter.MockitoExtension;
+import org.springframework.http.HttpStatus;
+import org.springframework.http.MediaType;
+import org.springframework.test.util.ReflectionTestUtils;
+import org.springframework.test.web.client.ExpectedCount;
+import org.springframework.test.web.client.MockRestServiceServer;
+import org.springframework.web.client.RestTemplate;
+
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.function.BooleanSupplier;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertFalse;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+import static org.mockito.Mockito.when;
+import static org.springframework.test.web.client.match.MockRestRequestMatchers.requestTo;
+import static org.springframework.test.web.client.response.MockRestResponseCreators.withStatus;
+import static org.springframework.test.web.client.response.MockRestResponseCreators.withSuccess;
+
+/**
+ * Suno调用限流器测试类
+ */
+@ExtendWith(MockitoExtension.class)
+class SunoRateGovernorTest {
+
+    @Mock
+    private SunoApiClient sunoApiClient;
+
+    private SunoGovernorConfig config;
+    private SunoRateGovernor governor;
+
+    @BeforeEach
+    void setUp() {
+        config = new SunoGovernorConfig();
+        config.setInitialConcurrency(4);
+        config.setLatencyThreshold(1000);
+        config.setRateLimitCooldown(20);
+        config.setMaxWait(2000);
+        governor = new SunoRateGovernor(sunoApiClient, config, new SimpleMeterRegistry());
+    }
+
+    @Test
+    void shouldIncreaseLimitAdditively_whenResponsesAreFast() {
+        // When
+        for (int i = 0; i < 4; i++) {
+            governor.acquire("user", deadline());
+            governor.release(SunoRateGovernor.Outcome.SUCCESS, TimeUnit.MILLISECONDS.toNanos(100));
+        }
+
+        // Then: 每个成功请求增加 1/limit，一个窗口内约增加1
+        assertEquals(4.92, governor.getLimit(), 0.01);
+        assertEquals(0, governor.getInFlight());
+    }
+
+    @Test
+    void shouldDecreaseLimitMultiplicatively_whenSlowOrRateLimited() {
+        // When
+        governor.acquire("user", deadline());
+        governor.release(SunoRateGovernor.Outcome.SUCCESS, TimeUnit.MILLISECONDS.toNanos(5000));
+        double afterSlow = governor.getLimit();
+        governor.acquire("user", deadline());
+        governor.release(SunoRateGovernor.Outcome.RATE_LIMITED, TimeUnit.MILLISECONDS.toNanos(100));
+
+        // Then
+        assertEquals(2.0, afterSlow, 0.001);
+        assertEquals(config.getMinConcurrency(), governor.getLimit(), 0.001);
+    }
+
+    @Test
+    void shouldGrantPermitsRoundRobinAcrossUsers() throws Exception {
+        // Given
+        // 固定并发上限为1，保证每次只放行一个请求
+        config.setInitialConcurrency(1);
+        config.setAdditiveIncrease(0);
+        governor = new SunoRateGovernor(sunoApiClient, config, new SimpleMeterRegistry());
+        governor.acquire("holder", deadline());
+
+        List<String> grantOrder = Collections.synchronizedList(new ArrayList<>());
+        List<Thread> threads = new ArrayList<>();
+        for (String user : List.of("heavy", "heavy", "heavy", "light")) {
+            int queuedBefore = governor.getQueued();
+            Thread thread = new Thread(() -> {
+                governor.acquire(user, deadline());
+                grantOrder.add(user);
+                governor.release(SunoRateGovernor.Outcome.SUCCESS, 0);
+            });
+            thread.start();
+            threads.add(thread);
+            waitUntil(() -> governor.getQueued() == queuedBefore + 1);
+        }
+
+        // When
+        governor.release(SunoRateGovernor.Outcome.SUCCESS, 0);
+        for (Thread thread : threads) {
+            thread.join(5000);
+        }
+
+        // Then
+        assertEquals(List.of("heavy", "light", "heavy", "heavy"), grantOrder);
+    }
+
+    @Test
+    void shouldQueueRequests_whenQuotaExhausted() {
+        // Given
+        config.setMaxWait(100);
+        when(sunoApiClient.getQuota()).thenReturn(Map.of("credits_left", 15));
+
+        // When
+        governor.refreshQuota();
+        String first = governor.execute("user", () -> "gen-1");
+
+        // Then
+        assertEquals("gen-1", first);
+        assertEquals(0, governor.getRemainingRequests());
+        assertThrows(ExternalApiException.class, () -> governor.execute("user", () -> "gen-2"));
+        assertEquals(0, governor.getQueued());
+    }
+
+    @Test
+    void shouldRetryAfterCooldown_whenRateLimited() {
+        // Given
+        AtomicInteger calls = new AtomicInteger();
+
+        // When
+        String result = governor.execute("user", () -> {
+            if (calls.incrementAndGet() == 1) {
+                throw new ExternalApiException("外部API客户端错误: Too Many Requests",
+                        HttpStatus.TOO_MANY_REQUESTS.value());
+            }
+            return "gen-1";
+        });
+
+        // Then
+        assertEquals("gen-1", result);
+        assertEquals(2, calls.get());
+        assertTrue(governor.getLimit() < config.getInitialConcurrency());
+    }
+
+    @Test
+    void shouldRetryAfterCooldown_whenRestTemplateReceives429() {
+        // Given: 使用生产环境的错误处理器，429由RestTemplateResponseErrorHandler转换为异常
+        RestTemplate restTemplate = new RestTemplate();
+        restTemplate.setErrorHandler(new RestTemplateResponseErrorHandler());
+        MockRestServiceServer server = MockRestServiceServer.bindTo(restTemplate).build();
+        server.expect(ExpectedCount.once(), requestTo("http://suno.test/generate"))
+                .andRespond(withStatus(HttpStatus.TOO_MANY_REQUESTS).body("rate limited"));
+        server.expect(ExpectedCount.once(), requestTo("http://suno.test/generate"))
+                .andRespond(withSuccess("{\"id\":\"gen-1\"}", MediaType.APPLICATION_JSON));
+        SunoApiClient client = new SunoApiClient(restTemplate);
+        ReflectionTestUtils.setField(client, "apiUrl", "http://suno.test");
+        ReflectionTestUtils.setField(client, "cookie", "test-cookie");
+
+        // When
+        String result = governor.execute("user", () -> client.generateMusic("test prompt"));
+
+        // Then
+        assertEquals("gen-1", result);
+        assertTrue(governor.getLimit() < config.getInitialConcurrency());
+        server.verify();
+    }
+
+    @Test
+    void shouldNotRetry_whenErrorIsNotRateLimit() {
+        // Given
+        AtomicInteger calls = new AtomicInteger();
+
+        // When & Then
+        assertThrows(ExternalApiException.class, () -> governor.execute("user", () -> {
+            calls.incrementAndGet();
+            throw new ExternalApiException("API调用失败");
+        }));
+        assertEquals(1, calls.get());
+        assertEquals(0, governor.getInFlight());
+        assertFalse(SunoRateGovernor.isRateLimited(new ExternalApiException("API调用失败")));
+        assertFalse(SunoRateGovernor.isRateLimited(new ExternalApiException("外部API客户端错误", 400)));
+    }
+
+    private long deadline() {
+        return System.nanoTime() + TimeUnit.SECONDS.toNanos(5);
+    }
+
+    private void waitUntil(BooleanSupplier condition) throws InterruptedException {
+        long deadline = System.currentTimeMillis() + 5000;
+        while (!condition.getAsBoolean() && System.currentTimeMillis() < deadline) {
+            Thread.sleep(5);
+        }
+        assertTrue(condition.getAsBoolean());
+    }
+}
@@ -0,0 +1,103 @@
+package com.aimusic.backend.config;
+
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.condition.EnabledForJreRange;
+import org.junit.jupiter.api.condition.JRE;
+import org.springframework.core.task.SimpleAsyncTaskExecutor;
+import org.springframework.mock.env.MockEnvironment;
+import org.springframework.scheduling.concurrent.ThreadPoolTaskExecutor;
+
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.Executor;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertInstanceOf;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+/**
+ * 异步任务配置测试类
+ */
+class AsyncConfigTest {
+
+    @Test
+    void concurrencyLimitingDecorator_ShouldBoundConcurrentTasks() throws Exception {
+        // Given
+        int limit = 2;
+        int tasks = 10;
+        ConcurrencyLimitingTaskDecorator decorator = new ConcurrencyLimitingTaskDecorator(limit);
+        ExecutorService threads = Executors.newFixedThreadPool(tasks);
+        AtomicInteger running = new AtomicInteger();
+        AtomicInteger maxRunning = new AtomicInteger();
+        CountDownLatch done = new CountDownLatch(tasks);
+
+        // When
+        for (int i = 0; i < tasks; i++) {
+            threads.execute(decorator.decorate(() -> {
+                maxRunning.accumulateAndGet(running.incrementAndGet(), Math::max);
+                try {
+                    Thread.sleep(20);
+                } catch (InterruptedException e) {
+                    Thread.currentThread().interrupt();
+                } finally {
+                    running.decrementAndGet();
+                    done.countDown();
+                }
+            }));
+        }
+
+        // Then
+        assertTrue(done.await(10, TimeUnit.SECONDS));
+        threads.shutdown();
+        assertEquals(limit, maxRunning.get());
+        assertEquals(limit, decorator.availablePermits());
+    }
+
+    @Test
+    void musicGenerationExecutor_ShouldUsePlatformPool_WhenVirtualThreadsDisabled() {
+        // When
+        Executor executor = new AsyncConfig().musicGenerationExecutor(new MockEnvironment(), new AsyncExecutorConfig());
+
+        // Then
+        assertInstanceOf(ThreadPoolTaskExecutor.class, executor);
+        ((ThreadPoolTaskExecutor) executor).shutdown();
+    }
+
+    @Test
+    @EnabledForJreRange(max = JRE.JAVA_20)
+    void musicGenerationExecutor_ShouldFallBackToPlatformPool_WhenJdkLacksVirtualThreads() {
+        // Given
+        MockEnvironment environment = new MockEnvironment().withProperty("spring.threads.virtual.enabled", "true");
+
+        // When
+        Executor executor = new AsyncConfig().musicGenerationExecutor(environment, new AsyncExecutorConfig());
+
+        // Then
+        assertInstanceOf(ThreadPoolTaskExecutor.class, executor);
+        ((ThreadPoolTaskExecutor) executor).shutdown();
+    }
+
+    @Test
+    @EnabledForJreRange(min = JRE.JAVA_21)
+    void musicGenerationExecutor_ShouldUseVirtualThreads_WhenEnabled() throws Exception {
+        // Given
+        MockEnvironment environment = new MockEnvironment().withProperty("spring.threads.virtual.enabled", "true");
+        Executor executor = new AsyncConfig().musicGenerationExecutor(environment, new AsyncExecutorConfig());
+        CountDownLatch ran = new CountDownLatch(1);
+        AtomicInteger virtual = new AtomicInteger();
+
+        // When
+        executor.execute(() -> {
+            virtual.set(Thread.currentThread().toString().contains("virtual") ? 1 : 0);
+            ran.countDown();
+        });
+
+        // Then
+        assertInstanceOf(SimpleAsyncTaskExecutor.class, executor);
+        assertTrue(ran.await(5, TimeUnit.SECONDS));
+        assertEquals(1, virtual.get());
+    }
+}
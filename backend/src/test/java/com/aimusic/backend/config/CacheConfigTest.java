@@ -0,0 +1,142 @@
+package com.aimusic.backend.config;
+
+import com.aimusic.backend.domain.dto.MusicDTO;
+import com.aimusic.backend.domain.entity.Music;
+import com.aimusic.backend.domain.entity.User;
+import com.aimusic.backend.domain.enums.MusicStatus;
+import com.aimusic.backend.domain.event.MusicStatusChangedEvent;
+import com.aimusic.backend.domain.repository.MusicRepository;
+import com.aimusic.backend.domain.repository.UserRepository;
+import com.aimusic.backend.domain.service.GenerationCacheService;
+import com.aimusic.backend.domain.service.GenerationJobService;
+import com.aimusic.backend.domain.service.MusicService;
+import com.aimusic.backend.domain.service.RenditionService;
+import com.aimusic.backend.domain.service.impl.MusicCacheEvictionListener;
+import com.aimusic.backend.domain.service.impl.MusicServiceImpl;
+import com.aimusic.backend.service.StorageService;
+import com.aimusic.backend.service.StreamingService;
+import com.aimusic.backend.utils.MusicTestFactory;
+import com.github.benmanes.caffeine.cache.Cache;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.context.properties.EnableConfigurationProperties;
+import org.springframework.boot.test.mock.mockito.MockBean;
+import org.springframework.cache.CacheManager;
+import org.springframework.cache.caffeine.CaffeineCache;
+import org.springframework.context.ApplicationEventPublisher;
+import org.springframework.data.domain.PageImpl;
+import org.springframework.data.domain.PageRequest;
+import org.springframework.test.context.junit.jupiter.SpringJUnitConfig;
+
+import java.util.List;
+import java.util.Map;
+import java.util.Optional;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertNull;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.Mockito.times;
+import static org.mockito.Mockito.verify;
+import static org.mockito.Mockito.when;
+
+/**
+ * 缓存配置测试类
+ */
+@SpringJUnitConfig(classes = {CacheConfig.class, MusicServiceImpl.class, MusicCacheEvictionListener.class})
+@EnableConfigurationProperties(CacheSpecConfig.class)
+class CacheConfigTest {
+
+    @Autowired
+    private CacheManager cacheManager;
+
+    @Autowired
+    private MusicService musicService;
+
+    @Autowired
+    private ApplicationEventPublisher eventPublisher;
+
+    @MockBean
+    private MusicRepository musicRepository;
+
+    @MockBean
+    private UserRepository userRepository;
+
+    @MockBean
+    private StorageService storageService;
+
+    @MockBean
+    private GenerationJobService generationJobService;
+
+    @MockBean
+    private GenerationCacheService generationCacheService;
+
+    @MockBean
+    private RenditionService renditionService;
+
+    @MockBean
+    private StreamingService streamingService;
+
+    @Test
+    void cacheManager_ShouldBoundSizeAndRecordStats() {
+        // Given
+        CacheSpecConfig specConfig = new CacheSpecConfig();
+        specConfig.setSpecs(Map.of(CacheConfig.MUSIC_CACHE, "maximumSize=10"));
+        CacheManager bounded = new CacheConfig().cacheManager(specConfig);
+        Cache<Object, Object> nativeCache = ((CaffeineCache) bounded.getCache(CacheConfig.MUSIC_CACHE)).getNativeCache();
+
+        // When
+        for (int i = 0; i < 1000; i++) {
+            nativeCache.put(i, i);
+            nativeCache.getIfPresent(i);
+        }
+        nativeCache.getIfPresent(-1);
+        nativeCache.cleanUp();
+
+        // Then
+        assertTrue(nativeCache.estimatedSize() <= 10);
+        assertEquals(1000, nativeCache.stats().hitCount());
+        assertEquals(1, nativeCache.stats().missCount());
+        assertTrue(nativeCache.stats().evictionCount() >= 990);
+        assertNull(bounded.getCache("undeclared"));
+    }
+
+    @Test
+    void getMusicById_ShouldServeFromCache_UntilStatusUpdated() {
+        // Given
+        User user = MusicTestFactory.createTestUser();
+        Music music = MusicTestFactory.createTestMusic(user);
+        when(musicRepository.findById(music.getId())).thenReturn(Optional.of(music));
+        when(musicRepository.save(any(Music.class))).thenAnswer(invocation -> invocation.getArgument(0));
+
+        // When
+        musicService.getMusicById(music.getId());
+        musicService.getMusicById(music.getId());
+        musicService.updateMusicStatus(music.getId(), "http://example.com/new.mp3");
+        String audioUrl = musicService.getMusicById(music.getId()).getAudioUrl();
+
+        // Then: 两次读取、一次更新、更新后的一次读取
+        verify(musicRepository, times(3)).findById(music.getId());
+        assertEquals("http://example.com/new.mp3", audioUrl);
+    }
+
+    @Test
+    void listMusic_ShouldBeEvicted_whenStatusChangedElsewhere() {
+        // Given
+        User user = MusicTestFactory.createTestUser();
+        Music music = MusicTestFactory.createTestMusic(user);
+        PageRequest pageable = PageRequest.of(0, 20);
+        when(musicRepository.findSummaries(pageable))
+                .thenReturn(new PageImpl<>(List.of(MusicTestFactory.createTestMusicSummary(MusicDTO.fromEntity(music)))));
+        musicService.listMusic(pageable);
+        musicService.listMusic(pageable);
+
+        // When
+        music.setStatus(MusicStatus.COMPLETED);
+        eventPublisher.publishEvent(MusicStatusChangedEvent.of(music));
+        musicService.listMusic(pageable);
+
+        // Then
+        verify(musicRepository, times(2)).findSummaries(pageable);
+    }
+}
@@ -1,9 +1,12 @@
 package com.aimusic.backend.controller;
 
+import com.aimusic.backend.domain.dto.MusicCursor;
 import com.aimusic.backend.domain.dto.MusicDTO;
 import com.aimusic.backend.domain.dto.MusicGenerationRequest;
+import com.aimusic.backend.domain.dto.MusicSummaryDTO;
 import com.aimusic.backend.domain.entity.MusicStatus;
 import com.aimusic.backend.domain.entity.User;
+import com.aimusic.backend.domain.service.BatchGenerationService;
 import com.aimusic.backend.domain.service.MusicGenerationService;
 import com.aimusic.backend.domain.service.MusicService;
 import com.aimusic.backend.exception.EntityNotFoundException;
@@ -16,14 +19,23 @@ import org.springframework.boot.test.autoconfigure.web.servlet.WebMvcTest;
 import org.springframework.boot.test.mock.mockito.MockBean;
 import org.springframework.data.domain.Page;
 import org.springframework.data.domain.PageImpl;
+import org.springframework.data.domain.PageRequest;
+import org.springframework.data.domain.Slice;
+import org.springframework.data.domain.SliceImpl;
 import org.springframework.http.MediaType;
 import org.springframework.test.web.servlet.MockMvc;
 
+import java.io.InputStream;
+import java.io.OutputStream;
+import java.nio.charset.StandardCharsets;
 import java.util.Collections;
+import java.util.List;
 import java.util.UUID;
 import java.util.concurrent.CompletableFuture;
 
+import static org.junit.jupiter.api.Assertions.assertEquals;
 import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.ArgumentMatchers.anyInt;
 import static org.mockito.Mockito.*;
 import static org.springframework.test.web.servlet.request.MockMvcRequestBuilders.*;
 import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.*;
@@ -46,8 +58,12 @@ class MusicControllerTest {
     @MockBean
     private MusicGenerationService musicGenerationService;
 
+    @MockBean
+    private BatchGenerationService batchGenerationService;
+
     private User mockUser;
     private MusicDTO mockMusicDTO;
+    private MusicSummaryDTO mockSummary;
     private MusicGenerationRequest mockRequest;
     private UUID mockId;
 
@@ -55,6 +71,7 @@ class MusicControllerTest {
     void setUp() {
         mockUser = MusicTestFactory.createTestUser();
         mockMusicDTO = MusicTestFactory.createTestMusicDTO(mockUser.getId());
+        mockSummary = MusicTestFactory.createTestMusicSummary(mockMusicDTO);
         mockRequest = MusicTestFactory.createMusicGenerationRequest(mockUser.getId());
         mockId = mockMusicDTO.getId();
     }
@@ -85,7 +102,7 @@ class MusicControllerTest {
 
     @Test
     void listMusic_ShouldReturnPageOfMusic() throws Exception {
-        Page<MusicDTO> musicPage = new PageImpl<>(Collections.singletonList(mockMusicDTO));
+        Page<MusicSummaryDTO> musicPage = new PageImpl<>(Collections.singletonList(mockSummary));
         when(musicService.listMusic(any())).thenReturn(musicPage);
 
         mockMvc.perform(get("/api/v1/music"))
@@ -104,6 +121,64 @@ class MusicControllerTest {
         verify(musicService).deleteMusic(mockMusicDTO.getId());
     }
 
+    @Test
+    void shouldReturnNextCursor_whenMoreMusicAvailable() throws Exception {
+        // Given
+        Slice<MusicSummaryDTO> slice = new SliceImpl<>(List.of(mockSummary), PageRequest.ofSize(1), true);
+        when(musicService.listMusicAfter(null, 1)).thenReturn(slice);
+
+        // When & Then
+        String cursor = mockMvc.perform(get("/api/music/cursor").param("size", "1"))
+                .andExpect(status().isOk())
+                .andExpect(jsonPath("$.content[0].id").value(mockMusicDTO.getId().toString()))
+                .andExpect(header().exists(MusicController.NEXT_CURSOR_HEADER))
+                .andReturn().getResponse().getHeader(MusicController.NEXT_CURSOR_HEADER);
+        assertEquals(MusicCursor.of(mockSummary), MusicCursor.decode(cursor));
+    }
+
+    @Test
+    void shouldReturn400_whenCursorInvalid() throws Exception {
+        mockMvc.perform(get("/api/music/cursor").param("after", "not-a-cursor"))
+                .andExpect(status().isBadRequest());
+
+        verify(musicService, never()).listMusicAfter(any(), anyInt());
+    }
+
+    @Test
+    void shouldSkipCount_whenCountDisabled() throws Exception {
+        // Given
+        when(musicService.sliceMusic(any())).thenReturn(new SliceImpl<>(List.of(mockSummary), PageRequest.of(0, 20), false));
+
+        // When & Then
+        mockMvc.perform(get("/api/music").param("count", "false"))
+                .andExpect(status().isOk())
+                .andExpect(jsonPath("$.content[0].id").value(mockMusicDTO.getId().toString()))
+                .andExpect(jsonPath("$.totalElements").doesNotExist());
+
+        verify(musicService, never()).listMusic(any());
+    }
+
+    @Test
+    void shouldStreamNdjsonResults_whenGeneratingInBatch() throws Exception {
+        // Given
+        String body = objectMapper.writeValueAsString(mockRequest) + "\n" + objectMapper.writeValueAsString(mockRequest) + "\n";
+        when(batchGenerationService.generate(any(InputStream.class), any(OutputStream.class))).thenAnswer(invocation -> {
+            InputStream input = invocation.getArgument(0);
+            OutputStream output = invocation.getArgument(1);
+            assertEquals(body, new String(input.readAllBytes(), StandardCharsets.UTF_8));
+            output.write("{\"index\":0,\"musicId\":\"m\",\"jobId\":\"j\"}\n".getBytes(StandardCharsets.UTF_8));
+            return 1;
+        });
+
+        // When & Then
+        mockMvc.perform(post("/api/music/generate/batch")
+                        .contentType(MediaType.APPLICATION_NDJSON)
+                        .content(body))
+                .andExpect(status().isOk())
+                .andExpect(content().contentTypeCompatibleWith(MediaType.APPLICATION_NDJSON))
+                .andExpect(content().string("{\"index\":0,\"musicId\":\"m\",\"jobId\":\"j\"}\n"));
+    }
+
     @Test
     void shouldReturn404_whenMusicNotFound() throws Exception {
         when(musicService.getMusicById(any(UUID.class)))
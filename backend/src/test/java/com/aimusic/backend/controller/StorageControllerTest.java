@@ -1,7 +1,15 @@
 package com.aimusic.backend.controller;
 
+import com.aimusic.backend.config.StreamingConfig;
+import com.aimusic.backend.domain.dto.StoredFileDTO;
+import com.aimusic.backend.domain.entity.MusicRendition;
+import com.aimusic.backend.domain.enums.AudioCodec;
+import com.aimusic.backend.domain.enums.RenditionQuality;
+import com.aimusic.backend.domain.service.RenditionService;
 import com.aimusic.backend.exception.StorageException;
+import com.aimusic.backend.service.FileDownloadService;
 import com.aimusic.backend.service.StorageService;
+import com.aimusic.backend.service.StreamingService;
 import org.junit.jupiter.api.BeforeEach;
 import org.junit.jupiter.api.Test;
 import org.junit.jupiter.api.extension.ExtendWith;
@@ -9,6 +17,7 @@ import org.mockito.junit.jupiter.MockitoExtension;
 import org.springframework.beans.factory.annotation.Autowired;
 import org.springframework.boot.test.autoconfigure.web.servlet.WebMvcTest;
 import org.springframework.boot.test.mock.mockito.MockBean;
+import org.springframework.context.annotation.Import;
 import org.springframework.core.io.ByteArrayResource;
 import org.springframework.core.io.Resource;
 import org.springframework.http.MediaType;
@@ -18,12 +27,19 @@ import org.springframework.web.multipart.MultipartFile;
 import com.fasterxml.jackson.databind.ObjectMapper;
 import com.aimusic.backend.exception.StorageFileNotFoundException;
 
+import java.io.InputStream;
 import java.nio.file.Path;
 import java.nio.file.Paths;
+import java.util.List;
+import java.util.Optional;
 import java.util.stream.Stream;
 
+import static org.hamcrest.Matchers.containsString;
+import static org.hamcrest.Matchers.hasItem;
+import static org.junit.jupiter.api.Assertions.assertEquals;
 import static org.mockito.ArgumentMatchers.any;
 import static org.mockito.ArgumentMatchers.anyString;
+import static org.mockito.ArgumentMatchers.eq;
 import static org.mockito.BDDMockito.given;
 import static org.mockito.Mockito.doNothing;
 import static org.mockito.Mockito.doThrow;
@@ -36,6 +52,7 @@ import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.
  * 存储控制器测试类
  */
 @WebMvcTest(StorageController.class)
+@Import(StreamingConfig.class)
 @ExtendWith(MockitoExtension.class)
 public class StorageControllerTest {
 
@@ -48,6 +65,15 @@ public class StorageControllerTest {
     @MockBean
     private StorageService storageService;
 
+    @MockBean
+    private FileDownloadService fileDownloadService;
+
+    @MockBean
+    private RenditionService renditionService;
+
+    @MockBean
+    private StreamingService streamingService;
+
     private MockMultipartFile testFile;
 
     @BeforeEach
@@ -118,6 +144,25 @@ public class StorageControllerTest {
                 .andExpect(jsonPath("$.message").value("不支持的文件类型"));
     }
 
+    @Test
+    void shouldUploadStream() throws Exception {
+        StoredFileDTO stored = StoredFileDTO.builder()
+                .filename("stored.mp3")
+                .size(9)
+                .checksum("abc123")
+                .url("/files/stored.mp3")
+                .build();
+        when(storageService.store(any(InputStream.class), eq("test.mp3"))).thenReturn(stored);
+
+        mockMvc.perform(put("/api/storage/upload/stream")
+                        .param("filename", "test.mp3")
+                        .contentType(MediaType.APPLICATION_OCTET_STREAM)
+                        .content("test data".getBytes()))
+                .andExpect(status().isOk())
+                .andExpect(jsonPath("$.filename").value("stored.mp3"))
+                .andExpect(jsonPath("$.checksum").value("abc123"));
+    }
+
     @Test
     void shouldDownloadFile() throws Exception {
         String filename = "test.mp3";
@@ -129,6 +174,56 @@ public class StorageControllerTest {
                 .andExpect(content().bytes("test data".getBytes()));
     }
 
+    @Test
+    void shouldDownloadRendition_whenSaveDataHintPresent() throws Exception {
+        // Given
+        String filename = "test.mp3";
+        MusicRendition rendition = MusicRendition.builder()
+                .name("low-opus")
+                .quality(RenditionQuality.LOW)
+                .codec(AudioCodec.OPUS)
+                .filename("test-low-opus.opus")
+                .build();
+        when(renditionService.selectRendition(filename, RenditionQuality.LOW, AudioCodec.OPUS))
+                .thenReturn(Optional.of(rendition));
+        when(storageService.loadAsResource("test-low-opus.opus"))
+                .thenReturn(new ByteArrayResource("low".getBytes()));
+
+        // When & Then
+        mockMvc.perform(get("/api/storage/download/{filename}", filename)
+                        .header("Save-Data", "on")
+                        .header("Accept", "audio/ogg, audio/*"))
+                .andExpect(status().isOk())
+                .andExpect(header().string(StorageController.RENDITION_HEADER, "low-opus"))
+                .andExpect(header().stringValues("Vary", hasItem(containsString("Save-Data"))))
+                .andExpect(content().bytes("low".getBytes()));
+    }
+
+    @Test
+    void shouldServeStreamWithImmutableCache_whenManifestRequested() throws Exception {
+        // Given
+        Path playlist = Paths.get("streams", "test", "master.m3u8");
+        when(streamingService.loadStreamFile("test.mp3", "master.m3u8")).thenReturn(playlist);
+
+        // When & Then
+        mockMvc.perform(get("/api/storage/streams/{filename}/{name}", "test.mp3", "master.m3u8"))
+                .andExpect(status().isOk())
+                .andExpect(header().string("Cache-Control", "max-age=31536000, public, immutable"));
+        verify(fileDownloadService).stream(eq(playlist), eq(MediaType.parseMediaType("application/vnd.apple.mpegurl")),
+                any(), any());
+    }
+
+    @Test
+    void shouldReturnNotFound_whenStreamFileMissing() throws Exception {
+        // Given
+        when(streamingService.loadStreamFile("test.mp3", "segment-00009.m4s"))
+                .thenThrow(new StorageFileNotFoundException("分片文件不存在"));
+
+        // When & Then
+        mockMvc.perform(get("/api/storage/streams/{filename}/{name}", "test.mp3", "segment-00009.m4s"))
+                .andExpect(status().isNotFound());
+    }
+
     @Test
     void shouldDownloadFile_whenFileNotFound() throws Exception {
         String filename = "nonexistent.mp3";
@@ -157,6 +252,25 @@ public class StorageControllerTest {
         verify(storageService).loadAll();
     }
 
+    @Test
+    void shouldStreamFilesAsNdjsonWithNextCursor_whenPageIsFull() throws Exception {
+        // Given
+        given(storageService.listFiles("a.mp3", 2)).willReturn(List.of(
+                StoredFileDTO.builder().filename("b.mp3").size(1).url("/files/b.mp3").build(),
+                StoredFileDTO.builder().filename("c.mp3").size(2).url("/files/c.mp3").build()));
+
+        // When & Then
+        String body = mockMvc.perform(get("/api/storage/files").param("after", "a.mp3").param("limit", "2"))
+                .andExpect(status().isOk())
+                .andExpect(content().contentTypeCompatibleWith(MediaType.APPLICATION_NDJSON))
+                .andExpect(header().string("X-Next-Cursor", "c.mp3"))
+                .andReturn().getResponse().getContentAsString();
+        String[] lines = body.split("\n");
+        assertEquals(2, lines.length);
+        assertEquals("b.mp3", objectMapper.readTree(lines[0]).get("filename").asText());
+        assertEquals("c.mp3", objectMapper.readTree(lines[1]).get("filename").asText());
+    }
+
     @Test
     void shouldDeleteFile() throws Exception {
         // 准备测试数据
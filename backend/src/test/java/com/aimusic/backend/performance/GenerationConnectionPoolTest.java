@@ -0,0 +1,179 @@
+package com.aimusic.backend.performance;
+
+import com.aimusic.backend.client.SunoApiClient;
+import com.aimusic.backend.domain.entity.Music;
+import com.aimusic.backend.domain.entity.User;
+import com.aimusic.backend.domain.enums.MusicStatus;
+import com.aimusic.backend.domain.repository.MusicRepository;
+import com.aimusic.backend.domain.repository.UserRepository;
+import com.aimusic.backend.domain.service.MusicGenerationService;
+import com.aimusic.backend.utils.MusicTestFactory;
+import com.zaxxer.hikari.HikariDataSource;
+import com.zaxxer.hikari.HikariPoolMXBean;
+import lombok.extern.slf4j.Slf4j;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.condition.EnabledIfSystemProperty;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.boot.test.mock.mockito.MockBean;
+import org.springframework.test.context.ActiveProfiles;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import javax.sql.DataSource;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.UUID;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicBoolean;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.function.Consumer;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+import static org.mockito.ArgumentMatchers.anyString;
+import static org.mockito.Mockito.when;
+
+/**
+ * 音乐生成数据库连接池占用测试
+ * Suno调用带固定延迟，对比在一个事务中调用Suno与拆分短事务两种方式的连接池平均占用，
+ * 以及生成期间其他请求获取连接的等待时间。
+ * 结果取决于机器负载，默认不执行：
+ * {@code mvn test -Dtest=GenerationConnectionPoolTest -Dbenchmark=true}
+ */
+@Slf4j
+@EnabledIfSystemProperty(named = "benchmark", matches = "true")
+@SpringBootTest(properties = {
+        "spring.datasource.url=jdbc:h2:mem:pooltest;DB_CLOSE_DELAY=-1;DB_CLOSE_ON_EXIT=FALSE",
+        "spring.datasource.hikari.maximum-pool-size=4"
+})
+@ActiveProfiles("test")
+class GenerationConnectionPoolTest {
+
+    private static final int POOL_SIZE = 4;
+    private static final int CONCURRENT_GENERATIONS = 8;
+    private static final long SUNO_LATENCY_MS = 400;
+
+    @Autowired
+    private MusicGenerationService musicGenerationService;
+
+    @Autowired
+    private MusicRepository musicRepository;
+
+    @Autowired
+    private UserRepository userRepository;
+
+    @Autowired
+    private TransactionTemplate transactionTemplate;
+
+    @Autowired
+    private DataSource dataSource;
+
+    @MockBean
+    private SunoApiClient sunoApiClient;
+
+    private User testUser;
+
+    @BeforeEach
+    void setUp() {
+        testUser = userRepository.save(MusicTestFactory.createTestUser());
+        when(sunoApiClient.generateMusic(anyString())).thenAnswer(invocation -> {
+            Thread.sleep(SUNO_LATENCY_MS);
+            return "gen-" + UUID.randomUUID();
+        });
+    }
+
+    @Test
+    void splitTransactions_ShouldNotHoldConnectionsDuringSunoCall() throws Exception {
+        // 拆分前：整个生成流程位于一个事务内，Suno调用期间一直占用连接
+        PoolUsage singleTransaction = measure(musicId ->
+                transactionTemplate.executeWithoutResult(tx -> musicGenerationService.submitGeneration(musicId)));
+
+        // 拆分后：调用Suno时不持有连接
+        PoolUsage splitTransactions = measure(musicGenerationService::submitGeneration);
+
+        log.info(String.format("连接池占用(池大小=%d, 并发=%d, Suno延迟=%dms): "
+                        + "单事务 平均活跃=%.2f 探测等待=%dms, 拆分事务 平均活跃=%.2f 探测等待=%dms",
+                POOL_SIZE, CONCURRENT_GENERATIONS, SUNO_LATENCY_MS,
+                singleTransaction.averageActive, singleTransaction.probeMillis,
+                splitTransactions.averageActive, splitTransactions.probeMillis));
+
+        assertTrue(singleTransaction.averageActive > POOL_SIZE - 1,
+                String.format("单事务模式下连接池应接近占满, 平均活跃%.2f", singleTransaction.averageActive));
+        assertTrue(singleTransaction.probeMillis >= SUNO_LATENCY_MS / 2,
+                String.format("单事务模式下探测查询应等待连接, 实际等待%dms", singleTransaction.probeMillis));
+        assertTrue(splitTransactions.averageActive < singleTransaction.averageActive / 2,
+                String.format("拆分事务后平均活跃连接%.2f应明显低于单事务模式的%.2f",
+                        splitTransactions.averageActive, singleTransaction.averageActive));
+        assertTrue(splitTransactions.probeMillis < SUNO_LATENCY_MS / 2,
+                String.format("拆分事务后探测查询不应等待连接, 实际等待%dms", splitTransactions.probeMillis));
+    }
+
+    /**
+     * 并发执行生成任务，同时每毫秒采样连接池活跃连接数，并在生成进行中发起一次探测查询
+     */
+    private PoolUsage measure(Consumer<UUID> generation) throws Exception {
+        List<UUID> musicIds = createPendingMusic();
+        HikariPoolMXBean pool = dataSource.unwrap(HikariDataSource.class).getHikariPoolMXBean();
+        AtomicBoolean sampling = new AtomicBoolean(true);
+        AtomicLong activeSum = new AtomicLong();
+        AtomicLong samples = new AtomicLong();
+        Thread sampler = new Thread(() -> {
+            while (sampling.get()) {
+                activeSum.addAndGet(pool.getActiveConnections());
+                samples.incrementAndGet();
+                try {
+                    Thread.sleep(1);
+                } catch (InterruptedException e) {
+                    return;
+                }
+            }
+        });
+        sampler.start();
+
+        ExecutorService workers = Executors.newFixedThreadPool(CONCURRENT_GENERATIONS);
+        List<CompletableFuture<Void>> futures = new ArrayList<>();
+        for (UUID musicId : musicIds) {
+            futures.add(CompletableFuture.runAsync(() -> generation.accept(musicId), workers));
+        }
+
+        // 等待所有生成任务进入Suno调用后，模拟一个普通的读请求
+        Thread.sleep(SUNO_LATENCY_MS / 4);
+        long probeStart = System.nanoTime();
+        musicRepository.count();
+        long probeMillis = TimeUnit.NANOSECONDS.toMillis(System.nanoTime() - probeStart);
+
+        for (CompletableFuture<Void> future : futures) {
+            future.get(60, TimeUnit.SECONDS);
+        }
+        sampling.set(false);
+        sampler.join();
+        workers.shutdown();
+
+        for (UUID musicId : musicIds) {
+            assertEquals(MusicStatus.PROCESSING, musicRepository.findById(musicId).orElseThrow().getStatus());
+        }
+        return new PoolUsage((double) activeSum.get() / Math.max(1, samples.get()), probeMillis);
+    }
+
+    private List<UUID> createPendingMusic() {
+        List<UUID> ids = new ArrayList<>();
+        for (int i = 0; i < CONCURRENT_GENERATIONS; i++) {
+            Music music = Music.builder()
+                    .user(testUser)
+                    .prompt("测试音乐 " + i)
+                    .style("古典")
+                    .duration(60)
+                    .status(MusicStatus.PENDING)
+                    .build();
+            ids.add(musicRepository.save(music).getId());
+        }
+        return ids;
+    }
+
+    private record PoolUsage(double averageActive, long probeMillis) {
+    }
+}
@@ -0,0 +1,112 @@
+package com.aimusic.backend.performance;
+
+import com.aimusic.backend.config.GenerationQueueConfig;
+import com.aimusic.backend.domain.entity.GenerationJob;
+import com.aimusic.backend.domain.entity.Music;
+import com.aimusic.backend.domain.enums.GenerationPriority;
+import com.aimusic.backend.domain.repository.GenerationJobRepository;
+import com.aimusic.backend.domain.repository.MusicRepository;
+import com.aimusic.backend.domain.service.impl.GenerationJobServiceImpl;
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import lombok.extern.slf4j.Slf4j;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.autoconfigure.orm.jpa.DataJpaTest;
+import org.springframework.context.ApplicationEventPublisher;
+import org.springframework.test.context.ActiveProfiles;
+
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.UUID;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+/**
+ * 生成任务公平调度测试
+ * 一个用户先批量提交大量任务，随后多个用户各提交少量交互任务，按周期模拟领取和执行（每个任务执行一个周期），
+ * 输出交互任务从入队到被领取经过的周期数，并与按入队顺序领取时的等待周期对比
+ */
+@Slf4j
+@DataJpaTest
+@ActiveProfiles("test")
+class GenerationSchedulingFairnessTest {
+
+    private static final int SLOTS = 4;
+    private static final int BATCH_JOBS = 400;
+    private static final int INTERACTIVE_USERS = 5;
+    private static final int JOBS_PER_INTERACTIVE_USER = 4;
+
+    @Autowired
+    private GenerationJobRepository generationJobRepository;
+
+    @Autowired
+    private MusicRepository musicRepository;
+
+    @Autowired
+    private ApplicationEventPublisher eventPublisher;
+
+    private GenerationJobServiceImpl generationJobService;
+
+    @BeforeEach
+    void setUp() {
+        GenerationQueueConfig queueConfig = new GenerationQueueConfig();
+        queueConfig.setInstanceId("fairness-test");
+        generationJobService = new GenerationJobServiceImpl(generationJobRepository, musicRepository, queueConfig,
+                eventPublisher, new SimpleMeterRegistry());
+    }
+
+    @Test
+    void shouldBoundInteractiveWait_whenBatchFloodsQueue() {
+        // Given
+        UUID batchUser = UUID.randomUUID();
+        for (int i = 0; i < BATCH_JOBS; i++) {
+            generationJobService.enqueue(music(batchUser), GenerationPriority.BATCH);
+        }
+        List<UUID> interactiveJobs = new ArrayList<>();
+        for (int i = 0; i < INTERACTIVE_USERS * JOBS_PER_INTERACTIVE_USER; i++) {
+            UUID user = new UUID(0, i % INTERACTIVE_USERS);
+            interactiveJobs.add(generationJobService.enqueue(music(user), GenerationPriority.INTERACTIVE).getId());
+        }
+
+        // When
+        Map<UUID, Integer> claimedAt = new HashMap<>();
+        int tick = 0;
+        while (claimedAt.size() < BATCH_JOBS + interactiveJobs.size()) {
+            tick++;
+            List<GenerationJob> claimed = generationJobService.claimJobs(SLOTS);
+            for (GenerationJob job : claimed) {
+                claimedAt.put(job.getId(), tick);
+            }
+            claimed.forEach(job -> generationJobService.completeJob(job.getId()));
+        }
+
+        // Then
+        int[] fair = interactiveJobs.stream().mapToInt(claimedAt::get).sorted().toArray();
+        // 按入队顺序领取时，第 i 个交互任务要等前面的全部批量任务执行完
+        int[] fifo = new int[interactiveJobs.size()];
+        for (int i = 0; i < fifo.length; i++) {
+            fifo[i] = (BATCH_JOBS + i) / SLOTS + 1;
+        }
+        log.info("生成任务公平调度(槽位={}, 批量任务={}, 交互任务={}): 共{}个周期",
+                SLOTS, BATCH_JOBS, interactiveJobs.size(), tick);
+        log.info("交互任务等待周期: 公平调度 p50={} p99={} max={}, 按入队顺序 p50={} max={}",
+                percentile(fair, 0.5), percentile(fair, 0.99), fair[fair.length - 1],
+                percentile(fifo, 0.5), fifo[fifo.length - 1]);
+
+        assertEquals(BATCH_JOBS + interactiveJobs.size(), claimedAt.size());
+        // 权重4:1，每个周期的4个槽位都先分给交互任务，交互任务不受前面批量任务数量的影响
+        assertTrue(fair[fair.length - 1] <= interactiveJobs.size() / SLOTS, "交互任务最大等待周期: " + fair[fair.length - 1]);
+    }
+
+    private static Music music(UUID userId) {
+        return Music.builder().id(UUID.randomUUID()).userId(userId).build();
+    }
+
+    private static int percentile(int[] sorted, double quantile) {
+        return sorted[Math.min(sorted.length - 1, (int) Math.ceil(quantile * sorted.length) - 1)];
+    }
+}
@@ -0,0 +1,243 @@
+package com.aimusic.backend.performance;
+
+import com.aimusic.backend.client.SunoApiClient;
+import com.aimusic.backend.config.BatchGenerationConfig;
+import com.aimusic.backend.domain.dto.MusicGenerationRequest;
+import com.aimusic.backend.domain.dto.MusicGenerationResultDTO;
+import com.aimusic.backend.domain.entity.User;
+import com.aimusic.backend.domain.enums.GenerationPriority;
+import com.aimusic.backend.domain.repository.GenerationJobRepository;
+import com.aimusic.backend.domain.repository.UserRepository;
+import com.aimusic.backend.domain.service.BatchGenerationService;
+import com.aimusic.backend.domain.service.MusicService;
+import com.aimusic.backend.exception.EntityNotFoundException;
+import com.aimusic.backend.utils.MusicTestFactory;
+import com.aimusic.backend.utils.SqlStatementCounter;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import jakarta.persistence.EntityManagerFactory;
+import lombok.extern.slf4j.Slf4j;
+import org.hibernate.SessionFactory;
+import org.hibernate.stat.Statistics;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.condition.EnabledIfSystemProperty;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.boot.test.mock.mockito.MockBean;
+import org.springframework.test.context.ActiveProfiles;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import java.io.ByteArrayInputStream;
+import java.io.ByteArrayOutputStream;
+import java.nio.charset.StandardCharsets;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.UUID;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.function.Consumer;
+
+import static org.assertj.core.api.Assertions.assertThatThrownBy;
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+/**
+ * 音乐生成写入路径吞吐测试
+ * 并发提交生成请求，对比先查询用户再插入与挂接用户代理引用直接插入两种方式的用户查询次数；
+ * 批量生成和批量生成接口按批统计插入语句条数。
+ * 两种方式的吞吐对比取决于机器负载，默认不执行：
+ * {@code mvn test -Dtest=MusicGenerationThroughputTest -Dbenchmark=true}
+ */
+@Slf4j
+@SpringBootTest(properties = {
+        "spring.jpa.properties.hibernate.generate_statistics=true",
+        "spring.jpa.properties.hibernate.session_factory.statement_inspector="
+                + "com.aimusic.backend.utils.SqlStatementCounter",
+        "music.generation-queue.enabled=false"
+})
+@ActiveProfiles("test")
+class MusicGenerationThroughputTest {
+
+    private static final int THREADS = 8;
+    private static final int REQUESTS = 40;
+    private static final int BENCHMARK_REQUESTS = 200;
+
+    @Autowired
+    private MusicService musicService;
+
+    @Autowired
+    private UserRepository userRepository;
+
+    @Autowired
+    private GenerationJobRepository generationJobRepository;
+
+    @Autowired
+    private TransactionTemplate transactionTemplate;
+
+    @Autowired
+    private EntityManagerFactory entityManagerFactory;
+
+    @Autowired
+    private BatchGenerationService batchGenerationService;
+
+    @Autowired
+    private BatchGenerationConfig batchGenerationConfig;
+
+    @Autowired
+    private ObjectMapper objectMapper;
+
+    @MockBean
+    private SunoApiClient sunoApiClient;
+
+    private Statistics statistics;
+    private List<UUID> userIds;
+
+    @BeforeEach
+    void setUp() {
+        statistics = entityManagerFactory.unwrap(SessionFactory.class).getStatistics();
+        userIds = new ArrayList<>();
+        for (int i = 0; i < THREADS; i++) {
+            userIds.add(userRepository.save(MusicTestFactory.createTestUser()).getId());
+        }
+    }
+
+    @Test
+    void shouldInsertWithoutUserLookup_whenGeneratingConcurrently() throws Exception {
+        // When
+        Result lookup = run(this::generateWithLookup, REQUESTS);
+        Result reference = run(this::generate, REQUESTS);
+
+        // Then
+        assertEquals(REQUESTS, lookup.userLoads());
+        assertEquals(0, reference.userLoads());
+    }
+
+    @Test
+    @EnabledIfSystemProperty(named = "benchmark", matches = "true")
+    void shouldIncreaseThroughput_whenInsertingWithUserReference() throws Exception {
+        // Given: 预热
+        run(this::generate, BENCHMARK_REQUESTS / 4);
+
+        // When
+        Result lookup = run(this::generateWithLookup, BENCHMARK_REQUESTS);
+        Result reference = run(this::generate, BENCHMARK_REQUESTS);
+
+        // Then
+        log.info(String.format("音乐生成写入吞吐(线程=%d, 请求=%d): 查询用户 %.0f 次/秒, 代理引用 %.0f 次/秒",
+                THREADS, BENCHMARK_REQUESTS, lookup.throughput(), reference.throughput()));
+        assertEquals(BENCHMARK_REQUESTS, lookup.userLoads());
+        assertEquals(0, reference.userLoads());
+    }
+
+    @Test
+    void shouldRejectGeneration_whenUserDoesNotExist() {
+        // Given
+        MusicGenerationRequest request = MusicTestFactory.createMusicGenerationRequest(UUID.randomUUID());
+
+        // When & Then
+        assertThatThrownBy(() -> musicService.generateMusic(request))
+                .isInstanceOf(EntityNotFoundException.class)
+                .hasMessageContaining("用户不存在");
+    }
+
+    @Test
+    void shouldBatchInserts_whenGeneratingInBulk() {
+        // Given
+        List<MusicGenerationRequest> requests = new ArrayList<>();
+        for (int i = 0; i < 20; i++) {
+            MusicGenerationRequest request = MusicTestFactory.createMusicGenerationRequest(userIds.get(i % THREADS));
+            request.setPrompt(request.getPrompt() + " " + UUID.randomUUID());
+            // 批量提交中客户端声明的交互优先级不生效
+            request.setPriority(i % 2 == 0 ? GenerationPriority.INTERACTIVE : null);
+            requests.add(request);
+        }
+        SqlStatementCounter.reset();
+
+        // When
+        List<MusicGenerationResultDTO> created = transactionTemplate.execute(
+                tx -> musicService.generateMusicBatch(requests));
+
+        // Then
+        assertEquals(20, created.size());
+        assertEquals(requests.get(0).getPrompt(), musicService.getMusicById(created.get(0).getMusicId()).getPrompt());
+        assertTrue(created.stream().allMatch(result -> result.getJobId() != null));
+        assertTrue(created.stream().allMatch(result -> generationJobRepository.findById(result.getJobId())
+                .orElseThrow().getPriority() == GenerationPriority.BATCH));
+        assertEquals(1, SqlStatementCounter.count("insert into music"));
+        assertEquals(1, SqlStatementCounter.count("insert into generation_job"));
+    }
+
+    @Test
+    void shouldInsertOncePerChunk_whenStreamingBatchRequest() throws Exception {
+        // Given
+        int requests = 45;
+        StringBuilder body = new StringBuilder();
+        for (int i = 0; i < requests; i++) {
+            MusicGenerationRequest request = MusicTestFactory.createMusicGenerationRequest(userIds.get(i % THREADS));
+            request.setPrompt(request.getPrompt() + " " + UUID.randomUUID());
+            request.setTitle("批量生成 " + i);
+            request.setDuration(30);
+            body.append(objectMapper.writeValueAsString(request)).append('\n');
+        }
+        int chunkSize = batchGenerationConfig.getChunkSize();
+        batchGenerationConfig.setChunkSize(20);
+        SqlStatementCounter.reset();
+        ByteArrayOutputStream output = new ByteArrayOutputStream();
+
+        // When
+        int created;
+        try {
+            created = batchGenerationService.generate(
+                    new ByteArrayInputStream(body.toString().getBytes(StandardCharsets.UTF_8)), output);
+        } finally {
+            batchGenerationConfig.setChunkSize(chunkSize);
+        }
+
+        // Then
+        String[] lines = output.toString(StandardCharsets.UTF_8).split("\n");
+        assertEquals(requests, created);
+        assertEquals(requests, lines.length);
+        assertTrue(objectMapper.readTree(lines[requests - 1]).hasNonNull("jobId"));
+        // 每批一次批量插入：45条分为20、20、5三批
+        assertEquals(3, SqlStatementCounter.count("insert into music"));
+        assertEquals(3, SqlStatementCounter.count("insert into generation_job"));
+    }
+
+    private void generate(MusicGenerationRequest request) {
+        musicService.generateMusic(request);
+    }
+
+    /**
+     * 改动前的写入路径：先加载用户，再插入音乐
+     */
+    private void generateWithLookup(MusicGenerationRequest request) {
+        transactionTemplate.executeWithoutResult(tx -> {
+            userRepository.findById(request.getUserId()).orElseThrow();
+            musicService.generateMusic(request);
+        });
+    }
+
+    private record Result(double throughput, long userLoads) {
+    }
+
+    /**
+     * 每个线程使用各自的用户并发提交请求，返回每秒请求数和期间加载用户实体的次数
+     */
+    private Result run(Consumer<MusicGenerationRequest> generation, int requests) throws Exception {
+        statistics.clear();
+        ExecutorService workers = Executors.newFixedThreadPool(THREADS);
+        List<CompletableFuture<Void>> futures = new ArrayList<>();
+        long start = System.nanoTime();
+        for (int i = 0; i < requests; i++) {
+            MusicGenerationRequest request = MusicTestFactory.createMusicGenerationRequest(userIds.get(i % THREADS));
+            request.setPrompt(request.getPrompt() + " " + UUID.randomUUID());
+            futures.add(CompletableFuture.runAsync(() -> generation.accept(request), workers));
+        }
+        CompletableFuture.allOf(futures.toArray(new CompletableFuture[0])).get();
+        double seconds = (System.nanoTime() - start) / 1_000_000_000.0;
+        workers.shutdown();
+        long userLoads = statistics.getEntityStatistics(User.class.getName()).getLoadCount();
+        return new Result(requests / seconds, userLoads);
+    }
+}
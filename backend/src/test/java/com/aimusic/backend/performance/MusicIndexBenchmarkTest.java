@@ -0,0 +1,227 @@
+package com.aimusic.backend.performance;
+
+import lombok.extern.slf4j.Slf4j;
+import org.flywaydb.core.Flyway;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.condition.EnabledIfSystemProperty;
+import org.testcontainers.containers.PostgreSQLContainer;
+import org.testcontainers.junit.jupiter.Container;
+import org.testcontainers.junit.jupiter.Testcontainers;
+
+import java.sql.Connection;
+import java.sql.DriverManager;
+import java.sql.PreparedStatement;
+import java.sql.ResultSet;
+import java.sql.SQLException;
+import java.sql.Statement;
+import java.sql.Types;
+import java.time.LocalDateTime;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.UUID;
+
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+/**
+ * 音乐表索引基准测试
+ * 在PostgreSQL容器中灌入大量数据，分别在索引迁移之前（V6）和全部迁移之后执行热点查询，输出执行计划和延迟中位数。
+ * 需要Docker，默认不执行：
+ * {@code mvn test -Dtest=MusicIndexBenchmarkTest -Dbenchmark=true -Dbenchmark.rows=2000000}
+ */
+@Slf4j
+@Testcontainers(disabledWithoutDocker = true)
+@EnabledIfSystemProperty(named = "benchmark", matches = "true")
+class MusicIndexBenchmarkTest {
+
+    private static final int ROWS = Integer.getInteger("benchmark.rows", 2_000_000);
+    private static final int USERS = 10_000;
+    private static final int RUNS = 20;
+
+    @Container
+    private static final PostgreSQLContainer<?> POSTGRES = new PostgreSQLContainer<>("postgres:15-alpine");
+
+    /**
+     * 热点查询，SQL与仓库方法生成的语句形式一致
+     */
+    private record HotQuery(String name, String sql, Object... params) {
+    }
+
+    private record Result(double medianMillis, String plan) {
+    }
+
+    @Test
+    void shouldUseIndexes_whenHotQueriesRunAfterMigration() throws Exception {
+        // Given
+        flyway("6").migrate();
+        Map<String, Result> baseline;
+        Map<String, Result> indexed;
+        try (Connection connection = connect()) {
+            seed(connection);
+            analyze(connection);
+            // 迁移前进行中的状态为枚举值 GENERATING，V9 迁移为 PROCESSING
+            List<HotQuery> queries = hotQueries(connection);
+            baseline = measure(connection, queries, "GENERATING");
+
+            // When
+            flyway(null).migrate();
+            analyze(connection);
+            indexed = measure(connection, queries, "PROCESSING");
+        }
+
+        // Then
+        log.info("音乐表索引基准(行数={}, 用户数={}, 每条查询执行{}次)", ROWS, USERS, RUNS);
+        for (String name : indexed.keySet()) {
+            log.info(String.format("== %s: 迁移前 %.2f ms -> 迁移后 %.2f ms%n-- 迁移前执行计划%n%s%n-- 迁移后执行计划%n%s",
+                    name, baseline.get(name).medianMillis(), indexed.get(name).medianMillis(),
+                    baseline.get(name).plan(), indexed.get(name).plan()));
+        }
+        indexed.forEach((name, result) ->
+                assertTrue(result.plan().contains("Index"), name + " 未使用索引:\n" + result.plan()));
+    }
+
+    private Flyway flyway(String target) {
+        var configuration = Flyway.configure()
+                .dataSource(POSTGRES.getJdbcUrl(), POSTGRES.getUsername(), POSTGRES.getPassword())
+                .locations("classpath:db/migration", "classpath:db/vendor/postgresql");
+        if (target != null) {
+            configuration.target(target);
+        }
+        return configuration.load();
+    }
+
+    private Connection connect() throws SQLException {
+        return DriverManager.getConnection(POSTGRES.getJdbcUrl(), POSTGRES.getUsername(), POSTGRES.getPassword());
+    }
+
+    /**
+     * 用 generate_series 在数据库内生成数据：1%待提交，1%生成中，93%已完成，5%失败；
+     * 已完成的音乐中每100条有1条尚未导入，音频地址仍为Suno CDN地址
+     */
+    private void seed(Connection connection) throws SQLException {
+        try (PreparedStatement users = connection.prepareStatement("""
+                INSERT INTO users (id, username, email, created_at)
+                SELECT gen_random_uuid(), 'user' || g, 'user' || g || '@example.com', now()
+                FROM generate_series(1, ?) g
+                """);
+             PreparedStatement music = connection.prepareStatement("""
+                INSERT INTO music (id, user_id, prompt, generation_id, audio_url, status, created_at, updated_at)
+                SELECT gen_random_uuid(),
+                       u.ids[1 + g % array_length(u.ids, 1)],
+                       'prompt ' || g,
+                       CASE WHEN g % 100 = 0 THEN NULL ELSE 'gen_' || g END,
+                       CASE WHEN g % 100 = 94 THEN 'https://cdn.suno.ai/' || g || '.mp3'
+                            WHEN g % 100 BETWEEN 2 AND 93 THEN '/files/' || g || '.mp3' END,
+                       (CASE WHEN g % 100 = 0 THEN 'PENDING'
+                             WHEN g % 100 = 1 THEN 'GENERATING'
+                             WHEN g % 100 < 95 THEN 'COMPLETED'
+                             ELSE 'FAILED' END)::music_status,
+                       now() - g * interval '1 second',
+                       now() - g * interval '1 second'
+                FROM generate_series(1, ?) g, (SELECT array_agg(id) AS ids FROM users) u
+                """)) {
+            users.setInt(1, USERS);
+            users.executeUpdate();
+            music.setInt(1, ROWS);
+            music.executeUpdate();
+        }
+    }
+
+    private void analyze(Connection connection) throws SQLException {
+        try (Statement statement = connection.createStatement()) {
+            statement.execute("VACUUM ANALYZE music");
+        }
+    }
+
+    private List<HotQuery> hotQueries(Connection connection) throws SQLException {
+        UUID userId;
+        LocalDateTime cursorCreatedAt;
+        UUID cursorId;
+        try (Statement statement = connection.createStatement()) {
+            try (ResultSet rs = statement.executeQuery("SELECT id FROM users ORDER BY username LIMIT 1 OFFSET 42")) {
+                rs.next();
+                userId = rs.getObject(1, UUID.class);
+            }
+            try (ResultSet rs = statement.executeQuery(
+                    "SELECT created_at, id FROM music ORDER BY created_at DESC, id DESC LIMIT 1 OFFSET " + ROWS / 2)) {
+                rs.next();
+                cursorCreatedAt = rs.getObject(1, LocalDateTime.class);
+                cursorId = rs.getObject(2, UUID.class);
+            }
+        }
+        return List.of(
+                new HotQuery("findByGenerationId",
+                        "SELECT * FROM music WHERE generation_id = ?", "gen_" + (ROWS / 2 + 1)),
+                new HotQuery("findByUserId(分页)",
+                        "SELECT * FROM music WHERE user_id = ? ORDER BY created_at DESC LIMIT 20", userId),
+                new HotQuery("findAllByOrderByCreatedAtDesc(第一页)",
+                        "SELECT * FROM music ORDER BY created_at DESC LIMIT 20"),
+                new HotQuery("findPageAfter(游标位于表中部)",
+                        "SELECT * FROM music WHERE created_at <= ? AND (created_at < ? OR id < ?)"
+                                + " ORDER BY created_at DESC, id DESC LIMIT 20",
+                        cursorCreatedAt, cursorCreatedAt, cursorId),
+                new HotQuery("findByStatusAndGenerationIdIsNotNull(状态轮询)",
+                        "SELECT * FROM music WHERE status = ? AND generation_id IS NOT NULL"
+                                + " ORDER BY created_at ASC, id ASC LIMIT 100",
+                        (Object) null),
+                new HotQuery("findByAudioUrl(导入完成回写)",
+                        "SELECT * FROM music WHERE audio_url = ?", "https://cdn.suno.ai/" + (ROWS / 2 + 94) + ".mp3"),
+                new HotQuery("existsByAudioUrlAndIdNot(删除时判断共享)",
+                        "SELECT id FROM music WHERE audio_url = ? AND id <> ? LIMIT 1",
+                        "/files/" + (ROWS / 2 + 10) + ".mp3", UUID.randomUUID()),
+                // 状态以字面量写入，迁移前后分别按枚举和VARCHAR解析
+                new HotQuery("findByStatusAndAudioUrlStartingWith(导入补偿)",
+                        "SELECT * FROM music WHERE status = 'COMPLETED' AND audio_url LIKE ? ESCAPE '\\'"
+                                + " ORDER BY updated_at ASC, id ASC LIMIT 100",
+                        "http%"));
+    }
+
+    private Map<String, Result> measure(Connection connection, List<HotQuery> queries, String inFlightStatus)
+            throws SQLException {
+        Map<String, Result> results = new LinkedHashMap<>();
+        for (HotQuery query : queries) {
+            double[] millis = new double[RUNS];
+            for (int i = 0; i < RUNS; i++) {
+                try (PreparedStatement statement = prepare(connection, query.sql(), query.params(), inFlightStatus)) {
+                    long start = System.nanoTime();
+                    try (ResultSet rs = statement.executeQuery()) {
+                        while (rs.next()) {
+                            // 读取全部结果，计入传输时间
+                        }
+                    }
+                    millis[i] = (System.nanoTime() - start) / 1_000_000.0;
+                }
+            }
+            Arrays.sort(millis);
+
+            List<String> plan = new ArrayList<>();
+            try (PreparedStatement explain = prepare(connection, "EXPLAIN (ANALYZE, BUFFERS) " + query.sql(),
+                    query.params(), inFlightStatus);
+                 ResultSet rs = explain.executeQuery()) {
+                while (rs.next()) {
+                    plan.add(rs.getString(1));
+                }
+            }
+            results.put(query.name(), new Result(millis[RUNS / 2], String.join("\n", plan)));
+        }
+        return results;
+    }
+
+    /**
+     * 绑定参数，null占位为进行中的状态；状态以未指定类型传入，迁移前后分别按枚举和VARCHAR解析
+     */
+    private PreparedStatement prepare(Connection connection, String sql, Object[] params, String inFlightStatus)
+            throws SQLException {
+        PreparedStatement statement = connection.prepareStatement(sql);
+        for (int i = 0; i < params.length; i++) {
+            if (params[i] == null) {
+                statement.setObject(i + 1, inFlightStatus, Types.OTHER);
+            } else {
+                statement.setObject(i + 1, params[i]);
+            }
+        }
+        return statement;
+    }
+}
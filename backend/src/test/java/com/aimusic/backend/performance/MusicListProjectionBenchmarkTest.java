@@ -0,0 +1,153 @@
+package com.aimusic.backend.performance;
+
+import com.aimusic.backend.domain.dto.MusicDTO;
+import com.aimusic.backend.domain.entity.Music;
+import com.aimusic.backend.domain.entity.User;
+import com.aimusic.backend.domain.enums.MusicStatus;
+import com.aimusic.backend.domain.repository.MusicRepository;
+import com.aimusic.backend.utils.MusicTestFactory;
+import com.fasterxml.jackson.core.JsonProcessingException;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.fasterxml.jackson.databind.SerializationFeature;
+import com.fasterxml.jackson.databind.json.JsonMapper;
+import lombok.extern.slf4j.Slf4j;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.condition.EnabledIfSystemProperty;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.autoconfigure.orm.jpa.DataJpaTest;
+import org.springframework.boot.test.autoconfigure.orm.jpa.TestEntityManager;
+import org.springframework.data.domain.Page;
+import org.springframework.data.domain.PageRequest;
+import org.springframework.data.domain.Pageable;
+import org.springframework.test.context.ActiveProfiles;
+
+import java.lang.management.ManagementFactory;
+import java.util.Arrays;
+import java.util.UUID;
+import java.util.function.Supplier;
+
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+/**
+ * 音乐列表投影基准测试
+ * 对比列表页加载完整实体再转换DTO与直接投影摘要DTO两种方式每页响应的JSON字节数；
+ * 查询、转换和序列化一页时线程分配的堆内存（中位数）受JIT和GC影响，默认不执行：
+ * {@code mvn test -Dtest=MusicListProjectionBenchmarkTest -Dbenchmark=true}。
+ * 内存数据库读取时直接返回已存储的字符串，不计解码结果集的分配，实际数据库上两种方式的差距更大
+ */
+@Slf4j
+@DataJpaTest
+@ActiveProfiles("test")
+class MusicListProjectionBenchmarkTest {
+
+    private static final int ROWS = 200;
+    private static final int PAGE_SIZE = 20;
+    private static final int WARMUP = 20;
+    private static final int RUNS = 50;
+    /** 测试库中字符串列的默认长度 */
+    private static final int COLUMN_LENGTH = 255;
+
+    private static final ObjectMapper OBJECT_MAPPER = JsonMapper.builder()
+            .findAndAddModules()
+            .disable(SerializationFeature.WRITE_DATES_AS_TIMESTAMPS)
+            .build();
+
+    @Autowired
+    private MusicRepository musicRepository;
+
+    @Autowired
+    private TestEntityManager entityManager;
+
+    @BeforeEach
+    void setUp() {
+        User user = entityManager.persist(MusicTestFactory.createTestUser());
+        for (int i = 0; i < ROWS; i++) {
+            Music music = MusicTestFactory.createTestMusic(user);
+            music.setId(null);
+            // 大字段按列宽填满，模拟长提示词和完整歌词
+            music.setPrompt(fill("prompt " + i + " "));
+            music.setLyrics(fill("lyrics " + i + " "));
+            music.setErrorMessage(fill("error " + i + " "));
+            music.setAudioUrl("/files/" + UUID.randomUUID() + ".mp3");
+            music.setStatus(MusicStatus.COMPLETED);
+            entityManager.persist(music);
+        }
+        entityManager.flush();
+        entityManager.clear();
+    }
+
+    @Test
+    void shouldSerializeFewerBytes_whenListingSummaries() {
+        // Given
+        Pageable pageable = PageRequest.of(0, PAGE_SIZE);
+
+        // When
+        int entityBytes = toJson(
+                musicRepository.findAllByOrderByCreatedAtDesc(pageable).map(MusicDTO::fromEntity)).length;
+        entityManager.clear();
+        int summaryBytes = toJson(musicRepository.findSummaries(pageable)).length;
+
+        // Then
+        log.info(String.format("音乐列表投影(每页%d条): 完整实体JSON %d 字节, 摘要投影JSON %d 字节, 减少 %.1f%%",
+                PAGE_SIZE, entityBytes, summaryBytes, reduction(entityBytes, summaryBytes)));
+        assertTrue(summaryBytes < entityBytes);
+    }
+
+    @Test
+    @EnabledIfSystemProperty(named = "benchmark", matches = "true")
+    void shouldAllocateLess_whenListingSummaries() {
+        // Given
+        Pageable pageable = PageRequest.of(0, PAGE_SIZE);
+
+        // When
+        long entity = measureAllocation(
+                () -> musicRepository.findAllByOrderByCreatedAtDesc(pageable).map(MusicDTO::fromEntity));
+        long summary = measureAllocation(() -> musicRepository.findSummaries(pageable));
+
+        // Then
+        log.info("音乐列表投影基准(行数={}, 每页{}条, 每种方式执行{}次)", ROWS, PAGE_SIZE, RUNS);
+        log.info(String.format("完整实体每页分配 %d 字节, 摘要投影每页分配 %d 字节, 减少 %.1f%%",
+                entity, summary, reduction(entity, summary)));
+        assertTrue(summary < entity);
+    }
+
+    /**
+     * 查询、转换和序列化一页时线程分配的堆内存中位数
+     * 每次查询前清空持久化上下文，使实体方式每次都重新读取和托管实体
+     */
+    private long measureAllocation(Supplier<Page<?>> query) {
+        com.sun.management.ThreadMXBean threads = (com.sun.management.ThreadMXBean) ManagementFactory.getThreadMXBean();
+        long threadId = Thread.currentThread().getId();
+        for (int i = 0; i < WARMUP; i++) {
+            entityManager.clear();
+            toJson(query.get());
+        }
+
+        long[] allocated = new long[RUNS];
+        for (int i = 0; i < RUNS; i++) {
+            entityManager.clear();
+            long before = threads.getThreadAllocatedBytes(threadId);
+            toJson(query.get());
+            allocated[i] = threads.getThreadAllocatedBytes(threadId) - before;
+        }
+        Arrays.sort(allocated);
+        return allocated[RUNS / 2];
+    }
+
+    private byte[] toJson(Page<?> page) {
+        try {
+            return OBJECT_MAPPER.writeValueAsBytes(page.getContent());
+        } catch (JsonProcessingException e) {
+            throw new IllegalStateException(e);
+        }
+    }
+
+    private static String fill(String prefix) {
+        return (prefix + "x".repeat(COLUMN_LENGTH)).substring(0, COLUMN_LENGTH);
+    }
+
+    private static double reduction(long before, long after) {
+        return 100.0 * (before - after) / before;
+    }
+}
@@ -1,30 +1,27 @@
 package com.aimusic.backend.performance;
 
-import com.aimusic.backend.domain.dto.MusicDTO;
 import com.aimusic.backend.domain.dto.MusicGenerationRequest;
 import com.aimusic.backend.domain.entity.User;
+import com.aimusic.backend.domain.repository.MusicRepository;
 import com.aimusic.backend.domain.repository.UserRepository;
 import com.aimusic.backend.domain.service.MusicService;
+import com.aimusic.backend.utils.MusicTestFactory;
 import com.aimusic.backend.utils.TestDataFactory;
+import org.junit.jupiter.api.AfterEach;
 import org.junit.jupiter.api.BeforeEach;
 import org.junit.jupiter.api.Test;
 import org.springframework.beans.factory.annotation.Autowired;
 import org.springframework.boot.test.context.SpringBootTest;
-import org.springframework.data.domain.Page;
-import org.springframework.data.domain.PageRequest;
 import org.springframework.test.context.ActiveProfiles;
-import org.springframework.transaction.annotation.Transactional;
 
 import java.time.Duration;
 import java.time.Instant;
-import java.time.LocalDateTime;
 import java.util.ArrayList;
 import java.util.List;
 import java.util.concurrent.CompletableFuture;
 import java.util.concurrent.ExecutorService;
 import java.util.concurrent.Executors;
 import java.util.stream.IntStream;
-import java.util.UUID;
 
 import static org.junit.jupiter.api.Assertions.assertTrue;
 import static org.junit.jupiter.api.Assertions.assertDoesNotThrow;
@@ -32,10 +29,10 @@ import static org.junit.jupiter.api.Assertions.assertEquals;
 
 /**
  * 音乐服务性能测试
+ * 生成请求在各自的线程和事务中执行，测试用户需要先提交才能被引用，测试结束后删除生成的数据
  */
 @SpringBootTest
 @ActiveProfiles("test")
-@Transactional
 public class MusicServicePerformanceTest {
 
     @Autowired
@@ -44,6 +41,9 @@ public class MusicServicePerformanceTest {
     @Autowired
     private UserRepository userRepository;
 
+    @Autowired
+    private MusicRepository musicRepository;
+
     private static final int CONCURRENT_REQUESTS = 10;
     private static final long ACCEPTABLE_DURATION_MS = 5000;
 
@@ -51,13 +51,14 @@ public class MusicServicePerformanceTest {
 
     @BeforeEach
     void setUp() {
-        testUser = User.builder()
-                .id(UUID.randomUUID())
-                .username("test-user")
-                .email("test@example.com")
-                .createdAt(LocalDateTime.now())
-                .build();
-        userRepository.save(testUser);
+        testUser = userRepository.save(MusicTestFactory.createTestUser());
+    }
+
+    @AfterEach
+    void tearDown() {
+        // 生成任务随音乐级联删除
+        musicRepository.deleteAll(musicRepository.findByUserId(testUser.getId()));
+        userRepository.deleteById(testUser.getId());
     }
 
     @Test
@@ -87,8 +88,7 @@ public class MusicServicePerformanceTest {
         executorService.shutdown();
         
         // 验证结果
-        Page<MusicDTO> musicPage = musicService.listMusic(PageRequest.of(0, 20));
-        assertEquals(concurrentRequests, musicPage.getTotalElements());
+        assertEquals(concurrentRequests, musicRepository.findByUserId(testUser.getId()).size());
     }
 
     @Test
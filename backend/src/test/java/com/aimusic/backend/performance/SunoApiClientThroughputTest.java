@@ -0,0 +1,134 @@
+package com.aimusic.backend.performance;
+
+import com.aimusic.backend.client.SunoApiClient;
+import com.aimusic.backend.client.SunoAsyncApiClient;
+import com.aimusic.backend.config.SunoApiConfig;
+import com.aimusic.backend.config.SunoHttpClientConfig;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.sun.net.httpserver.HttpServer;
+import lombok.extern.slf4j.Slf4j;
+import org.apache.hc.client5.http.impl.async.CloseableHttpAsyncClient;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.condition.EnabledIfSystemProperty;
+import org.springframework.http.client.SimpleClientHttpRequestFactory;
+import org.springframework.test.util.ReflectionTestUtils;
+import org.springframework.web.client.RestTemplate;
+
+import java.io.IOException;
+import java.io.OutputStream;
+import java.net.InetSocketAddress;
+import java.nio.charset.StandardCharsets;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.TimeUnit;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+/**
+ * Suno API客户端吞吐量对比测试
+ * 使用带固定延迟的本地桩服务器，对比阻塞客户端与异步连接池客户端。
+ * 结果取决于机器负载，默认不执行：
+ * {@code mvn test -Dtest=SunoApiClientThroughputTest -Dbenchmark=true}
+ */
+@Slf4j
+@EnabledIfSystemProperty(named = "benchmark", matches = "true")
+class SunoApiClientThroughputTest {
+
+    private static final int TOTAL_REQUESTS = 200;
+    private static final int CALLER_THREADS = 8;
+    private static final long UPSTREAM_LATENCY_MS = 50;
+
+    private HttpServer server;
+    private ExecutorService serverExecutor;
+    private String apiUrl;
+
+    @BeforeEach
+    void setUp() throws IOException {
+        serverExecutor = Executors.newFixedThreadPool(TOTAL_REQUESTS);
+        server = HttpServer.create(new InetSocketAddress("127.0.0.1", 0), TOTAL_REQUESTS);
+        server.setExecutor(serverExecutor);
+        server.createContext("/generate", exchange -> {
+            exchange.getRequestBody().readAllBytes();
+            try {
+                Thread.sleep(UPSTREAM_LATENCY_MS);
+            } catch (InterruptedException e) {
+                Thread.currentThread().interrupt();
+            }
+            byte[] bytes = "{\"id\":\"test-id\"}".getBytes(StandardCharsets.UTF_8);
+            exchange.getResponseHeaders().add("Content-Type", "application/json");
+            exchange.sendResponseHeaders(200, bytes.length);
+            try (OutputStream os = exchange.getResponseBody()) {
+                os.write(bytes);
+            }
+        });
+        server.start();
+        apiUrl = "http://127.0.0.1:" + server.getAddress().getPort();
+    }
+
+    @AfterEach
+    void tearDown() {
+        server.stop(0);
+        serverExecutor.shutdownNow();
+    }
+
+    @Test
+    void asyncClient_ShouldOutperformBlockingClient_WhenCallerThreadsAreLimited() throws Exception {
+        // Given
+        SimpleClientHttpRequestFactory factory = new SimpleClientHttpRequestFactory();
+        factory.setConnectTimeout(5000);
+        factory.setReadTimeout(30000);
+        SunoApiClient blockingClient = new SunoApiClient(new RestTemplate(factory));
+        ReflectionTestUtils.setField(blockingClient, "apiUrl", apiUrl);
+        ReflectionTestUtils.setField(blockingClient, "cookie", "test-cookie");
+
+        CloseableHttpAsyncClient httpClient = new SunoHttpClientConfig().sunoHttpAsyncClient(new SunoApiConfig());
+        SunoAsyncApiClient asyncClient = new SunoAsyncApiClient(httpClient, new ObjectMapper());
+        ReflectionTestUtils.setField(asyncClient, "apiUrl", apiUrl);
+        ReflectionTestUtils.setField(asyncClient, "cookie", "test-cookie");
+
+        // When
+        long blockingMillis = measureBlocking(blockingClient);
+        long asyncMillis = measureAsync(asyncClient);
+        httpClient.close();
+
+        // Then
+        log.info(String.format("Suno客户端吞吐量: 阻塞=%.1f req/s (%d ms), 异步=%.1f req/s (%d ms)",
+                TOTAL_REQUESTS * 1000.0 / blockingMillis, blockingMillis,
+                TOTAL_REQUESTS * 1000.0 / asyncMillis, asyncMillis));
+        assertTrue(asyncMillis < blockingMillis,
+                String.format("异步客户端耗时%dms应小于阻塞客户端耗时%dms", asyncMillis, blockingMillis));
+    }
+
+    private long measureBlocking(SunoApiClient client) throws Exception {
+        ExecutorService callers = Executors.newFixedThreadPool(CALLER_THREADS);
+        List<CompletableFuture<String>> futures = new ArrayList<>();
+        long start = System.nanoTime();
+        for (int i = 0; i < TOTAL_REQUESTS; i++) {
+            futures.add(CompletableFuture.supplyAsync(() -> client.generateMusic("test prompt"), callers));
+        }
+        for (CompletableFuture<String> future : futures) {
+            assertEquals("test-id", future.get(60, TimeUnit.SECONDS));
+        }
+        long elapsed = TimeUnit.NANOSECONDS.toMillis(System.nanoTime() - start);
+        callers.shutdown();
+        return elapsed;
+    }
+
+    private long measureAsync(SunoAsyncApiClient client) throws Exception {
+        List<CompletableFuture<String>> futures = new ArrayList<>();
+        long start = System.nanoTime();
+        for (int i = 0; i < TOTAL_REQUESTS; i++) {
+            futures.add(client.generateMusic("test prompt"));
+        }
+        for (CompletableFuture<String> future : futures) {
+            assertEquals("test-id", future.get(60, TimeUnit.SECONDS));
+        }
+        return TimeUnit.NANOSECONDS.toMillis(System.nanoTime() - start);
+    }
+}
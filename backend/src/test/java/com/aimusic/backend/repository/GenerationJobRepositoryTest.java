@@ -0,0 +1,166 @@
+package com.aimusic.backend.repository;
+
+import com.aimusic.backend.domain.entity.GenerationJob;
+import com.aimusic.backend.domain.enums.GenerationJobStatus;
+import com.aimusic.backend.domain.enums.GenerationPriority;
+import com.aimusic.backend.domain.repository.GenerationJobRepository;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.autoconfigure.orm.jpa.DataJpaTest;
+import org.springframework.boot.test.autoconfigure.orm.jpa.TestEntityManager;
+import org.springframework.data.domain.PageRequest;
+import org.springframework.test.context.ActiveProfiles;
+
+import java.time.LocalDateTime;
+import java.time.temporal.ChronoUnit;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.UUID;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+/**
+ * 音乐生成任务仓库测试类
+ */
+@DataJpaTest
+@ActiveProfiles("test")
+class GenerationJobRepositoryTest {
+
+    @Autowired
+    private GenerationJobRepository generationJobRepository;
+
+    @Autowired
+    private TestEntityManager entityManager;
+
+    @Test
+    void shouldLockDueQueuedJobsAndExpiredLeases() {
+        // Arrange
+        LocalDateTime now = LocalDateTime.now();
+        GenerationJob due = saveJob(GenerationJobStatus.QUEUED, now.minusSeconds(10), null, null);
+        GenerationJob notYetDue = saveJob(GenerationJobStatus.QUEUED, now.plusMinutes(1), null, null);
+        GenerationJob expired = saveJob(GenerationJobStatus.RUNNING, now.minusMinutes(5), "dead-instance", now.minusSeconds(1));
+        GenerationJob leased = saveJob(GenerationJobStatus.RUNNING, now.minusMinutes(5), "live-instance", now.plusMinutes(1));
+        GenerationJob finished = saveJob(GenerationJobStatus.SUCCEEDED, now.minusMinutes(5), null, null);
+
+        List<UUID> all = List.of(due.getId(), notYetDue.getId(), expired.getId(), leased.getId(), finished.getId());
+
+        // Act
+        List<GenerationJob> candidates = generationJobRepository.findClaimCandidates(now, 10, 100);
+        List<GenerationJob> expiredLeases = generationJobRepository
+                .findByStatusAndLeaseExpiresAtBeforeOrderByLeaseExpiresAt(
+                        GenerationJobStatus.RUNNING, now, PageRequest.of(0, 10));
+        List<GenerationJob> claimable = generationJobRepository.lockClaimableJobs(all, now);
+
+        // Assert
+        assertThat(candidates).extracting(GenerationJob::getId).containsExactly(due.getId());
+        assertThat(expiredLeases).extracting(GenerationJob::getId).containsExactly(expired.getId());
+        assertThat(claimable).extracting(GenerationJob::getId)
+                .containsExactly(expired.getId(), due.getId())
+                .doesNotContain(notYetDue.getId(), leased.getId(), finished.getId());
+    }
+
+    @Test
+    void shouldRespectLimit_whenLockingJobs() {
+        // Arrange
+        LocalDateTime now = LocalDateTime.now();
+        for (int i = 0; i < 5; i++) {
+            saveJob(GenerationJobStatus.QUEUED, now.minusSeconds(i + 1), null, null);
+        }
+
+        // Act
+        List<GenerationJob> candidates = generationJobRepository.findClaimCandidates(now, 10, 3);
+
+        // Assert
+        assertThat(candidates).hasSize(3);
+    }
+
+    @Test
+    void shouldReturnOldestJobsPerUserAndPriority_whenFindingCandidates() {
+        // Arrange
+        LocalDateTime now = LocalDateTime.now();
+        UUID flooding = UUID.randomUUID();
+        UUID other = UUID.randomUUID();
+        List<GenerationJob> floodingBatch = new ArrayList<>();
+        for (int i = 0; i < 5; i++) {
+            floodingBatch.add(saveJob(flooding, GenerationPriority.BATCH, now.minusMinutes(10 - i)));
+        }
+        GenerationJob floodingInteractive = saveJob(flooding, GenerationPriority.INTERACTIVE, now.minusSeconds(5));
+        GenerationJob otherBatch = saveJob(other, GenerationPriority.BATCH, now.minusSeconds(1));
+
+        // Act
+        List<GenerationJob> candidates = generationJobRepository.findClaimCandidates(now, 2, 100);
+
+        // Assert
+        assertThat(candidates).extracting(GenerationJob::getId)
+                .containsExactly(floodingBatch.get(0).getId(), floodingBatch.get(1).getId(),
+                        floodingInteractive.getId(), otherBatch.getId());
+        assertThat(candidates.get(2).getPriority()).isEqualTo(GenerationPriority.INTERACTIVE);
+        assertThat(candidates.get(3).getUserId()).isEqualTo(other);
+    }
+
+    @Test
+    void shouldReturnAllDueJobs_whenQueueShorterThanPerQueueLimit() {
+        // Arrange
+        LocalDateTime now = LocalDateTime.now();
+        UUID user = UUID.randomUUID();
+        GenerationJob first = saveJob(user, GenerationPriority.BATCH, now.minusMinutes(2));
+        GenerationJob second = saveJob(user, GenerationPriority.BATCH, now.minusMinutes(1));
+        saveJob(user, GenerationPriority.BATCH, now.plusMinutes(1));
+
+        // Act
+        List<GenerationJob> candidates = generationJobRepository.findClaimCandidates(now, 5, 100);
+
+        // Assert
+        assertThat(candidates).extracting(GenerationJob::getId).containsExactly(first.getId(), second.getId());
+    }
+
+    @Test
+    void shouldExtendOnlyLeasesHeldByOwner() {
+        // Arrange
+        LocalDateTime now = LocalDateTime.now().truncatedTo(ChronoUnit.SECONDS);
+        LocalDateTime originalExpiry = now.plusSeconds(10);
+        GenerationJob mine = saveJob(GenerationJobStatus.RUNNING, now, "instance-a", originalExpiry);
+        GenerationJob theirs = saveJob(GenerationJobStatus.RUNNING, now, "instance-b", originalExpiry);
+        LocalDateTime newExpiry = now.plusMinutes(1);
+
+        // Act
+        int renewed = generationJobRepository.extendLeases(
+                List.of(mine.getId(), theirs.getId()), "instance-a", GenerationJobStatus.RUNNING, newExpiry);
+        entityManager.clear();
+
+        // Assert
+        assertThat(renewed).isEqualTo(1);
+        assertThat(generationJobRepository.findById(mine.getId()).orElseThrow().getLeaseExpiresAt())
+                .isEqualTo(newExpiry);
+        assertThat(generationJobRepository.findById(theirs.getId()).orElseThrow().getLeaseExpiresAt())
+                .isEqualTo(originalExpiry);
+    }
+
+    private GenerationJob saveJob(UUID userId, GenerationPriority priority, LocalDateTime availableAt) {
+        GenerationJob job = GenerationJob.builder()
+                .musicId(UUID.randomUUID())
+                .userId(userId)
+                .priority(priority)
+                .status(GenerationJobStatus.QUEUED)
+                .attempts(0)
+                .maxAttempts(3)
+                .availableAt(availableAt)
+                .build();
+        return entityManager.persistAndFlush(job);
+    }
+
+    private GenerationJob saveJob(GenerationJobStatus status, LocalDateTime availableAt,
+                                  String leaseOwner, LocalDateTime leaseExpiresAt) {
+        GenerationJob job = GenerationJob.builder()
+                .musicId(UUID.randomUUID())
+                .userId(UUID.randomUUID())
+                .status(status)
+                .attempts(0)
+                .maxAttempts(3)
+                .availableAt(availableAt)
+                .leaseOwner(leaseOwner)
+                .leaseExpiresAt(leaseExpiresAt)
+                .build();
+        return entityManager.persistAndFlush(job);
+    }
+}
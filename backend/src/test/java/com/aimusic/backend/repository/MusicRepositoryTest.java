@@ -1,20 +1,31 @@
 package com.aimusic.backend.repository;
 
+import com.aimusic.backend.domain.dto.MusicSummaryDTO;
 import com.aimusic.backend.domain.entity.Music;
+import com.aimusic.backend.domain.entity.MusicRendition;
+import com.aimusic.backend.domain.enums.AudioCodec;
 import com.aimusic.backend.domain.enums.MusicStatus;
+import com.aimusic.backend.domain.enums.RenditionQuality;
 import com.aimusic.backend.domain.entity.User;
 import com.aimusic.backend.domain.repository.MusicRepository;
 import com.aimusic.backend.domain.repository.UserRepository;
 import com.aimusic.backend.utils.MusicTestFactory;
+import com.aimusic.backend.utils.SqlStatementCounter;
 import org.junit.jupiter.api.BeforeEach;
 import org.junit.jupiter.api.Test;
 import org.springframework.beans.factory.annotation.Autowired;
 import org.springframework.boot.test.autoconfigure.orm.jpa.DataJpaTest;
+import org.springframework.boot.test.autoconfigure.orm.jpa.TestEntityManager;
 import org.springframework.data.domain.Page;
 import org.springframework.data.domain.PageRequest;
+import org.springframework.data.domain.Slice;
 import org.springframework.test.context.ActiveProfiles;
 
 import java.time.LocalDateTime;
+import java.time.temporal.ChronoUnit;
+import java.util.ArrayList;
+import java.util.Comparator;
+import java.util.List;
 import java.util.Optional;
 import java.util.UUID;
 
@@ -23,7 +34,8 @@ import static org.assertj.core.api.Assertions.assertThat;
 /**
  * 音乐仓库测试类
  */
-@DataJpaTest
+@DataJpaTest(properties = "spring.jpa.properties.hibernate.session_factory.statement_inspector="
+        + "com.aimusic.backend.utils.SqlStatementCounter")
 @ActiveProfiles("test")
 class MusicRepositoryTest {
 
@@ -33,6 +45,9 @@ class MusicRepositoryTest {
     @Autowired
     private UserRepository userRepository;
 
+    @Autowired
+    private TestEntityManager entityManager;
+
     private User testUser;
 
     @BeforeEach
@@ -159,4 +174,239 @@ class MusicRepositoryTest {
         assertThat(firstPage.getTotalElements()).isEqualTo(15);
         assertThat(firstPage.getTotalPages()).isEqualTo(2);
     }
-} 
\ No newline at end of file
+
+    @Test
+    void shouldWalkAllMusicOnce_whenPagingByCursor() {
+        // Arrange
+        for (int i = 0; i < 15; i++) {
+            musicRepository.save(MusicTestFactory.createTestMusic(testUser));
+        }
+
+        // Act
+        List<MusicSummaryDTO> walked = new ArrayList<>();
+        Slice<MusicSummaryDTO> page = musicRepository.findFirstSummaries(PageRequest.ofSize(4));
+        walked.addAll(page.getContent());
+        while (page.hasNext()) {
+            MusicSummaryDTO last = page.getContent().get(page.getNumberOfElements() - 1);
+            page = musicRepository.findSummariesAfter(last.getCreatedAt(), last.getId(), PageRequest.ofSize(4));
+            walked.addAll(page.getContent());
+        }
+
+        // Assert
+        assertThat(walked).hasSize(15);
+        assertThat(walked).extracting(MusicSummaryDTO::getId).doesNotHaveDuplicates();
+        assertThat(walked).extracting(MusicSummaryDTO::getCreatedAt)
+                .isSortedAccordingTo(Comparator.reverseOrder());
+        assertThat(page.getNumberOfElements()).isEqualTo(3);
+    }
+
+    @Test
+    void shouldScanInFlightMusicOnce_whenPagingByCursor() {
+        // Arrange
+        for (int i = 0; i < 7; i++) {
+            Music music = MusicTestFactory.createTestMusic(testUser);
+            music.setStatus(MusicStatus.PROCESSING);
+            music.setGenerationId("gen_" + i);
+            musicRepository.save(music);
+        }
+        Music notSubmitted = MusicTestFactory.createTestMusic(testUser);
+        notSubmitted.setStatus(MusicStatus.PROCESSING);
+        notSubmitted.setGenerationId(null);
+        musicRepository.save(notSubmitted);
+        musicRepository.save(MusicTestFactory.createTestMusic(testUser));
+
+        // Act
+        List<Music> scanned = new ArrayList<>();
+        List<Music> page = musicRepository.findByStatusAndGenerationIdIsNotNullOrderByCreatedAtAscIdAsc(
+                MusicStatus.PROCESSING, PageRequest.ofSize(3));
+        scanned.addAll(page);
+        while (page.size() == 3) {
+            Music last = page.get(page.size() - 1);
+            page = musicRepository.findInFlightAfter(
+                    MusicStatus.PROCESSING, last.getCreatedAt(), last.getId(), PageRequest.ofSize(3));
+            scanned.addAll(page);
+        }
+
+        // Assert
+        assertThat(scanned).hasSize(7);
+        assertThat(scanned).extracting(Music::getId).doesNotHaveDuplicates();
+        assertThat(scanned).extracting(Music::getCreatedAt).isSorted();
+    }
+
+    @Test
+    void shouldFindLocalMusicMissingRenditions_whenSweepingByCursor() {
+        // Arrange
+        List<String> names = List.of("low-opus", "high-aac");
+        Music complete = saveCompleted("/files/complete.mp3");
+        saveRendition(complete, "low-opus");
+        saveRendition(complete, "high-aac");
+        Music partial = saveCompleted("/files/partial.mp3");
+        saveRendition(partial, "low-opus");
+        // 已不在配置中的版本不计入
+        saveRendition(partial, "medium-aac");
+        Music none = saveCompleted("/files/none.mp3");
+        saveCompleted("https://cdn.suno.ai/remote.mp3");
+
+        // Act
+        List<Music> first = musicRepository.findMissingRenditions(
+                MusicStatus.COMPLETED, "/files/", names, names.size(), PageRequest.ofSize(1));
+        Music cursor = first.get(0);
+        List<Music> rest = musicRepository.findMissingRenditionsAfter(MusicStatus.COMPLETED, "/files/", names,
+                names.size(), cursor.getCreatedAt(), cursor.getId(), PageRequest.ofSize(10));
+
+        // Assert
+        assertThat(first).extracting(Music::getId).containsExactly(partial.getId());
+        assertThat(rest).extracting(Music::getId).containsExactly(none.getId());
+    }
+
+    @Test
+    void shouldReturnSliceWithoutCount_whenListingMusic() {
+        // Arrange
+        for (int i = 0; i < 3; i++) {
+            musicRepository.save(MusicTestFactory.createTestMusic(testUser));
+        }
+
+        // Act
+        Slice<MusicSummaryDTO> first = musicRepository.findSummarySlice(PageRequest.of(0, 2));
+        Slice<MusicSummaryDTO> second = musicRepository.findSummarySlice(PageRequest.of(1, 2));
+
+        // Assert
+        assertThat(first).isNotInstanceOf(Page.class);
+        assertThat(first.getContent()).hasSize(2);
+        assertThat(first.hasNext()).isTrue();
+        assertThat(second.getContent()).hasSize(1);
+        assertThat(second.hasNext()).isFalse();
+    }
+
+    @Test
+    void shouldProjectSummaryWithPromptSnippet_whenListingMusic() {
+        // Arrange
+        Music music = MusicTestFactory.createTestMusic(testUser);
+        music.setPrompt("旋律".repeat(MusicSummaryDTO.PROMPT_SNIPPET_LENGTH));
+        Music saved = musicRepository.save(music);
+        musicRepository.save(MusicTestFactory.createTestMusic(testUser));
+
+        // Act
+        Page<MusicSummaryDTO> page = musicRepository.findSummaries(PageRequest.of(0, 1));
+
+        // Assert
+        assertThat(page.getTotalElements()).isEqualTo(2);
+        MusicSummaryDTO summary = musicRepository.findSummaries(PageRequest.of(0, 10)).getContent().stream()
+                .filter(s -> s.getId().equals(saved.getId()))
+                .findFirst().orElseThrow();
+        assertThat(summary.getPrompt()).isEqualTo(saved.getPrompt().substring(0, MusicSummaryDTO.PROMPT_SNIPPET_LENGTH));
+        assertThat(summary.getStyle()).isEqualTo(saved.getStyle());
+        assertThat(summary.getStatus()).isEqualTo(saved.getStatus());
+        assertThat(summary.getDuration()).isEqualTo(saved.getDuration());
+        assertThat(summary.getCreatedAt()).isEqualTo(saved.getCreatedAt());
+    }
+
+    @Test
+    void shouldBatchInserts_whenSavingManyMusic() {
+        // Arrange
+        List<Music> musicList = new ArrayList<>();
+        for (int i = 0; i < 20; i++) {
+            Music music = MusicTestFactory.createTestMusic(testUser);
+            music.setId(null);
+            musicList.add(music);
+        }
+        SqlStatementCounter.reset();
+
+        // Act
+        musicRepository.saveAllAndFlush(musicList);
+
+        // Assert
+        assertThat(SqlStatementCounter.count("insert into music")).isEqualTo(1);
+        assertThat(musicRepository.count()).isEqualTo(20);
+    }
+
+    @Test
+    void shouldUpdateAllStatusesInOneBatch_whenApplyingBulkStatusChange() {
+        // Arrange
+        List<Music> processing = new ArrayList<>();
+        for (int i = 0; i < 10; i++) {
+            Music music = MusicTestFactory.createTestMusic(testUser);
+            music.setId(null);
+            music.setStatus(MusicStatus.PROCESSING);
+            music.setAudioUrl(null);
+            processing.add(musicRepository.save(music));
+        }
+        entityManager.flush();
+        entityManager.clear();
+
+        List<Music> changes = new ArrayList<>();
+        for (int i = 0; i < processing.size(); i++) {
+            Music music = processing.get(i);
+            if (i % 2 == 0) {
+                music.setStatus(MusicStatus.COMPLETED);
+                music.setAudioUrl("https://cdn.suno.ai/" + i + ".mp3");
+            } else {
+                music.setStatus(MusicStatus.FAILED);
+                music.setErrorMessage("error " + i);
+            }
+            changes.add(music);
+        }
+        LocalDateTime now = LocalDateTime.now().truncatedTo(ChronoUnit.MICROS);
+        SqlStatementCounter.reset();
+
+        // Act
+        int updated = musicRepository.updateStatuses(changes, MusicStatus.PROCESSING, now);
+
+        // Assert
+        assertThat(updated).isEqualTo(10);
+        // 以JDBC批次执行固定形式的语句，不经过Hibernate逐行更新
+        assertThat(SqlStatementCounter.count("update music")).isZero();
+        entityManager.clear();
+        for (int i = 0; i < processing.size(); i++) {
+            Music reloaded = musicRepository.findById(processing.get(i).getId()).orElseThrow();
+            assertThat(reloaded.getUpdatedAt()).isEqualTo(now);
+            if (i % 2 == 0) {
+                assertThat(reloaded.getStatus()).isEqualTo(MusicStatus.COMPLETED);
+                assertThat(reloaded.getAudioUrl()).isEqualTo("https://cdn.suno.ai/" + i + ".mp3");
+                assertThat(reloaded.getErrorMessage()).isNull();
+            } else {
+                assertThat(reloaded.getStatus()).isEqualTo(MusicStatus.FAILED);
+                assertThat(reloaded.getErrorMessage()).isEqualTo("error " + i);
+                assertThat(reloaded.getAudioUrl()).isNull();
+            }
+        }
+    }
+
+    @Test
+    void shouldSkipMusic_whenStatusNoLongerExpected() {
+        // Arrange
+        Music music = MusicTestFactory.createTestMusic(testUser);
+        music.setId(null);
+        music.setStatus(MusicStatus.CANCELLED);
+        music = musicRepository.saveAndFlush(music);
+        entityManager.clear();
+        music.setStatus(MusicStatus.COMPLETED);
+
+        // Act
+        int updated = musicRepository.updateStatuses(List.of(music), MusicStatus.PROCESSING, LocalDateTime.now());
+
+        // Assert
+        assertThat(updated).isZero();
+        assertThat(musicRepository.findById(music.getId()).orElseThrow().getStatus()).isEqualTo(MusicStatus.CANCELLED);
+    }
+
+    private Music saveCompleted(String audioUrl) {
+        Music music = MusicTestFactory.createTestMusic(testUser);
+        music.setStatus(MusicStatus.COMPLETED);
+        music.setAudioUrl(audioUrl);
+        return musicRepository.saveAndFlush(music);
+    }
+
+    private void saveRendition(Music music, String name) {
+        entityManager.persistAndFlush(MusicRendition.builder()
+                .musicId(music.getId())
+                .sourceFilename(music.getAudioUrl().substring(music.getAudioUrl().lastIndexOf('/') + 1))
+                .name(name)
+                .quality(RenditionQuality.LOW)
+                .codec(AudioCodec.AAC)
+                .bitrate(64)
+                .filename(music.getId() + "-" + name + ".aac")
+                .size(1)
+                .build());
+    }
+}
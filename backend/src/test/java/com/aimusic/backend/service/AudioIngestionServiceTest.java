@@ -0,0 +1,354 @@
+package com.aimusic.backend.service;
+
+import com.aimusic.backend.config.AudioIngestionConfig;
+import com.aimusic.backend.config.StorageConfig;
+import com.aimusic.backend.domain.entity.Music;
+import com.aimusic.backend.domain.entity.StoredFile;
+import com.aimusic.backend.domain.enums.MusicStatus;
+import com.aimusic.backend.domain.event.MusicStatusChangedEvent;
+import com.aimusic.backend.domain.repository.MusicRepository;
+import com.aimusic.backend.domain.repository.StoredFileRepository;
+import com.aimusic.backend.domain.service.impl.AudioIngestionServiceImpl;
+import com.aimusic.backend.exception.StorageException;
+import com.aimusic.backend.service.impl.FileSystemStorageService;
+import com.sun.net.httpserver.HttpExchange;
+import com.sun.net.httpserver.HttpServer;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.context.ApplicationEventPublisher;
+import org.springframework.data.domain.Pageable;
+import org.springframework.transaction.PlatformTransactionManager;
+import org.springframework.util.FileSystemUtils;
+
+import java.io.IOException;
+import java.io.OutputStream;
+import java.net.InetSocketAddress;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.security.MessageDigest;
+import java.time.LocalDateTime;
+import java.util.Base64;
+import java.util.HexFormat;
+import java.util.List;
+import java.util.Random;
+import java.util.Set;
+import java.util.UUID;
+import java.util.concurrent.CopyOnWriteArrayList;
+import java.util.stream.Stream;
+
+import static org.junit.jupiter.api.Assertions.assertArrayEquals;
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertFalse;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.ArgumentMatchers.eq;
+import static org.mockito.Mockito.mock;
+import static org.mockito.Mockito.never;
+import static org.mockito.Mockito.spy;
+import static org.mockito.Mockito.times;
+import static org.mockito.Mockito.verify;
+import static org.mockito.Mockito.when;
+
+/**
+ * 音频导入服务测试类
+ * 使用本地HTTP服务模拟Suno音频CDN
+ */
+class AudioIngestionServiceTest {
+
+    private static final String TRACK_PATH = "/audio/track.mp3";
+
+    private HttpServer server;
+    private String remoteUrl;
+    private byte[] content;
+    private volatile String etag;
+    /** 非null时作为 Content-MD5 响应头返回 */
+    private volatile String contentMd5;
+    /** 前几次完整请求在发送这么多字节后断开连接，0表示不断开 */
+    private volatile int dropAfterBytes;
+    private volatile int dropCount;
+    private volatile int status = 200;
+    private final List<String> rangeHeaders = new CopyOnWriteArrayList<>();
+
+    private Path uploadDir;
+    private Path tempDir;
+    private MusicRepository musicRepository;
+    private ApplicationEventPublisher eventPublisher;
+    private AudioIngestionConfig ingestionConfig;
+    private FileSystemStorageService storageService;
+    private AudioIngestionServiceImpl ingestionService;
+
+    @BeforeEach
+    void setUp() throws Exception {
+        content = new byte[200 * 1024];
+        new Random(42).nextBytes(content);
+        etag = "\"" + HexFormat.of().formatHex(MessageDigest.getInstance("MD5").digest(content)) + "\"";
+
+        server = HttpServer.create(new InetSocketAddress("127.0.0.1", 0), 0);
+        server.createContext(TRACK_PATH, this::serveTrack);
+        server.start();
+        remoteUrl = "http://127.0.0.1:" + server.getAddress().getPort() + TRACK_PATH;
+
+        uploadDir = Files.createTempDirectory("uploads");
+        tempDir = Files.createTempDirectory("temp");
+        StorageConfig storageConfig = new StorageConfig();
+        storageConfig.setLocation(uploadDir.toString());
+        storageConfig.setTempDir(tempDir.toString());
+        storageConfig.setMaxFileSize(1024 * 1024);
+        storageConfig.setAllowedFileTypes(Set.of(".mp3", ".wav"));
+        storageConfig.setUrlPrefix("/files");
+        storageConfig.setMaxFilenameLength(100);
+        StoredFileRepository storedFileRepository = mock(StoredFileRepository.class);
+        when(storedFileRepository.save(any(StoredFile.class))).thenAnswer(invocation -> invocation.getArgument(0));
+        storageService = spy(new FileSystemStorageService(storageConfig, storedFileRepository));
+        storageService.init();
+
+        ingestionConfig = new AudioIngestionConfig();
+        ingestionConfig.setMaxAttempts(3);
+        ingestionConfig.setMaxResumes(2);
+        ingestionConfig.setRetryBackoff(10);
+        ingestionConfig.setReadTimeout(5000);
+
+        musicRepository = mock(MusicRepository.class);
+        eventPublisher = mock(ApplicationEventPublisher.class);
+        ingestionService = new AudioIngestionServiceImpl(musicRepository, storageService, ingestionConfig,
+                eventPublisher, mock(PlatformTransactionManager.class));
+    }
+
+    @AfterEach
+    void tearDown() throws IOException {
+        ingestionService.shutdown();
+        server.stop(0);
+        FileSystemUtils.deleteRecursively(uploadDir);
+        FileSystemUtils.deleteRecursively(tempDir);
+    }
+
+    @Test
+    void shouldStoreAudioAndRelinkMusic_whenDownloadSucceeds() throws Exception {
+        // Given
+        Music music = completedMusic();
+        when(musicRepository.findByAudioUrl(remoteUrl)).thenReturn(List.of(music));
+
+        // When
+        int relinked = ingestionService.ingest(remoteUrl);
+
+        // Then
+        assertEquals(1, relinked);
+        assertTrue(music.getAudioUrl().startsWith("/files/"));
+        assertArrayEquals(content, Files.readAllBytes(storedFile(music)));
+        verify(eventPublisher).publishEvent(any(MusicStatusChangedEvent.class));
+        assertEquals(List.of("none"), rangeHeaders);
+    }
+
+    @Test
+    void shouldRetainReferencePerMusic_whenSeveralMusicShareUrl() throws Exception {
+        // Given
+        Music first = completedMusic();
+        Music second = completedMusic();
+        when(musicRepository.findByAudioUrl(remoteUrl)).thenReturn(List.of(first, second));
+
+        // When
+        int relinked = ingestionService.ingest(remoteUrl);
+
+        // Then: 写入时持有一个引用，为第二个音乐再增加一个
+        assertEquals(2, relinked);
+        assertEquals(first.getAudioUrl(), second.getAudioUrl());
+        String filename = first.getAudioUrl().substring(first.getAudioUrl().lastIndexOf('/') + 1);
+        verify(storageService, times(1)).retain(filename);
+    }
+
+    @Test
+    void shouldResumeFromBreakpoint_whenConnectionDrops() throws Exception {
+        // Given
+        Music music = completedMusic();
+        when(musicRepository.findByAudioUrl(remoteUrl)).thenReturn(List.of(music));
+        dropAfterBytes = 70 * 1024;
+        dropCount = 1;
+
+        // When
+        ingestionService.ingest(remoteUrl);
+
+        // Then
+        assertArrayEquals(content, Files.readAllBytes(storedFile(music)));
+        assertEquals(2, rangeHeaders.size());
+        assertEquals("none", rangeHeaders.get(0));
+        assertTrue(rangeHeaders.get(1).startsWith("bytes="));
+        assertTrue(Long.parseLong(rangeHeaders.get(1).replaceAll("\\D", "")) > 0);
+    }
+
+    @Test
+    void shouldRejectContent_whenChecksumMismatch() throws Exception {
+        // Given
+        Music music = completedMusic();
+        contentMd5 = Base64.getEncoder().encodeToString(new byte[16]);
+
+        // When & Then
+        assertThrows(StorageException.class, () -> ingestionService.ingest(remoteUrl));
+        assertEquals(3, rangeHeaders.size());
+        assertEquals(remoteUrl, music.getAudioUrl());
+        assertTrue(storedFiles().isEmpty());
+        verify(musicRepository, never()).findByAudioUrl(any());
+    }
+
+    @Test
+    void shouldIgnoreEtag_whenOriginNotKnownToUseMd5Etag() throws Exception {
+        // Given
+        Music music = completedMusic();
+        when(musicRepository.findByAudioUrl(remoteUrl)).thenReturn(List.of(music));
+        etag = "\"" + "0".repeat(32) + "\"";
+
+        // When
+        int relinked = ingestionService.ingest(remoteUrl);
+
+        // Then
+        assertEquals(1, relinked);
+        assertEquals(1, rangeHeaders.size());
+        assertEquals(1, storedFiles().size());
+    }
+
+    @Test
+    void shouldStoreUnverified_whenKnownOriginEtagMismatch() throws Exception {
+        // Given
+        Music music = completedMusic();
+        when(musicRepository.findByAudioUrl(remoteUrl)).thenReturn(List.of(music));
+        ingestionConfig.setEtagMd5Hosts(List.of("127.0.0.1"));
+        etag = "\"" + "0".repeat(32) + "\"";
+
+        // When
+        int relinked = ingestionService.ingest(remoteUrl);
+
+        // Then
+        assertEquals(1, relinked);
+        assertEquals(1, rangeHeaders.size());
+        assertTrue(music.getAudioUrl().startsWith("/files/"));
+    }
+
+    @Test
+    void shouldNotRetry_whenRemoteLinkExpired() {
+        // Given
+        status = 404;
+
+        // When & Then
+        assertThrows(StorageException.class, () -> ingestionService.ingest(remoteUrl));
+        assertEquals(1, rangeHeaders.size());
+        assertFalse(ingestionService.submit(remoteUrl));
+    }
+
+    @Test
+    void shouldDeleteStoredFile_whenNoMusicReferencesUrl() throws Exception {
+        // Given
+        when(musicRepository.findByAudioUrl(remoteUrl)).thenReturn(List.of());
+
+        // When
+        int relinked = ingestionService.ingest(remoteUrl);
+
+        // Then
+        assertEquals(0, relinked);
+        assertTrue(storedFiles().isEmpty());
+        verify(eventPublisher, never()).publishEvent(any(MusicStatusChangedEvent.class));
+    }
+
+    @Test
+    void shouldIngestInBackground_whenMusicCompleted() throws Exception {
+        // Given
+        Music music = completedMusic();
+        when(musicRepository.findByAudioUrl(remoteUrl)).thenReturn(List.of(music));
+
+        // When
+        ingestionService.onStatusChanged(MusicStatusChangedEvent.of(music));
+        boolean duplicate = ingestionService.submit(remoteUrl);
+        for (int i = 0; i < 100 && ingestionService.getPendingCount() > 0; i++) {
+            Thread.sleep(50);
+        }
+
+        // Then
+        assertFalse(duplicate);
+        assertEquals(0, ingestionService.getPendingCount());
+        assertTrue(music.getAudioUrl().startsWith("/files/"));
+        verify(musicRepository, times(1)).findByAudioUrl(remoteUrl);
+    }
+
+    @Test
+    void shouldContinueFromLastScanned_whenSweepHeadRejected() {
+        // Given
+        ingestionConfig.setSweepBatchSize(1);
+        status = 404;
+        assertThrows(StorageException.class, () -> ingestionService.ingest(remoteUrl));
+        Music rejected = completedMusic();
+        rejected.setUpdatedAt(LocalDateTime.now().minusHours(1));
+        Music other = completedMusic();
+        other.setAudioUrl(remoteUrl.replace("track", "other"));
+        when(musicRepository.findByStatusAndAudioUrlStartingWithOrderByUpdatedAtAscIdAsc(
+                eq(MusicStatus.COMPLETED), eq("http"), any(Pageable.class))).thenReturn(List.of(rejected));
+        when(musicRepository.findByAudioUrlPrefixAfter(eq(MusicStatus.COMPLETED), eq("http"),
+                eq(rejected.getUpdatedAt()), eq(rejected.getId()), any(Pageable.class))).thenReturn(List.of(other));
+
+        // When
+        int first = ingestionService.sweep();
+        int second = ingestionService.sweep();
+
+        // Then
+        assertEquals(0, first);
+        assertEquals(1, second);
+    }
+
+    private Music completedMusic() {
+        return Music.builder()
+                .id(UUID.randomUUID())
+                .prompt("test")
+                .status(MusicStatus.COMPLETED)
+                .audioUrl(remoteUrl)
+                .build();
+    }
+
+    private Path storedFile(Music music) {
+        String filename = music.getAudioUrl().substring(music.getAudioUrl().lastIndexOf('/') + 1);
+        return storageService.load(filename);
+    }
+
+    private List<Path> storedFiles() throws IOException {
+        try (Stream<Path> files = Files.walk(uploadDir)) {
+            return files.filter(Files::isRegularFile).toList();
+        }
+    }
+
+    /**
+     * 支持 Range + If-Range，可在发送部分内容后断开连接
+     */
+    private void serveTrack(HttpExchange exchange) throws IOException {
+        String range = exchange.getRequestHeaders().getFirst("Range");
+        rangeHeaders.add(range == null ? "none" : range);
+        try (exchange) {
+            if (status != 200) {
+                exchange.sendResponseHeaders(status, -1);
+                return;
+            }
+            exchange.getResponseHeaders().set("ETag", etag);
+            if (contentMd5 != null) {
+                exchange.getResponseHeaders().set("Content-MD5", contentMd5);
+            }
+            exchange.getResponseHeaders().set("Accept-Ranges", "bytes");
+            int start = 0;
+            String ifRange = exchange.getRequestHeaders().getFirst("If-Range");
+            if (range != null && etag.equals(ifRange)) {
+                start = Integer.parseInt(range.substring("bytes=".length(), range.indexOf('-')));
+                exchange.getResponseHeaders().set("Content-Range",
+                        "bytes " + start + "-" + (content.length - 1) + "/" + content.length);
+                exchange.sendResponseHeaders(206, content.length - start);
+            } else {
+                exchange.sendResponseHeaders(200, content.length);
+            }
+
+            OutputStream body = exchange.getResponseBody();
+            if (start == 0 && dropCount > 0 && dropAfterBytes > 0) {
+                dropCount--;
+                body.write(content, 0, dropAfterBytes);
+                body.flush();
+                // 未写完声明的长度就关闭，客户端读到提前结束的连接
+                return;
+            }
+            body.write(content, start, content.length - start);
+        }
+    }
+}
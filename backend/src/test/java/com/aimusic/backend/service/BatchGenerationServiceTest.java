@@ -0,0 +1,246 @@
+package com.aimusic.backend.service;
+
+import com.aimusic.backend.config.BatchGenerationConfig;
+import com.aimusic.backend.domain.dto.MusicGenerationRequest;
+import com.aimusic.backend.domain.dto.MusicGenerationResultDTO;
+import com.aimusic.backend.domain.enums.MusicStatus;
+import com.aimusic.backend.domain.repository.UserRepository;
+import com.aimusic.backend.domain.service.MusicService;
+import com.aimusic.backend.domain.service.impl.BatchGenerationServiceImpl;
+import com.aimusic.backend.exception.EntityNotFoundException;
+import com.aimusic.backend.utils.MusicTestFactory;
+import com.fasterxml.jackson.databind.JsonNode;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.fasterxml.jackson.databind.json.JsonMapper;
+import jakarta.validation.Validation;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.extension.ExtendWith;
+import org.mockito.ArgumentCaptor;
+import org.mockito.Mock;
+import org.mockito.junit.jupiter.MockitoExtension;
+
+import java.io.ByteArrayInputStream;
+import java.io.ByteArrayOutputStream;
+import java.io.IOException;
+import java.nio.charset.StandardCharsets;
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Set;
+import java.util.UUID;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertFalse;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+import static org.mockito.ArgumentMatchers.anyCollection;
+import static org.mockito.ArgumentMatchers.anyList;
+import static org.mockito.Mockito.never;
+import static org.mockito.Mockito.times;
+import static org.mockito.Mockito.verify;
+import static org.mockito.Mockito.when;
+
+/**
+ * 批量音乐生成服务测试类
+ */
+@ExtendWith(MockitoExtension.class)
+class BatchGenerationServiceTest {
+
+    private static final ObjectMapper OBJECT_MAPPER = JsonMapper.builder().findAndAddModules().build();
+
+    @Mock
+    private MusicService musicService;
+
+    @Mock
+    private UserRepository userRepository;
+
+    private BatchGenerationConfig config;
+    private BatchGenerationServiceImpl batchGenerationService;
+    private UUID userId;
+
+    @BeforeEach
+    void setUp() {
+        config = new BatchGenerationConfig();
+        config.setChunkSize(2);
+        batchGenerationService = new BatchGenerationServiceImpl(musicService, userRepository,
+                Validation.buildDefaultValidatorFactory().getValidator(), OBJECT_MAPPER, config);
+        userId = UUID.randomUUID();
+    }
+
+    @Test
+    void shouldStreamResultsInRequestOrder_whenSomeRequestsInvalid() throws Exception {
+        // Given
+        stubUsers(Set.of(userId));
+        stubGeneration();
+        MusicGenerationRequest invalid = createRequest(userId);
+        invalid.setTitle(null);
+        String body = ndjson(createRequest(userId), invalid, createRequest(UUID.randomUUID()), createRequest(userId));
+
+        // When
+        List<JsonNode> lines = generate(body);
+
+        // Then
+        assertEquals(4, lines.size());
+        for (int i = 0; i < lines.size(); i++) {
+            assertEquals(i, lines.get(i).get("index").asInt());
+        }
+        assertTrue(lines.get(0).hasNonNull("musicId"));
+        assertTrue(lines.get(0).hasNonNull("jobId"));
+        assertEquals(MusicStatus.PENDING.name(), lines.get(0).get("status").asText());
+        assertEquals("音乐标题不能为空", lines.get(1).get("error").asText());
+        assertFalse(lines.get(1).has("musicId"));
+        assertEquals("用户不存在", lines.get(2).get("error").asText());
+        assertTrue(lines.get(3).hasNonNull("jobId"));
+        // 每批一次用户查询和一次批量插入
+        verify(userRepository, times(2)).findExistingIds(anyCollection());
+        verify(musicService, times(2)).generateMusicBatch(anyList());
+    }
+
+    @Test
+    void shouldInsertInChunks_whenBodyIsJsonArray() throws Exception {
+        // Given
+        config.setChunkSize(3);
+        stubUsers(Set.of(userId));
+        stubGeneration();
+        List<MusicGenerationRequest> requests = new ArrayList<>();
+        for (int i = 0; i < 7; i++) {
+            requests.add(createRequest(userId));
+        }
+
+        // When
+        List<JsonNode> lines = generate(OBJECT_MAPPER.writeValueAsString(requests));
+
+        // Then
+        assertEquals(7, lines.size());
+        assertTrue(lines.stream().allMatch(line -> line.hasNonNull("musicId")));
+        @SuppressWarnings("unchecked")
+        ArgumentCaptor<List<MusicGenerationRequest>> captor = ArgumentCaptor.forClass(List.class);
+        verify(musicService, times(3)).generateMusicBatch(captor.capture());
+        assertEquals(List.of(3, 3, 1), captor.getAllValues().stream().map(List::size).toList());
+    }
+
+    @Test
+    void shouldStopReading_whenBodyMalformed() throws Exception {
+        // Given
+        stubUsers(Set.of(userId));
+        stubGeneration();
+        String body = ndjson(createRequest(userId)) + "{\"prompt\" \"缺少冒号\"}\n" + ndjson(createRequest(userId));
+
+        // When
+        List<JsonNode> lines = generate(body);
+
+        // Then
+        assertEquals(2, lines.size());
+        assertTrue(lines.get(0).hasNonNull("musicId"));
+        assertEquals(1, lines.get(1).get("index").asInt());
+        assertTrue(lines.get(1).get("error").asText().startsWith("请求格式错误"));
+        verify(musicService, times(1)).generateMusicBatch(anyList());
+    }
+
+    @Test
+    void shouldContinue_whenFieldTypeMismatch() throws Exception {
+        // Given
+        stubUsers(Set.of(userId));
+        stubGeneration();
+        String body = "{\"duration\": \"abc\"}\n" + ndjson(createRequest(userId));
+
+        // When
+        List<JsonNode> lines = generate(body);
+
+        // Then
+        assertEquals(2, lines.size());
+        assertTrue(lines.get(0).get("error").asText().startsWith("请求格式错误"));
+        assertTrue(lines.get(1).hasNonNull("musicId"));
+    }
+
+    @Test
+    void shouldRejectRemaining_whenMaxItemsExceeded() throws Exception {
+        // Given
+        config.setMaxItems(2);
+        stubUsers(Set.of(userId));
+        stubGeneration();
+        String body = ndjson(createRequest(userId), createRequest(userId), createRequest(userId), createRequest(userId));
+
+        // When
+        List<JsonNode> lines = generate(body);
+
+        // Then
+        assertEquals(3, lines.size());
+        assertEquals(2, lines.get(2).get("index").asInt());
+        assertEquals("单次最多提交2个请求", lines.get(2).get("error").asText());
+    }
+
+    @Test
+    void shouldReportErrorForWholeChunk_whenInsertFails() throws Exception {
+        // Given
+        stubUsers(Set.of(userId));
+        when(musicService.generateMusicBatch(anyList())).thenThrow(new EntityNotFoundException("用户不存在"));
+        String body = ndjson(createRequest(userId), createRequest(userId));
+
+        // When
+        List<JsonNode> lines = generate(body);
+
+        // Then
+        assertEquals(2, lines.size());
+        assertTrue(lines.stream().allMatch(line -> "用户不存在".equals(line.get("error").asText())));
+    }
+
+    @Test
+    void shouldSkipInsert_whenNoRequestValid() throws Exception {
+        // Given
+        MusicGenerationRequest invalid = createRequest(userId);
+        invalid.setPrompt(" ");
+
+        // When
+        List<JsonNode> lines = generate(ndjson(invalid));
+
+        // Then
+        assertEquals(1, lines.size());
+        assertEquals("提示词不能为空", lines.get(0).get("error").asText());
+        verify(musicService, never()).generateMusicBatch(anyList());
+    }
+
+    private List<JsonNode> generate(String body) throws IOException {
+        ByteArrayOutputStream output = new ByteArrayOutputStream();
+        batchGenerationService.generate(new ByteArrayInputStream(body.getBytes(StandardCharsets.UTF_8)), output);
+        List<JsonNode> lines = new ArrayList<>();
+        for (String line : output.toString(StandardCharsets.UTF_8).split("\n")) {
+            lines.add(OBJECT_MAPPER.readTree(line));
+        }
+        return lines;
+    }
+
+    private void stubUsers(Set<UUID> existing) {
+        when(userRepository.findExistingIds(anyCollection())).thenAnswer(invocation -> {
+            Set<UUID> found = new HashSet<>(invocation.<Collection<UUID>>getArgument(0));
+            found.retainAll(existing);
+            return found;
+        });
+    }
+
+    private void stubGeneration() {
+        when(musicService.generateMusicBatch(anyList())).thenAnswer(invocation -> invocation.<List<?>>getArgument(0).stream()
+                .map(request -> MusicGenerationResultDTO.builder()
+                        .musicId(UUID.randomUUID())
+                        .jobId(UUID.randomUUID())
+                        .status(MusicStatus.PENDING)
+                        .build())
+                .toList());
+    }
+
+    private static MusicGenerationRequest createRequest(UUID userId) {
+        MusicGenerationRequest request = MusicTestFactory.createMusicGenerationRequest(userId);
+        request.setTitle("测试音乐");
+        request.setDuration(30);
+        return request;
+    }
+
+    private static String ndjson(MusicGenerationRequest... requests) throws IOException {
+        StringBuilder body = new StringBuilder();
+        for (MusicGenerationRequest request : requests) {
+            body.append(OBJECT_MAPPER.writeValueAsString(request)).append('\n');
+        }
+        return body.toString();
+    }
+}
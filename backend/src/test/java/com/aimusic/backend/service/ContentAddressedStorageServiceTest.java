@@ -0,0 +1,210 @@
+package com.aimusic.backend.service;
+
+import com.aimusic.backend.config.StorageConfig;
+import com.aimusic.backend.domain.dto.StoredFileDTO;
+import com.aimusic.backend.domain.entity.StoredBlob;
+import com.aimusic.backend.domain.entity.StoredFile;
+import com.aimusic.backend.domain.repository.StoredBlobRepository;
+import com.aimusic.backend.domain.repository.StoredFileRepository;
+import com.aimusic.backend.service.impl.ContentAddressedStorageService;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.extension.ExtendWith;
+import org.junit.jupiter.api.io.TempDir;
+import org.mockito.Mock;
+import org.mockito.junit.jupiter.MockitoExtension;
+import org.springframework.transaction.PlatformTransactionManager;
+import org.springframework.transaction.support.TransactionSynchronization;
+import org.springframework.transaction.support.TransactionSynchronizationManager;
+
+import java.io.ByteArrayInputStream;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.List;
+import java.util.Set;
+import java.util.stream.Collectors;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertFalse;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.ArgumentMatchers.anyString;
+import static org.mockito.ArgumentMatchers.eq;
+import static org.mockito.Mockito.lenient;
+import static org.mockito.Mockito.mock;
+import static org.mockito.Mockito.times;
+import static org.mockito.Mockito.verify;
+import static org.mockito.Mockito.when;
+
+/**
+ * 内容寻址存储服务测试类
+ */
+@ExtendWith(MockitoExtension.class)
+class ContentAddressedStorageServiceTest {
+
+    @TempDir
+    Path baseDir;
+
+    @Mock
+    private StoredFileRepository storedFileRepository;
+
+    @Mock
+    private StoredBlobRepository storedBlobRepository;
+
+    private ContentAddressedStorageService storageService;
+
+    @BeforeEach
+    void setUp() {
+        StorageConfig storageConfig = new StorageConfig();
+        storageConfig.setLocation(baseDir.resolve("uploads").toString());
+        storageConfig.setTempDir(baseDir.resolve("temp").toString());
+        storageConfig.setMaxFileSize(1024 * 1024);
+        storageConfig.setAllowedFileTypes(Set.of(".mp3", ".wav"));
+        storageConfig.setUrlPrefix("/files");
+        storageConfig.setMaxFilenameLength(100);
+        lenient().when(storedFileRepository.save(any(StoredFile.class)))
+                .thenAnswer(invocation -> invocation.getArgument(0));
+        storageService = new ContentAddressedStorageService(
+                storageConfig, storedFileRepository, storedBlobRepository, mock(PlatformTransactionManager.class));
+        storageService.init();
+    }
+
+    @Test
+    void shouldStoreContentOnceInShardedDirectory_whenSameContentStoredTwice() throws Exception {
+        // Given
+        byte[] content = "same audio".getBytes();
+        when(storedBlobRepository.incrementRefCount(anyString(), any())).thenReturn(0, 1);
+
+        // When
+        StoredFileDTO first = storageService.store(new ByteArrayInputStream(content), "a.mp3");
+        StoredFileDTO second = storageService.store(new ByteArrayInputStream(content), "b.MP3");
+
+        // Then
+        String hash = first.getChecksum();
+        assertEquals(hash + ".mp3", first.getFilename());
+        assertEquals(first.getFilename(), second.getFilename());
+        Path blob = storageService.load(first.getFilename());
+        assertEquals(baseDir.resolve("uploads").resolve(hash.substring(0, 2)).resolve(hash.substring(2, 4)).resolve(hash),
+                blob);
+        assertTrue(Files.exists(blob));
+        List<Path> stored = storageService.loadAll().collect(Collectors.toList());
+        assertEquals(1, stored.size());
+        verify(storedBlobRepository, times(1)).saveAndFlush(any(StoredBlob.class));
+        verify(storedBlobRepository, times(2)).incrementRefCount(eq(hash), any());
+    }
+
+    @Test
+    void shouldKeepContent_whenOtherReferencesRemain() {
+        // Given
+        StoredFileDTO stored = storageService.store(new ByteArrayInputStream("audio".getBytes()), "a.mp3");
+        when(storedBlobRepository.deleteUnreferenced(stored.getChecksum())).thenReturn(0);
+
+        // When
+        storageService.delete(stored.getFilename());
+
+        // Then
+        verify(storedBlobRepository).decrementRefCount(eq(stored.getChecksum()), any());
+        assertTrue(storageService.exists(stored.getFilename()));
+    }
+
+    @Test
+    void shouldDeleteContent_whenLastReferenceRemoved() {
+        // Given
+        StoredFileDTO stored = storageService.store(new ByteArrayInputStream("audio".getBytes()), "a.mp3");
+        when(storedBlobRepository.deleteUnreferenced(stored.getChecksum())).thenReturn(1);
+
+        // When
+        storageService.delete(stored.getFilename());
+
+        // Then
+        assertFalse(storageService.exists(stored.getFilename()));
+        verify(storedFileRepository).deleteByChecksum(stored.getChecksum());
+    }
+
+    @Test
+    void shouldDeleteContentAfterCommit_whenCallerTransactionActive() {
+        // Given
+        StoredFileDTO stored = storageService.store(new ByteArrayInputStream("audio".getBytes()), "a.mp3");
+        when(storedBlobRepository.deleteUnreferenced(stored.getChecksum())).thenReturn(1);
+        TransactionSynchronizationManager.initSynchronization();
+        try {
+            // When
+            storageService.delete(stored.getFilename());
+            boolean existsBeforeCommit = storageService.exists(stored.getFilename());
+            TransactionSynchronizationManager.getSynchronizations().forEach(TransactionSynchronization::afterCommit);
+
+            // Then
+            assertTrue(existsBeforeCommit);
+            assertFalse(storageService.exists(stored.getFilename()));
+        } finally {
+            TransactionSynchronizationManager.clearSynchronization();
+        }
+    }
+
+    @Test
+    void shouldKeepContent_whenCallerTransactionRollsBack() {
+        // Given
+        StoredFileDTO stored = storageService.store(new ByteArrayInputStream("audio".getBytes()), "a.mp3");
+        when(storedBlobRepository.deleteUnreferenced(stored.getChecksum())).thenReturn(1);
+        TransactionSynchronizationManager.initSynchronization();
+        try {
+            // When
+            storageService.delete(stored.getFilename());
+            TransactionSynchronizationManager.getSynchronizations().forEach(synchronization ->
+                    synchronization.afterCompletion(TransactionSynchronization.STATUS_ROLLED_BACK));
+
+            // Then
+            assertTrue(storageService.exists(stored.getFilename()));
+        } finally {
+            TransactionSynchronizationManager.clearSynchronization();
+        }
+    }
+
+    @Test
+    void shouldKeepContent_whenReferencedAgainBeforeCommit() {
+        // Given
+        StoredFileDTO stored = storageService.store(new ByteArrayInputStream("audio".getBytes()), "a.mp3");
+        when(storedBlobRepository.deleteUnreferenced(stored.getChecksum())).thenReturn(1);
+        when(storedBlobRepository.existsById(stored.getChecksum())).thenReturn(true);
+        TransactionSynchronizationManager.initSynchronization();
+        try {
+            // When
+            storageService.delete(stored.getFilename());
+            TransactionSynchronizationManager.getSynchronizations().forEach(TransactionSynchronization::afterCommit);
+
+            // Then
+            assertTrue(storageService.exists(stored.getFilename()));
+        } finally {
+            TransactionSynchronizationManager.clearSynchronization();
+        }
+    }
+
+    @Test
+    void shouldAddReference_whenRetainingStoredContent() {
+        // Given
+        when(storedBlobRepository.incrementRefCount(anyString(), any())).thenReturn(0, 1);
+        StoredFileDTO stored = storageService.store(new ByteArrayInputStream("audio".getBytes()), "a.mp3");
+
+        // When
+        storageService.retain(stored.getFilename());
+
+        // Then
+        assertTrue(storageService.isReferenceCounted());
+        verify(storedBlobRepository, times(2)).incrementRefCount(eq(stored.getChecksum()), any());
+        verify(storedBlobRepository, times(1)).saveAndFlush(any(StoredBlob.class));
+    }
+
+    @Test
+    void shouldFallBackToPlainPath_whenFilenameIsNotContentAddressed() throws Exception {
+        // Given
+        Path legacy = baseDir.resolve("uploads").resolve("legacy.mp3");
+        Files.writeString(legacy, "old");
+
+        // When
+        storageService.delete("legacy.mp3");
+
+        // Then
+        assertFalse(Files.exists(legacy));
+        verify(storedBlobRepository, times(0)).decrementRefCount(anyString(), any());
+    }
+}
@@ -1,6 +1,9 @@
 package com.aimusic.backend.service;
 
 import com.aimusic.backend.config.StorageConfig;
+import com.aimusic.backend.domain.dto.StoredFileDTO;
+import com.aimusic.backend.domain.entity.StoredFile;
+import com.aimusic.backend.domain.repository.StoredFileRepository;
 import com.aimusic.backend.exception.StorageException;
 import com.aimusic.backend.service.impl.FileSystemStorageService;
 import org.junit.jupiter.api.AfterEach;
@@ -12,14 +15,28 @@ import org.springframework.mock.web.MockMultipartFile;
 import org.springframework.util.FileSystemUtils;
 import org.springframework.web.multipart.MultipartFile;
 
+import java.io.ByteArrayInputStream;
 import java.io.IOException;
 import java.nio.file.Files;
 import java.nio.file.Path;
 import java.nio.file.Paths;
+import java.security.MessageDigest;
+import java.util.HexFormat;
 import java.util.Set;
+import java.util.Random;
 import java.util.UUID;
+import java.util.stream.Stream;
 
 import static org.junit.jupiter.api.Assertions.*;
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.ArgumentMatchers.anyCollection;
+import static org.mockito.ArgumentMatchers.anyString;
+import static org.mockito.ArgumentMatchers.argThat;
+import static org.mockito.Mockito.mock;
+import static org.mockito.Mockito.never;
+import static org.mockito.Mockito.times;
+import static org.mockito.Mockito.verify;
+import static org.mockito.Mockito.when;
 
 /**
  * 文件系统存储服务测试类
@@ -27,6 +44,7 @@ import static org.junit.jupiter.api.Assertions.*;
 class FileSystemStorageServiceTest {
 
     private StorageConfig storageConfig;
+    private StoredFileRepository storedFileRepository;
     private FileSystemStorageService storageService;
     private Path uploadDir;
     private Path tempDir;
@@ -47,7 +65,9 @@ class FileSystemStorageServiceTest {
         storageConfig.setMaxFilenameLength(100);
         storageConfig.setUseOriginalFilename(false);
 
-        storageService = new FileSystemStorageService(storageConfig);
+        storedFileRepository = mock(StoredFileRepository.class);
+        when(storedFileRepository.save(any(StoredFile.class))).thenAnswer(invocation -> invocation.getArgument(0));
+        storageService = new FileSystemStorageService(storageConfig, storedFileRepository);
         storageService.init();
     }
 
@@ -78,8 +98,8 @@ class FileSystemStorageServiceTest {
 
         // 验证结果
         assertNotNull(storedFilename);
-        assertTrue(Files.exists(uploadDir.resolve(storedFilename)));
-        assertTrue(Files.size(uploadDir.resolve(storedFilename)) > 0);
+        assertTrue(Files.exists(storageService.load(storedFilename)));
+        assertTrue(Files.size(storageService.load(storedFilename)) > 0);
     }
 
     @Test
@@ -171,6 +191,87 @@ class FileSystemStorageServiceTest {
         assertEquals(content.getBytes().length, storageService.getFileSize(filename));
     }
 
+    @Test
+    void shouldStreamFileWithChecksum_whenStoringFromInputStream() throws Exception {
+        // Given
+        byte[] content = new byte[200 * 1024];
+        new Random(42).nextBytes(content);
+        storageConfig.setUploadBufferSize(4096);
+        String expectedChecksum = HexFormat.of().formatHex(MessageDigest.getInstance("SHA-256").digest(content));
+
+        // When
+        StoredFileDTO stored = storageService.store(new ByteArrayInputStream(content), "track.mp3");
+
+        // Then
+        assertEquals(content.length, stored.getSize());
+        assertEquals(expectedChecksum, stored.getChecksum());
+        assertEquals("/files/" + stored.getFilename(), stored.getUrl());
+        assertArrayEquals(content, Files.readAllBytes(storageService.load(stored.getFilename())));
+        try (Stream<Path> leftovers = Files.list(tempDir)) {
+            assertEquals(0, leftovers.count());
+        }
+    }
+
+    @Test
+    void shouldStoreInShardedDirectoryAndIndex_whenFileStored() throws IOException {
+        // When
+        StoredFileDTO stored = storageService.store(new ByteArrayInputStream("audio".getBytes()), "track.mp3");
+
+        // Then
+        Path file = storageService.load(stored.getFilename());
+        assertEquals(uploadDir, file.getParent().getParent().getParent());
+        assertEquals(2, file.getParent().getFileName().toString().length());
+        assertTrue(Files.exists(file));
+        assertEquals(stored.getFilename(), storageService.loadAll().findFirst().orElseThrow().getFileName().toString());
+        verify(storedFileRepository).save(any(StoredFile.class));
+        assertNotNull(stored.getModifiedAt());
+    }
+
+    @Test
+    void shouldIndexUnindexedFiles_whenRebuildingIndex() throws IOException {
+        // Given
+        Files.write(uploadDir.resolve("legacy.mp3"), "legacy".getBytes());
+        Files.write(uploadDir.resolve("indexed.mp3"), "indexed".getBytes());
+        when(storedFileRepository.findExistingFilenames(anyCollection())).thenReturn(Set.of("indexed.mp3"));
+
+        // When
+        int indexed = storageService.rebuildIndex();
+
+        // Then: 一批文件只查询一次索引
+        assertEquals(1, indexed);
+        verify(storedFileRepository, times(1)).findExistingFilenames(anyCollection());
+        verify(storedFileRepository, never()).existsById(anyString());
+        verify(storedFileRepository).save(argThat(file -> file.getFilename().equals("legacy.mp3")
+                && file.getSize() == 6 && file.getChecksum().length() == 64));
+    }
+
+    @Test
+    void shouldSkipIndexRebuild_whenNotEnabledOnStartup() throws IOException {
+        // Given
+        Files.write(uploadDir.resolve("legacy.mp3"), "legacy".getBytes());
+
+        // When
+        storageService.onApplicationReady();
+
+        // Then
+        verify(storedFileRepository, never()).findExistingFilenames(anyCollection());
+        verify(storedFileRepository, never()).save(any(StoredFile.class));
+    }
+
+    @Test
+    void shouldAbortAndCleanUp_whenStreamExceedsLimit() throws IOException {
+        // Given
+        byte[] content = new byte[2 * 1024 * 1024];
+
+        // When & Then
+        assertThrows(StorageException.class,
+                () -> storageService.store(new ByteArrayInputStream(content), "large.mp3"));
+        try (Stream<Path> stored = Files.list(uploadDir); Stream<Path> leftovers = Files.list(tempDir)) {
+            assertEquals(0, stored.count());
+            assertEquals(0, leftovers.count());
+        }
+    }
+
     @Test
     void shouldThrowException_whenFilenameTooLong() {
         String longFilename = "a".repeat(200) + ".mp3";
@@ -0,0 +1,143 @@
+package com.aimusic.backend.service;
+
+import com.aimusic.backend.client.FfmpegEncoder;
+import com.aimusic.backend.config.StreamingConfig;
+import com.aimusic.backend.config.TranscodingConfig;
+import com.aimusic.backend.exception.StorageException;
+import com.aimusic.backend.exception.StorageFileNotFoundException;
+import com.aimusic.backend.service.impl.FileSystemStreamingService;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.condition.DisabledOnOs;
+import org.junit.jupiter.api.condition.OS;
+import org.junit.jupiter.api.io.TempDir;
+
+import java.io.IOException;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.stream.Stream;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertFalse;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+import static org.mockito.Mockito.mock;
+import static org.mockito.Mockito.when;
+
+/**
+ * 文件系统分片流媒体服务测试类
+ * 使用在清单所在目录写入固定清单和分片的脚本代替ffmpeg
+ */
+@DisabledOnOs(OS.WINDOWS)
+class FileSystemStreamingServiceTest {
+
+    private static final String FAKE_FFMPEG = """
+            #!/bin/sh
+            for last; do :; done
+            dir=$(dirname "$last")
+            printf '<MPD/>' > "$last"
+            printf '#EXTM3U\\n' > "$dir/master.m3u8"
+            printf '#EXTM3U\\n' > "$dir/media_0.m3u8"
+            printf 'init' > "$dir/init.m4s"
+            printf 'segment' > "$dir/segment-00001.m4s"
+            """;
+
+    private static final String FAILING_FFMPEG = """
+            #!/bin/sh
+            for last; do :; done
+            printf 'partial' > "$(dirname "$last")/segment-00001.m4s"
+            echo "Invalid data found when processing input" >&2
+            exit 1
+            """;
+
+    @TempDir
+    Path tempDir;
+
+    private Path streamsDir;
+    private TranscodingConfig transcodingConfig;
+    private FileSystemStreamingService streamingService;
+
+    @BeforeEach
+    void setUp() throws IOException {
+        Path source = Files.writeString(tempDir.resolve("song.mp3"), "source-audio");
+        StorageService storageService = mock(StorageService.class);
+        when(storageService.load("song.mp3")).thenReturn(source);
+
+        streamsDir = tempDir.resolve("streams");
+        StreamingConfig streamingConfig = new StreamingConfig();
+        streamingConfig.setLocation(streamsDir.toString());
+        transcodingConfig = new TranscodingConfig();
+        transcodingConfig.setFfmpegPath(script("ffmpeg", FAKE_FFMPEG));
+        streamingService = new FileSystemStreamingService(storageService, new FfmpegEncoder(transcodingConfig), streamingConfig);
+    }
+
+    @Test
+    void shouldPublishManifestsAndSegments_whenSegmentingStoredAudio() throws Exception {
+        // When
+        boolean created = streamingService.segment("song.mp3");
+
+        // Then
+        assertTrue(created);
+        assertTrue(streamingService.isSegmented("song.mp3"));
+        assertEquals("<MPD/>", read(streamingService.loadStreamFile("song.mp3", StreamingService.DASH_MANIFEST)));
+        assertEquals("segment", read(streamingService.loadStreamFile("song.mp3", "segment-00001.m4s")));
+        assertFalse(streamingService.segment("song.mp3"));
+        try (Stream<Path> entries = Files.list(streamsDir)) {
+            assertTrue(entries.noneMatch(entry -> entry.getFileName().toString().startsWith(".segment-")));
+        }
+    }
+
+    @Test
+    void shouldLeaveNothingBehind_whenEncoderFails() throws Exception {
+        // Given
+        transcodingConfig.setFfmpegPath(script("ffmpeg-broken", FAILING_FFMPEG));
+
+        // When & Then
+        assertThrows(StorageException.class, () -> streamingService.segment("song.mp3"));
+        assertFalse(streamingService.isSegmented("song.mp3"));
+        try (Stream<Path> files = Files.walk(streamsDir)) {
+            assertEquals(0, files.filter(Files::isRegularFile).count());
+        }
+    }
+
+    @Test
+    void shouldRejectPathTraversal_whenLoadingStreamFile() {
+        // Given
+        streamingService.segment("song.mp3");
+
+        // When & Then
+        assertThrows(StorageFileNotFoundException.class,
+                () -> streamingService.loadStreamFile("song.mp3", "../../song.m3u8"));
+        assertThrows(StorageFileNotFoundException.class,
+                () -> streamingService.loadStreamFile("..", StreamingService.HLS_PLAYLIST));
+        assertThrows(StorageFileNotFoundException.class,
+                () -> streamingService.loadStreamFile("song.mp3", "notes.txt"));
+    }
+
+    @Test
+    void shouldRemoveAllFiles_whenDeletingStream() throws Exception {
+        // Given
+        streamingService.segment("song.mp3");
+
+        // When
+        streamingService.deleteStream("song.mp3");
+
+        // Then
+        assertFalse(streamingService.isSegmented("song.mp3"));
+        try (Stream<Path> files = Files.walk(streamsDir)) {
+            assertEquals(0, files.filter(Files::isRegularFile).count());
+        }
+    }
+
+    private String script(String name, String content) throws IOException {
+        Path script = tempDir.resolve(name);
+        Files.writeString(script, content);
+        assertTrue(script.toFile().setExecutable(true));
+        return script.toString();
+    }
+
+    private String read(Path file) throws IOException {
+        return Files.readString(file, StandardCharsets.UTF_8);
+    }
+}
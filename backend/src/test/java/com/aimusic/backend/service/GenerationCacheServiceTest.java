@@ -0,0 +1,276 @@
+package com.aimusic.backend.service;
+
+import com.aimusic.backend.config.GenerationCacheConfig;
+import com.aimusic.backend.domain.dto.MusicGenerationRequest;
+import com.aimusic.backend.domain.entity.Music;
+import com.aimusic.backend.domain.enums.GenerationPriority;
+import com.aimusic.backend.domain.enums.MusicStatus;
+import com.aimusic.backend.domain.event.MusicStatusChangedEvent;
+import com.aimusic.backend.domain.repository.MusicRepository;
+import com.aimusic.backend.domain.service.GenerationJobService;
+import com.aimusic.backend.domain.service.impl.GenerationCacheServiceImpl;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.extension.ExtendWith;
+import org.mockito.Mock;
+import org.mockito.junit.jupiter.MockitoExtension;
+import org.springframework.context.ApplicationEventPublisher;
+
+import java.time.LocalDateTime;
+import java.util.List;
+import java.util.Optional;
+import java.util.UUID;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertFalse;
+import static org.junit.jupiter.api.Assertions.assertNotEquals;
+import static org.junit.jupiter.api.Assertions.assertNull;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.ArgumentMatchers.anyCollection;
+import static org.mockito.ArgumentMatchers.anyString;
+import static org.mockito.ArgumentMatchers.eq;
+import static org.mockito.Mockito.lenient;
+import static org.mockito.Mockito.never;
+import static org.mockito.Mockito.times;
+import static org.mockito.Mockito.verify;
+import static org.mockito.Mockito.when;
+
+/**
+ * 音乐生成结果缓存服务测试类
+ */
+@ExtendWith(MockitoExtension.class)
+class GenerationCacheServiceTest {
+
+    private static final String HASH = "a".repeat(64);
+
+    @Mock
+    private MusicRepository musicRepository;
+
+    @Mock
+    private GenerationJobService generationJobService;
+
+    @Mock
+    private ApplicationEventPublisher eventPublisher;
+
+    @Mock
+    private StorageService storageService;
+
+    private GenerationCacheConfig cacheConfig;
+    private GenerationCacheServiceImpl cacheService;
+
+    @BeforeEach
+    void setUp() {
+        cacheConfig = new GenerationCacheConfig();
+        cacheService = new GenerationCacheServiceImpl(musicRepository, generationJobService, cacheConfig,
+                eventPublisher, storageService);
+        lenient().when(storageService.getFileUrl("")).thenReturn("/files/");
+    }
+
+    @Test
+    void shouldProduceSameHash_whenRequestsDifferOnlyInFormatting() {
+        // Given
+        MusicGenerationRequest first = createRequest("  Epic   Orchestral Theme ", "Classical");
+        MusicGenerationRequest second = createRequest("epic orchestral theme", "classical");
+        second.setTitle("另一个标题");
+        MusicGenerationRequest skipped = createRequest("epic orchestral theme", "classical");
+        skipped.setSkipCache(true);
+
+        // When & Then
+        assertEquals(64, cacheService.requestHash(first).length());
+        assertEquals(cacheService.requestHash(first), cacheService.requestHash(second));
+        assertNotEquals(cacheService.requestHash(first), cacheService.requestHash(createRequest("epic orchestral theme", "jazz")));
+        assertNull(cacheService.requestHash(skipped));
+    }
+
+    @Test
+    void shouldReuseCompletedResult_whenWithinTtl() {
+        // Given
+        Music cached = createMusic(MusicStatus.COMPLETED, null);
+        cached.setAudioUrl("https://cdn.suno.ai/a.mp3");
+        cached.setGenerationId("gen-1");
+        Music music = createMusic(MusicStatus.PENDING, null);
+        when(musicRepository.findFirstByRequestHashAndStatusAndUpdatedAtAfterOrderByUpdatedAtDesc(
+                eq(HASH), eq(MusicStatus.COMPLETED), any(LocalDateTime.class))).thenReturn(Optional.of(cached));
+
+        // When
+        boolean attached = cacheService.attach(music);
+
+        // Then
+        assertTrue(attached);
+        assertEquals(MusicStatus.COMPLETED, music.getStatus());
+        assertEquals("https://cdn.suno.ai/a.mp3", music.getAudioUrl());
+        assertEquals(cached.getId(), music.getSourceMusicId());
+        verify(musicRepository).save(music);
+    }
+
+    @Test
+    void shouldRetainStoredFile_whenReusingIngestedResult() {
+        // Given
+        Music cached = createMusic(MusicStatus.COMPLETED, null);
+        cached.setAudioUrl("/files/abc.mp3");
+        Music music = createMusic(MusicStatus.PENDING, null);
+        when(musicRepository.findFirstByRequestHashAndStatusAndUpdatedAtAfterOrderByUpdatedAtDesc(
+                eq(HASH), eq(MusicStatus.COMPLETED), any(LocalDateTime.class))).thenReturn(Optional.of(cached));
+
+        // When
+        cacheService.attach(music);
+
+        // Then: 复用本地文件的音乐各持有一个引用，删除时各自释放
+        assertEquals("/files/abc.mp3", music.getAudioUrl());
+        verify(storageService).retain("abc.mp3");
+    }
+
+    @Test
+    void shouldCoalesceIntoFirstRequest_whenIdenticalRequestInFlight() {
+        // Given
+        Music first = createMusic(MusicStatus.PENDING, null);
+        Music second = createMusic(MusicStatus.PENDING, null);
+        when(musicRepository.findFirstByRequestHashAndStatusAndUpdatedAtAfterOrderByUpdatedAtDesc(
+                anyString(), any(), any())).thenReturn(Optional.empty());
+        when(musicRepository.findFirstByRequestHashAndSourceMusicIdIsNullAndStatusInAndIdNotOrderByCreatedAtAsc(
+                eq(HASH), anyCollection(), eq(first.getId()))).thenReturn(Optional.empty());
+        when(musicRepository.findById(first.getId())).thenReturn(Optional.of(first));
+
+        // When
+        boolean firstAttached = cacheService.attach(first);
+        boolean secondAttached = cacheService.attach(second);
+
+        // Then
+        assertFalse(firstAttached);
+        assertTrue(secondAttached);
+        assertNull(first.getSourceMusicId());
+        assertEquals(first.getId(), second.getSourceMusicId());
+        assertEquals(MusicStatus.PENDING, second.getStatus());
+    }
+
+    @Test
+    void shouldClaimSource_whenRegisteredSourceNotVisible() {
+        // Given
+        Music first = createMusic(MusicStatus.PENDING, null);
+        Music second = createMusic(MusicStatus.PENDING, null);
+        Music third = createMusic(MusicStatus.PENDING, null);
+        when(musicRepository.findFirstByRequestHashAndStatusAndUpdatedAtAfterOrderByUpdatedAtDesc(
+                anyString(), any(), any())).thenReturn(Optional.empty());
+        when(musicRepository.findFirstByRequestHashAndSourceMusicIdIsNullAndStatusInAndIdNotOrderByCreatedAtAsc(
+                eq(HASH), anyCollection(), eq(first.getId()))).thenReturn(Optional.empty());
+        // 第一个请求尚未提交（或已回滚、已删除），无法确认它会提交生成
+        when(musicRepository.findById(first.getId())).thenReturn(Optional.empty());
+        when(musicRepository.findById(second.getId())).thenReturn(Optional.of(second));
+
+        // When
+        boolean firstAttached = cacheService.attach(first);
+        boolean secondAttached = cacheService.attach(second);
+        boolean thirdAttached = cacheService.attach(third);
+
+        // Then: 第二个请求接替为源请求，不跟随看不到的请求
+        assertFalse(firstAttached);
+        assertFalse(secondAttached);
+        assertNull(second.getSourceMusicId());
+        assertTrue(thirdAttached);
+        assertEquals(second.getId(), third.getSourceMusicId());
+    }
+
+    @Test
+    void shouldCopyResultToFollowers_whenSourceCompletes() {
+        // Given
+        Music source = createMusic(MusicStatus.COMPLETED, null);
+        source.setAudioUrl("https://cdn.suno.ai/a.mp3");
+        source.setLyrics("歌词");
+        Music follower = createMusic(MusicStatus.PROCESSING, source.getId());
+        when(musicRepository.findById(source.getId())).thenReturn(Optional.of(source));
+        when(musicRepository.findBySourceMusicIdAndStatusInOrderByCreatedAtAsc(eq(source.getId()), anyCollection()))
+                .thenReturn(List.of(follower));
+
+        // When
+        cacheService.onStatusChanged(MusicStatusChangedEvent.of(source));
+
+        // Then
+        assertEquals(MusicStatus.COMPLETED, follower.getStatus());
+        assertEquals("https://cdn.suno.ai/a.mp3", follower.getAudioUrl());
+        assertEquals("歌词", follower.getLyrics());
+        verify(musicRepository).saveAll(List.of(follower));
+        verify(eventPublisher).publishEvent(any(MusicStatusChangedEvent.class));
+    }
+
+    @Test
+    void shouldPromoteOldestFollower_whenSourceCancelled() {
+        // Given
+        Music source = createMusic(MusicStatus.CANCELLED, null);
+        Music oldest = createMusic(MusicStatus.PROCESSING, source.getId());
+        Music newer = createMusic(MusicStatus.PROCESSING, source.getId());
+        when(musicRepository.findById(source.getId())).thenReturn(Optional.of(source));
+        when(musicRepository.findBySourceMusicIdAndStatusInOrderByCreatedAtAsc(eq(source.getId()), anyCollection()))
+                .thenReturn(List.of(oldest, newer));
+
+        // When
+        cacheService.onStatusChanged(MusicStatusChangedEvent.of(source));
+
+        // Then
+        assertNull(oldest.getSourceMusicId());
+        assertEquals(MusicStatus.PENDING, oldest.getStatus());
+        assertEquals(oldest.getId(), newer.getSourceMusicId());
+        verify(generationJobService, times(1)).enqueue(oldest, GenerationPriority.INTERACTIVE);
+        verify(generationJobService, never()).enqueue(eq(newer), any());
+    }
+
+    @Test
+    void shouldPromoteOldestFollower_whenSourceDeleted() {
+        // Given
+        Music source = createMusic(MusicStatus.PROCESSING, null);
+        Music oldest = createMusic(MusicStatus.PROCESSING, source.getId());
+        Music newer = createMusic(MusicStatus.PROCESSING, source.getId());
+        when(musicRepository.findBySourceMusicIdAndStatusInOrderByCreatedAtAsc(eq(source.getId()), anyCollection()))
+                .thenReturn(List.of(oldest, newer));
+        when(musicRepository.findFirstByRequestHashAndStatusAndUpdatedAtAfterOrderByUpdatedAtDesc(
+                anyString(), any(), any())).thenReturn(Optional.empty());
+        when(musicRepository.findById(oldest.getId())).thenReturn(Optional.of(oldest));
+
+        // When
+        cacheService.release(source);
+        Music later = createMusic(MusicStatus.PENDING, null);
+        boolean attached = cacheService.attach(later);
+
+        // Then
+        assertNull(oldest.getSourceMusicId());
+        assertEquals(MusicStatus.PENDING, oldest.getStatus());
+        assertEquals(oldest.getId(), newer.getSourceMusicId());
+        verify(generationJobService, times(1)).enqueue(oldest, GenerationPriority.INTERACTIVE);
+        assertTrue(attached);
+        assertEquals(oldest.getId(), later.getSourceMusicId());
+    }
+
+    @Test
+    void shouldIgnoreRelease_whenMusicIsFollower() {
+        // Given
+        Music follower = createMusic(MusicStatus.PROCESSING, UUID.randomUUID());
+
+        // When
+        cacheService.release(follower);
+
+        // Then
+        verify(musicRepository, never()).findBySourceMusicIdAndStatusInOrderByCreatedAtAsc(any(), anyCollection());
+        verify(generationJobService, never()).enqueue(any(), any());
+    }
+
+    private MusicGenerationRequest createRequest(String prompt, String style) {
+        return MusicGenerationRequest.builder()
+                .prompt(prompt)
+                .style(style)
+                .duration(60)
+                .userId(UUID.randomUUID())
+                .title("测试音乐")
+                .build();
+    }
+
+    private Music createMusic(MusicStatus status, UUID sourceMusicId) {
+        return Music.builder()
+                .id(UUID.randomUUID())
+                .prompt("epic orchestral theme")
+                .status(status)
+                .requestHash(HASH)
+                .sourceMusicId(sourceMusicId)
+                .createdAt(LocalDateTime.now())
+                .build();
+    }
+}
@@ -0,0 +1,320 @@
+package com.aimusic.backend.service;
+
+import com.aimusic.backend.config.GenerationQueueConfig;
+import com.aimusic.backend.domain.entity.GenerationJob;
+import com.aimusic.backend.domain.entity.Music;
+import com.aimusic.backend.domain.event.MusicStatusChangedEvent;
+import com.aimusic.backend.domain.enums.GenerationJobStatus;
+import com.aimusic.backend.domain.enums.GenerationPriority;
+import com.aimusic.backend.domain.enums.MusicStatus;
+import com.aimusic.backend.domain.repository.GenerationJobRepository;
+import com.aimusic.backend.domain.repository.MusicRepository;
+import com.aimusic.backend.domain.service.impl.GenerationJobServiceImpl;
+import io.micrometer.core.instrument.Timer;
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.extension.ExtendWith;
+import org.mockito.Mock;
+import org.mockito.junit.jupiter.MockitoExtension;
+import org.springframework.context.ApplicationEventPublisher;
+import org.springframework.data.domain.Pageable;
+
+import java.time.LocalDateTime;
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Optional;
+import java.util.UUID;
+import java.util.concurrent.TimeUnit;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertNull;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.ArgumentMatchers.anyCollection;
+import static org.mockito.ArgumentMatchers.anyInt;
+import static org.mockito.ArgumentMatchers.anyList;
+import static org.mockito.ArgumentMatchers.eq;
+import static org.mockito.Mockito.lenient;
+import static org.mockito.Mockito.never;
+import static org.mockito.Mockito.verify;
+import static org.mockito.Mockito.when;
+
+/**
+ * 音乐生成任务队列服务测试类
+ */
+@ExtendWith(MockitoExtension.class)
+class GenerationJobServiceTest {
+
+    private static final String INSTANCE_ID = "instance-a";
+
+    @Mock
+    private GenerationJobRepository generationJobRepository;
+
+    @Mock
+    private MusicRepository musicRepository;
+
+    @Mock
+    private ApplicationEventPublisher eventPublisher;
+
+    private GenerationQueueConfig queueConfig;
+    private SimpleMeterRegistry meterRegistry;
+    private GenerationJobServiceImpl generationJobService;
+
+    @BeforeEach
+    void setUp() {
+        queueConfig = new GenerationQueueConfig();
+        queueConfig.setInstanceId(INSTANCE_ID);
+        meterRegistry = new SimpleMeterRegistry();
+        generationJobService = new GenerationJobServiceImpl(generationJobRepository, musicRepository, queueConfig,
+                eventPublisher, meterRegistry);
+    }
+
+    @Test
+    void shouldEnqueueJobAsQueued() {
+        // Given
+        Music music = Music.builder().id(UUID.randomUUID()).userId(UUID.randomUUID()).build();
+        when(generationJobRepository.save(any(GenerationJob.class))).thenAnswer(invocation -> invocation.getArgument(0));
+
+        // When
+        GenerationJob job = generationJobService.enqueue(music, GenerationPriority.BATCH);
+
+        // Then
+        assertEquals(music.getId(), job.getMusicId());
+        assertEquals(music.getUserId(), job.getUserId());
+        assertEquals(GenerationPriority.BATCH, job.getPriority());
+        assertEquals(GenerationJobStatus.QUEUED, job.getStatus());
+        assertEquals(0, job.getAttempts());
+        assertEquals(queueConfig.getMaxAttempts(), job.getMaxAttempts());
+    }
+
+    @Test
+    void shouldLeaseClaimedJobsToThisInstance() {
+        // Given
+        GenerationJob queued = createJob(GenerationJobStatus.QUEUED, 0, null);
+        GenerationJob expired = createJob(GenerationJobStatus.RUNNING, 1, "dead-instance");
+        stubClaimable(List.of(queued, expired), List.of());
+        when(generationJobRepository.saveAll(anyList())).thenAnswer(invocation -> invocation.getArgument(0));
+
+        // When
+        List<GenerationJob> claimed = generationJobService.claimJobs(2);
+
+        // Then
+        assertEquals(2, claimed.size());
+        for (GenerationJob job : claimed) {
+            assertEquals(GenerationJobStatus.RUNNING, job.getStatus());
+            assertEquals(INSTANCE_ID, job.getLeaseOwner());
+            assertTrue(job.getLeaseExpiresAt().isAfter(LocalDateTime.now()));
+        }
+        assertEquals(1, queued.getAttempts());
+        assertEquals(2, expired.getAttempts());
+    }
+
+    @Test
+    void shouldFailExpiredJob_whenAttemptsExhausted() {
+        // Given
+        GenerationJob exhausted = createJob(GenerationJobStatus.RUNNING, 3, "dead-instance");
+        Music music = Music.builder().id(exhausted.getMusicId()).status(MusicStatus.PROCESSING).build();
+        stubClaimable(List.of(exhausted), List.of());
+        when(generationJobRepository.saveAll(anyList())).thenAnswer(invocation -> invocation.getArgument(0));
+        when(musicRepository.findById(exhausted.getMusicId())).thenReturn(Optional.of(music));
+
+        // When
+        List<GenerationJob> claimed = generationJobService.claimJobs(1);
+
+        // Then
+        assertTrue(claimed.isEmpty());
+        assertEquals(GenerationJobStatus.FAILED, exhausted.getStatus());
+        assertEquals(MusicStatus.FAILED, music.getStatus());
+        verify(musicRepository).save(music);
+        verify(eventPublisher).publishEvent(any(MusicStatusChangedEvent.class));
+    }
+
+    @Test
+    void shouldRequeueWithBackoff_whenJobFailsWithAttemptsLeft() {
+        // Given
+        GenerationJob job = createJob(GenerationJobStatus.RUNNING, 2, INSTANCE_ID);
+        when(generationJobRepository.findById(job.getId())).thenReturn(Optional.of(job));
+        LocalDateTime before = LocalDateTime.now();
+
+        // When
+        generationJobService.failJob(job.getId(), "API调用失败");
+
+        // Then
+        assertEquals(GenerationJobStatus.QUEUED, job.getStatus());
+        assertNull(job.getLeaseOwner());
+        assertEquals("API调用失败", job.getLastError());
+        assertTrue(!job.getAvailableAt().isBefore(before.plusNanos(queueConfig.getRetryBackoff() * 2 * 1_000_000)));
+        verify(generationJobRepository).save(job);
+        verify(musicRepository, never()).findById(any());
+    }
+
+    @Test
+    void shouldRequeueWithoutCountingAttempt_whenJobDeferred() {
+        // Given
+        GenerationJob job = createJob(GenerationJobStatus.RUNNING, 2, INSTANCE_ID);
+        when(generationJobRepository.findById(job.getId())).thenReturn(Optional.of(job));
+        LocalDateTime before = LocalDateTime.now();
+
+        // When
+        generationJobService.deferJob(job.getId(), 30000);
+
+        // Then
+        assertEquals(GenerationJobStatus.QUEUED, job.getStatus());
+        assertEquals(1, job.getAttempts());
+        assertNull(job.getLeaseOwner());
+        assertTrue(!job.getAvailableAt().isBefore(before.plusSeconds(30)));
+        verify(generationJobRepository).save(job);
+    }
+
+    @Test
+    void shouldIgnoreResult_whenLeaseTakenOverByAnotherInstance() {
+        // Given
+        GenerationJob job = createJob(GenerationJobStatus.RUNNING, 1, "instance-b");
+        when(generationJobRepository.findById(job.getId())).thenReturn(Optional.of(job));
+
+        // When
+        generationJobService.completeJob(job.getId());
+
+        // Then
+        assertEquals(GenerationJobStatus.RUNNING, job.getStatus());
+        assertEquals("instance-b", job.getLeaseOwner());
+        verify(generationJobRepository, never()).save(any(GenerationJob.class));
+    }
+
+    @Test
+    void shouldInterleaveUsers_whenOneUserFloodsQueue() {
+        // Given
+        UUID flooding = UUID.randomUUID();
+        UUID other = UUID.randomUUID();
+        List<GenerationJob> candidates = new ArrayList<>();
+        for (int i = 0; i < 4; i++) {
+            candidates.add(createJob(flooding, GenerationPriority.BATCH));
+        }
+        GenerationJob otherJob = createJob(other, GenerationPriority.BATCH);
+        candidates.add(otherJob);
+        stubClaimable(candidates, List.of());
+
+        // When
+        List<GenerationJob> claimed = generationJobService.claimJobs(2);
+
+        // Then
+        assertEquals(List.of(candidates.get(0), otherJob), claimed);
+    }
+
+    @Test
+    void shouldPreferInteractiveJobs_whenBatchJobsOccupySlots() {
+        // Given
+        UUID batchUser = UUID.randomUUID();
+        List<GenerationJob> running = List.of(
+                createJob(batchUser, GenerationPriority.BATCH), createJob(batchUser, GenerationPriority.BATCH));
+        List<GenerationJob> candidates = new ArrayList<>();
+        for (int i = 0; i < 3; i++) {
+            candidates.add(createJob(batchUser, GenerationPriority.BATCH));
+        }
+        GenerationJob interactive = createJob(UUID.randomUUID(), GenerationPriority.INTERACTIVE);
+        candidates.add(interactive);
+        stubClaimable(candidates, running);
+
+        // When
+        List<GenerationJob> claimed = generationJobService.claimJobs(1);
+
+        // Then
+        assertEquals(List.of(interactive), claimed);
+    }
+
+    @Test
+    void shouldSplitSlotsByWeight_whenBothPrioritiesQueued() {
+        // Given
+        List<GenerationJob> candidates = new ArrayList<>();
+        for (int i = 0; i < 10; i++) {
+            candidates.add(createJob(UUID.randomUUID(), GenerationPriority.BATCH));
+            candidates.add(createJob(UUID.randomUUID(), GenerationPriority.INTERACTIVE));
+        }
+        stubClaimable(candidates, List.of());
+
+        // When
+        List<GenerationJob> claimed = generationJobService.claimJobs(10);
+
+        // Then
+        // 权重 4:1
+        assertEquals(8, claimed.stream().filter(job -> job.getPriority() == GenerationPriority.INTERACTIVE).count());
+        assertEquals(2, claimed.stream().filter(job -> job.getPriority() == GenerationPriority.BATCH).count());
+    }
+
+    @Test
+    void shouldPreferUserWithFewerRunningJobs_whenSamePriority() {
+        // Given
+        UUID busy = UUID.randomUUID();
+        GenerationJob busyJob = createJob(busy, GenerationPriority.INTERACTIVE);
+        GenerationJob idleJob = createJob(UUID.randomUUID(), GenerationPriority.INTERACTIVE);
+        stubClaimable(List.of(busyJob, idleJob), List.of(createJob(busy, GenerationPriority.INTERACTIVE)));
+
+        // When
+        List<GenerationJob> claimed = generationJobService.claimJobs(1);
+
+        // Then
+        assertEquals(List.of(idleJob), claimed);
+    }
+
+    @Test
+    void shouldExportQueueDepthAndWaitTimePerPriority() {
+        // Given
+        when(generationJobRepository.countByStatusAndPriority(GenerationJobStatus.QUEUED, GenerationPriority.BATCH))
+                .thenReturn(7L);
+        stubClaimable(List.of(createJob(UUID.randomUUID(), GenerationPriority.BATCH)), List.of());
+
+        // When
+        generationJobService.claimJobs(1);
+
+        // Then
+        assertEquals(7.0, meterRegistry.get("music.generation.queue.depth").tag("priority", "batch").gauge().value());
+        Timer batchWait = meterRegistry.get("music.generation.queue.wait").tag("priority", "batch").timer();
+        assertEquals(1, batchWait.count());
+        assertTrue(batchWait.totalTime(TimeUnit.SECONDS) >= 59);
+        assertEquals(0, meterRegistry.get("music.generation.queue.wait").tag("priority", "interactive").timer().count());
+    }
+
+    /**
+     * 候选任务中运行中的任务作为租约过期任务返回，其余作为排队任务按传入顺序返回，加锁时按选中的顺序返回
+     */
+    private void stubClaimable(List<GenerationJob> candidates, List<GenerationJob> running) {
+        when(generationJobRepository.findByStatusAndLeaseExpiresAtBeforeOrderByLeaseExpiresAt(
+                eq(GenerationJobStatus.RUNNING), any(LocalDateTime.class), any(Pageable.class)))
+                .thenReturn(candidates.stream().filter(job -> job.getStatus() == GenerationJobStatus.RUNNING).toList());
+        when(generationJobRepository.findClaimCandidates(any(LocalDateTime.class), anyInt(), anyInt()))
+                .thenReturn(candidates.stream().filter(job -> job.getStatus() == GenerationJobStatus.QUEUED).toList());
+        lenient().when(generationJobRepository.findByStatusAndLeaseExpiresAtGreaterThanEqual(
+                eq(GenerationJobStatus.RUNNING), any(LocalDateTime.class))).thenReturn(running);
+        when(generationJobRepository.lockClaimableJobs(anyCollection(), any(LocalDateTime.class))).thenAnswer(invocation -> {
+            Map<UUID, GenerationJob> byId = new HashMap<>();
+            candidates.forEach(job -> byId.put(job.getId(), job));
+            return invocation.<Collection<UUID>>getArgument(0).stream().map(byId::get).toList();
+        });
+        lenient().when(generationJobRepository.saveAll(anyList())).thenAnswer(invocation -> invocation.getArgument(0));
+    }
+
+    private GenerationJob createJob(UUID userId, GenerationPriority priority) {
+        GenerationJob job = createJob(GenerationJobStatus.QUEUED, 0, null);
+        job.setUserId(userId);
+        job.setPriority(priority);
+        return job;
+    }
+
+    private GenerationJob createJob(GenerationJobStatus status, int attempts, String leaseOwner) {
+        return GenerationJob.builder()
+                .id(UUID.randomUUID())
+                .musicId(UUID.randomUUID())
+                .priority(GenerationPriority.INTERACTIVE)
+                .status(status)
+                .attempts(attempts)
+                .maxAttempts(3)
+                .availableAt(LocalDateTime.now().minusMinutes(1))
+                .leaseOwner(leaseOwner)
+                .leaseExpiresAt(leaseOwner == null ? null : LocalDateTime.now().minusSeconds(1))
+                .build();
+    }
+}
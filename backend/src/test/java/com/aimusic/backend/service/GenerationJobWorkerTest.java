@@ -0,0 +1,102 @@
+package com.aimusic.backend.service;
+
+import com.aimusic.backend.client.SunoCircuitBreaker;
+import com.aimusic.backend.config.GenerationQueueConfig;
+import com.aimusic.backend.config.SchedulingConfig;
+import com.aimusic.backend.config.SunoApiConfig;
+import com.aimusic.backend.config.SunoCircuitBreakerConfig;
+import com.aimusic.backend.config.SunoGovernorConfig;
+import com.aimusic.backend.domain.entity.GenerationJob;
+import com.aimusic.backend.domain.service.GenerationJobService;
+import com.aimusic.backend.domain.service.MusicGenerationService;
+import com.aimusic.backend.domain.service.impl.GenerationJobWorker;
+import org.junit.jupiter.api.Test;
+import org.springframework.boot.autoconfigure.AutoConfigurations;
+import org.springframework.boot.autoconfigure.task.TaskSchedulingAutoConfiguration;
+import org.springframework.boot.test.context.runner.ApplicationContextRunner;
+import org.springframework.scheduling.annotation.Scheduled;
+
+import java.util.List;
+import java.util.UUID;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.Executor;
+import java.util.concurrent.TimeUnit;
+
+import static org.junit.jupiter.api.Assertions.assertThrows;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+import static org.mockito.ArgumentMatchers.anyCollection;
+import static org.mockito.ArgumentMatchers.anyInt;
+import static org.mockito.Mockito.atLeast;
+import static org.mockito.Mockito.mock;
+import static org.mockito.Mockito.timeout;
+import static org.mockito.Mockito.verify;
+import static org.mockito.Mockito.when;
+
+/**
+ * 音乐生成任务执行器测试类
+ */
+class GenerationJobWorkerTest {
+
+    @Test
+    void shouldRenewLeases_whenSharedSchedulerBlocked() throws Exception {
+        // Given
+        GenerationJobService generationJobService = mock(GenerationJobService.class);
+        GenerationJob job = GenerationJob.builder().id(UUID.randomUUID()).musicId(UUID.randomUUID()).build();
+        when(generationJobService.claimJobs(anyInt())).thenReturn(List.of(job), List.of());
+        SunoCircuitBreaker sunoCircuitBreaker = mock(SunoCircuitBreaker.class);
+        when(sunoCircuitBreaker.isCallPermitted()).thenReturn(true);
+        // 任务交给执行线程池后一直不结束，保持在执行中
+        Executor neverRuns = command -> { };
+        SharedSchedulerBlocker blocker = new SharedSchedulerBlocker();
+
+        ApplicationContextRunner contextRunner = new ApplicationContextRunner()
+                .withConfiguration(AutoConfigurations.of(TaskSchedulingAutoConfiguration.class))
+                .withUserConfiguration(SchedulingConfig.class)
+                .withPropertyValues("spring.task.scheduling.pool.size=1",
+                        "music.generation-queue.poll-interval=50",
+                        "music.generation-queue.heartbeat-interval=50")
+                .withBean(SharedSchedulerBlocker.class, () -> blocker)
+                .withBean(GenerationJobWorker.class, () -> new GenerationJobWorker(generationJobService,
+                        mock(MusicGenerationService.class), new GenerationQueueConfig(), sunoCircuitBreaker,
+                        neverRuns, new SunoApiConfig(), new SunoGovernorConfig(), new SunoCircuitBreakerConfig()));
+
+        // When
+        contextRunner.run(context -> {
+            try {
+                assertTrue(blocker.started.await(5, TimeUnit.SECONDS));
+
+                // Then
+                verify(generationJobService, timeout(5000).atLeast(3)).renewLeases(anyCollection());
+            } finally {
+                blocker.release.countDown();
+            }
+        });
+    }
+
+    @Test
+    void shouldFailFast_whenLeaseShorterThanSubmitTime() {
+        // Given
+        GenerationQueueConfig queueConfig = new GenerationQueueConfig();
+        queueConfig.setLeaseDuration(60000);
+
+        // When & Then
+        assertThrows(IllegalStateException.class, () -> new GenerationJobWorker(mock(GenerationJobService.class),
+                mock(MusicGenerationService.class), queueConfig, mock(SunoCircuitBreaker.class), Runnable::run,
+                new SunoApiConfig(), new SunoGovernorConfig(), new SunoCircuitBreakerConfig()));
+    }
+
+    /**
+     * 占住共享调度器唯一线程的定时任务，模拟一次耗时很长的Suno状态轮询
+     */
+    static class SharedSchedulerBlocker {
+
+        private final CountDownLatch started = new CountDownLatch(1);
+        private final CountDownLatch release = new CountDownLatch(1);
+
+        @Scheduled(fixedDelay = 60000)
+        public void block() throws InterruptedException {
+            started.countDown();
+            release.await();
+        }
+    }
+}
@@ -0,0 +1,333 @@
+package com.aimusic.backend.service;
+
+import com.sun.net.httpserver.HttpExchange;
+import com.sun.net.httpserver.HttpServer;
+
+import java.io.ByteArrayOutputStream;
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.OutputStream;
+import java.net.InetSocketAddress;
+import java.net.URLDecoder;
+import java.nio.charset.StandardCharsets;
+import java.security.MessageDigest;
+import java.util.HashMap;
+import java.util.HexFormat;
+import java.util.Map;
+import java.util.UUID;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ConcurrentSkipListMap;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.regex.Matcher;
+import java.util.regex.Pattern;
+
+/**
+ * 测试用的本地S3兼容服务
+ * 在内存中实现对象存储服务用到的S3接口子集（路径风格）：存储桶、对象读写删除、分片上传、列表和批量删除，
+ * 不校验签名，预签名地址可直接访问
+ */
+class LocalS3Server implements AutoCloseable {
+
+    private static final String XMLNS = "http://s3.amazonaws.com/doc/2006-03-01/";
+    private static final Pattern PART_NUMBER = Pattern.compile("<PartNumber>(\\d+)</PartNumber>");
+    private static final Pattern KEY = Pattern.compile("<Key>(.*?)</Key>");
+
+    private final HttpServer server;
+    private final ExecutorService executor = Executors.newCachedThreadPool();
+    private final Map<String, Map<String, byte[]>> buckets = new ConcurrentHashMap<>();
+    private final Map<String, ConcurrentSkipListMap<Integer, byte[]>> uploads = new ConcurrentHashMap<>();
+    private final AtomicInteger uploadedParts = new AtomicInteger();
+    private final AtomicInteger abortedUploads = new AtomicInteger();
+    private final AtomicInteger inFlightParts = new AtomicInteger();
+    private final AtomicInteger maxInFlightParts = new AtomicInteger();
+    private volatile long partDelayMillis;
+    private volatile int failPartNumber = -1;
+
+    LocalS3Server() throws IOException {
+        server = HttpServer.create(new InetSocketAddress("127.0.0.1", 0), 0);
+        server.createContext("/", this::handle);
+        server.setExecutor(executor);
+        server.start();
+    }
+
+    String endpoint() {
+        return "http://127.0.0.1:" + server.getAddress().getPort();
+    }
+
+    byte[] getObject(String bucket, String key) {
+        return buckets.getOrDefault(bucket, Map.of()).get(key);
+    }
+
+    int getUploadedParts() {
+        return uploadedParts.get();
+    }
+
+    int getAbortedUploads() {
+        return abortedUploads.get();
+    }
+
+    int getMaxInFlightParts() {
+        return maxInFlightParts.get();
+    }
+
+    int getPendingUploads() {
+        return uploads.size();
+    }
+
+    void setPartDelayMillis(long partDelayMillis) {
+        this.partDelayMillis = partDelayMillis;
+    }
+
+    void setFailPartNumber(int failPartNumber) {
+        this.failPartNumber = failPartNumber;
+    }
+
+    @Override
+    public void close() {
+        server.stop(0);
+        executor.shutdownNow();
+    }
+
+    private void handle(HttpExchange exchange) throws IOException {
+        try (exchange) {
+            String path = exchange.getRequestURI().getRawPath();
+            String[] segments = path.substring(1).split("/", 2);
+            String bucket = URLDecoder.decode(segments[0], StandardCharsets.UTF_8);
+            String key = segments.length > 1 ? URLDecoder.decode(segments[1], StandardCharsets.UTF_8) : null;
+            Map<String, String> query = parseQuery(exchange.getRequestURI().getRawQuery());
+            String method = exchange.getRequestMethod();
+
+            if (key == null || key.isEmpty()) {
+                handleBucket(exchange, method, bucket, query);
+            } else {
+                handleObject(exchange, method, bucket, key, query);
+            }
+        }
+    }
+
+    private void handleBucket(HttpExchange exchange, String method, String bucket,
+                              Map<String, String> query) throws IOException {
+        switch (method) {
+            case "HEAD" -> send(exchange, buckets.containsKey(bucket) ? 200 : 404, null);
+            case "PUT" -> {
+                buckets.putIfAbsent(bucket, new ConcurrentHashMap<>());
+                send(exchange, 200, null);
+            }
+            case "GET" -> {
+                StringBuilder xml = new StringBuilder("<ListBucketResult xmlns=\"" + XMLNS + "\"><Name>")
+                        .append(bucket).append("</Name>");
+                Map<String, byte[]> objects = buckets.getOrDefault(bucket, Map.of());
+                objects.keySet().stream().sorted().forEach(key -> xml.append("<Contents><Key>").append(key)
+                        .append("</Key><Size>").append(objects.get(key).length).append("</Size></Contents>"));
+                xml.append("<KeyCount>").append(objects.size()).append("</KeyCount>")
+                        .append("<IsTruncated>false</IsTruncated></ListBucketResult>");
+                send(exchange, 200, xml.toString());
+            }
+            case "POST" -> {
+                if (query.containsKey("delete")) {
+                    Matcher matcher = KEY.matcher(new String(readBody(exchange), StandardCharsets.UTF_8));
+                    while (matcher.find()) {
+                        buckets.getOrDefault(bucket, new HashMap<>()).remove(matcher.group(1));
+                    }
+                    send(exchange, 200, "<DeleteResult xmlns=\"" + XMLNS + "\"/>");
+                } else {
+                    send(exchange, 400, null);
+                }
+            }
+            default -> send(exchange, 405, null);
+        }
+    }
+
+    private void handleObject(HttpExchange exchange, String method, String bucket, String key,
+                              Map<String, String> query) throws IOException {
+        Map<String, byte[]> objects = buckets.get(bucket);
+        if (objects == null) {
+            sendError(exchange, 404, "NoSuchBucket");
+            return;
+        }
+        String uploadId = query.get("uploadId");
+        switch (method) {
+            case "PUT" -> {
+                byte[] body = readBody(exchange);
+                if (uploadId != null) {
+                    uploadPart(exchange, uploadId, Integer.parseInt(query.get("partNumber")), body);
+                } else {
+                    objects.put(key, body);
+                    exchange.getResponseHeaders().set("ETag", etag(body));
+                    send(exchange, 200, null);
+                }
+            }
+            case "POST" -> {
+                if (query.containsKey("uploads")) {
+                    String id = UUID.randomUUID().toString();
+                    uploads.put(id, new ConcurrentSkipListMap<>());
+                    send(exchange, 200, "<InitiateMultipartUploadResult xmlns=\"" + XMLNS + "\"><Bucket>" + bucket
+                            + "</Bucket><Key>" + key + "</Key><UploadId>" + id + "</UploadId></InitiateMultipartUploadResult>");
+                } else if (uploadId != null) {
+                    completeUpload(exchange, objects, bucket, key, uploadId);
+                } else {
+                    send(exchange, 400, null);
+                }
+            }
+            case "DELETE" -> {
+                if (uploadId != null) {
+                    uploads.remove(uploadId);
+                    abortedUploads.incrementAndGet();
+                } else {
+                    objects.remove(key);
+                }
+                send(exchange, 204, null);
+            }
+            case "HEAD", "GET" -> {
+                byte[] body = objects.get(key);
+                if (body == null) {
+                    sendError(exchange, 404, "NoSuchKey");
+                    return;
+                }
+                exchange.getResponseHeaders().set("ETag", etag(body));
+                exchange.getResponseHeaders().set("Content-Type", "application/octet-stream");
+                if (query.containsKey("response-content-disposition")) {
+                    exchange.getResponseHeaders().set("Content-Disposition", query.get("response-content-disposition"));
+                }
+                if (method.equals("HEAD")) {
+                    exchange.getResponseHeaders().set("Content-Length", String.valueOf(body.length));
+                    exchange.sendResponseHeaders(200, -1);
+                } else {
+                    exchange.sendResponseHeaders(200, body.length);
+                    exchange.getResponseBody().write(body);
+                }
+            }
+            default -> send(exchange, 405, null);
+        }
+    }
+
+    private void uploadPart(HttpExchange exchange, String uploadId, int partNumber, byte[] body) throws IOException {
+        ConcurrentSkipListMap<Integer, byte[]> parts = uploads.get(uploadId);
+        if (parts == null) {
+            sendError(exchange, 404, "NoSuchUpload");
+            return;
+        }
+        int inFlight = inFlightParts.incrementAndGet();
+        maxInFlightParts.accumulateAndGet(inFlight, Math::max);
+        try {
+            if (partDelayMillis > 0) {
+                Thread.sleep(partDelayMillis);
+            }
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+        } finally {
+            inFlightParts.decrementAndGet();
+        }
+        if (partNumber == failPartNumber) {
+            sendError(exchange, 400, "InvalidPart");
+            return;
+        }
+        parts.put(partNumber, body);
+        uploadedParts.incrementAndGet();
+        exchange.getResponseHeaders().set("ETag", etag(body));
+        send(exchange, 200, null);
+    }
+
+    private void completeUpload(HttpExchange exchange, Map<String, byte[]> objects, String bucket, String key,
+                                String uploadId) throws IOException {
+        ConcurrentSkipListMap<Integer, byte[]> parts = uploads.remove(uploadId);
+        if (parts == null) {
+            sendError(exchange, 404, "NoSuchUpload");
+            return;
+        }
+        ByteArrayOutputStream object = new ByteArrayOutputStream();
+        Matcher matcher = PART_NUMBER.matcher(new String(readBody(exchange), StandardCharsets.UTF_8));
+        while (matcher.find()) {
+            object.write(parts.get(Integer.parseInt(matcher.group(1))));
+        }
+        byte[] body = object.toByteArray();
+        objects.put(key, body);
+        send(exchange, 200, "<CompleteMultipartUploadResult xmlns=\"" + XMLNS + "\"><Bucket>" + bucket
+                + "</Bucket><Key>" + key + "</Key><ETag>" + etag(body) + "</ETag></CompleteMultipartUploadResult>");
+    }
+
+    /**
+     * 读取请求体，SDK以 aws-chunked 编码发送时解码出原始内容
+     */
+    private byte[] readBody(HttpExchange exchange) throws IOException {
+        byte[] raw = exchange.getRequestBody().readAllBytes();
+        String contentSha256 = exchange.getRequestHeaders().getFirst("x-amz-content-sha256");
+        if (contentSha256 == null || !contentSha256.startsWith("STREAMING-")) {
+            return raw;
+        }
+        ByteArrayOutputStream decoded = new ByteArrayOutputStream();
+        int pos = 0;
+        while (pos < raw.length) {
+            int lineEnd = indexOfCrlf(raw, pos);
+            String header = new String(raw, pos, lineEnd - pos, StandardCharsets.US_ASCII);
+            int size = Integer.parseInt(header.split(";")[0].trim(), 16);
+            pos = lineEnd + 2;
+            if (size == 0) {
+                break;
+            }
+            decoded.write(raw, pos, size);
+            pos += size + 2;
+        }
+        return decoded.toByteArray();
+    }
+
+    private int indexOfCrlf(byte[] data, int from) {
+        for (int i = from; i < data.length - 1; i++) {
+            if (data[i] == '\r' && data[i + 1] == '\n') {
+                return i;
+            }
+        }
+        return data.length;
+    }
+
+    private void sendError(HttpExchange exchange, int status, String code) throws IOException {
+        if (exchange.getRequestMethod().equals("HEAD")) {
+            send(exchange, status, null);
+            return;
+        }
+        send(exchange, status, "<Error><Code>" + code + "</Code><Message>" + code + "</Message></Error>");
+    }
+
+    private void send(HttpExchange exchange, int status, String xml) throws IOException {
+        if (xml == null) {
+            exchange.sendResponseHeaders(status, -1);
+            return;
+        }
+        byte[] body = xml.getBytes(StandardCharsets.UTF_8);
+        exchange.getResponseHeaders().set("Content-Type", "application/xml");
+        exchange.sendResponseHeaders(status, body.length);
+        try (OutputStream out = exchange.getResponseBody()) {
+            out.write(body);
+        }
+    }
+
+    private Map<String, String> parseQuery(String rawQuery) {
+        Map<String, String> query = new HashMap<>();
+        if (rawQuery == null) {
+            return query;
+        }
+        for (String pair : rawQuery.split("&")) {
+            int eq = pair.indexOf('=');
+            String name = URLDecoder.decode(eq < 0 ? pair : pair.substring(0, eq), StandardCharsets.UTF_8);
+            String value = eq < 0 ? "" : URLDecoder.decode(pair.substring(eq + 1), StandardCharsets.UTF_8);
+            query.put(name, value);
+        }
+        return query;
+    }
+
+    private String etag(byte[] body) {
+        try {
+            return "\"" + HexFormat.of().formatHex(MessageDigest.getInstance("MD5").digest(body)) + "\"";
+        } catch (Exception e) {
+            throw new IllegalStateException(e);
+        }
+    }
+
+    static byte[] readAll(InputStream in) throws IOException {
+        try (in) {
+            return in.readAllBytes();
+        }
+    }
+}
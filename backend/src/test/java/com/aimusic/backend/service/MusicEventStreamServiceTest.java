@@ -0,0 +1,137 @@
+package com.aimusic.backend.service;
+
+import com.aimusic.backend.config.MusicEventStreamConfig;
+import com.aimusic.backend.controller.MusicEventController;
+import com.aimusic.backend.domain.entity.Music;
+import com.aimusic.backend.domain.entity.User;
+import com.aimusic.backend.domain.enums.MusicStatus;
+import com.aimusic.backend.domain.event.MusicStatusChangedEvent;
+import com.aimusic.backend.domain.repository.MusicRepository;
+import com.aimusic.backend.domain.service.impl.MusicEventStreamServiceImpl;
+import com.aimusic.backend.exception.GlobalExceptionHandler;
+import com.aimusic.backend.utils.MusicTestFactory;
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.extension.ExtendWith;
+import org.mockito.Mock;
+import org.mockito.junit.jupiter.MockitoExtension;
+import org.springframework.test.web.servlet.MockMvc;
+import org.springframework.test.web.servlet.MvcResult;
+import org.springframework.test.web.servlet.setup.MockMvcBuilders;
+
+import java.util.Optional;
+import java.util.UUID;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertFalse;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.Mockito.when;
+import static org.springframework.test.web.servlet.request.MockMvcRequestBuilders.asyncDispatch;
+import static org.springframework.test.web.servlet.request.MockMvcRequestBuilders.get;
+import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.request;
+import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.status;
+
+/**
+ * 音乐状态推送服务测试类
+ */
+@ExtendWith(MockitoExtension.class)
+class MusicEventStreamServiceTest {
+
+    @Mock
+    private MusicRepository musicRepository;
+
+    private MusicEventStreamConfig streamConfig;
+    private MusicEventStreamServiceImpl streamService;
+    private MockMvc mockMvc;
+    private User user;
+
+    @BeforeEach
+    void setUp() {
+        streamConfig = new MusicEventStreamConfig();
+        streamService = new MusicEventStreamServiceImpl(musicRepository, streamConfig, new SimpleMeterRegistry());
+        mockMvc = MockMvcBuilders.standaloneSetup(new MusicEventController(streamService))
+                .setControllerAdvice(new GlobalExceptionHandler())
+                .build();
+        user = MusicTestFactory.createTestUser();
+    }
+
+    @Test
+    void shouldPushCurrentAndChangedStatus_whenSubscribedToMusic() throws Exception {
+        // Given
+        Music music = createMusic(MusicStatus.PROCESSING);
+        when(musicRepository.findById(music.getId())).thenReturn(Optional.of(music));
+        MvcResult result = mockMvc.perform(get("/api/music/{id}/events", music.getId()))
+                .andExpect(request().asyncStarted())
+                .andReturn();
+        assertEquals(1, streamService.getSubscriberCount());
+
+        // When
+        music.setStatus(MusicStatus.COMPLETED);
+        streamService.onStatusChanged(MusicStatusChangedEvent.of(music));
+
+        // Then
+        String body = result.getResponse().getContentAsString();
+        assertTrue(body.contains("event:status"));
+        assertTrue(body.contains("\"status\":\"PROCESSING\""));
+        assertTrue(body.contains("\"status\":\"COMPLETED\""));
+        mockMvc.perform(asyncDispatch(result)).andExpect(status().isOk());
+        assertEquals(0, streamService.getSubscriberCount());
+    }
+
+    @Test
+    void shouldPushOnlyOwnMusic_whenSubscribedToUser() throws Exception {
+        // Given
+        MvcResult result = mockMvc.perform(get("/api/music/events").param("userId", user.getId().toString()))
+                .andExpect(request().asyncStarted())
+                .andReturn();
+        Music own = createMusic(MusicStatus.FAILED);
+        Music other = createMusic(MusicStatus.COMPLETED);
+        other.setUserId(UUID.randomUUID());
+
+        // When
+        streamService.onStatusChanged(MusicStatusChangedEvent.of(own));
+        streamService.onStatusChanged(MusicStatusChangedEvent.of(other));
+
+        // Then
+        String body = result.getResponse().getContentAsString();
+        assertTrue(body.contains(own.getId().toString()));
+        assertFalse(body.contains(other.getId().toString()));
+        assertEquals(1, streamService.getSubscriberCount());
+    }
+
+    @Test
+    void shouldReturnNotFound_whenMusicNotExists() throws Exception {
+        // Given
+        when(musicRepository.findById(any(UUID.class))).thenReturn(Optional.empty());
+
+        // When & Then
+        mockMvc.perform(get("/api/music/{id}/events", UUID.randomUUID()))
+                .andExpect(status().isNotFound());
+        assertEquals(0, streamService.getSubscriberCount());
+    }
+
+    @Test
+    void shouldAskClientToReconnectLater_whenSubscriberLimitReached() throws Exception {
+        // Given
+        streamConfig.setMaxSubscribers(1);
+        mockMvc.perform(get("/api/music/events").param("userId", user.getId().toString()))
+                .andExpect(request().asyncStarted());
+
+        // When
+        MvcResult rejected = mockMvc.perform(get("/api/music/events").param("userId", user.getId().toString()))
+                .andReturn();
+
+        // Then
+        assertTrue(rejected.getResponse().getContentAsString().contains("retry:" + streamConfig.getHeartbeatInterval()));
+        assertEquals(1, streamService.getSubscriberCount());
+    }
+
+    private Music createMusic(MusicStatus status) {
+        Music music = MusicTestFactory.createTestMusic(user);
+        music.setUserId(user.getId());
+        music.setStatus(status);
+        return music;
+    }
+}
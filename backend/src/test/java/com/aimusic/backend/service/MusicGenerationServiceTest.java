@@ -1,35 +1,41 @@
 package com.aimusic.backend.service;
 
 import com.aimusic.backend.client.SunoApiClient;
+import com.aimusic.backend.client.SunoCircuitBreaker;
+import com.aimusic.backend.client.SunoRateGovernor;
 import com.aimusic.backend.domain.dto.MusicDTO;
 import com.aimusic.backend.domain.dto.MusicGenerationRequest;
 import com.aimusic.backend.domain.entity.Music;
 import com.aimusic.backend.domain.enums.MusicStatus;
+import com.aimusic.backend.domain.event.MusicStatusChangedEvent;
 import com.aimusic.backend.domain.entity.User;
 import com.aimusic.backend.domain.repository.MusicRepository;
+import com.aimusic.backend.domain.service.MusicService;
 import com.aimusic.backend.domain.service.impl.MusicGenerationServiceImpl;
 import com.aimusic.backend.exception.EntityNotFoundException;
 import com.aimusic.backend.exception.MusicGenerationException;
 import com.aimusic.backend.exception.ExternalApiException;
+import com.aimusic.backend.exception.SunoUnavailableException;
 import com.aimusic.backend.utils.MusicTestFactory;
 import org.junit.jupiter.api.BeforeEach;
 import org.junit.jupiter.api.Test;
 import org.junit.jupiter.api.extension.ExtendWith;
 import org.mockito.InjectMocks;
 import org.mockito.Mock;
+import org.mockito.Spy;
 import org.mockito.junit.jupiter.MockitoExtension;
+import org.springframework.context.ApplicationEventPublisher;
+import org.springframework.transaction.PlatformTransactionManager;
+import org.springframework.transaction.support.TransactionTemplate;
 
 import java.util.Collections;
 import java.util.Map;
 import java.util.Optional;
 import java.util.UUID;
-import java.util.concurrent.CompletableFuture;
 import java.util.concurrent.ExecutionException;
 import java.util.HashMap;
 import java.time.LocalDateTime;
-import java.util.List;
-import java.util.ArrayList;
-import java.util.concurrent.TimeUnit;
+import java.util.function.Supplier;
 
 import static org.junit.jupiter.api.Assertions.*;
 import static org.mockito.ArgumentMatchers.*;
@@ -47,6 +53,21 @@ class MusicGenerationServiceTest {
     @Mock
     private SunoApiClient sunoApiClient;
 
+    @Mock
+    private SunoRateGovernor sunoRateGovernor;
+
+    @Mock
+    private SunoCircuitBreaker sunoCircuitBreaker;
+
+    @Mock
+    private MusicService musicService;
+
+    @Mock
+    private ApplicationEventPublisher eventPublisher;
+
+    @Spy
+    private TransactionTemplate transactionTemplate = new TransactionTemplate(mock(PlatformTransactionManager.class));
+
     @InjectMocks
     private MusicGenerationServiceImpl musicGenerationService;
 
@@ -57,6 +78,11 @@ class MusicGenerationServiceTest {
 
     @BeforeEach
     void setUp() {
+        lenient().when(sunoRateGovernor.execute(anyString(), any()))
+                .thenAnswer(invocation -> invocation.<Supplier<?>>getArgument(1).get());
+        lenient().when(sunoCircuitBreaker.isCallPermitted()).thenReturn(true);
+        lenient().when(sunoCircuitBreaker.execute(any()))
+                .thenAnswer(invocation -> invocation.<Supplier<?>>getArgument(0).get());
         musicId = UUID.randomUUID();
         mockUser = MusicTestFactory.createTestUser();
         prompt = "测试提示词";
@@ -74,24 +100,31 @@ class MusicGenerationServiceTest {
     }
 
     @Test
-    void generateMusic_Success() throws Exception {
+    void generateMusic_DelegatesToMusicService() throws Exception {
+        // Given
+        MusicGenerationRequest request = MusicTestFactory.createMusicGenerationRequest(mockUser.getId());
+        MusicDTO queued = MusicDTO.fromEntity(music);
+        when(musicService.generateMusic(request)).thenReturn(queued);
+
+        // When
+        MusicDTO result = musicGenerationService.generateMusic(request).get();
+
+        // Then
+        assertSame(queued, result);
+        verify(musicRepository, never()).save(any(Music.class));
+        verify(sunoApiClient, never()).generateMusic(anyString());
+    }
+
+    @Test
+    void submitGeneration_Success() {
         // Given
         String generationId = "test-id";
-        MusicGenerationRequest request = MusicGenerationRequest.builder()
-                .prompt("test prompt")
-                .style("classical")
-                .duration(60)
-                .userId(mockUser.getId())
-                .build();
-                
+        when(musicRepository.findById(musicId)).thenReturn(Optional.of(music));
         when(sunoApiClient.generateMusic(anyString())).thenReturn(generationId);
-        when(musicRepository.save(any(Music.class))).thenAnswer(invocation -> {
-            Music savedMusic = invocation.getArgument(0);
-            return savedMusic;
-        });
+        when(musicRepository.save(any(Music.class))).thenAnswer(invocation -> invocation.getArgument(0));
         
         // When
-        MusicDTO result = musicGenerationService.generateMusic(request).get();
+        MusicDTO result = musicGenerationService.submitGeneration(musicId);
         
         // Then
         assertNotNull(result);
@@ -99,30 +132,95 @@ class MusicGenerationServiceTest {
         assertEquals(generationId, result.getGenerationId());
         
         verify(musicRepository, times(2)).save(any(Music.class));
-        verify(sunoApiClient).generateMusic(request.getPrompt());
+        verify(sunoApiClient).generateMusic(prompt);
+        // 标记PROCESSING和记录generationId各发布一次状态变更，使缓存失效
+        verify(eventPublisher, times(2)).publishEvent(any(MusicStatusChangedEvent.class));
+    }
+
+    @Test
+    void submitGeneration_SkipsGenerationId_whenCancelledDuringApiCall() {
+        // Given
+        when(musicRepository.findById(musicId)).thenReturn(Optional.of(music));
+        when(musicRepository.save(any(Music.class))).thenAnswer(invocation -> invocation.getArgument(0));
+        when(sunoApiClient.generateMusic(anyString())).thenAnswer(invocation -> {
+            // Suno调用期间用户取消了生成
+            music.setStatus(MusicStatus.CANCELLED);
+            return "test-id";
+        });
+
+        // When
+        MusicDTO result = musicGenerationService.submitGeneration(musicId);
+
+        // Then
+        assertEquals(MusicStatus.CANCELLED, result.getStatus());
+        assertNull(music.getGenerationId());
+        verify(musicRepository, times(1)).save(any(Music.class));
+    }
+
+    @Test
+    void submitGeneration_SkipsAlreadySubmittedMusic() {
+        // Given
+        music.setStatus(MusicStatus.PROCESSING);
+        music.setGenerationId("existing-id");
+        when(musicRepository.findById(musicId)).thenReturn(Optional.of(music));
+        
+        // When
+        MusicDTO result = musicGenerationService.submitGeneration(musicId);
+        
+        // Then
+        assertEquals("existing-id", result.getGenerationId());
+        verify(sunoApiClient, never()).generateMusic(anyString());
+        verify(musicRepository, never()).save(any(Music.class));
+    }
+
+    @Test
+    void submitGeneration_KeepsCancelledStatus_whenCancelledDuringApiCall() {
+        // Given
+        when(musicRepository.findById(musicId)).thenReturn(Optional.of(music));
+        when(musicRepository.save(any(Music.class))).thenAnswer(invocation -> invocation.getArgument(0));
+        when(sunoApiClient.generateMusic(anyString())).thenAnswer(invocation -> {
+            // Suno调用期间用户取消了生成
+            music.setStatus(MusicStatus.CANCELLED);
+            throw new ExternalApiException("API调用失败");
+        });
+        
+        // When & Then
+        assertThrows(MusicGenerationException.class, () -> musicGenerationService.submitGeneration(musicId));
+        assertEquals(MusicStatus.CANCELLED, music.getStatus());
+        verify(musicRepository, times(1)).save(any(Music.class));
+    }
+
+    @Test
+    void submitGeneration_RevertsToPending_whenCircuitOpen() {
+        // Given
+        when(musicRepository.findById(musicId)).thenReturn(Optional.of(music));
+        when(musicRepository.save(any(Music.class))).thenAnswer(invocation -> invocation.getArgument(0));
+        when(sunoCircuitBreaker.isCallPermitted()).thenReturn(false);
+        
+        // When & Then
+        assertThrows(SunoUnavailableException.class, () -> musicGenerationService.submitGeneration(musicId));
+        assertEquals(MusicStatus.PENDING, music.getStatus());
+        assertNull(music.getErrorMessage());
+        verify(sunoApiClient, never()).generateMusic(anyString());
     }
 
     @Test
-    void generateMusic_ApiFailure() throws Exception {
+    void submitGeneration_ApiFailure() {
         // Arrange
-        MusicGenerationRequest request = MusicGenerationRequest.builder()
-                .prompt("test prompt")
-                .style("classical")
-                .duration(60)
-                .userId(mockUser.getId())
-                .build();
-                
+        when(musicRepository.findById(musicId)).thenReturn(Optional.of(music));
         when(musicRepository.save(any(Music.class))).thenReturn(music);
         when(sunoApiClient.generateMusic(anyString()))
                 .thenThrow(new ExternalApiException("API调用失败"));
         
         // Act & Assert
         MusicGenerationException exception = assertThrows(MusicGenerationException.class, () -> {
-            musicGenerationService.generateMusic(request).get(5, TimeUnit.SECONDS);
+            musicGenerationService.submitGeneration(musicId);
         });
         
         assertEquals("生成音乐失败: API调用失败", exception.getMessage());
-        verify(musicRepository, times(3)).save(any(Music.class));
+        // 任务还会重试，音乐恢复为PENDING而不是提前标记为FAILED
+        assertEquals(MusicStatus.PENDING, music.getStatus());
+        verify(musicRepository, times(2)).save(any(Music.class));
         verify(sunoApiClient, times(2)).generateMusic(anyString());
     }
 
@@ -277,51 +375,9 @@ class MusicGenerationServiceTest {
     }
 
     @Test
-    void generateMusic_ConcurrentRequests() throws Exception {
-        // Given
-        int numRequests = 3;
-        List<CompletableFuture<MusicDTO>> futures = new ArrayList<>();
-        String generationId = "test-id";
-        
-        when(sunoApiClient.generateMusic(anyString())).thenReturn(generationId);
-        when(musicRepository.save(any(Music.class))).thenAnswer(invocation -> {
-            Music savedMusic = invocation.getArgument(0);
-            return savedMusic;
-        });
-        
-        // When
-        for (int i = 0; i < numRequests; i++) {
-            MusicGenerationRequest request = MusicGenerationRequest.builder()
-                    .prompt("test prompt")
-                    .style("classical")
-                    .duration(60)
-                    .userId(mockUser.getId())
-                    .build();
-            futures.add(musicGenerationService.generateMusic(request));
-        }
-        
-        // Then
-        for (CompletableFuture<MusicDTO> future : futures) {
-            MusicDTO result = future.get();
-            assertNotNull(result);
-            assertEquals(MusicStatus.PROCESSING, result.getStatus());
-            assertEquals(generationId, result.getGenerationId());
-        }
-        
-        verify(sunoApiClient, times(numRequests)).generateMusic(anyString());
-        verify(musicRepository, times(numRequests * 2)).save(any(Music.class));
-    }
-
-    @Test
-    void generateMusic_RetryOnFailure() throws Exception {
+    void submitGeneration_RetryOnFailure() throws Exception {
         // Arrange
-        MusicGenerationRequest request = MusicGenerationRequest.builder()
-                .prompt("test prompt")
-                .style("classical")
-                .duration(60)
-                .userId(mockUser.getId())
-                .build();
-                
+        when(musicRepository.findById(musicId)).thenReturn(Optional.of(music));
         when(musicRepository.save(any(Music.class))).thenReturn(music);
         when(sunoApiClient.generateMusic(anyString()))
                 .thenThrow(new ExternalApiException("First attempt failed"))
@@ -329,33 +385,22 @@ class MusicGenerationServiceTest {
         
         // Act & Assert
         MusicGenerationException exception = assertThrows(MusicGenerationException.class, () -> {
-            musicGenerationService.generateMusic(request).get(5, TimeUnit.SECONDS);
+            musicGenerationService.submitGeneration(musicId);
         });
         
         assertEquals("生成音乐失败: Second attempt failed", exception.getMessage());
-        verify(musicRepository, times(3)).save(any(Music.class));
+        verify(musicRepository, times(2)).save(any(Music.class));
         verify(sunoApiClient, times(2)).generateMusic(anyString());
     }
 
     @Test
-    void generateMusic_TransactionRollback() {
-        // Arrange
-        MusicGenerationRequest request = MusicGenerationRequest.builder()
-                .prompt("test prompt")
-                .style("classical")
-                .duration(60)
-                .userId(mockUser.getId())
-                .build();
-                
-        when(musicRepository.save(any(Music.class)))
-                .thenThrow(new RuntimeException("Database error"));
-        
-        // Act & Assert
-        assertThrows(RuntimeException.class, () -> {
-            musicGenerationService.generateMusic(request).get(5, TimeUnit.SECONDS);
-        });
-        
-        verify(musicRepository).save(any(Music.class));
+    void generateMusic_PropagatesFailure_whenMusicServiceFails() {
+        // Given
+        MusicGenerationRequest request = MusicTestFactory.createMusicGenerationRequest(mockUser.getId());
+        when(musicService.generateMusic(request)).thenThrow(new EntityNotFoundException("用户不存在"));
+
+        // When & Then
+        assertThrows(EntityNotFoundException.class, () -> musicGenerationService.generateMusic(request));
         verify(sunoApiClient, never()).generateMusic(anyString());
     }
 } 
\ No newline at end of file
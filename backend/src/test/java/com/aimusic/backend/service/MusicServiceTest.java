@@ -1,12 +1,17 @@
 package com.aimusic.backend.service;
 
 import com.aimusic.backend.domain.dto.MusicDTO;
+import com.aimusic.backend.domain.dto.MusicSummaryDTO;
 import com.aimusic.backend.domain.dto.MusicGenerationRequest;
 import com.aimusic.backend.domain.entity.Music;
+import com.aimusic.backend.domain.event.MusicStatusChangedEvent;
+import com.aimusic.backend.domain.enums.GenerationPriority;
 import com.aimusic.backend.domain.enums.MusicStatus;
 import com.aimusic.backend.domain.entity.User;
 import com.aimusic.backend.domain.repository.MusicRepository;
 import com.aimusic.backend.domain.repository.UserRepository;
+import com.aimusic.backend.domain.service.GenerationCacheService;
+import com.aimusic.backend.domain.service.GenerationJobService;
 import com.aimusic.backend.domain.service.MusicService;
 import com.aimusic.backend.domain.service.impl.MusicServiceImpl;
 import com.aimusic.backend.exception.EntityNotFoundException;
@@ -17,11 +22,14 @@ import org.junit.jupiter.api.extension.ExtendWith;
 import org.mockito.InjectMocks;
 import org.mockito.Mock;
 import org.mockito.junit.jupiter.MockitoExtension;
+import org.springframework.context.ApplicationEventPublisher;
+import org.springframework.dao.DataIntegrityViolationException;
 import org.springframework.data.domain.Page;
 import org.springframework.data.domain.PageImpl;
 import org.springframework.data.domain.PageRequest;
 import org.springframework.data.domain.Pageable;
 
+import java.sql.SQLException;
 import java.time.LocalDateTime;
 import java.util.Collections;
 import java.util.List;
@@ -33,6 +41,7 @@ import static org.assertj.core.api.Assertions.assertThatThrownBy;
 import static org.junit.jupiter.api.Assertions.assertEquals;
 import static org.junit.jupiter.api.Assertions.assertNotNull;
 import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.ArgumentMatchers.anyList;
 import static org.mockito.Mockito.*;
 
 /**
@@ -50,6 +59,15 @@ class MusicServiceTest {
     @Mock
     private StorageService storageService;
 
+    @Mock
+    private GenerationJobService generationJobService;
+
+    @Mock
+    private GenerationCacheService generationCacheService;
+
+    @Mock
+    private ApplicationEventPublisher eventPublisher;
+
     @InjectMocks
     private MusicServiceImpl musicService;
 
@@ -62,7 +80,7 @@ class MusicServiceTest {
     void setUp() {
         mockId = UUID.randomUUID();
         mockUser = MusicTestFactory.createTestUser();
-        when(userRepository.findById(mockUser.getId())).thenReturn(Optional.of(mockUser));
+        when(userRepository.getReferenceById(mockUser.getId())).thenReturn(mockUser);
         
         // 初始化测试用的Music实体
         mockMusic = Music.builder()
@@ -95,7 +113,7 @@ class MusicServiceTest {
                 .userId(mockUser.getId())
                 .build();
         
-        when(musicRepository.save(any(Music.class))).thenReturn(mockMusic);
+        when(musicRepository.saveAllAndFlush(anyList())).thenReturn(List.of(mockMusic));
         
         // Act
         MusicDTO result = musicService.generateMusic(request);
@@ -108,13 +126,16 @@ class MusicServiceTest {
         assertEquals(request.getDuration(), result.getDuration());
         assertEquals(request.getUserId(), result.getUserId());
         
-        verify(musicRepository).save(any(Music.class));
+        verify(musicRepository).saveAllAndFlush(anyList());
+        verify(userRepository, never()).findById(any(UUID.class));
+        verify(generationJobService).enqueue(mockMusic, GenerationPriority.INTERACTIVE);
     }
 
     @Test
     void generateMusic_ShouldThrowException_WhenUserNotFound() {
         // Arrange
-        when(userRepository.findById(mockUser.getId())).thenReturn(Optional.empty());
+        when(musicRepository.saveAllAndFlush(anyList())).thenThrow(new DataIntegrityViolationException("外键冲突",
+                new SQLException("Referential integrity constraint violation", "23506")));
 
         // Act & Assert
         assertThatThrownBy(() -> musicService.generateMusic(mockRequest))
@@ -154,26 +175,31 @@ class MusicServiceTest {
     void listMusic_ShouldReturnPageOfMusic() {
         // Arrange
         Pageable pageable = PageRequest.of(0, 10);
-        List<Music> musicList = Collections.singletonList(mockMusic);
-        Page<Music> musicPage = new PageImpl<>(musicList, pageable, 1);
+        MusicSummaryDTO summary = MusicSummaryDTO.builder()
+                .id(mockMusic.getId())
+                .prompt(mockMusic.getPrompt())
+                .style(mockMusic.getStyle())
+                .duration(mockMusic.getDuration())
+                .status(mockMusic.getStatus())
+                .build();
+        Page<MusicSummaryDTO> musicPage = new PageImpl<>(Collections.singletonList(summary), pageable, 1);
         
-        when(musicRepository.findAllByOrderByCreatedAtDesc(pageable))
+        when(musicRepository.findSummaries(pageable))
                 .thenReturn(musicPage);
         
         // Act
-        Page<MusicDTO> result = musicService.listMusic(pageable);
+        Page<MusicSummaryDTO> result = musicService.listMusic(pageable);
         
         // Assert
         assertNotNull(result);
         assertEquals(1, result.getTotalElements());
         assertEquals(1, result.getContent().size());
         
-        MusicDTO musicDTO = result.getContent().get(0);
+        MusicSummaryDTO musicDTO = result.getContent().get(0);
         assertNotNull(musicDTO);
         assertEquals(mockMusic.getPrompt(), musicDTO.getPrompt());
         assertEquals(mockMusic.getStyle(), musicDTO.getStyle());
         assertEquals(mockMusic.getDuration(), musicDTO.getDuration());
-        assertEquals(mockMusic.getUserId(), musicDTO.getUserId());
     }
 
     @Test
@@ -192,6 +218,7 @@ class MusicServiceTest {
         assertThat(result.getAudioUrl()).isEqualTo(audioUrl);
         verify(musicRepository).findById(mockId);
         verify(musicRepository).save(any(Music.class));
+        verify(eventPublisher).publishEvent(any(MusicStatusChangedEvent.class));
     }
 
     @Test
@@ -0,0 +1,261 @@
+package com.aimusic.backend.service;
+
+import com.aimusic.backend.client.SunoApiClient;
+import com.aimusic.backend.client.SunoCircuitBreaker;
+import com.aimusic.backend.config.MusicStatusPollerConfig;
+import com.aimusic.backend.config.SunoCircuitBreakerConfig;
+import com.aimusic.backend.domain.entity.Music;
+import com.aimusic.backend.domain.event.MusicStatusChangedEvent;
+import com.aimusic.backend.domain.enums.MusicStatus;
+import com.aimusic.backend.domain.repository.MusicRepository;
+import com.aimusic.backend.domain.service.impl.MusicStatusPollingServiceImpl;
+import com.aimusic.backend.exception.ExternalApiException;
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.extension.ExtendWith;
+import org.mockito.ArgumentCaptor;
+import org.mockito.Mock;
+import org.mockito.junit.jupiter.MockitoExtension;
+import org.springframework.context.ApplicationEventPublisher;
+import org.springframework.data.domain.Pageable;
+import org.springframework.transaction.PlatformTransactionManager;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import java.time.Duration;
+import java.time.LocalDateTime;
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.List;
+import java.util.Map;
+import java.util.UUID;
+import java.util.concurrent.atomic.AtomicReference;
+import java.util.stream.Collectors;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.ArgumentMatchers.anyCollection;
+import static org.mockito.ArgumentMatchers.anyIterable;
+import static org.mockito.ArgumentMatchers.eq;
+import static org.mockito.Mockito.mock;
+import static org.mockito.Mockito.never;
+import static org.mockito.Mockito.times;
+import static org.mockito.Mockito.verify;
+import static org.mockito.Mockito.when;
+
+/**
+ * 音乐状态轮询服务测试类
+ */
+@ExtendWith(MockitoExtension.class)
+class MusicStatusPollingServiceTest {
+
+    @Mock
+    private MusicRepository musicRepository;
+
+    @Mock
+    private SunoApiClient sunoApiClient;
+
+    @Mock
+    private ApplicationEventPublisher eventPublisher;
+
+    private MusicStatusPollerConfig pollerConfig;
+    private MusicStatusPollingServiceImpl pollingService;
+
+    @BeforeEach
+    void setUp() {
+        pollerConfig = new MusicStatusPollerConfig();
+        pollerConfig.setBatchSize(2);
+        TransactionTemplate transactionTemplate = new TransactionTemplate(mock(PlatformTransactionManager.class));
+        SunoCircuitBreaker circuitBreaker = new SunoCircuitBreaker(new SunoCircuitBreakerConfig(), new SimpleMeterRegistry());
+        pollingService = new MusicStatusPollingServiceImpl(
+                musicRepository, sunoApiClient, pollerConfig, transactionTemplate, circuitBreaker, eventPublisher);
+    }
+
+    @Test
+    void shouldQueryInBatches_whenManyMusicInFlight() {
+        // Given
+        List<Music> inFlight = createProcessingMusic(5);
+        when(musicRepository.findByStatusAndGenerationIdIsNotNullOrderByCreatedAtAscIdAsc(
+                eq(MusicStatus.PROCESSING), any(Pageable.class))).thenReturn(inFlight);
+        when(sunoApiClient.getMusicStatuses(anyCollection())).thenReturn(List.of());
+
+        // When
+        int updated = pollingService.pollInFlightMusic();
+
+        // Then
+        assertEquals(0, updated);
+        verify(sunoApiClient, times(3)).getMusicStatuses(anyCollection());
+        verify(musicRepository, never()).findAllById(anyIterable());
+    }
+
+    @Test
+    void shouldUpdateFinishedMusic_whenSunoReportsTerminalStatus() {
+        // Given
+        List<Music> inFlight = createProcessingMusic(2);
+        Music completed = inFlight.get(0);
+        Music failed = inFlight.get(1);
+        when(musicRepository.findByStatusAndGenerationIdIsNotNullOrderByCreatedAtAscIdAsc(
+                eq(MusicStatus.PROCESSING), any(Pageable.class))).thenReturn(inFlight);
+        when(sunoApiClient.getMusicStatuses(anyCollection())).thenReturn(List.of(
+                Map.of("id", completed.getGenerationId(), "status", "complete",
+                        "audio_url", "https://cdn.suno.ai/a.mp3"),
+                Map.of("id", failed.getGenerationId(), "status", "error",
+                        "error_message", "content policy")));
+        when(musicRepository.updateStatuses(anyCollection(), eq(MusicStatus.PROCESSING), any(LocalDateTime.class)))
+                .thenReturn(2);
+
+        // When
+        int updated = pollingService.pollInFlightMusic();
+
+        // Then
+        assertEquals(2, updated);
+        assertEquals(MusicStatus.COMPLETED, completed.getStatus());
+        assertEquals("https://cdn.suno.ai/a.mp3", completed.getAudioUrl());
+        assertEquals(MusicStatus.FAILED, failed.getStatus());
+        assertEquals("content policy", failed.getErrorMessage());
+
+        @SuppressWarnings("unchecked")
+        ArgumentCaptor<Collection<String>> idsCaptor = ArgumentCaptor.forClass(Collection.class);
+        verify(sunoApiClient).getMusicStatuses(idsCaptor.capture());
+        assertEquals(inFlight.stream().map(Music::getGenerationId).collect(Collectors.toList()),
+                new ArrayList<>(idsCaptor.getValue()));
+        verify(musicRepository).updateStatuses(eq(List.of(completed, failed)), eq(MusicStatus.PROCESSING), any(LocalDateTime.class));
+        verify(musicRepository, never()).findAllById(anyIterable());
+        verify(eventPublisher, times(2)).publishEvent(any(MusicStatusChangedEvent.class));
+    }
+
+    @Test
+    void shouldPublishOnlyAppliedChanges_whenMusicCancelledDuringPoll() {
+        // Given
+        List<Music> inFlight = createProcessingMusic(2);
+        Music completed = inFlight.get(0);
+        Music cancelled = inFlight.get(1);
+        when(musicRepository.findByStatusAndGenerationIdIsNotNullOrderByCreatedAtAscIdAsc(
+                eq(MusicStatus.PROCESSING), any(Pageable.class))).thenReturn(inFlight);
+        when(sunoApiClient.getMusicStatuses(anyCollection())).thenReturn(List.of(
+                Map.of("id", completed.getGenerationId(), "status", "complete", "audio_url", "https://cdn.suno.ai/a.mp3"),
+                Map.of("id", cancelled.getGenerationId(), "status", "complete", "audio_url", "https://cdn.suno.ai/b.mp3")));
+        AtomicReference<LocalDateTime> updatedAt = new AtomicReference<>();
+        when(musicRepository.updateStatuses(anyCollection(), eq(MusicStatus.PROCESSING), any(LocalDateTime.class)))
+                .thenAnswer(invocation -> {
+                    updatedAt.set(invocation.getArgument(2));
+                    return 1;
+                });
+        when(musicRepository.findAllById(anyIterable())).thenAnswer(invocation -> List.of(
+                Music.builder().id(completed.getId()).status(MusicStatus.COMPLETED).updatedAt(updatedAt.get()).build(),
+                Music.builder().id(cancelled.getId()).status(MusicStatus.CANCELLED)
+                        .updatedAt(updatedAt.get().minusSeconds(1)).build()));
+
+        // When
+        int updated = pollingService.pollInFlightMusic();
+
+        // Then
+        assertEquals(1, updated);
+        ArgumentCaptor<MusicStatusChangedEvent> eventCaptor = ArgumentCaptor.forClass(MusicStatusChangedEvent.class);
+        verify(eventPublisher).publishEvent(eventCaptor.capture());
+        assertEquals(completed.getId(), eventCaptor.getValue().getMusic().getId());
+    }
+
+    @Test
+    void shouldSkipMusic_whenNotDueForNextPoll() {
+        // Given
+        List<Music> inFlight = createProcessingMusic(1);
+        when(musicRepository.findByStatusAndGenerationIdIsNotNullOrderByCreatedAtAscIdAsc(
+                eq(MusicStatus.PROCESSING), any(Pageable.class))).thenReturn(inFlight);
+        when(sunoApiClient.getMusicStatuses(anyCollection()))
+                .thenReturn(List.of(Map.of("id", inFlight.get(0).getGenerationId(), "status", "streaming")));
+
+        // When
+        pollingService.pollInFlightMusic();
+        pollingService.pollInFlightMusic();
+
+        // Then
+        verify(sunoApiClient, times(1)).getMusicStatuses(anyCollection());
+    }
+
+    @Test
+    void shouldContinueWithNextBatch_whenApiCallFails() {
+        // Given
+        List<Music> inFlight = createProcessingMusic(4);
+        when(musicRepository.findByStatusAndGenerationIdIsNotNullOrderByCreatedAtAscIdAsc(
+                eq(MusicStatus.PROCESSING), any(Pageable.class))).thenReturn(inFlight);
+        when(sunoApiClient.getMusicStatuses(anyCollection()))
+                .thenThrow(new ExternalApiException("API调用失败"))
+                .thenReturn(List.of(Map.of("id", inFlight.get(2).getGenerationId(), "status", "complete",
+                        "audio_url", "https://cdn.suno.ai/c.mp3")));
+        when(musicRepository.updateStatuses(anyCollection(), eq(MusicStatus.PROCESSING), any(LocalDateTime.class)))
+                .thenReturn(1);
+
+        // When
+        int updated = pollingService.pollInFlightMusic();
+
+        // Then
+        assertEquals(1, updated);
+        assertEquals(MusicStatus.COMPLETED, inFlight.get(2).getStatus());
+        verify(sunoApiClient, times(2)).getMusicStatuses(anyCollection());
+    }
+
+    @Test
+    void shouldContinueFromLastScanned_whenMoreMusicInFlightThanScanSize() {
+        // Given
+        pollerConfig.setMaxScanSize(2);
+        List<Music> inFlight = createProcessingMusic(3);
+        Music lastOfFirstPage = inFlight.get(1);
+        when(musicRepository.findByStatusAndGenerationIdIsNotNullOrderByCreatedAtAscIdAsc(
+                eq(MusicStatus.PROCESSING), any(Pageable.class))).thenReturn(inFlight.subList(0, 2));
+        when(musicRepository.findInFlightAfter(eq(MusicStatus.PROCESSING), eq(lastOfFirstPage.getCreatedAt()),
+                eq(lastOfFirstPage.getId()), any(Pageable.class))).thenReturn(inFlight.subList(2, 3));
+        when(sunoApiClient.getMusicStatuses(anyCollection())).thenReturn(List.of());
+
+        // When
+        pollingService.pollInFlightMusic();
+        pollingService.pollInFlightMusic();
+        pollingService.pollInFlightMusic();
+
+        // Then
+        @SuppressWarnings("unchecked")
+        ArgumentCaptor<Collection<String>> idsCaptor = ArgumentCaptor.forClass(Collection.class);
+        verify(sunoApiClient, times(2)).getMusicStatuses(idsCaptor.capture());
+        assertEquals(List.of(inFlight.get(0).getGenerationId(), inFlight.get(1).getGenerationId()),
+                new ArrayList<>(idsCaptor.getAllValues().get(0)));
+        assertEquals(List.of(inFlight.get(2).getGenerationId()), new ArrayList<>(idsCaptor.getAllValues().get(1)));
+        // 扫描到末尾后从头开始，前两个任务仍未到下次轮询时间
+        verify(musicRepository, times(2)).findByStatusAndGenerationIdIsNotNullOrderByCreatedAtAscIdAsc(
+                eq(MusicStatus.PROCESSING), any(Pageable.class));
+    }
+
+    @Test
+    void shouldPollLessOften_whenMusicIsOlder() {
+        // Given
+        LocalDateTime now = LocalDateTime.now();
+        Music fresh = Music.builder().createdAt(now.minusSeconds(10)).build();
+        Music older = Music.builder().createdAt(now.minusMinutes(10)).build();
+        Music stale = Music.builder().createdAt(now.minusHours(3)).build();
+
+        // When
+        Duration freshInterval = pollingService.pollInterval(fresh, now);
+        Duration olderInterval = pollingService.pollInterval(older, now);
+        Duration staleInterval = pollingService.pollInterval(stale, now);
+
+        // Then
+        assertEquals(Duration.ofMillis(pollerConfig.getMinInterval()), freshInterval);
+        assertEquals(Duration.ofMinutes(1), olderInterval);
+        assertEquals(Duration.ofMillis(pollerConfig.getMaxInterval()), staleInterval);
+        assertTrue(freshInterval.compareTo(olderInterval) < 0);
+    }
+
+    private List<Music> createProcessingMusic(int count) {
+        List<Music> musicList = new ArrayList<>();
+        for (int i = 0; i < count; i++) {
+            musicList.add(Music.builder()
+                    .id(UUID.randomUUID())
+                    .prompt("测试提示词")
+                    .generationId("gen_" + i)
+                    .status(MusicStatus.PROCESSING)
+                    .createdAt(LocalDateTime.now().minusSeconds(30))
+                    .build());
+        }
+        return musicList;
+    }
+}
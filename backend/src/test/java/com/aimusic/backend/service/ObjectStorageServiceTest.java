@@ -0,0 +1,185 @@
+package com.aimusic.backend.service;
+
+import com.aimusic.backend.config.ObjectStorageConfig;
+import com.aimusic.backend.config.StorageConfig;
+import com.aimusic.backend.domain.dto.StoredFileDTO;
+import com.aimusic.backend.domain.entity.StoredFile;
+import com.aimusic.backend.domain.repository.StoredFileRepository;
+import com.aimusic.backend.exception.StorageException;
+import com.aimusic.backend.service.impl.ObjectStorageService;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.core.io.Resource;
+
+import java.io.ByteArrayInputStream;
+import java.net.URI;
+import java.net.http.HttpClient;
+import java.net.http.HttpRequest;
+import java.net.http.HttpResponse;
+import java.security.MessageDigest;
+import java.util.HexFormat;
+import java.util.List;
+import java.util.Random;
+import java.util.Set;
+import java.util.stream.Collectors;
+
+import static org.junit.jupiter.api.Assertions.assertArrayEquals;
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertFalse;
+import static org.junit.jupiter.api.Assertions.assertNull;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.Mockito.mock;
+import static org.mockito.Mockito.verify;
+import static org.mockito.Mockito.when;
+
+/**
+ * 对象存储服务测试类
+ * 使用本地S3兼容服务代替真实对象存储
+ */
+class ObjectStorageServiceTest {
+
+    private static final String BUCKET = "test-music";
+    private static final int PART_SIZE = 64 * 1024;
+
+    private LocalS3Server s3Server;
+    private StoredFileRepository storedFileRepository;
+    private ObjectStorageService storageService;
+
+    @BeforeEach
+    void setUp() throws Exception {
+        s3Server = new LocalS3Server();
+
+        StorageConfig storageConfig = new StorageConfig();
+        storageConfig.setMaxFileSize(1024 * 1024);
+        storageConfig.setAllowedFileTypes(Set.of(".mp3", ".wav"));
+        storageConfig.setUrlPrefix("/files");
+        storageConfig.setMaxFilenameLength(100);
+
+        ObjectStorageConfig objectStorageConfig = new ObjectStorageConfig();
+        objectStorageConfig.setEndpoint(s3Server.endpoint());
+        objectStorageConfig.setBucket(BUCKET);
+        objectStorageConfig.setAccessKey("test");
+        objectStorageConfig.setSecretKey("test-secret");
+        objectStorageConfig.setPartSize(PART_SIZE);
+        objectStorageConfig.setUploadConcurrency(3);
+
+        storedFileRepository = mock(StoredFileRepository.class);
+        when(storedFileRepository.save(any(StoredFile.class))).thenAnswer(invocation -> invocation.getArgument(0));
+        storageService = new ObjectStorageService(storageConfig, objectStorageConfig, storedFileRepository);
+        storageService.init();
+    }
+
+    @AfterEach
+    void tearDown() {
+        storageService.close();
+        s3Server.close();
+    }
+
+    @Test
+    void shouldPutSingleObject_whenFileSmallerThanPartSize() throws Exception {
+        // Given
+        byte[] content = randomBytes(1000);
+
+        // When
+        StoredFileDTO stored = storageService.store(new ByteArrayInputStream(content), "small.mp3");
+
+        // Then
+        assertArrayEquals(content, s3Server.getObject(BUCKET, stored.getFilename()));
+        assertEquals(sha256(content), stored.getChecksum());
+        assertEquals(0, s3Server.getUploadedParts());
+        assertTrue(storageService.exists(stored.getFilename()));
+        assertEquals(content.length, storageService.getFileSize(stored.getFilename()));
+        verify(storedFileRepository).save(any(StoredFile.class));
+    }
+
+    @Test
+    void shouldUploadPartsInParallel_whenFileLargerThanPartSize() throws Exception {
+        // Given
+        byte[] content = randomBytes(PART_SIZE * 5 + 123);
+        s3Server.setPartDelayMillis(100);
+
+        // When
+        StoredFileDTO stored = storageService.store(new ByteArrayInputStream(content), "large.mp3");
+
+        // Then
+        assertArrayEquals(content, s3Server.getObject(BUCKET, stored.getFilename()));
+        assertEquals(content.length, stored.getSize());
+        assertEquals(sha256(content), stored.getChecksum());
+        assertEquals(6, s3Server.getUploadedParts());
+        assertTrue(s3Server.getMaxInFlightParts() > 1);
+        assertTrue(s3Server.getMaxInFlightParts() <= 3);
+    }
+
+    @Test
+    void shouldAbortMultipartUpload_whenPartFails() throws Exception {
+        // Given
+        s3Server.setFailPartNumber(2);
+
+        // When & Then
+        assertThrows(StorageException.class,
+                () -> storageService.store(new ByteArrayInputStream(randomBytes(PART_SIZE * 3)), "broken.mp3"));
+        assertEquals(1, s3Server.getAbortedUploads());
+        assertEquals(0, s3Server.getPendingUploads());
+    }
+
+    @Test
+    void shouldAbortMultipartUpload_whenFileExceedsLimit() throws Exception {
+        // When & Then
+        assertThrows(StorageException.class,
+                () -> storageService.store(new ByteArrayInputStream(randomBytes(2 * 1024 * 1024)), "huge.mp3"));
+        assertEquals(1, s3Server.getAbortedUploads());
+    }
+
+    @Test
+    void shouldDownloadThroughPresignedUrl() throws Exception {
+        // Given
+        byte[] content = randomBytes(2048);
+        StoredFileDTO stored = storageService.store(new ByteArrayInputStream(content), "song.mp3");
+
+        // When
+        URI url = storageService.presignedDownloadUrl(stored.getFilename()).orElseThrow();
+        HttpResponse<byte[]> response = HttpClient.newHttpClient().send(
+                HttpRequest.newBuilder(url).build(), HttpResponse.BodyHandlers.ofByteArray());
+
+        // Then
+        assertTrue(url.getQuery().contains("X-Amz-Signature="));
+        assertEquals(200, response.statusCode());
+        assertArrayEquals(content, response.body());
+        assertTrue(response.headers().firstValue("Content-Disposition").orElseThrow().startsWith("attachment"));
+    }
+
+    @Test
+    void shouldLoadListAndDeleteObjects() throws Exception {
+        // Given
+        byte[] content = randomBytes(512);
+        StoredFileDTO first = storageService.store(new ByteArrayInputStream(content), "a.mp3");
+        StoredFileDTO second = storageService.store(new ByteArrayInputStream(randomBytes(256)), "b.wav");
+
+        // When
+        Resource resource = storageService.loadAsResource(first.getFilename());
+        List<String> keys = storageService.loadAll().map(Object::toString).collect(Collectors.toList());
+        storageService.delete(first.getFilename());
+
+        // Then
+        assertArrayEquals(content, LocalS3Server.readAll(resource.getInputStream()));
+        assertEquals(first.getFilename(), resource.getFilename());
+        assertEquals(2, keys.size());
+        assertFalse(storageService.exists(first.getFilename()));
+        assertNull(s3Server.getObject(BUCKET, first.getFilename()));
+        assertTrue(storageService.exists(second.getFilename()));
+        verify(storedFileRepository).deleteById(first.getFilename());
+    }
+
+    private byte[] randomBytes(int size) {
+        byte[] bytes = new byte[size];
+        new Random(size).nextBytes(bytes);
+        return bytes;
+    }
+
+    private String sha256(byte[] content) throws Exception {
+        return HexFormat.of().formatHex(MessageDigest.getInstance("SHA-256").digest(content));
+    }
+}
@@ -0,0 +1,222 @@
+package com.aimusic.backend.service;
+
+import com.aimusic.backend.config.StorageConfig;
+import com.aimusic.backend.service.impl.RangeFileDownloadService;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.io.TempDir;
+import org.springframework.http.HttpHeaders;
+import org.springframework.http.MediaType;
+import org.springframework.mock.web.MockHttpServletRequest;
+import org.springframework.mock.web.MockHttpServletResponse;
+
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertNotNull;
+import static org.junit.jupiter.api.Assertions.assertNull;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+/**
+ * 支持Range的文件下载服务测试类
+ */
+class RangeFileDownloadServiceTest {
+
+    private static final String CONTENT = "0123456789abcdefghij";
+
+    @TempDir
+    Path tempDir;
+
+    private StorageConfig storageConfig;
+    private RangeFileDownloadService downloadService;
+    private Path file;
+
+    @BeforeEach
+    void setUp() throws Exception {
+        storageConfig = new StorageConfig();
+        downloadService = new RangeFileDownloadService(storageConfig);
+        file = Files.writeString(tempDir.resolve("song.mp3"), CONTENT);
+    }
+
+    @Test
+    void shouldReturnFullContentWithValidators_whenNoRangeRequested() throws Exception {
+        // Given
+        MockHttpServletRequest request = get();
+        MockHttpServletResponse response = new MockHttpServletResponse();
+
+        // When
+        downloadService.download(file, request, response);
+
+        // Then
+        assertEquals(200, response.getStatus());
+        assertEquals(CONTENT, response.getContentAsString());
+        assertEquals("audio/mpeg", response.getContentType());
+        assertEquals("bytes", response.getHeader(HttpHeaders.ACCEPT_RANGES));
+        assertNotNull(response.getHeader(HttpHeaders.ETAG));
+        assertNotNull(response.getHeader(HttpHeaders.LAST_MODIFIED));
+    }
+
+    @Test
+    void shouldServeInlineWithGivenContentType_whenStreaming() throws Exception {
+        // Given
+        Path playlist = Files.writeString(tempDir.resolve("master.m3u8"), "#EXTM3U");
+        MockHttpServletRequest request = get();
+        MockHttpServletResponse response = new MockHttpServletResponse();
+
+        // When
+        downloadService.stream(playlist, MediaType.parseMediaType("application/vnd.apple.mpegurl"), request, response);
+
+        // Then
+        assertEquals(200, response.getStatus());
+        assertEquals("#EXTM3U", response.getContentAsString());
+        assertEquals("application/vnd.apple.mpegurl", response.getContentType());
+        assertEquals("inline", response.getHeader(HttpHeaders.CONTENT_DISPOSITION));
+    }
+
+    @Test
+    void shouldReturnPartialContent_whenSingleRangeRequested() throws Exception {
+        // Given
+        MockHttpServletRequest request = get();
+        request.addHeader(HttpHeaders.RANGE, "bytes=5-9");
+        MockHttpServletResponse response = new MockHttpServletResponse();
+
+        // When
+        downloadService.download(file, request, response);
+
+        // Then
+        assertEquals(206, response.getStatus());
+        assertEquals("56789", response.getContentAsString());
+        assertEquals("bytes 5-9/20", response.getHeader(HttpHeaders.CONTENT_RANGE));
+        assertEquals(5, response.getContentLengthLong());
+    }
+
+    @Test
+    void shouldReturnMultipartByteranges_whenMultipleRangesRequested() throws Exception {
+        // Given
+        MockHttpServletRequest request = get();
+        request.addHeader(HttpHeaders.RANGE, "bytes=0-1,-3");
+        MockHttpServletResponse response = new MockHttpServletResponse();
+
+        // When
+        downloadService.download(file, request, response);
+
+        // Then
+        assertEquals(206, response.getStatus());
+        assertTrue(response.getContentType().startsWith("multipart/byteranges; boundary="));
+        String body = response.getContentAsString();
+        assertTrue(body.contains("Content-Range: bytes 0-1/20\r\n\r\n01\r\n"));
+        assertTrue(body.contains("Content-Range: bytes 17-19/20\r\n\r\nhij\r\n"));
+        assertEquals(response.getContentAsByteArray().length, response.getContentLengthLong());
+    }
+
+    @Test
+    void shouldReturnRangeNotSatisfiable_whenRangeBeyondEndOfFile() throws Exception {
+        // Given
+        MockHttpServletRequest request = get();
+        request.addHeader(HttpHeaders.RANGE, "bytes=100-200");
+        MockHttpServletResponse response = new MockHttpServletResponse();
+
+        // When
+        downloadService.download(file, request, response);
+
+        // Then
+        assertEquals(416, response.getStatus());
+        assertEquals("bytes */20", response.getHeader(HttpHeaders.CONTENT_RANGE));
+    }
+
+    @Test
+    void shouldReturnNotModified_whenETagMatches() throws Exception {
+        // Given
+        String etag = fetchETag();
+        MockHttpServletRequest request = get();
+        request.addHeader(HttpHeaders.IF_NONE_MATCH, etag);
+        MockHttpServletResponse response = new MockHttpServletResponse();
+
+        // When
+        downloadService.download(file, request, response);
+
+        // Then
+        assertEquals(304, response.getStatus());
+        assertEquals(0, response.getContentAsByteArray().length);
+    }
+
+    @Test
+    void shouldIgnoreRange_whenIfRangeDoesNotMatch() throws Exception {
+        // Given
+        MockHttpServletRequest request = get();
+        request.addHeader(HttpHeaders.RANGE, "bytes=5-9");
+        request.addHeader(HttpHeaders.IF_RANGE, "\"stale\"");
+        MockHttpServletResponse response = new MockHttpServletResponse();
+
+        // When
+        downloadService.download(file, request, response);
+
+        // Then
+        assertEquals(200, response.getStatus());
+        assertEquals(CONTENT, response.getContentAsString());
+    }
+
+    @Test
+    void shouldHonourRange_whenIfRangeMatchesETag() throws Exception {
+        // Given
+        MockHttpServletRequest request = get();
+        request.addHeader(HttpHeaders.RANGE, "bytes=5-9");
+        request.addHeader(HttpHeaders.IF_RANGE, fetchETag());
+        MockHttpServletResponse response = new MockHttpServletResponse();
+
+        // When
+        downloadService.download(file, request, response);
+
+        // Then
+        assertEquals(206, response.getStatus());
+        assertEquals("56789", response.getContentAsString());
+    }
+
+    @Test
+    void shouldDelegateToSendfile_whenContainerSupportsIt() throws Exception {
+        // Given
+        storageConfig.setSendfileMinSize(1);
+        MockHttpServletRequest request = get();
+        request.setAttribute("org.apache.tomcat.sendfile.support", Boolean.TRUE);
+        request.addHeader(HttpHeaders.RANGE, "bytes=10-");
+        MockHttpServletResponse response = new MockHttpServletResponse();
+
+        // When
+        downloadService.download(file, request, response);
+
+        // Then
+        assertEquals(206, response.getStatus());
+        assertEquals(file.toRealPath().toString(), request.getAttribute("org.apache.tomcat.sendfile.filename"));
+        assertEquals(10L, request.getAttribute("org.apache.tomcat.sendfile.start"));
+        assertEquals(20L, request.getAttribute("org.apache.tomcat.sendfile.end"));
+        assertEquals(0, response.getContentAsByteArray().length);
+    }
+
+    @Test
+    void shouldWriteHeadersOnly_whenHeadRequest() throws Exception {
+        // Given
+        MockHttpServletRequest request = new MockHttpServletRequest("HEAD", "/api/storage/download/song.mp3");
+        MockHttpServletResponse response = new MockHttpServletResponse();
+
+        // When
+        downloadService.download(file, request, response);
+
+        // Then
+        assertEquals(200, response.getStatus());
+        assertEquals(20, response.getContentLengthLong());
+        assertEquals(0, response.getContentAsByteArray().length);
+        assertNull(request.getAttribute("org.apache.tomcat.sendfile.filename"));
+    }
+
+    private MockHttpServletRequest get() {
+        return new MockHttpServletRequest("GET", "/api/storage/download/song.mp3");
+    }
+
+    private String fetchETag() throws Exception {
+        MockHttpServletResponse response = new MockHttpServletResponse();
+        downloadService.download(file, get(), response);
+        return response.getHeader(HttpHeaders.ETAG);
+    }
+}
@@ -0,0 +1,309 @@
+package com.aimusic.backend.service;
+
+import com.aimusic.backend.client.FfmpegEncoder;
+import com.aimusic.backend.config.StorageConfig;
+import com.aimusic.backend.config.StreamingConfig;
+import com.aimusic.backend.config.TranscodingConfig;
+import com.aimusic.backend.domain.dto.StoredFileDTO;
+import com.aimusic.backend.domain.entity.Music;
+import com.aimusic.backend.domain.entity.MusicRendition;
+import com.aimusic.backend.domain.entity.StoredFile;
+import com.aimusic.backend.domain.enums.AudioCodec;
+import com.aimusic.backend.domain.enums.MusicStatus;
+import com.aimusic.backend.domain.enums.RenditionQuality;
+import com.aimusic.backend.domain.repository.MusicRenditionRepository;
+import com.aimusic.backend.domain.repository.MusicRepository;
+import com.aimusic.backend.domain.repository.StoredFileRepository;
+import com.aimusic.backend.domain.service.impl.RenditionServiceImpl;
+import com.aimusic.backend.service.impl.FileSystemStorageService;
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.condition.DisabledOnOs;
+import org.junit.jupiter.api.condition.OS;
+import org.junit.jupiter.api.io.TempDir;
+import org.mockito.ArgumentCaptor;
+import org.springframework.data.domain.Pageable;
+import org.springframework.util.FileSystemUtils;
+
+import java.io.ByteArrayInputStream;
+import java.io.IOException;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.List;
+import java.util.Optional;
+import java.util.Set;
+import java.util.UUID;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertFalse;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.ArgumentMatchers.anyList;
+import static org.mockito.ArgumentMatchers.anyLong;
+import static org.mockito.ArgumentMatchers.anyString;
+import static org.mockito.ArgumentMatchers.eq;
+import static org.mockito.Mockito.mock;
+import static org.mockito.Mockito.never;
+import static org.mockito.Mockito.times;
+import static org.mockito.Mockito.timeout;
+import static org.mockito.Mockito.verify;
+import static org.mockito.Mockito.when;
+
+/**
+ * 音乐转码版本服务测试类
+ * 使用输出“码率|源内容”的脚本代替ffmpeg
+ */
+@DisabledOnOs(OS.WINDOWS)
+class RenditionServiceTest {
+
+    private static final String FAKE_FFMPEG = """
+            #!/bin/sh
+            input=""; bitrate=""
+            while [ $# -gt 0 ]; do
+              case "$1" in
+                -i) input="$2"; shift;;
+                -b:a) bitrate="$2"; shift;;
+              esac
+              shift
+            done
+            printf '%s|' "$bitrate"
+            if [ "$input" = "pipe:0" ]; then cat; else cat "$input"; fi
+            """;
+
+    private static final String FAILING_FFMPEG = """
+            #!/bin/sh
+            printf 'partial'
+            echo "Unknown encoder" >&2
+            exit 1
+            """;
+
+    @TempDir
+    Path binDir;
+
+    private Path uploadDir;
+    private Path tempDir;
+    private FileSystemStorageService storageService;
+    private TranscodingConfig transcodingConfig;
+    private StreamingConfig streamingConfig;
+    private StreamingService streamingService;
+    private MusicRepository musicRepository;
+    private MusicRenditionRepository renditionRepository;
+    private SimpleMeterRegistry meterRegistry;
+    private RenditionServiceImpl renditionService;
+    private Music music;
+
+    @BeforeEach
+    void setUp() throws IOException {
+        uploadDir = Files.createTempDirectory("uploads");
+        tempDir = Files.createTempDirectory("temp");
+        StorageConfig storageConfig = new StorageConfig();
+        storageConfig.setLocation(uploadDir.toString());
+        storageConfig.setTempDir(tempDir.toString());
+        storageConfig.setMaxFileSize(1024 * 1024);
+        storageConfig.setAllowedFileTypes(Set.of(".mp3", ".opus", ".aac"));
+        storageConfig.setUrlPrefix("/files");
+        storageConfig.setMaxFilenameLength(100);
+        StoredFileRepository storedFileRepository = mock(StoredFileRepository.class);
+        when(storedFileRepository.save(any(StoredFile.class))).thenAnswer(invocation -> invocation.getArgument(0));
+        storageService = new FileSystemStorageService(storageConfig, storedFileRepository);
+        storageService.init();
+
+        transcodingConfig = new TranscodingConfig();
+        transcodingConfig.setFfmpegPath(script("ffmpeg", FAKE_FFMPEG));
+        transcodingConfig.setRenditions(List.of(
+                new TranscodingConfig.Rendition("low-opus", RenditionQuality.LOW, AudioCodec.OPUS, 48),
+                new TranscodingConfig.Rendition("high-aac", RenditionQuality.HIGH, AudioCodec.AAC, 192)));
+
+        StoredFileDTO source = storageService.store(
+                new ByteArrayInputStream("source-audio".getBytes(StandardCharsets.UTF_8)), "song.mp3");
+        music = Music.builder()
+                .id(UUID.randomUUID())
+                .prompt("test")
+                .status(MusicStatus.COMPLETED)
+                .audioUrl(source.getUrl())
+                .build();
+
+        musicRepository = mock(MusicRepository.class);
+        when(musicRepository.findById(music.getId())).thenReturn(Optional.of(music));
+        renditionRepository = mock(MusicRenditionRepository.class);
+        when(renditionRepository.save(any(MusicRendition.class))).thenAnswer(invocation -> invocation.getArgument(0));
+        streamingConfig = new StreamingConfig();
+        streamingService = mock(StreamingService.class);
+        meterRegistry = new SimpleMeterRegistry();
+        renditionService = new RenditionServiceImpl(musicRepository, renditionRepository, storageService,
+                new FfmpegEncoder(transcodingConfig), transcodingConfig, streamingService, streamingConfig, meterRegistry);
+    }
+
+    @AfterEach
+    void tearDown() throws IOException {
+        renditionService.shutdown();
+        FileSystemUtils.deleteRecursively(uploadDir);
+        FileSystemUtils.deleteRecursively(tempDir);
+    }
+
+    @Test
+    void shouldEncodeConfiguredRenditions_whenMusicAudioIsLocal() throws Exception {
+        // When
+        int created = renditionService.transcode(music.getId());
+
+        // Then
+        assertEquals(2, created);
+        ArgumentCaptor<MusicRendition> captor = ArgumentCaptor.forClass(MusicRendition.class);
+        verify(renditionRepository, times(2)).save(captor.capture());
+        MusicRendition low = captor.getAllValues().get(0);
+        MusicRendition high = captor.getAllValues().get(1);
+        assertEquals(music.getId(), low.getMusicId());
+        assertEquals(RenditionQuality.LOW, low.getQuality());
+        assertTrue(low.getFilename().endsWith(".opus"));
+        assertTrue(high.getFilename().endsWith(".aac"));
+        assertEquals("48k|source-audio", read(low.getFilename()));
+        assertEquals("192k|source-audio", read(high.getFilename()));
+        assertEquals(0.0, meterRegistry.get("music.transcoding.queue.depth").gauge().value());
+        verify(streamingService, never()).segment(anyString());
+    }
+
+    @Test
+    void shouldSegmentSource_whenStreamingEnabled() {
+        // Given
+        streamingConfig.setEnabled(true);
+        String source = music.getAudioUrl().substring(music.getAudioUrl().lastIndexOf('/') + 1);
+
+        // When
+        renditionService.transcode(music.getId());
+
+        // Then
+        verify(streamingService).segment(source);
+    }
+
+    @Test
+    void shouldReuseSharedRendition_whenSourceAlreadyEncoded() {
+        // Given
+        String source = music.getAudioUrl().substring(music.getAudioUrl().lastIndexOf('/') + 1);
+        MusicRendition shared = MusicRendition.builder()
+                .musicId(UUID.randomUUID())
+                .sourceFilename(source)
+                .name("low-opus")
+                .quality(RenditionQuality.LOW)
+                .codec(AudioCodec.OPUS)
+                .bitrate(48)
+                .filename("shared-low.opus")
+                .size(10)
+                .build();
+        when(renditionRepository.findFirstBySourceFilenameAndName(source, "low-opus")).thenReturn(Optional.of(shared));
+
+        // When
+        renditionService.transcode(music.getId());
+
+        // Then
+        ArgumentCaptor<MusicRendition> captor = ArgumentCaptor.forClass(MusicRendition.class);
+        verify(renditionRepository, times(2)).save(captor.capture());
+        assertEquals("shared-low.opus", captor.getAllValues().get(0).getFilename());
+        assertEquals(music.getId(), captor.getAllValues().get(0).getMusicId());
+        assertFalse(captor.getAllValues().get(1).getFilename().equals("shared-low.opus"));
+    }
+
+    @Test
+    void shouldDiscardOutput_whenEncoderFails() throws Exception {
+        // Given
+        transcodingConfig.setFfmpegPath(script("ffmpeg-broken", FAILING_FFMPEG));
+
+        // When
+        int created = renditionService.transcode(music.getId());
+
+        // Then
+        assertEquals(0, created);
+        verify(renditionRepository, never()).save(any(MusicRendition.class));
+        try (var files = Files.walk(uploadDir)) {
+            assertEquals(1, files.filter(Files::isRegularFile).count());
+        }
+    }
+
+    @Test
+    void shouldResubmitMusicMissingRenditions_whenSweeping() {
+        // Given
+        transcodingConfig.setSweepBatchSize(1);
+        when(musicRepository.findMissingRenditions(eq(MusicStatus.COMPLETED), eq("/files/"),
+                eq(List.of("low-opus", "high-aac")), eq(2L), any(Pageable.class)))
+                .thenReturn(List.of(music), List.of());
+        when(musicRepository.findMissingRenditionsAfter(eq(MusicStatus.COMPLETED), eq("/files/"),
+                anyList(), eq(2L), any(), eq(music.getId()), any(Pageable.class))).thenReturn(List.of());
+
+        // When
+        int first = renditionService.sweep();
+        verify(renditionRepository, timeout(5000).times(2)).save(any(MusicRendition.class));
+        int second = renditionService.sweep();
+        renditionService.sweep();
+
+        // Then
+        assertEquals(1, first);
+        assertEquals(0, second);
+        // 本页已满时下次从游标之后继续，扫描到末尾后从头开始
+        verify(musicRepository, times(2)).findMissingRenditions(
+                any(MusicStatus.class), anyString(), anyList(), anyLong(), any(Pageable.class));
+        verify(musicRepository).findMissingRenditionsAfter(
+                any(MusicStatus.class), anyString(), anyList(), anyLong(), any(), any(UUID.class), any(Pageable.class));
+    }
+
+    @Test
+    void shouldSkipSweep_whenTranscodingDisabled() {
+        // Given
+        transcodingConfig.setEnabled(false);
+
+        // When
+        int submitted = renditionService.sweep();
+
+        // Then
+        assertEquals(0, submitted);
+        verify(musicRepository, never()).findMissingRenditions(
+                any(MusicStatus.class), anyString(), anyList(), anyLong(), any(Pageable.class));
+    }
+
+    @Test
+    void shouldPreferRequestedCodec_whenSelectingRendition() {
+        // Given
+        MusicRendition opus = MusicRendition.builder().codec(AudioCodec.OPUS).bitrate(48).filename("a.opus").build();
+        MusicRendition aac = MusicRendition.builder().codec(AudioCodec.AAC).bitrate(64).filename("a.aac").build();
+        when(renditionRepository.findBySourceFilenameAndQuality("a.mp3", RenditionQuality.LOW)).thenReturn(List.of(opus, aac));
+
+        // When & Then
+        assertEquals("a.opus", renditionService.selectRendition("a.mp3", RenditionQuality.LOW, AudioCodec.OPUS)
+                .orElseThrow().getFilename());
+        assertEquals("a.aac", renditionService.selectRendition("a.mp3", RenditionQuality.LOW, null)
+                .orElseThrow().getFilename());
+        assertTrue(renditionService.selectRendition("a.mp3", RenditionQuality.HIGH, null).isEmpty());
+    }
+
+    @Test
+    void shouldKeepSharedFile_whenDeletingRenditions() throws Exception {
+        // Given
+        renditionService.transcode(music.getId());
+        ArgumentCaptor<MusicRendition> captor = ArgumentCaptor.forClass(MusicRendition.class);
+        verify(renditionRepository, times(2)).save(captor.capture());
+        List<MusicRendition> renditions = captor.getAllValues();
+        when(renditionRepository.findByMusicId(music.getId())).thenReturn(renditions);
+        when(renditionRepository.existsByFilenameAndMusicIdNot(anyString(), any(UUID.class)))
+                .thenAnswer(invocation -> invocation.getArgument(0).equals(renditions.get(0).getFilename()));
+
+        // When
+        renditionService.deleteRenditions(music.getId());
+
+        // Then
+        verify(renditionRepository).deleteAll(renditions);
+        assertTrue(storageService.exists(renditions.get(0).getFilename()));
+        assertFalse(storageService.exists(renditions.get(1).getFilename()));
+    }
+
+    private String script(String name, String content) throws IOException {
+        Path script = binDir.resolve(name);
+        Files.writeString(script, content);
+        assertTrue(script.toFile().setExecutable(true));
+        return script.toString();
+    }
+
+    private String read(String filename) throws IOException {
+        return Files.readString(storageService.load(filename), StandardCharsets.UTF_8);
+    }
+}
@@ -2,6 +2,7 @@ package com.aimusic.backend.utils;
 
 import com.aimusic.backend.domain.dto.MusicDTO;
 import com.aimusic.backend.domain.dto.MusicGenerationRequest;
+import com.aimusic.backend.domain.dto.MusicSummaryDTO;
 import com.aimusic.backend.domain.entity.Music;
 import com.aimusic.backend.domain.enums.MusicStatus;
 import com.aimusic.backend.domain.entity.User;
@@ -71,6 +72,24 @@ public class MusicTestFactory {
                 .build();
     }
 
+    /**
+     * 创建与音乐DTO对应的测试音乐摘要
+     *
+     * @param music 音乐DTO
+     * @return MusicSummaryDTO
+     */
+    public static MusicSummaryDTO createTestMusicSummary(MusicDTO music) {
+        return MusicSummaryDTO.builder()
+                .id(music.getId())
+                .prompt(music.getPrompt())
+                .style(music.getStyle())
+                .status(music.getStatus())
+                .duration(music.getDuration())
+                .createdAt(music.getCreatedAt())
+                .updatedAt(music.getUpdatedAt())
+                .build();
+    }
+
     /**
      * 创建测试音乐生成请求
      *
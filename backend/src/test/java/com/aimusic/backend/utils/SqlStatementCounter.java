@@ -0,0 +1,40 @@
+package com.aimusic.backend.utils;
+
+import org.hibernate.resource.jdbc.spi.StatementInspector;
+
+import java.util.List;
+import java.util.Locale;
+import java.util.concurrent.CopyOnWriteArrayList;
+
+/**
+ * 统计Hibernate预编译的SQL语句
+ * 启用JDBC批量时一个批次只预编译一次，因此可用于断言语句条数。
+ * 通过 {@code spring.jpa.properties.hibernate.session_factory.statement_inspector} 注册
+ */
+public class SqlStatementCounter implements StatementInspector {
+
+    private static final List<String> STATEMENTS = new CopyOnWriteArrayList<>();
+
+    @Override
+    public String inspect(String sql) {
+        STATEMENTS.add(sql.toLowerCase(Locale.ROOT));
+        return sql;
+    }
+
+    /**
+     * 清空已记录的语句
+     */
+    public static void reset() {
+        STATEMENTS.clear();
+    }
+
+    /**
+     * 统计以指定前缀开头的语句数量，如 "insert into music"
+     *
+     * @param prefix 小写的语句前缀
+     * @return 语句数量
+     */
+    public static long count(String prefix) {
+        return STATEMENTS.stream().filter(sql -> sql.stripLeading().startsWith(prefix)).count();
+    }
+}